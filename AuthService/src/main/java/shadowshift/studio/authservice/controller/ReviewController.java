@@ -201,6 +201,23 @@ public class ReviewController {
         return ResponseEntity.ok(ratings);
     }
 
+    /**
+     * Получает набор отзывов по идентификаторам одним запросом,
+     * включая счетчики голосов и голос текущего пользователя.
+     *
+     * @param request объект со списком идентификаторов отзывов
+     * @param authentication объект аутентификации (может быть null)
+     * @return ResponseEntity со списком ReviewDTO в порядке запроса
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ReviewDTO>> getReviewsBatch(
+            @RequestBody @Valid ReviewsBatchRequest request,
+            Authentication authentication) {
+        String username = authentication != null ? authentication.getName() : null;
+        List<ReviewDTO> reviews = reviewService.getReviewsByIds(request.getReviewIds(), username);
+        return ResponseEntity.ok(reviews);
+    }
+
     /**
      * Получает все отзывы пользователя для профиля.
      *
@@ -312,4 +329,18 @@ public class ReviewController {
             this.mangaIds = mangaIds;
         }
     }
+
+    public static class ReviewsBatchRequest {
+        @NotNull
+        @Size(min = 1, max = 200)
+        private List<@NotNull Long> reviewIds;
+
+        public List<Long> getReviewIds() {
+            return reviewIds;
+        }
+
+        public void setReviewIds(List<Long> reviewIds) {
+            this.reviewIds = reviewIds;
+        }
+    }
 }
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "review_likes", 
-       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "review_id"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "review_id"}),
+       indexes = @Index(name = "idx_review_likes_review_id", columnList = "review_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,11 +1,14 @@
 package shadowshift.studio.authservice.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import shadowshift.studio.authservice.entity.ReviewLike;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -61,4 +64,23 @@ public interface ReviewLikeRepository extends JpaRepository<ReviewLike, Long> {
      * @param reviewId идентификатор отзыва
      */
     void deleteByUserIdAndReviewId(Long userId, Long reviewId);
+
+    /**
+     * Находит голоса пользователя сразу для набора отзывов.
+     *
+     * @param userId идентификатор пользователя
+     * @param reviewIds идентификаторы отзывов
+     * @return список голосов пользователя
+     */
+    List<ReviewLike> findByUserIdAndReviewIdIn(Long userId, Collection<Long> reviewIds);
+
+    /**
+     * Удаляет все голоса отзыва одним запросом.
+     *
+     * @param reviewId идентификатор отзыва
+     * @return количество удаленных строк
+     */
+    @Modifying
+    @Query("DELETE FROM ReviewLike rl WHERE rl.reviewId = :reviewId")
+    int deleteAllByReviewId(@Param("reviewId") Long reviewId);
 }
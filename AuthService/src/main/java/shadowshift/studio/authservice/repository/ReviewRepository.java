@@ -1,11 +1,13 @@
 package shadowshift.studio.authservice.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import shadowshift.studio.authservice.entity.Review;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -109,4 +111,30 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT r FROM Review r WHERE r.createdAt >= :fromDate ORDER BY (r.likesCount - r.dislikesCount) DESC, r.likesCount DESC, r.createdAt DESC")
     org.springframework.data.domain.Page<Review> findTopReviewsSince(@Param("fromDate") java.time.LocalDateTime fromDate,
                                                                     org.springframework.data.domain.Pageable pageable);
+
+    /**
+     * Атомарно применяет изменение счетчиков голосов к отзыву.
+     *
+     * @param reviewId идентификатор отзыва
+     * @param likesDelta изменение количества лайков
+     * @param dislikesDelta изменение количества дизлайков
+     * @return количество обновленных строк
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Review r SET r.likesCount = r.likesCount + :likesDelta, r.dislikesCount = r.dislikesCount + :dislikesDelta WHERE r.id = :reviewId")
+    int applyVoteDelta(@Param("reviewId") Long reviewId,
+                       @Param("likesDelta") int likesDelta,
+                       @Param("dislikesDelta") int dislikesDelta);
+
+    /**
+     * Загружает отзывы по идентификаторам вместе с голосом зрителя одним запросом.
+     * Каждая строка содержит [Review, Boolean isLike] (isLike = null, если зритель не голосовал).
+     *
+     * @param reviewIds идентификаторы отзывов
+     * @param viewerId идентификатор зрителя (может быть null)
+     * @return список пар отзыв/голос
+     */
+    @Query("SELECT r, rl.isLike FROM Review r LEFT JOIN ReviewLike rl ON rl.reviewId = r.id AND rl.userId = :viewerId WHERE r.id IN :reviewIds")
+    List<Object[]> findWithViewerVoteByIdIn(@Param("reviewIds") Collection<Long> reviewIds,
+                                            @Param("viewerId") Long viewerId);
 }
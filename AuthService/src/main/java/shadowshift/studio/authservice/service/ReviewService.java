@@ -17,11 +17,15 @@ import shadowshift.studio.authservice.repository.ReviewRepository;
 import shadowshift.studio.authservice.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -143,12 +147,10 @@ public class ReviewService {
             throw new IllegalArgumentException("Access denied");
         }
         
-        reviewLikeRepository.deleteAll(reviewLikeRepository.findAll().stream()
-                .filter(like -> like.getReviewId().equals(reviewId))
-                .collect(Collectors.toList()));
+        int removedVotes = reviewLikeRepository.deleteAllByReviewId(reviewId);
         
         reviewRepository.delete(review);
-        log.info("Deleted review {} by user {} (adminOverride={})", reviewId, username, adminOverride);
+        log.info("Deleted review {} by user {} (adminOverride={}, votesRemoved={})", reviewId, username, adminOverride, removedVotes);
     }
     
     /**
@@ -171,17 +173,23 @@ public class ReviewService {
         
         Optional<ReviewLike> existingLike = reviewLikeRepository.findByUserIdAndReviewId(user.getId(), reviewId);
         boolean publishLikeReceived = false; // only true when a new positive like is applied (not removal)
+        int likesDelta;
+        int dislikesDelta;
         if (existingLike.isPresent()) {
             ReviewLike like = existingLike.get();
             if (like.getIsLike().equals(isLike)) {
                 // same action again => remove vote
                 reviewLikeRepository.delete(like);
+                likesDelta = isLike ? -1 : 0;
+                dislikesDelta = isLike ? 0 : -1;
                 log.info("Removed {} from review {} by user {}", isLike ? "like" : "dislike", reviewId, username);
             } else {
                 // changing vote
                 boolean wasDislike = !like.getIsLike() && isLike; // moving from dislike -> like triggers XP
                 like.setIsLike(isLike);
                 reviewLikeRepository.save(like);
+                likesDelta = isLike ? 1 : -1;
+                dislikesDelta = isLike ? -1 : 1;
                 log.info("Changed vote to {} on review {} by user {}", isLike ? "like" : "dislike", reviewId, username);
                 if (wasDislike) publishLikeReceived = true;
             }
@@ -192,11 +200,16 @@ public class ReviewService {
                     .isLike(isLike)
                     .build();
             reviewLikeRepository.save(like);
+            likesDelta = isLike ? 1 : 0;
+            dislikesDelta = isLike ? 0 : 1;
             log.info("Added {} to review {} by user {}", isLike ? "like" : "dislike", reviewId, username);
             if (isLike) publishLikeReceived = true;
         }
         
-        updateReviewCounts(review);
+        // атомарное изменение денормализованных счетчиков вместо пересчета по таблице голосов
+        reviewRepository.applyVoteDelta(reviewId, likesDelta, dislikesDelta);
+        review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new IllegalArgumentException("Review not found"));
 
         // Publish REVIEW_LIKE_RECEIVED if a new like exists and liker isn't the author
         if (publishLikeReceived && isLike && !review.getUserId().equals(user.getId())) {
@@ -227,8 +240,47 @@ public class ReviewService {
      */
     public List<ReviewDTO> getReviewsByManga(Long mangaId, String currentUsername) {
         List<Review> reviews = reviewRepository.findByMangaIdOrderByTrustFactorDesc(mangaId);
-        return reviews.stream()
-                .map(review -> convertToDTO(review, currentUsername))
+        return convertToDTOs(reviews, currentUsername);
+    }
+
+    /**
+     * Получает отзывы по набору идентификаторов вместе со счетчиками и голосом текущего пользователя.
+     * Отзывы и голоса зрителя загружаются одним запросом, авторы — одним пакетным запросом.
+     *
+     * @param reviewIds идентификаторы отзывов
+     * @param currentUsername имя текущего пользователя (может быть null)
+     * @return список DTO отзывов в порядке запрошенных идентификаторов (отсутствующие пропускаются)
+     */
+    public List<ReviewDTO> getReviewsByIds(List<Long> reviewIds, String currentUsername) {
+        if (reviewIds == null || reviewIds.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> distinctIds = reviewIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+
+        User currentUser = findCurrentUser(currentUsername);
+        Long viewerId = currentUser != null ? currentUser.getId() : null;
+
+        Map<Long, Review> reviews = new HashMap<>();
+        Map<Long, Boolean> viewerVotes = new HashMap<>();
+        for (Object[] row : reviewRepository.findWithViewerVoteByIdIn(distinctIds, viewerId)) {
+            Review review = (Review) row[0];
+            reviews.put(review.getId(), review);
+            if (row[1] != null) {
+                viewerVotes.put(review.getId(), (Boolean) row[1]);
+            }
+        }
+
+        Map<Long, User> reviewers = loadReviewers(reviews.values());
+        return distinctIds.stream()
+                .map(reviews::get)
+                .filter(Objects::nonNull)
+                .map(review -> buildDTO(review, reviewers.get(review.getUserId()), currentUser, viewerVotes.get(review.getId())))
                 .collect(Collectors.toList());
     }
     
@@ -338,9 +390,7 @@ public class ReviewService {
         
         List<Review> userReviews = reviewRepository.findByUserIdOrderByCreatedAtDesc(userId);
         
-        return userReviews.stream()
-                .map(review -> convertToDTO(review, currentUsername))
-                .collect(Collectors.toList());
+        return convertToDTOs(userReviews, currentUsername);
     }
     
     /**
@@ -355,18 +405,48 @@ public class ReviewService {
                 .map(review -> convertToDTO(review, currentUsername));
     }
 
-    private void updateReviewCounts(Review review) {
-        Long likes = reviewLikeRepository.countLikesByReviewId(review.getId());
-        Long dislikes = reviewLikeRepository.countDislikesByReviewId(review.getId());
-        
-        review.setLikesCount(likes.intValue());
-        review.setDislikesCount(dislikes.intValue());
-        reviewRepository.save(review);
+    private User findCurrentUser(String currentUsername) {
+        return currentUsername != null ? userRepository.findByUsername(currentUsername).orElse(null) : null;
+    }
+
+    private Map<Long, User> loadReviewers(Collection<Review> reviews) {
+        Set<Long> userIds = reviews.stream()
+                .map(Review::getUserId)
+                .collect(Collectors.toSet());
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    /**
+     * Пакетное преобразование отзывов: авторы и голоса текущего пользователя
+     * загружаются фиксированным числом запросов независимо от размера списка.
+     */
+    private List<ReviewDTO> convertToDTOs(List<Review> reviews, String currentUsername) {
+        if (reviews.isEmpty()) {
+            return List.of();
+        }
+        User currentUser = findCurrentUser(currentUsername);
+
+        Map<Long, Boolean> viewerVotes = Map.of();
+        if (currentUser != null) {
+            Set<Long> reviewIds = reviews.stream().map(Review::getId).collect(Collectors.toSet());
+            viewerVotes = reviewLikeRepository.findByUserIdAndReviewIdIn(currentUser.getId(), reviewIds).stream()
+                    .collect(Collectors.toMap(ReviewLike::getReviewId, ReviewLike::getIsLike));
+        }
+
+        Map<Long, User> reviewers = loadReviewers(reviews);
+        Map<Long, Boolean> votes = viewerVotes;
+        return reviews.stream()
+                .map(review -> buildDTO(review, reviewers.get(review.getUserId()), currentUser, votes.get(review.getId())))
+                .collect(Collectors.toList());
     }
     
     private ReviewDTO convertToDTO(Review review, String currentUsername) {
         User reviewer = userRepository.findById(review.getUserId()).orElse(null);
-        User currentUser = currentUsername != null ? userRepository.findByUsername(currentUsername).orElse(null) : null;
+        User currentUser = findCurrentUser(currentUsername);
         
         Boolean userLiked = null;
         if (currentUser != null) {
@@ -375,7 +455,10 @@ public class ReviewService {
                 userLiked = userVote.get().getIsLike();
             }
         }
-        
+        return buildDTO(review, reviewer, currentUser, userLiked);
+    }
+
+    private ReviewDTO buildDTO(Review review, User reviewer, User currentUser, Boolean userLiked) {
     boolean isAdmin = currentUser != null && currentUser.getRole() == Role.ADMIN;
 
     boolean canEdit = currentUser != null && 
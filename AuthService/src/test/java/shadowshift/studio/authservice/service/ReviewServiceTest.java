@@ -0,0 +1,149 @@
+package shadowshift.studio.authservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import shadowshift.studio.authservice.dto.ReviewDTO;
+import shadowshift.studio.authservice.entity.Review;
+import shadowshift.studio.authservice.entity.ReviewLike;
+import shadowshift.studio.authservice.entity.User;
+import shadowshift.studio.authservice.repository.ReviewLikeRepository;
+import shadowshift.studio.authservice.repository.ReviewRepository;
+import shadowshift.studio.authservice.repository.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Голоса за отзывы меняют денормализованные счетчики одним UPDATE, удаление отзыва снимает
+ * его голоса одним DELETE, а списки отзывов загружают авторов и голоса зрителя пакетно.
+ */
+class ReviewServiceTest {
+
+    private static final Long REVIEW_ID = 10L;
+
+    private ReviewRepository reviewRepository;
+    private ReviewLikeRepository reviewLikeRepository;
+    private UserRepository userRepository;
+    private RabbitTemplate rabbitTemplate;
+    private ReviewService reviewService;
+
+    private User author;
+    private User viewer;
+
+    @BeforeEach
+    void setUp() {
+        reviewRepository = mock(ReviewRepository.class);
+        reviewLikeRepository = mock(ReviewLikeRepository.class);
+        userRepository = mock(UserRepository.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        reviewService = new ReviewService(reviewRepository, reviewLikeRepository, userRepository, rabbitTemplate);
+
+        author = user(1L, "author");
+        viewer = user(2L, "viewer");
+        when(reviewRepository.findById(REVIEW_ID)).thenReturn(Optional.of(review(REVIEW_ID, author.getId())));
+    }
+
+    @Test
+    void newLikeIncrementsLikesAndRewardsAuthor() {
+        when(reviewLikeRepository.findByUserIdAndReviewId(viewer.getId(), REVIEW_ID)).thenReturn(Optional.empty());
+
+        reviewService.likeReview("viewer", REVIEW_ID, true);
+
+        verify(reviewLikeRepository).save(any(ReviewLike.class));
+        verify(reviewRepository).applyVoteDelta(REVIEW_ID, 1, 0);
+        verify(rabbitTemplate).convertAndSend(any(), any(), any(Map.class));
+    }
+
+    @Test
+    void switchingDislikeToLikeMovesOneVote() {
+        ReviewLike dislike = vote(viewer.getId(), REVIEW_ID, false);
+        when(reviewLikeRepository.findByUserIdAndReviewId(viewer.getId(), REVIEW_ID)).thenReturn(Optional.of(dislike));
+
+        reviewService.likeReview("viewer", REVIEW_ID, true);
+
+        assertThat(dislike.getIsLike()).isTrue();
+        verify(reviewRepository).applyVoteDelta(REVIEW_ID, 1, -1);
+    }
+
+    @Test
+    void repeatedDislikeRemovesVote() {
+        ReviewLike dislike = vote(viewer.getId(), REVIEW_ID, false);
+        when(reviewLikeRepository.findByUserIdAndReviewId(viewer.getId(), REVIEW_ID)).thenReturn(Optional.of(dislike));
+
+        reviewService.likeReview("viewer", REVIEW_ID, false);
+
+        verify(reviewLikeRepository).delete(dislike);
+        verify(reviewRepository).applyVoteDelta(REVIEW_ID, 0, -1);
+        verify(rabbitTemplate, never()).convertAndSend(any(), any(), any(Map.class));
+    }
+
+    @Test
+    void deletingReviewRemovesItsVotesWithOneStatement() {
+        when(reviewLikeRepository.deleteAllByReviewId(REVIEW_ID)).thenReturn(3);
+
+        reviewService.deleteReview("author", REVIEW_ID, false);
+
+        verify(reviewLikeRepository).deleteAllByReviewId(REVIEW_ID);
+        verify(reviewLikeRepository, never()).findAll();
+        verify(reviewRepository).delete(any(Review.class));
+    }
+
+    @Test
+    void reviewsByIdsKeepRequestOrderAndViewerVotes() {
+        Review first = review(11L, author.getId());
+        Review second = review(12L, viewer.getId());
+        when(reviewRepository.findWithViewerVoteByIdIn(any(), eq(viewer.getId()))).thenReturn(List.of(
+                new Object[]{first, null},
+                new Object[]{second, Boolean.TRUE}));
+        when(userRepository.findAllById(any())).thenReturn(List.of(author, viewer));
+
+        List<ReviewDTO> reviews = reviewService.getReviewsByIds(List.of(12L, 99L, 11L, 12L), "viewer");
+
+        assertThat(reviews).extracting(ReviewDTO::getId).containsExactly(12L, 11L);
+        assertThat(reviews).extracting(ReviewDTO::getUserLiked).containsExactly(true, null);
+        assertThat(reviews).extracting(ReviewDTO::getUsername).containsExactly("viewer", "author");
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void mangaReviewsLoadAuthorsAndVotesInBulk() {
+        Review first = review(11L, author.getId());
+        Review second = review(12L, viewer.getId());
+        when(reviewRepository.findByMangaIdOrderByTrustFactorDesc(5L)).thenReturn(List.of(first, second));
+        when(reviewLikeRepository.findByUserIdAndReviewIdIn(eq(viewer.getId()), any()))
+                .thenReturn(List.of(vote(viewer.getId(), 11L, false)));
+        when(userRepository.findAllById(any())).thenReturn(List.of(author, viewer));
+
+        List<ReviewDTO> reviews = reviewService.getReviewsByManga(5L, "viewer");
+
+        assertThat(reviews).extracting(ReviewDTO::getUserLiked).containsExactly(false, null);
+        verify(reviewLikeRepository, never()).findByUserIdAndReviewId(anyLong(), anyLong());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    private User user(Long id, String username) {
+        User user = User.builder().id(id).username(username).email(username + "@example.com").build();
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(userRepository.findById(id)).thenReturn(Optional.of(user));
+        return user;
+    }
+
+    private static Review review(Long id, Long userId) {
+        return Review.builder().id(id).userId(userId).mangaId(5L).rating(8).comment("ok").build();
+    }
+
+    private static ReviewLike vote(Long userId, Long reviewId, boolean isLike) {
+        return ReviewLike.builder().userId(userId).reviewId(reviewId).isLike(isLike).build();
+    }
+}
@@ -34,7 +34,7 @@ public class CacheConfig {
                 .initialCapacity(200)
                 .maximumSize(2000)
                 .expireAfterWrite(Duration.ofMinutes(15))
-                .weakKeys()
+                // Без weakKeys: слабые ключи сравниваются по ссылке, и упакованные Long/строковые ключи никогда не совпадали
                 .recordStats());
 
         return cacheManager;
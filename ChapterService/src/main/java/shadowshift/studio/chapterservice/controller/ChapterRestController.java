@@ -6,7 +6,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import shadowshift.studio.chapterservice.dto.ChapterCleanupResultDTO;
+import shadowshift.studio.chapterservice.dto.ChapterContextDTO;
 import shadowshift.studio.chapterservice.dto.ChapterCreateDTO;
+import shadowshift.studio.chapterservice.dto.ChapterListPageDTO;
 import shadowshift.studio.chapterservice.dto.ChapterResponseDTO;
 import shadowshift.studio.chapterservice.service.ChapterService;
 import java.util.List;
@@ -39,6 +41,46 @@ public class ChapterRestController {
         return ResponseEntity.ok(chapters);
     }
 
+    /**
+     * Получает одну страницу списка глав манги с курсорной пагинацией по номеру главы.
+     * Задается не больше одного из параметров after, before и from.
+     *
+     * @param mangaId идентификатор манги
+     * @param order порядок списка: asc или desc
+     * @param after курсор следующей страницы (nextCursor предыдущего ответа)
+     * @param before курсор предыдущей страницы (previousCursor предыдущего ответа)
+     * @param from номер главы, с которой начать страницу
+     * @param limit размер страницы
+     * @param userId идентификатор пользователя (из заголовка, необязателен) для отметок прочтения и лайков
+     * @return страница глав или 400 при некорректных параметрах
+     */
+    @GetMapping("/manga/{mangaId}/page")
+    public ResponseEntity<?> getChapterPage(
+            @PathVariable Long mangaId,
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(required = false) Double after,
+            @RequestParam(required = false) Double before,
+            @RequestParam(required = false) Double from,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+        if (!"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid order",
+                "message", "order must be asc or desc"
+            ));
+        }
+        try {
+            ChapterListPageDTO page = chapterService.getChapterPage(
+                    mangaId, "asc".equalsIgnoreCase(order), after, before, from, limit, userId);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid page request",
+                "message", e.getMessage()
+            ));
+        }
+    }
+
     /**
      * Получает главу по ее идентификатору.
      *
@@ -161,6 +203,19 @@ public class ChapterRestController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Получает главу вместе с предыдущей и следующей главами и ее позицией в манге.
+     *
+     * @param id идентификатор главы
+     * @return контекст главы или 404, если глава не найдена
+     */
+    @GetMapping("/{id}/context")
+    public ResponseEntity<ChapterContextDTO> getChapterContext(@PathVariable Long id) {
+        return chapterService.getChapterContext(id)
+                .map(context -> ResponseEntity.ok(context))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Обновляет количество страниц в главе.
      *
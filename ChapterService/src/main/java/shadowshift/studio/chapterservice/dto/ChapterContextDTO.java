@@ -0,0 +1,14 @@
+package shadowshift.studio.chapterservice.dto;
+
+/**
+ * Текущая глава вместе с соседними: все, что нужно читалке для перехода между главами.
+ *
+ * @param previous предыдущая глава или null
+ * @param current текущая глава
+ * @param next следующая глава или null
+ * @param position порядковый номер текущей главы в манге, начиная с 1
+ * @param total количество глав манги
+ */
+public record ChapterContextDTO(ChapterNavigationDTO previous, ChapterResponseDTO current, ChapterNavigationDTO next,
+                                int position, int total) {
+}
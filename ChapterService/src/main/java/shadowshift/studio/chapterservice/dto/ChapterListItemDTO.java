@@ -0,0 +1,10 @@
+package shadowshift.studio.chapterservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Глава в списке глав манги: только поля, которые показывает страница манги.
+ */
+public record ChapterListItemDTO(Long id, Double chapterNumber, Integer volumeNumber, Double originalChapterNumber,
+                                 String title, Integer pageCount, Integer likeCount, LocalDateTime publishedDate) {
+}
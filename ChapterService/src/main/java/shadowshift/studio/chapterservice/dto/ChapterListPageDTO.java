@@ -0,0 +1,35 @@
+package shadowshift.studio.chapterservice.dto;
+
+import java.util.List;
+
+/**
+ * Страница списка глав манги с курсорами для перехода к соседним страницам.
+ * Курсоры — номера глав: следующая страница запрашивается с {@code after=nextCursor},
+ * предыдущая — с {@code before=previousCursor}.
+ *
+ * @param mangaId идентификатор манги
+ * @param order порядок списка: asc или desc по номеру главы
+ * @param items главы страницы в порядке списка
+ * @param nextCursor курсор следующей страницы или null, если это последняя страница
+ * @param previousCursor курсор предыдущей страницы или null, если это первая страница
+ * @param total количество глав манги
+ * @param readChapterIds главы этой страницы, прочитанные пользователем; пусто без пользователя
+ * @param likedChapterIds главы этой страницы, лайкнутые пользователем; пусто без пользователя
+ */
+public record ChapterListPageDTO(Long mangaId, String order, List<ChapterListItemDTO> items,
+                                 Double nextCursor, Double previousCursor, int total,
+                                 List<Long> readChapterIds, List<Long> likedChapterIds) {
+
+    public ChapterListPageDTO {
+        items = List.copyOf(items);
+        readChapterIds = List.copyOf(readChapterIds);
+        likedChapterIds = List.copyOf(likedChapterIds);
+    }
+
+    /**
+     * Та же страница с отметками конкретного пользователя; сама страница из кэша не меняется.
+     */
+    public ChapterListPageDTO withUserFlags(List<Long> readIds, List<Long> likedIds) {
+        return new ChapterListPageDTO(mangaId, order, items, nextCursor, previousCursor, total, readIds, likedIds);
+    }
+}
@@ -0,0 +1,8 @@
+package shadowshift.studio.chapterservice.dto;
+
+/**
+ * Краткие данные соседней главы для навигации в читалке.
+ */
+public record ChapterNavigationDTO(Long id, Double chapterNumber, Integer volumeNumber,
+                                   Double originalChapterNumber, String title) {
+}
@@ -1,10 +1,17 @@
 package shadowshift.studio.chapterservice.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import shadowshift.studio.chapterservice.entity.ChapterRead;
 
+import java.util.List;
+
 @Repository
 public interface ChapterReadRepository extends JpaRepository<ChapterRead, Long> {
     boolean existsByUserIdAndChapterId(Long userId, Long chapterId);
+
+    @Query("SELECT cr.chapterId FROM ChapterRead cr WHERE cr.userId = :userId AND cr.chapterId IN :chapterIds")
+    List<Long> findReadChapterIds(@Param("userId") Long userId, @Param("chapterIds") List<Long> chapterIds);
 }
@@ -1,11 +1,14 @@
 package shadowshift.studio.chapterservice.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import shadowshift.studio.chapterservice.entity.Chapter;
 import shadowshift.studio.chapterservice.repository.projection.ChapterLikesAggregate;
+import shadowshift.studio.chapterservice.repository.projection.ChapterListEntry;
+import shadowshift.studio.chapterservice.repository.projection.ChapterNavigationEntry;
 import java.util.List;
 import java.util.Optional;
 
@@ -53,6 +56,48 @@ public interface ChapterRepository extends JpaRepository<Chapter, Long> {
      */
     Optional<Chapter> findByMangaIdAndMelonChapterId(Long mangaId, String melonChapterId);
 
+    /**
+     * Получить порядок глав манги для навигации: только идентификаторы, номера и названия.
+     *
+     * @param mangaId идентификатор манги
+     * @return главы по возрастанию номера
+     */
+    @Query("SELECT c.id AS id, c.chapterNumber AS chapterNumber, c.volumeNumber AS volumeNumber, " +
+           "c.originalChapterNumber AS originalChapterNumber, c.title AS title " +
+           "FROM Chapter c WHERE c.mangaId = :mangaId ORDER BY c.chapterNumber ASC")
+    List<ChapterNavigationEntry> findNavigationEntriesByMangaId(@Param("mangaId") Long mangaId);
+
+    /**
+     * Страница списка глав с номерами больше указанного, по возрастанию номера.
+     * Выборка идет по уникальному индексу (manga_id, chapter_number) без OFFSET.
+     *
+     * @param mangaId идентификатор манги
+     * @param after номер главы, после которого начинается страница (не включая его)
+     * @param pageable размер страницы
+     * @return главы страницы
+     */
+    @Query("SELECT c.id AS id, c.chapterNumber AS chapterNumber, c.volumeNumber AS volumeNumber, " +
+           "c.originalChapterNumber AS originalChapterNumber, c.title AS title, c.pageCount AS pageCount, " +
+           "c.likeCount AS likeCount, c.publishedDate AS publishedDate " +
+           "FROM Chapter c WHERE c.mangaId = :mangaId AND c.chapterNumber > :after ORDER BY c.chapterNumber ASC")
+    List<ChapterListEntry> findListEntriesAfter(@Param("mangaId") Long mangaId, @Param("after") Double after,
+                                                Pageable pageable);
+
+    /**
+     * Страница списка глав с номерами меньше указанного, по убыванию номера.
+     *
+     * @param mangaId идентификатор манги
+     * @param before номер главы, перед которым начинается страница (не включая его)
+     * @param pageable размер страницы
+     * @return главы страницы
+     */
+    @Query("SELECT c.id AS id, c.chapterNumber AS chapterNumber, c.volumeNumber AS volumeNumber, " +
+           "c.originalChapterNumber AS originalChapterNumber, c.title AS title, c.pageCount AS pageCount, " +
+           "c.likeCount AS likeCount, c.publishedDate AS publishedDate " +
+           "FROM Chapter c WHERE c.mangaId = :mangaId AND c.chapterNumber < :before ORDER BY c.chapterNumber DESC")
+    List<ChapterListEntry> findListEntriesBefore(@Param("mangaId") Long mangaId, @Param("before") Double before,
+                                                 Pageable pageable);
+
     /**
      * Найти следующую главу после указанной.
      * Возвращает главу с наименьшим номером, большим чем текущий.
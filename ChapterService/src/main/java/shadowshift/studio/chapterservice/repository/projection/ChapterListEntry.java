@@ -0,0 +1,14 @@
+package shadowshift.studio.chapterservice.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface ChapterListEntry {
+    Long getId();
+    Double getChapterNumber();
+    Integer getVolumeNumber();
+    Double getOriginalChapterNumber();
+    String getTitle();
+    Integer getPageCount();
+    Integer getLikeCount();
+    LocalDateTime getPublishedDate();
+}
@@ -0,0 +1,9 @@
+package shadowshift.studio.chapterservice.repository.projection;
+
+public interface ChapterNavigationEntry {
+    Long getId();
+    Double getChapterNumber();
+    Integer getVolumeNumber();
+    Double getOriginalChapterNumber();
+    String getTitle();
+}
@@ -0,0 +1,75 @@
+package shadowshift.studio.chapterservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import shadowshift.studio.chapterservice.dto.ChapterListPageDTO;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш страниц списка глав. Хранит неизменяемые страницы без отметок пользователя,
+ * поэтому одна запись обслуживает всех читателей. Страницы сбрасываются только для манги,
+ * главы которой изменились.
+ * <p>
+ * Сброс не перебирает записи: у каждой манги есть поколение, входящее в ключ записи, и сброс
+ * лишь увеличивает его. Записи прошлых поколений больше не находятся и вытесняются по размеру
+ * или сроку жизни.
+ *
+ * @author ShadowShiftStudio
+ */
+@Component
+public class ChapterListPageCache {
+
+    /**
+     * Ключ страницы: манга, порядок, граница и направление выборки от нее, размер страницы.
+     */
+    record PageKey(Long mangaId, boolean ascending, double boundary, boolean forward, int limit) {
+    }
+
+    /**
+     * Ключ записи: страница и поколения, действовавшие на момент ее чтения.
+     */
+    private record VersionedKey(PageKey page, long epoch, long generation) {
+    }
+
+    private final Cache<VersionedKey, ChapterListPageDTO> pages;
+
+    // Манга → поколение ее страниц; увеличивается при каждом сбросе манги
+    private final ConcurrentMap<Long, Long> generations = new ConcurrentHashMap<>();
+
+    // Общее поколение; увеличивается при сбросе всего кэша
+    private final AtomicLong epoch = new AtomicLong();
+
+    public ChapterListPageCache(@Value("${chapters.list.cache-max-pages:20000}") long maxPages,
+                                @Value("${chapters.list.cache-expire-after-write-minutes:15}") long expireMinutes) {
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(Duration.ofMinutes(expireMinutes))
+                .build();
+    }
+
+    ChapterListPageDTO get(PageKey key, Supplier<ChapterListPageDTO> loader) {
+        VersionedKey versioned = new VersionedKey(key, epoch.get(), generations.getOrDefault(key.mangaId(), 0L));
+        return pages.get(versioned, ignored -> loader.get());
+    }
+
+    /**
+     * Сбрасывает все закэшированные страницы манги.
+     */
+    public void invalidate(Long mangaId) {
+        if (mangaId != null) {
+            generations.merge(mangaId, 1L, Long::sum);
+        }
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        pages.invalidateAll();
+    }
+}
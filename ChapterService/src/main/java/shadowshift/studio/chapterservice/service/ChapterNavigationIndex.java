@@ -0,0 +1,135 @@
+package shadowshift.studio.chapterservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import shadowshift.studio.chapterservice.dto.ChapterNavigationDTO;
+import shadowshift.studio.chapterservice.repository.ChapterRepository;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Упорядоченный список глав каждой манги в памяти для навигации "предыдущая/следующая".
+ * Список строится одним проекционным запросом при первом обращении к манге и сбрасывается
+ * только для нее при создании, изменении или удалении ее глав. Как и остальные кэши сервиса, список
+ * живет не дольше {@code chapters.navigation.expire-after-write-minutes}, чтобы другие экземпляры
+ * сервиса тоже увидели изменения.
+ *
+ * @author ShadowShiftStudio
+ */
+@Component
+public class ChapterNavigationIndex {
+
+    /**
+     * Главы одной манги по возрастанию номера и позиция каждой главы в этом списке.
+     */
+    public record MangaChapters(List<ChapterNavigationDTO> chapters, Map<Long, Integer> positions) {
+
+        public Optional<ChapterNavigationDTO> at(int index) {
+            return index >= 0 && index < chapters.size() ? Optional.of(chapters.get(index)) : Optional.empty();
+        }
+
+        public Optional<Integer> positionOf(Long chapterId) {
+            return Optional.ofNullable(positions.get(chapterId));
+        }
+    }
+
+    private final ChapterRepository chapterRepository;
+    private final Cache<Long, MangaChapters> index;
+
+    public ChapterNavigationIndex(ChapterRepository chapterRepository,
+                                  @Value("${chapters.navigation.max-mangas:5000}") long maxMangas,
+                                  @Value("${chapters.navigation.expire-after-write-minutes:15}") long expireMinutes) {
+        this.chapterRepository = chapterRepository;
+        this.index = Caffeine.newBuilder()
+                .maximumSize(maxMangas)
+                .expireAfterWrite(Duration.ofMinutes(expireMinutes))
+                .build();
+    }
+
+    /**
+     * Возвращает главы манги, при необходимости загружая их одним запросом.
+     *
+     * @param mangaId идентификатор манги
+     * @return главы манги по возрастанию номера
+     */
+    public MangaChapters forManga(Long mangaId) {
+        return index.get(mangaId, this::load);
+    }
+
+    /**
+     * Следующая глава после указанного номера.
+     */
+    public Optional<ChapterNavigationDTO> next(Long mangaId, Double chapterNumber) {
+        MangaChapters manga = forManga(mangaId);
+        return manga.at(firstAbove(manga.chapters(), chapterNumber));
+    }
+
+    /**
+     * Предыдущая глава перед указанным номером.
+     */
+    public Optional<ChapterNavigationDTO> previous(Long mangaId, Double chapterNumber) {
+        MangaChapters manga = forManga(mangaId);
+        return manga.at(firstAtOrAbove(manga.chapters(), chapterNumber) - 1);
+    }
+
+    /**
+     * Сбрасывает список глав манги; следующий запрос построит его заново.
+     */
+    public void invalidate(Long mangaId) {
+        if (mangaId != null) {
+            index.invalidate(mangaId);
+        }
+    }
+
+    public void invalidateAll() {
+        index.invalidateAll();
+    }
+
+    private MangaChapters load(Long mangaId) {
+        List<ChapterNavigationDTO> chapters = chapterRepository.findNavigationEntriesByMangaId(mangaId).stream()
+                .map(entry -> new ChapterNavigationDTO(entry.getId(), entry.getChapterNumber(), entry.getVolumeNumber(),
+                        entry.getOriginalChapterNumber(), entry.getTitle()))
+                .toList();
+        Map<Long, Integer> positions = new HashMap<>(chapters.size() * 2);
+        for (int i = 0; i < chapters.size(); i++) {
+            positions.put(chapters.get(i).id(), i);
+        }
+        return new MangaChapters(chapters, Map.copyOf(positions));
+    }
+
+    /** Индекс первой главы с номером строго больше указанного */
+    private static int firstAbove(List<ChapterNavigationDTO> chapters, double number) {
+        int low = 0;
+        int high = chapters.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (chapters.get(mid).chapterNumber() <= number) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Индекс первой главы с номером больше или равным указанному */
+    private static int firstAtOrAbove(List<ChapterNavigationDTO> chapters, double number) {
+        int low = 0;
+        int high = chapters.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (chapters.get(mid).chapterNumber() < number) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
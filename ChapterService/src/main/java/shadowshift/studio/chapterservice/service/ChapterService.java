@@ -5,13 +5,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
 import shadowshift.studio.chapterservice.dto.ChapterCleanupResultDTO;
+import shadowshift.studio.chapterservice.dto.ChapterContextDTO;
 import shadowshift.studio.chapterservice.dto.ChapterCreateDTO;
+import shadowshift.studio.chapterservice.dto.ChapterListItemDTO;
+import shadowshift.studio.chapterservice.dto.ChapterListPageDTO;
 import shadowshift.studio.chapterservice.dto.ChapterResponseDTO;
 import shadowshift.studio.chapterservice.dto.MangaChapterIdsDTO;
 import shadowshift.studio.chapterservice.entity.Chapter;
@@ -32,9 +38,11 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.springframework.web.client.RestTemplate;
 import shadowshift.studio.chapterservice.dto.MangaLikesAggregateDTO;
 import shadowshift.studio.chapterservice.repository.projection.ChapterLikesAggregate;
+import shadowshift.studio.chapterservice.repository.projection.ChapterListEntry;
 
 /**
  * Сервис для управления главами манги.
@@ -59,6 +67,15 @@ public class ChapterService {
     @Autowired
     private WebClient.Builder webClientBuilder;
 
+    @Autowired
+    private ChapterNavigationIndex navigationIndex;
+
+    @Autowired
+    private ChapterListPageCache listPageCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Autowired(required = false)
     private RabbitTemplate rabbitTemplate; // optional if AMQP not configured in some environments
 
@@ -68,6 +85,12 @@ public class ChapterService {
     @Value("${xp.events.chapterRoutingKey:xp.events.chapter}")
     private String chapterRoutingKey;
 
+    @Value("${chapters.list.default-page-size:50}")
+    private int defaultListPageSize;
+
+    @Value("${chapters.list.max-page-size:200}")
+    private int maxListPageSize;
+
     @Value("${image.storage.service.url}")
     private String imageStorageServiceUrl;
 
@@ -88,11 +111,11 @@ public class ChapterService {
     /**
      * Получить все главы для указанной манги.
      * Автоматически синхронизирует количество страниц с сервисом хранения изображений.
+     * Результат не кэшируется: загрузка и удаление страниц в ImageStorageService не сбрасывают кэш этого сервиса.
      *
      * @param mangaId идентификатор манги
      * @return список DTO глав манги
      */
-    @Cacheable(value = "chaptersByManga", key = "#mangaId")
     public List<ChapterResponseDTO> getChaptersByMangaId(Long mangaId) {
         return chapterRepository.findByMangaIdOrderByChapterNumberAsc(mangaId)
                 .stream()
@@ -116,14 +139,102 @@ public class ChapterService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Получить одну страницу списка глав манги. Страница выбирается по курсору — номеру главы,
+     * без OFFSET; задается не больше одного из параметров after, before и from.
+     *
+     * @param mangaId идентификатор манги
+     * @param ascending порядок списка: по возрастанию или по убыванию номера главы
+     * @param after курсор следующей страницы: главы после этого номера в порядке списка
+     * @param before курсор предыдущей страницы: главы перед этим номером в порядке списка
+     * @param from переход к главе: страница начинается с главы с этим номером или ближайшей за ним
+     * @param limit размер страницы; null — размер по умолчанию
+     * @param userId пользователь, для которого отметить прочитанные и лайкнутые главы; может быть null
+     * @return страница глав с курсорами соседних страниц
+     * @throws IllegalArgumentException если задано несколько курсоров
+     */
+    public ChapterListPageDTO getChapterPage(Long mangaId, boolean ascending, Double after, Double before,
+                                             Double from, Integer limit, Long userId) {
+        if (Stream.of(after, before, from).filter(Objects::nonNull).count() > 1) {
+            throw new IllegalArgumentException("Only one of after, before and from may be specified");
+        }
+        int pageSize = Math.min(Math.max(limit != null ? limit : defaultListPageSize, 1), maxListPageSize);
+
+        ChapterListPageCache.PageKey key;
+        if (after != null) {
+            key = new ChapterListPageCache.PageKey(mangaId, ascending, after, true, pageSize);
+        } else if (before != null) {
+            key = new ChapterListPageCache.PageKey(mangaId, ascending, before, false, pageSize);
+        } else if (from != null) {
+            // Включающая граница: ближайшее соседнее значение double перед номером в порядке списка
+            double boundary = ascending ? Math.nextDown(from) : Math.nextUp(from);
+            key = new ChapterListPageCache.PageKey(mangaId, ascending, boundary, true, pageSize);
+        } else {
+            double boundary = ascending ? -Double.MAX_VALUE : Double.MAX_VALUE;
+            key = new ChapterListPageCache.PageKey(mangaId, ascending, boundary, true, pageSize);
+        }
+
+        ChapterListPageDTO page = listPageCache.get(key, () -> loadChapterPage(key));
+        if (userId == null || page.items().isEmpty()) {
+            return page;
+        }
+        List<Long> chapterIds = page.items().stream().map(ChapterListItemDTO::id).toList();
+        return page.withUserFlags(
+                chapterReadRepository.findReadChapterIds(userId, chapterIds),
+                chapterLikeRepository.findLikedChapterIds(userId, chapterIds));
+    }
+
+    private ChapterListPageDTO loadChapterPage(ChapterListPageCache.PageKey key) {
+        int limit = key.limit();
+        // Вперед по списку при возрастании — это номера больше границы, при убывании — меньше
+        boolean greater = key.ascending() == key.forward();
+        PageRequest window = PageRequest.of(0, limit + 1);
+        List<ChapterListEntry> rows = greater
+                ? chapterRepository.findListEntriesAfter(key.mangaId(), key.boundary(), window)
+                : chapterRepository.findListEntriesBefore(key.mangaId(), key.boundary(), window);
+
+        boolean more = rows.size() > limit;
+        List<ChapterListItemDTO> items = new ArrayList<>(Math.min(rows.size(), limit));
+        for (ChapterListEntry row : rows.subList(0, Math.min(rows.size(), limit))) {
+            items.add(new ChapterListItemDTO(row.getId(), row.getChapterNumber(), row.getVolumeNumber(),
+                    row.getOriginalChapterNumber(), row.getTitle(), row.getPageCount(),
+                    row.getLikeCount() != null ? row.getLikeCount() : 0, row.getPublishedDate()));
+        }
+        if (!key.forward()) {
+            Collections.reverse(items);
+        }
+
+        Double nextCursor = null;
+        Double previousCursor = null;
+        if (!items.isEmpty()) {
+            // В направлении выборки о продолжении говорит лишняя строка, в обратном — индекс навигации
+            Double first = items.get(0).chapterNumber();
+            Double last = items.get(items.size() - 1).chapterNumber();
+            boolean hasNext = key.forward() ? more : hasChapterBeyond(key.mangaId(), last, key.ascending());
+            boolean hasPrevious = key.forward() ? hasChapterBeyond(key.mangaId(), first, !key.ascending()) : more;
+            nextCursor = hasNext ? last : null;
+            previousCursor = hasPrevious ? first : null;
+        }
+        int total = navigationIndex.forManga(key.mangaId()).chapters().size();
+        return new ChapterListPageDTO(key.mangaId(), key.ascending() ? "asc" : "desc", items,
+                nextCursor, previousCursor, total, List.of(), List.of());
+    }
+
+    /** Есть ли у манги глава с номером больше (greater) или меньше указанного */
+    private boolean hasChapterBeyond(Long mangaId, Double chapterNumber, boolean greater) {
+        return greater
+                ? navigationIndex.next(mangaId, chapterNumber).isPresent()
+                : navigationIndex.previous(mangaId, chapterNumber).isPresent();
+    }
+
     /**
      * Получить главу по ее идентификатору.
      * Автоматически синхронизирует количество страниц с сервисом хранения изображений.
+     * Результат не кэшируется: загрузка и удаление страниц в ImageStorageService не сбрасывают кэш этого сервиса.
      *
      * @param id идентификатор главы
      * @return Optional с DTO главы или пустой Optional если глава не найдена
      */
-    @Cacheable(value = "chapterDetails", key = "#id")
     public Optional<ChapterResponseDTO> getChapterById(Long id) {
         return chapterRepository.findById(id)
                 .map(chapter -> {
@@ -160,7 +271,7 @@ public class ChapterService {
      * @return DTO созданной главы
      * @throws RuntimeException если глава с таким номером уже существует
      */
-    @CacheEvict(value = {"chaptersByManga", "chapterCount", "nextChapter", "previousChapter"}, key = "#createDTO.mangaId")
+    @CacheEvict(value = "chapterCount", key = "#createDTO.mangaId")
     public ChapterResponseDTO createChapter(ChapterCreateDTO createDTO) {
     // Проверяем, что глава с таким номером еще не существует
     Optional<Chapter> existingChapter = chapterRepository
@@ -207,6 +318,7 @@ public class ChapterService {
         }
 
         Chapter savedChapter = chapterRepository.save(chapter);
+        evictChapterCaches(savedChapter.getMangaId());
 
         // Fan-out notifications for bookmarked users (best-effort, non-blocking failures)
         try {
@@ -314,7 +426,6 @@ public class ChapterService {
      * @return Optional с DTO обновленной главы или пустой Optional если глава не найдена
      * @throws RuntimeException если новая нумерация главы конфликтует с существующими
      */
-    @CacheEvict(value = {"chaptersByManga", "chapterDetails", "chapterCount", "nextChapter", "previousChapter"}, allEntries = true)
     public Optional<ChapterResponseDTO> updateChapter(Long id, ChapterCreateDTO updateDTO) {
         return chapterRepository.findById(id)
                 .map(chapter -> {
@@ -350,6 +461,7 @@ public class ChapterService {
                     }
 
                     Chapter savedChapter = chapterRepository.save(chapter);
+                    evictChapterCaches(savedChapter.getMangaId());
                     return new ChapterResponseDTO(savedChapter);
                 });
     }
@@ -360,8 +472,9 @@ public class ChapterService {
      *
      * @param id идентификатор главы для удаления
      */
-    @CacheEvict(value = {"chaptersByManga", "chapterDetails", "chapterCount", "nextChapter", "previousChapter"}, allEntries = true)
     public void deleteChapter(Long id) {
+        Long mangaId = chapterRepository.findById(id).map(Chapter::getMangaId).orElse(null);
+
         // Удаляем связанные изображения перед удалением главы
         try {
             deleteChapterImagesWithFallback(id);
@@ -371,6 +484,7 @@ public class ChapterService {
         }
 
         chapterRepository.deleteById(id);
+        evictChapterCaches(mangaId);
     }
 
     /**
@@ -380,8 +494,10 @@ public class ChapterService {
      *
      * @return результат очистки с подсчетом найденных и удаленных глав
      */
-    @CacheEvict(value = {"chaptersByManga", "chapterDetails", "chapterCount", "nextChapter", "previousChapter"}, allEntries = true)
+    @CacheEvict(value = "chapterCount", allEntries = true)
     public ChapterCleanupResultDTO cleanupEmptyChapters() {
+        navigationIndex.invalidateAll();
+        listPageCache.invalidateAll();
         List<Chapter> allChapters = chapterRepository.findAll();
         if (allChapters.isEmpty()) {
             return new ChapterCleanupResultDTO(0, 0, 0, List.of(), List.of(), List.of());
@@ -440,30 +556,85 @@ public class ChapterService {
 
     /**
      * Получить следующую главу после указанной.
+     * Соседняя глава находится по индексу глав манги в памяти, из базы читается только она сама.
      *
      * @param mangaId идентификатор манги
      * @param currentChapterNumber номер текущей главы
      * @return Optional со следующей главой или пустой Optional
      */
-    @Cacheable(value = "nextChapter", key = "#mangaId + '_' + #currentChapterNumber")
     public Optional<ChapterResponseDTO> getNextChapter(Long mangaId, Double currentChapterNumber) {
-        return chapterRepository.findNextChapter(mangaId, currentChapterNumber)
+        return navigationIndex.next(mangaId, currentChapterNumber)
+                .flatMap(entry -> chapterRepository.findById(entry.id()))
                 .map(ChapterResponseDTO::new);
     }
 
     /**
      * Получить предыдущую главу перед указанной.
+     * Соседняя глава находится по индексу глав манги в памяти, из базы читается только она сама.
      *
      * @param mangaId идентификатор манги
      * @param currentChapterNumber номер текущей главы
      * @return Optional с предыдущей главой или пустой Optional
      */
-    @Cacheable(value = "previousChapter", key = "#mangaId + '_' + #currentChapterNumber")
     public Optional<ChapterResponseDTO> getPreviousChapter(Long mangaId, Double currentChapterNumber) {
-        return chapterRepository.findPreviousChapter(mangaId, currentChapterNumber)
+        return navigationIndex.previous(mangaId, currentChapterNumber)
+                .flatMap(entry -> chapterRepository.findById(entry.id()))
                 .map(ChapterResponseDTO::new);
     }
 
+    /**
+     * Получить главу вместе с соседними главами и ее позицией в манге одним вызовом.
+     *
+     * @param id идентификатор главы
+     * @return Optional с контекстом главы или пустой Optional если глава не найдена
+     */
+    public Optional<ChapterContextDTO> getChapterContext(Long id) {
+        return chapterRepository.findById(id)
+                .map(chapter -> {
+                    ChapterNavigationIndex.MangaChapters manga = navigationIndex.forManga(chapter.getMangaId());
+                    Optional<Integer> position = manga.positionOf(id);
+                    if (position.isEmpty()) {
+                        // Глава появилась после построения индекса на другом экземпляре — перестраиваем
+                        navigationIndex.invalidate(chapter.getMangaId());
+                        manga = navigationIndex.forManga(chapter.getMangaId());
+                        position = manga.positionOf(id);
+                    }
+                    int index = position.orElse(-1);
+                    return new ChapterContextDTO(
+                            index >= 0 ? manga.at(index - 1).orElse(null) : null,
+                            new ChapterResponseDTO(chapter),
+                            index >= 0 ? manga.at(index + 1).orElse(null) : null,
+                            index + 1,
+                            manga.chapters().size()
+                    );
+                });
+    }
+
+    /**
+     * Сбрасывает кэши, затронутые изменением одной главы, не трогая записи других манг.
+     */
+    private void evictChapterCaches(Long mangaId) {
+        if (mangaId != null) {
+            evict("chapterCount", mangaId);
+            navigationIndex.invalidate(mangaId);
+            listPageCache.invalidate(mangaId);
+        }
+    }
+
+    /**
+     * Сбрасывает списки глав манги после изменения счетчиков страниц или лайков.
+     */
+    private void evictChapterLists(Long mangaId) {
+        listPageCache.invalidate(mangaId);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
     /**
      * Получить количество страниц главы из сервиса хранения изображений.
      *
@@ -507,13 +678,13 @@ public class ChapterService {
      * @return DTO обновленной главы
      * @throws RuntimeException если глава не найдена
      */
-    @CacheEvict(value = {"chapterDetails"}, key = "#chapterId")
     public ChapterResponseDTO updatePageCount(Long chapterId, Integer pageCount) {
         Chapter chapter = chapterRepository.findById(chapterId)
                 .orElseThrow(() -> new RuntimeException("Chapter not found with id: " + chapterId));
 
         chapter.setPageCount(pageCount);
         Chapter savedChapter = chapterRepository.save(chapter);
+        evictChapterLists(savedChapter.getMangaId());
 
         System.out.println("Updated chapter " + chapterId + " pageCount to: " + pageCount);
         return new ChapterResponseDTO(savedChapter);
@@ -526,7 +697,6 @@ public class ChapterService {
      * @param chapterId идентификатор главы
      * @throws RuntimeException если глава не найдена или пользователь уже лайкнул
      */
-    @CacheEvict(value = {"chapterDetails"}, key = "#chapterId")
     public void likeChapter(Long userId, Long chapterId) {
         // Проверяем, существует ли глава
         Chapter chapter = chapterRepository.findById(chapterId)
@@ -548,6 +718,7 @@ public class ChapterService {
         }
         chapter.setLikeCount(currentLikes + 1);
         chapterRepository.save(chapter);
+        evictChapterLists(chapter.getMangaId());
 
         // Increment user's likesGivenCount (only chapter likes are counted per business rule)
         try {
@@ -583,7 +754,6 @@ public class ChapterService {
      * @param chapterId идентификатор главы
      * @throws RuntimeException если глава не найдена или лайк не существует
      */
-    @CacheEvict(value = {"chapterDetails"}, key = "#chapterId")
     public void unlikeChapter(Long userId, Long chapterId) {
         // Проверяем, существует ли глава
         Chapter chapter = chapterRepository.findById(chapterId)
@@ -603,6 +773,7 @@ public class ChapterService {
         }
         chapter.setLikeCount(Math.max(0, currentLikes - 1));
         chapterRepository.save(chapter);
+        evictChapterLists(chapter.getMangaId());
     }
 
     /**
@@ -613,7 +784,6 @@ public class ChapterService {
      * @return Map с полями "liked" (boolean) и "likeCount" (Integer)
      * @throws RuntimeException если глава не найдена
      */
-    @CacheEvict(value = {"chapterDetails", "chaptersByManga"}, key = "#chapterId", allEntries = true)
     public Map<String, Object> toggleLike(Long userId, Long chapterId) {
         // Проверяем, существует ли глава
         Chapter chapter = chapterRepository.findById(chapterId)
@@ -635,6 +805,7 @@ public class ChapterService {
             }
             chapter.setLikeCount(Math.max(0, currentLikes - 1));
             chapterRepository.save(chapter);
+            evictChapterLists(chapter.getMangaId());
             return Map.of("liked", false, "likeCount", chapter.getLikeCount()); // лайк убран
         } else {
             // Ставим лайк
@@ -648,6 +819,7 @@ public class ChapterService {
             }
             chapter.setLikeCount(currentLikes + 1);
             chapterRepository.save(chapter);
+            evictChapterLists(chapter.getMangaId());
             // Publish event only when like added
             if (rabbitTemplate != null) {
                 try {
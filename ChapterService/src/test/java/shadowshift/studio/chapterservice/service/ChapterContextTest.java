@@ -0,0 +1,165 @@
+package shadowshift.studio.chapterservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import shadowshift.studio.chapterservice.dto.ChapterContextDTO;
+import shadowshift.studio.chapterservice.dto.ChapterNavigationDTO;
+import shadowshift.studio.chapterservice.entity.Chapter;
+import shadowshift.studio.chapterservice.repository.ChapterRepository;
+import shadowshift.studio.chapterservice.repository.projection.ChapterNavigationEntry;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Позиция главы и ее соседи в ответе {@code GET /api/chapters/{id}/context}.
+ */
+class ChapterContextTest {
+
+    private static final Long MANGA_ID = 7L;
+
+    private ChapterRepository chapterRepository;
+    private ChapterService chapterService;
+
+    @BeforeEach
+    void setUp() {
+        chapterRepository = mock(ChapterRepository.class);
+        chapterService = new ChapterService();
+        ReflectionTestUtils.setField(chapterService, "chapterRepository", chapterRepository);
+        ReflectionTestUtils.setField(chapterService, "navigationIndex",
+                new ChapterNavigationIndex(chapterRepository, 100, 15));
+    }
+
+    @Test
+    void middleChapterHasBothNeighboursAndOneBasedPosition() {
+        chapter(11L, 1.0);
+        Chapter current = chapter(12L, 1.5);
+        chapter(13L, 2.0);
+        index(entry(11L, 1.0), entry(12L, 1.5), entry(13L, 2.0));
+
+        ChapterContextDTO context = chapterService.getChapterContext(current.getId()).orElseThrow();
+
+        assertThat(context.current().getId()).isEqualTo(12L);
+        assertThat(context.previous()).extracting(ChapterNavigationDTO::id).isEqualTo(11L);
+        assertThat(context.next()).extracting(ChapterNavigationDTO::id).isEqualTo(13L);
+        assertThat(context.position()).isEqualTo(2);
+        assertThat(context.total()).isEqualTo(3);
+    }
+
+    @Test
+    void firstAndLastChaptersHaveOneNeighbour() {
+        chapter(11L, 1.0);
+        chapter(12L, 2.0);
+        index(entry(11L, 1.0), entry(12L, 2.0));
+
+        ChapterContextDTO first = chapterService.getChapterContext(11L).orElseThrow();
+        ChapterContextDTO last = chapterService.getChapterContext(12L).orElseThrow();
+
+        assertThat(first.previous()).isNull();
+        assertThat(first.next()).extracting(ChapterNavigationDTO::id).isEqualTo(12L);
+        assertThat(first.position()).isEqualTo(1);
+        assertThat(last.previous()).extracting(ChapterNavigationDTO::id).isEqualTo(11L);
+        assertThat(last.next()).isNull();
+        assertThat(last.position()).isEqualTo(2);
+    }
+
+    @Test
+    void duplicateNumbersUseTheChapterOwnPosition() {
+        chapter(11L, 1.0);
+        chapter(12L, 1.0);
+        chapter(13L, 1.0);
+        index(entry(11L, 1.0), entry(12L, 1.0), entry(13L, 1.0));
+
+        ChapterContextDTO context = chapterService.getChapterContext(12L).orElseThrow();
+
+        assertThat(context.position()).isEqualTo(2);
+        assertThat(context.previous()).extracting(ChapterNavigationDTO::id).isEqualTo(11L);
+        assertThat(context.next()).extracting(ChapterNavigationDTO::id).isEqualTo(13L);
+    }
+
+    @Test
+    void chapterMissingFromIndexRebuildsIt() {
+        chapter(11L, 1.0);
+        chapter(12L, 2.0);
+        when(chapterRepository.findNavigationEntriesByMangaId(MANGA_ID))
+                .thenReturn(List.of(entry(11L, 1.0)))
+                .thenReturn(List.of(entry(11L, 1.0), entry(12L, 2.0)));
+        chapterService.getChapterContext(11L);
+
+        ChapterContextDTO context = chapterService.getChapterContext(12L).orElseThrow();
+
+        assertThat(context.position()).isEqualTo(2);
+        assertThat(context.total()).isEqualTo(2);
+        assertThat(context.previous()).extracting(ChapterNavigationDTO::id).isEqualTo(11L);
+        verify(chapterRepository, times(2)).findNavigationEntriesByMangaId(MANGA_ID);
+    }
+
+    @Test
+    void chapterAbsentAfterRebuildHasNoPositionOrNeighbours() {
+        chapter(11L, 1.0);
+        chapter(12L, 2.0);
+        index(entry(11L, 1.0));
+
+        ChapterContextDTO context = chapterService.getChapterContext(12L).orElseThrow();
+
+        assertThat(context.current().getId()).isEqualTo(12L);
+        assertThat(context.position()).isZero();
+        assertThat(context.total()).isEqualTo(1);
+        assertThat(context.previous()).isNull();
+        assertThat(context.next()).isNull();
+    }
+
+    @Test
+    void unknownChapterHasNoContext() {
+        when(chapterRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThat(chapterService.getChapterContext(99L)).isEmpty();
+    }
+
+    private Chapter chapter(Long id, double number) {
+        Chapter chapter = new Chapter(MANGA_ID, number, "Глава " + number);
+        chapter.setId(id);
+        when(chapterRepository.findById(id)).thenReturn(Optional.of(chapter));
+        return chapter;
+    }
+
+    private void index(ChapterNavigationEntry... entries) {
+        when(chapterRepository.findNavigationEntriesByMangaId(MANGA_ID)).thenReturn(List.of(entries));
+    }
+
+    private static ChapterNavigationEntry entry(Long id, double number) {
+        return new ChapterNavigationEntry() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Double getChapterNumber() {
+                return number;
+            }
+
+            @Override
+            public Integer getVolumeNumber() {
+                return null;
+            }
+
+            @Override
+            public Double getOriginalChapterNumber() {
+                return number;
+            }
+
+            @Override
+            public String getTitle() {
+                return "Глава " + number;
+            }
+        };
+    }
+}
@@ -0,0 +1,277 @@
+package shadowshift.studio.chapterservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import shadowshift.studio.chapterservice.dto.ChapterListItemDTO;
+import shadowshift.studio.chapterservice.dto.ChapterListPageDTO;
+import shadowshift.studio.chapterservice.repository.ChapterRepository;
+import shadowshift.studio.chapterservice.repository.projection.ChapterListEntry;
+import shadowshift.studio.chapterservice.repository.projection.ChapterNavigationEntry;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.DoubleStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Страницы списка глав по курсорам after/before/from в обоих порядках и у краев списка, а также их кэш.
+ * Главы манги — номера 1..5, идентификатор главы совпадает с ее номером.
+ */
+class ChapterListPageTest {
+
+    private static final Long MANGA_ID = 3L;
+    private static final double[] NUMBERS = {1.0, 2.0, 3.0, 4.0, 5.0};
+
+    private ChapterRepository chapterRepository;
+    private ChapterListPageCache listPageCache;
+    private ChapterService chapterService;
+
+    @BeforeEach
+    void setUp() {
+        chapterRepository = mock(ChapterRepository.class);
+        when(chapterRepository.findListEntriesAfter(anyLong(), anyDouble(), any(Pageable.class)))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), true, invocation.getArgument(2)));
+        when(chapterRepository.findListEntriesBefore(anyLong(), anyDouble(), any(Pageable.class)))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), false, invocation.getArgument(2)));
+        when(chapterRepository.findNavigationEntriesByMangaId(MANGA_ID)).thenReturn(
+                DoubleStream.of(NUMBERS).mapToObj(ChapterListPageTest::navigationEntry).toList());
+
+        listPageCache = new ChapterListPageCache(100, 15);
+        chapterService = new ChapterService();
+        ReflectionTestUtils.setField(chapterService, "chapterRepository", chapterRepository);
+        ReflectionTestUtils.setField(chapterService, "navigationIndex",
+                new ChapterNavigationIndex(chapterRepository, 100, 15));
+        ReflectionTestUtils.setField(chapterService, "listPageCache", listPageCache);
+        ReflectionTestUtils.setField(chapterService, "defaultListPageSize", 2);
+        ReflectionTestUtils.setField(chapterService, "maxListPageSize", 200);
+    }
+
+    @Test
+    void ascendingFirstPageHasOnlyNextCursor() {
+        ChapterListPageDTO page = page(true, null, null, null);
+
+        assertThat(numbers(page)).containsExactly(1.0, 2.0);
+        assertThat(page.nextCursor()).isEqualTo(2.0);
+        assertThat(page.previousCursor()).isNull();
+        assertThat(page.total()).isEqualTo(5);
+        assertThat(page.order()).isEqualTo("asc");
+    }
+
+    @Test
+    void ascendingAfterMovesForwardUntilLastPage() {
+        ChapterListPageDTO middle = page(true, 2.0, null, null);
+        ChapterListPageDTO last = page(true, 4.0, null, null);
+
+        assertThat(numbers(middle)).containsExactly(3.0, 4.0);
+        assertThat(middle.nextCursor()).isEqualTo(4.0);
+        assertThat(middle.previousCursor()).isEqualTo(3.0);
+        assertThat(numbers(last)).containsExactly(5.0);
+        assertThat(last.nextCursor()).isNull();
+        assertThat(last.previousCursor()).isEqualTo(5.0);
+    }
+
+    @Test
+    void ascendingBeforeIsReversedIntoListOrder() {
+        ChapterListPageDTO middle = page(true, null, 5.0, null);
+        ChapterListPageDTO first = page(true, null, 3.0, null);
+
+        assertThat(numbers(middle)).containsExactly(3.0, 4.0);
+        assertThat(middle.previousCursor()).isEqualTo(3.0);
+        assertThat(middle.nextCursor()).isEqualTo(4.0);
+        assertThat(numbers(first)).containsExactly(1.0, 2.0);
+        assertThat(first.previousCursor()).isNull();
+        assertThat(first.nextCursor()).isEqualTo(2.0);
+    }
+
+    @Test
+    void ascendingFromIncludesRequestedChapter() {
+        ChapterListPageDTO middle = page(true, null, null, 3.0);
+        ChapterListPageDTO first = page(true, null, null, 1.0);
+
+        assertThat(numbers(middle)).containsExactly(3.0, 4.0);
+        assertThat(middle.previousCursor()).isEqualTo(3.0);
+        assertThat(numbers(first)).containsExactly(1.0, 2.0);
+        assertThat(first.previousCursor()).isNull();
+        verify(chapterRepository).findListEntriesAfter(eq(MANGA_ID), eq(Math.nextDown(3.0)), any(Pageable.class));
+    }
+
+    @Test
+    void descendingFirstPageStartsFromLatestChapter() {
+        ChapterListPageDTO page = page(false, null, null, null);
+
+        assertThat(numbers(page)).containsExactly(5.0, 4.0);
+        assertThat(page.nextCursor()).isEqualTo(4.0);
+        assertThat(page.previousCursor()).isNull();
+        assertThat(page.order()).isEqualTo("desc");
+    }
+
+    @Test
+    void descendingAfterReachesFirstChapter() {
+        ChapterListPageDTO middle = page(false, 4.0, null, null);
+        ChapterListPageDTO last = page(false, 2.0, null, null);
+        ChapterListPageDTO beyond = page(false, 1.0, null, null);
+
+        assertThat(numbers(middle)).containsExactly(3.0, 2.0);
+        assertThat(middle.nextCursor()).isEqualTo(2.0);
+        assertThat(middle.previousCursor()).isEqualTo(3.0);
+        assertThat(numbers(last)).containsExactly(1.0);
+        assertThat(last.nextCursor()).isNull();
+        assertThat(beyond.items()).isEmpty();
+        assertThat(beyond.nextCursor()).isNull();
+        assertThat(beyond.previousCursor()).isNull();
+    }
+
+    @Test
+    void descendingBeforeIsReversedIntoListOrder() {
+        ChapterListPageDTO middle = page(false, null, 1.0, null);
+        ChapterListPageDTO first = page(false, null, 3.0, null);
+
+        assertThat(numbers(middle)).containsExactly(3.0, 2.0);
+        assertThat(middle.previousCursor()).isEqualTo(3.0);
+        assertThat(middle.nextCursor()).isEqualTo(2.0);
+        assertThat(numbers(first)).containsExactly(5.0, 4.0);
+        assertThat(first.previousCursor()).isNull();
+        assertThat(first.nextCursor()).isEqualTo(4.0);
+    }
+
+    @Test
+    void descendingFromIncludesRequestedChapter() {
+        ChapterListPageDTO middle = page(false, null, null, 3.0);
+        ChapterListPageDTO first = page(false, null, null, 5.0);
+
+        assertThat(numbers(middle)).containsExactly(3.0, 2.0);
+        assertThat(middle.previousCursor()).isEqualTo(3.0);
+        assertThat(numbers(first)).containsExactly(5.0, 4.0);
+        assertThat(first.previousCursor()).isNull();
+        verify(chapterRepository).findListEntriesBefore(eq(MANGA_ID), eq(Math.nextUp(3.0)), any(Pageable.class));
+    }
+
+    @Test
+    void severalCursorsAreRejected() {
+        assertThatThrownBy(() -> page(true, 1.0, null, 2.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void pageIsCachedUntilItsMangaIsInvalidated() {
+        page(true, null, null, null);
+        page(true, null, null, null);
+        verify(chapterRepository, times(1)).findListEntriesAfter(eq(MANGA_ID), anyDouble(), any(Pageable.class));
+
+        listPageCache.invalidate(MANGA_ID + 1);
+        page(true, null, null, null);
+        verify(chapterRepository, times(1)).findListEntriesAfter(eq(MANGA_ID), anyDouble(), any(Pageable.class));
+
+        listPageCache.invalidate(MANGA_ID);
+        page(true, null, null, null);
+        verify(chapterRepository, times(2)).findListEntriesAfter(eq(MANGA_ID), anyDouble(), any(Pageable.class));
+
+        listPageCache.invalidateAll();
+        page(true, null, null, null);
+        verify(chapterRepository, times(3)).findListEntriesAfter(eq(MANGA_ID), anyDouble(), any(Pageable.class));
+    }
+
+    private ChapterListPageDTO page(boolean ascending, Double after, Double before, Double from) {
+        return chapterService.getChapterPage(MANGA_ID, ascending, after, before, from, null, null);
+    }
+
+    private static List<Double> numbers(ChapterListPageDTO page) {
+        return page.items().stream().map(ChapterListItemDTO::chapterNumber).toList();
+    }
+
+    /** Выборка репозитория: номера строго больше (по возрастанию) или меньше (по убыванию) границы */
+    private static List<ChapterListEntry> rows(double boundary, boolean greater, Pageable pageable) {
+        return DoubleStream.of(NUMBERS)
+                .filter(number -> greater ? number > boundary : number < boundary)
+                .boxed()
+                .sorted(greater ? Comparator.naturalOrder() : Comparator.reverseOrder())
+                .limit(pageable.getPageSize())
+                .map(ChapterListPageTest::listEntry)
+                .toList();
+    }
+
+    private static ChapterListEntry listEntry(double number) {
+        return new ChapterListEntry() {
+            @Override
+            public Long getId() {
+                return (long) number;
+            }
+
+            @Override
+            public Double getChapterNumber() {
+                return number;
+            }
+
+            @Override
+            public Integer getVolumeNumber() {
+                return null;
+            }
+
+            @Override
+            public Double getOriginalChapterNumber() {
+                return number;
+            }
+
+            @Override
+            public String getTitle() {
+                return "Глава " + number;
+            }
+
+            @Override
+            public Integer getPageCount() {
+                return 20;
+            }
+
+            @Override
+            public Integer getLikeCount() {
+                return null;
+            }
+
+            @Override
+            public LocalDateTime getPublishedDate() {
+                return null;
+            }
+        };
+    }
+
+    private static ChapterNavigationEntry navigationEntry(double number) {
+        return new ChapterNavigationEntry() {
+            @Override
+            public Long getId() {
+                return (long) number;
+            }
+
+            @Override
+            public Double getChapterNumber() {
+                return number;
+            }
+
+            @Override
+            public Integer getVolumeNumber() {
+                return null;
+            }
+
+            @Override
+            public Double getOriginalChapterNumber() {
+                return number;
+            }
+
+            @Override
+            public String getTitle() {
+                return "Глава " + number;
+            }
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package shadowshift.studio.chapterservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import shadowshift.studio.chapterservice.dto.ChapterNavigationDTO;
+import shadowshift.studio.chapterservice.repository.ChapterRepository;
+import shadowshift.studio.chapterservice.repository.projection.ChapterNavigationEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Поиск соседних глав двоичным поиском по упорядоченному списку манги.
+ */
+class ChapterNavigationIndexTest {
+
+    private static final Long MANGA_ID = 1L;
+
+    private ChapterRepository chapterRepository;
+    private ChapterNavigationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        chapterRepository = mock(ChapterRepository.class);
+        index = new ChapterNavigationIndex(chapterRepository, 100, 15);
+    }
+
+    @Test
+    void duplicateNumbersAreSkippedAsNeighbours() {
+        chapters(1.0, 2.0, 2.0, 2.0, 3.0);
+
+        assertThat(index.next(MANGA_ID, 2.0)).map(ChapterNavigationDTO::id).hasValue(5L);
+        assertThat(index.previous(MANGA_ID, 2.0)).map(ChapterNavigationDTO::id).hasValue(1L);
+        assertThat(index.next(MANGA_ID, 1.0)).map(ChapterNavigationDTO::id).hasValue(2L);
+        assertThat(index.previous(MANGA_ID, 3.0)).map(ChapterNavigationDTO::id).hasValue(4L);
+    }
+
+    @Test
+    void fractionalNumbersSitBetweenWholeChapters() {
+        chapters(1.0, 1.5, 2.0, 2.25, 3.0);
+
+        assertThat(index.next(MANGA_ID, 1.0)).map(ChapterNavigationDTO::chapterNumber).hasValue(1.5);
+        assertThat(index.previous(MANGA_ID, 2.0)).map(ChapterNavigationDTO::chapterNumber).hasValue(1.5);
+        assertThat(index.next(MANGA_ID, 2.0)).map(ChapterNavigationDTO::chapterNumber).hasValue(2.25);
+        // Номер, которого нет в списке, все равно находит ближайших соседей
+        assertThat(index.next(MANGA_ID, 1.2)).map(ChapterNavigationDTO::chapterNumber).hasValue(1.5);
+        assertThat(index.previous(MANGA_ID, 1.2)).map(ChapterNavigationDTO::chapterNumber).hasValue(1.0);
+    }
+
+    @Test
+    void numbersOutsideRangeHaveNoNeighbourOnThatSide() {
+        chapters(1.0, 2.0, 3.0);
+
+        assertThat(index.previous(MANGA_ID, 1.0)).isEmpty();
+        assertThat(index.next(MANGA_ID, 3.0)).isEmpty();
+        assertThat(index.previous(MANGA_ID, 0.5)).isEmpty();
+        assertThat(index.next(MANGA_ID, 0.5)).map(ChapterNavigationDTO::chapterNumber).hasValue(1.0);
+        assertThat(index.next(MANGA_ID, 10.0)).isEmpty();
+        assertThat(index.previous(MANGA_ID, 10.0)).map(ChapterNavigationDTO::chapterNumber).hasValue(3.0);
+    }
+
+    @Test
+    void mangaWithoutChaptersHasNoNeighbours() {
+        chapters();
+
+        assertThat(index.next(MANGA_ID, 1.0)).isEmpty();
+        assertThat(index.previous(MANGA_ID, 1.0)).isEmpty();
+        assertThat(index.forManga(MANGA_ID).at(0)).isEmpty();
+    }
+
+    @Test
+    void positionsFollowChapterOrder() {
+        chapters(1.0, 1.5, 2.0);
+
+        ChapterNavigationIndex.MangaChapters manga = index.forManga(MANGA_ID);
+
+        assertThat(manga.positionOf(1L)).hasValue(0);
+        assertThat(manga.positionOf(3L)).hasValue(2);
+        assertThat(manga.positionOf(99L)).isEmpty();
+        assertThat(manga.at(-1)).isEmpty();
+        assertThat(manga.at(3)).isEmpty();
+    }
+
+    @Test
+    void listIsLoadedOnceUntilInvalidated() {
+        chapters(1.0, 2.0);
+
+        index.next(MANGA_ID, 1.0);
+        index.previous(MANGA_ID, 2.0);
+        verify(chapterRepository, times(1)).findNavigationEntriesByMangaId(MANGA_ID);
+
+        index.invalidate(MANGA_ID);
+        index.next(MANGA_ID, 1.0);
+        verify(chapterRepository, times(2)).findNavigationEntriesByMangaId(MANGA_ID);
+    }
+
+    /** Главы манги по порядку; идентификатор главы совпадает с ее позицией, начиная с 1 */
+    private void chapters(double... numbers) {
+        List<ChapterNavigationEntry> entries = new ArrayList<>();
+        for (int i = 0; i < numbers.length; i++) {
+            entries.add(new Entry((long) i + 1, numbers[i]));
+        }
+        when(chapterRepository.findNavigationEntriesByMangaId(MANGA_ID)).thenReturn(entries);
+    }
+
+    private record Entry(Long id, Double number) implements ChapterNavigationEntry {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Double getChapterNumber() {
+            return number;
+        }
+
+        @Override
+        public Integer getVolumeNumber() {
+            return null;
+        }
+
+        @Override
+        public Double getOriginalChapterNumber() {
+            return number;
+        }
+
+        @Override
+        public String getTitle() {
+            return "Глава " + number;
+        }
+    }
+}
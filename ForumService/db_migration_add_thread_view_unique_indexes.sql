@@ -0,0 +1,23 @@
+-- Migration: unique view per (thread, user) / (thread, anonymous ip)
+-- Required by buffered view writes that rely on INSERT ... ON CONFLICT DO NOTHING
+-- Compatible with PostgreSQL
+
+-- Remove duplicates left by concurrent inserts (keep the earliest row)
+DELETE FROM forum_thread_views v
+USING forum_thread_views d
+WHERE v.thread_id = d.thread_id
+  AND v.user_id IS NOT NULL
+  AND v.user_id = d.user_id
+  AND v.id > d.id;
+
+DELETE FROM forum_thread_views v
+USING forum_thread_views d
+WHERE v.thread_id = d.thread_id
+  AND v.user_id IS NULL AND d.user_id IS NULL
+  AND v.ip_address = d.ip_address
+  AND v.id > d.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_forum_views_thread_user
+    ON forum_thread_views(thread_id, user_id) WHERE user_id IS NOT NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_forum_views_thread_ip
+    ON forum_thread_views(thread_id, ip_address) WHERE user_id IS NULL;
@@ -206,6 +206,9 @@ CREATE INDEX idx_forum_reactions_user ON forum_reactions(user_id);
 CREATE INDEX idx_forum_views_thread ON forum_thread_views(thread_id);
 CREATE INDEX idx_forum_views_user ON forum_thread_views(user_id);
 CREATE INDEX idx_forum_views_ip ON forum_thread_views(ip_address);
+-- Уникальность просмотра (для INSERT ... ON CONFLICT DO NOTHING при пакетной записи)
+CREATE UNIQUE INDEX uq_forum_views_thread_user ON forum_thread_views(thread_id, user_id) WHERE user_id IS NOT NULL;
+CREATE UNIQUE INDEX uq_forum_views_thread_ip ON forum_thread_views(thread_id, ip_address) WHERE user_id IS NULL;
 
 -- Подписки
 CREATE INDEX idx_forum_subscriptions_user ON forum_subscriptions(user_id);
@@ -2,8 +2,10 @@ package shadowshift.studio.forumservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ForumServiceApplication {
 
     public static void main(String[] args) {
@@ -6,7 +6,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
@@ -21,9 +20,11 @@ import shadowshift.studio.forumservice.repository.ForumPostRepository;
 import shadowshift.studio.forumservice.repository.ForumThreadRepository;
 import shadowshift.studio.forumservice.repository.ForumReactionRepository;
 import shadowshift.studio.forumservice.entity.ForumReaction;
+import shadowshift.studio.forumservice.service.UserDirectoryClient;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/forum/threads/{threadId}/posts")
@@ -35,6 +36,11 @@ public class ForumPostController {
     private final ForumThreadRepository threadRepository;
     private final ForumReactionRepository reactionRepository;
     private final shadowshift.studio.forumservice.notification.ForumNotificationPublisher forumNotificationPublisher;
+    private final UserDirectoryClient userDirectoryClient;
+
+    private static final int MAX_TREE_DEPTH = 20;
+    private static final int MAX_TREE_TOTAL = 2000;
+    private static final int MAX_TREE_PAGE_SIZE = 100;
 
     @GetMapping
     public ResponseEntity<Page<ForumPostResponse>> getPosts(
@@ -47,62 +53,48 @@ public class ForumPostController {
         }
 
         Page<ForumPost> page = postRepository.findByThreadIdAndNotDeleted(threadId, pageable);
-        Page<ForumPostResponse> dtoPage = page.map(this::mapToResponse);
+        Page<ForumPostResponse> dtoPage = new PageImpl<>(mapToResponses(page.getContent()), page.getPageable(), page.getTotalElements());
         return ResponseEntity.ok(dtoPage);
     }
 
     public record CreatePostRequest(String content, Long parentPostId) {}
 
     /**
-     * Древовидная структура постов (ограничение глубины и кол-ва потомков)
+     * Древовидная структура постов (ограничение глубины и кол-ва потомков).
+     * Страница корневых постов и все их потомки загружаются одним рекурсивным запросом,
+     * реакции текущего пользователя и авторы подгружаются пакетно.
      */
     @GetMapping("/tree")
     public ResponseEntity<List<ForumPostResponse>> getPostsTree(
             @PathVariable Long threadId,
             @RequestParam(defaultValue = "5") int maxDepth,
             @RequestParam(defaultValue = "1000") int maxTotal,
-            @RequestParam(defaultValue = "50") int pageSize) {
+            @RequestParam(defaultValue = "50") int pageSize,
+            @RequestParam(defaultValue = "0") int page) {
         log.info("GET /api/forum/threads/{}/posts/tree - получение дерева постов", threadId);
 
         if (!threadRepository.existsById(threadId)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        // Получаем корневые посты (первый уровень)
-        Pageable rootPageable = PageRequest.of(0, pageSize);
-        List<ForumPost> roots = postRepository.findRootPostsByThreadId(threadId, rootPageable).getContent();
+        int depthLimit = Math.max(1, Math.min(maxDepth, MAX_TREE_DEPTH));
+        int totalLimit = Math.max(1, Math.min(maxTotal, MAX_TREE_TOTAL));
+        int rootLimit = Math.max(1, Math.min(pageSize, MAX_TREE_PAGE_SIZE));
+        long rootOffset = (long) Math.max(0, page) * rootLimit;
 
-        List<ForumPostResponse> tree = new ArrayList<>();
+        // Посты отсортированы по глубине, поэтому родитель всегда встречается раньше своих ответов
+        List<ForumPost> posts = postRepository.findThreadTree(threadId, rootLimit, rootOffset, depthLimit, totalLimit);
 
-        // Итеративно строим дерево до maxDepth
-        Queue<ForumPostResponse> queue = new ArrayDeque<>();
-        for (ForumPost root : roots) {
-            ForumPostResponse rootDto = mapToResponse(root).toBuilder().replies(new ArrayList<>()).build();
-            tree.add(rootDto);
-            queue.add(rootDto);
-        }
-
-        int processed = roots.size();
-        int depth = 1;
-        while (!queue.isEmpty() && depth < maxDepth && processed < maxTotal) {
-            int levelSize = queue.size();
-            depth++;
-            for (int i = 0; i < levelSize; i++) {
-                ForumPostResponse current = queue.poll();
-                if (current == null) continue;
-                Long parentId = current.getId();
-                List<ForumPost> replies = postRepository.findRepliesByParentPostId(parentId);
-                if (replies.isEmpty()) continue;
-                List<ForumPostResponse> replyDtos = new ArrayList<>();
-                for (ForumPost rp : replies) {
-                    if (processed >= maxTotal) break;
-                    ForumPostResponse dto = mapToResponse(rp).toBuilder().replies(new ArrayList<>()).build();
-                    replyDtos.add(dto);
-                    queue.add(dto);
-                    processed++;
-                }
-                //noinspection unchecked
-                ((List<ForumPostResponse>)current.getReplies()).addAll(replyDtos);
+        List<ForumPostResponse> tree = new ArrayList<>();
+        Map<Long, ForumPostResponse> nodes = new HashMap<>();
+        for (ForumPostResponse dto : mapToResponses(posts)) {
+            ForumPostResponse node = dto.toBuilder().replies(new ArrayList<>()).build();
+            nodes.put(node.getId(), node);
+            ForumPostResponse parent = node.getParentPostId() != null ? nodes.get(node.getParentPostId()) : null;
+            if (parent != null) {
+                parent.getReplies().add(node);
+            } else {
+                tree.add(node);
             }
         }
 
@@ -172,23 +164,45 @@ public class ForumPostController {
         return null;
     }
 
-    private ForumPostResponse mapToResponse(ForumPost post) {
-        Long currentUserId = null;
+    private Long getCurrentPrincipalId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth != null && auth.getPrincipal() instanceof GatewayAuthenticationFilter.AuthUserPrincipal principal) {
-            currentUserId = principal.id();
+            return principal.id();
         }
-        String userReaction = null;
+        return null;
+    }
+
+    /**
+     * Пакетное преобразование: реакции текущего пользователя загружаются одним IN-запросом,
+     * авторы — одним обращением к каталогу пользователей.
+     */
+    private List<ForumPostResponse> mapToResponses(List<ForumPost> posts) {
+        if (posts.isEmpty()) return List.of();
+        Long currentUserId = getCurrentPrincipalId();
+        Map<Long, String> reactions = Collections.emptyMap();
         if (currentUserId != null) {
-            userReaction = reactionRepository.findByUserIdAndTargetTypeAndTargetId(currentUserId, ForumReaction.TargetType.POST, post.getId())
-                    .map(r -> r.getReactionType().name())
-                    .orElse(null);
+            List<Long> postIds = posts.stream().map(ForumPost::getId).toList();
+            reactions = reactionRepository.findByUserIdAndTargetTypeAndTargetIdIn(currentUserId, ForumReaction.TargetType.POST, postIds).stream()
+                    .collect(Collectors.toMap(ForumReaction::getTargetId, r -> r.getReactionType().name(), (a, b) -> a));
         }
+        Map<Long, UserDirectoryClient.UserBasic> authors = userDirectoryClient.fetchUsers(
+                posts.stream().map(ForumPost::getAuthorId).toList());
+        Map<Long, String> userReactions = reactions;
+        return posts.stream()
+                .map(post -> buildResponse(post, currentUserId, userReactions.get(post.getId()), authors.get(post.getAuthorId())))
+                .toList();
+    }
+
+    private ForumPostResponse mapToResponse(ForumPost post) {
+        return mapToResponses(List.of(post)).get(0);
+    }
+
+    private ForumPostResponse buildResponse(ForumPost post, Long currentUserId, String userReaction, UserDirectoryClient.UserBasic author) {
     boolean isAuthor = currentUserId != null && currentUserId.equals(post.getAuthorId());
     boolean withinEditWindow = java.time.Duration.between(post.getCreatedAt(), LocalDateTime.now()).toDays() < 7;
 
-    String authorName = "Пользователь " + post.getAuthorId();
-    String authorAvatar = null; // фронтенд сам подтянет
+    String authorName = author != null && author.displayName() != null ? author.displayName() : "Пользователь " + post.getAuthorId();
+    String authorAvatar = author != null ? author.avatar() : null; // иначе фронтенд сам подтянет
     return ForumPostResponse.builder()
                 .id(post.getId())
                 .threadId(post.getThreadId())
@@ -197,7 +211,7 @@ public class ForumPostController {
                 .authorName(authorName)
                 .authorAvatar(authorAvatar)
                 .parentPostId(post.getParentPostId())
-                .replies(null) // вложенные ответы реализовать позже
+                .replies(null)
                 .isDeleted(post.getIsDeleted())
                 .isEdited(post.getIsEdited())
                 .likesCount(post.getLikesCount())
@@ -77,6 +77,28 @@ public interface ForumPostRepository extends JpaRepository<ForumPost, Long> {
     @Query("SELECT p FROM ForumPost p WHERE p.parentPostId IN :parentPostIds AND p.isDeleted = false ORDER BY p.parentPostId, p.createdAt ASC")
     List<ForumPost> findAllRepliesByParentPostIds(@Param("parentPostIds") List<Long> parentPostIds);
     
+    /**
+     * Загрузить страницу корневых постов темы вместе со всеми потомками одним рекурсивным запросом.
+     * Результат упорядочен по глубине, затем по времени создания, и ограничен maxTotal постами,
+     * поэтому при усечении сначала отбрасываются самые глубокие ответы.
+     */
+    @Query(value = "WITH RECURSIVE roots AS (" +
+                   "  SELECT r.id FROM forum_posts r" +
+                   "  WHERE r.thread_id = :threadId AND r.parent_post_id IS NULL AND r.is_deleted = false" +
+                   "  ORDER BY r.created_at ASC, r.id ASC LIMIT :rootLimit OFFSET :rootOffset" +
+                   "), tree AS (" +
+                   "  SELECT p.*, 1 AS depth FROM forum_posts p JOIN roots ON roots.id = p.id" +
+                   "  UNION ALL" +
+                   "  SELECT c.*, t.depth + 1 FROM forum_posts c JOIN tree t ON c.parent_post_id = t.id" +
+                   "  WHERE c.is_deleted = false AND t.depth < :maxDepth" +
+                   ") SELECT * FROM tree ORDER BY depth ASC, created_at ASC, id ASC LIMIT :maxTotal",
+           nativeQuery = true)
+    List<ForumPost> findThreadTree(@Param("threadId") Long threadId,
+                                   @Param("rootLimit") int rootLimit,
+                                   @Param("rootOffset") long rootOffset,
+                                   @Param("maxDepth") int maxDepth,
+                                   @Param("maxTotal") int maxTotal);
+
     /**
      * Проверить, есть ли у поста ответы
      */
@@ -6,6 +6,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import shadowshift.studio.forumservice.entity.ForumReaction;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,15 @@ public interface ForumReactionRepository extends JpaRepository<ForumReaction, Lo
             Long targetId
     );
     
+    /**
+     * Найти реакции пользователя сразу на набор объектов одного типа
+     */
+    List<ForumReaction> findByUserIdAndTargetTypeAndTargetIdIn(
+            Long userId,
+            ForumReaction.TargetType targetType,
+            Collection<Long> targetIds
+    );
+    
     /**
      * Найти все реакции на объект
      */
@@ -6,6 +6,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import shadowshift.studio.forumservice.entity.ForumSubscription;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +40,12 @@ public interface ForumSubscriptionRepository extends JpaRepository<ForumSubscrip
      */
     @Query("SELECT COUNT(s) > 0 FROM ForumSubscription s WHERE s.userId = :userId AND s.threadId = :threadId AND s.isActive = true")
     boolean isUserSubscribedToThread(@Param("userId") Long userId, @Param("threadId") Long threadId);
+
+    /**
+     * Найти темы из набора, на которые пользователь активно подписан
+     */
+    @Query("SELECT s.threadId FROM ForumSubscription s WHERE s.userId = :userId AND s.threadId IN :threadIds AND s.isActive = true")
+    List<Long> findActiveSubscribedThreadIds(@Param("userId") Long userId, @Param("threadIds") Collection<Long> threadIds);
     
     /**
      * Найти все подписки на темы в определенной категории
@@ -3,6 +3,7 @@ package shadowshift.studio.forumservice.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -14,7 +15,6 @@ import shadowshift.studio.forumservice.dto.response.ForumThreadResponse;
 import shadowshift.studio.forumservice.entity.ForumCategory;
 import shadowshift.studio.forumservice.entity.ForumReaction;
 import shadowshift.studio.forumservice.entity.ForumThread;
-import shadowshift.studio.forumservice.entity.ForumThreadView;
 import shadowshift.studio.forumservice.repository.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -23,6 +23,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,8 +35,15 @@ public class ForumThreadService {
     private final ForumThreadRepository threadRepository;
     private final ForumCategoryRepository categoryRepository;
     private final ForumReactionRepository reactionRepository;
-    private final ForumThreadViewRepository viewRepository;
+    private final ForumThreadViewBuffer viewBuffer;
     private final ForumSubscriptionRepository subscriptionRepository;
+    private final UserDirectoryClient userDirectoryClient;
+
+    // Категории меняются редко: имена кэшируются, чтобы списки тем не обращались к БД за каждой строкой
+    private static final Duration CATEGORY_CACHE_TTL = Duration.ofMinutes(10);
+    private final Map<Long, CachedCategoryName> categoryNameCache = new ConcurrentHashMap<>();
+
+    private record CachedCategoryName(String name, long expiresAt) {}
 
     private static final String SORT_POPULAR = "popular";
     private static final String SORT_ACTIVE = "active";
@@ -49,7 +58,7 @@ public class ForumThreadService {
         
         Page<ForumThread> threadsPage = threadRepository.findByCategoryIdAndNotDeleted(categoryId, pageable);
         
-        return threadsPage.map(thread -> mapToResponse(thread, currentUserId));
+        return mapPage(threadsPage, currentUserId);
     }
 
     /**
@@ -63,7 +72,7 @@ public class ForumThreadService {
         Pageable effectivePageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), effectiveSort);
 
         Page<ForumThread> threadsPage = threadRepository.findByMangaIdAndIsDeletedFalse(mangaId, effectivePageable);
-        return threadsPage.map(thread -> mapToResponse(thread, currentUserId));
+        return mapPage(threadsPage, currentUserId);
     }
 
     /**
@@ -75,7 +84,7 @@ public class ForumThreadService {
         
         Page<ForumThread> threadsPage = threadRepository.findAllNotDeleted(pageable);
         
-        return threadsPage.map(thread -> mapToResponse(thread, currentUserId));
+        return mapPage(threadsPage, currentUserId);
     }
 
     /**
@@ -239,7 +248,7 @@ public class ForumThreadService {
         
         Page<ForumThread> threadsPage = threadRepository.searchByText(searchQuery, pageable);
         
-        return threadsPage.map(thread -> mapToResponse(thread, currentUserId));
+        return mapPage(threadsPage, currentUserId);
     }
 
     /**
@@ -251,67 +260,99 @@ public class ForumThreadService {
         
         Page<ForumThread> threadsPage = threadRepository.findByAuthorIdAndNotDeleted(authorId, pageable);
         
-        return threadsPage.map(thread -> mapToResponse(thread, currentUserId));
+        return mapPage(threadsPage, currentUserId);
     }
 
     /**
-     * Зарегистрировать просмотр темы
+     * Зарегистрировать просмотр темы.
+     * Просмотр дедуплицируется в памяти и записывается в БД пачкой (см. {@link ForumThreadViewBuffer}).
      */
-    @Transactional
     public void registerView(Long threadId, Long userId, String ipAddress) {
-        // Проверяем, не просматривал ли пользователь эту тему уже
-        boolean alreadyViewed = false;
-        
-        if (userId != null) {
-            alreadyViewed = viewRepository.existsByThreadIdAndUserId(threadId, userId);
-        } else if (ipAddress != null) {
-            alreadyViewed = viewRepository.existsByThreadIdAndIpAddress(threadId, ipAddress);
-        }
-        
-        if (!alreadyViewed) {
-            ForumThreadView view = ForumThreadView.builder()
-                    .threadId(threadId)
-                    .userId(userId)
-                    .ipAddress(ipAddress)
-                    .build();
-            
-            viewRepository.save(view);
-            
-            // Увеличиваем счетчик просмотров
-            threadRepository.incrementViewsCount(threadId);
-            
-            log.debug("Зарегистрирован просмотр темы: {} пользователем: {}", threadId, userId);
+        if (viewBuffer.record(threadId, userId, ipAddress)) {
+            log.debug("Просмотр темы {} пользователем {} поставлен в очередь", threadId, userId);
         }
     }
 
+    /**
+     * Преобразование страницы тем в DTO фиксированным числом запросов
+     */
+    private Page<ForumThreadResponse> mapPage(Page<ForumThread> threadsPage, Long currentUserId) {
+        return new PageImpl<>(mapToResponses(threadsPage.getContent(), currentUserId),
+                threadsPage.getPageable(), threadsPage.getTotalElements());
+    }
+
     /**
      * Преобразование в DTO
      */
     private ForumThreadResponse mapToResponse(ForumThread thread, Long currentUserId) {
-        // Получаем реакцию пользователя
-        String userReaction = null;
+        return mapToResponses(List.of(thread), currentUserId).get(0);
+    }
+
+    /**
+     * Пакетное преобразование в DTO: реакции, подписки, категории и авторы загружаются
+     * одним запросом на каждый тип данных независимо от размера списка.
+     */
+    private List<ForumThreadResponse> mapToResponses(List<ForumThread> threads, Long currentUserId) {
+        if (threads.isEmpty()) return List.of();
+
+        List<Long> threadIds = threads.stream().map(ForumThread::getId).toList();
+
+        // Реакции и подписки текущего пользователя
+        Map<Long, String> userReactions = Collections.emptyMap();
+        Set<Long> subscribedThreadIds = Collections.emptySet();
         if (currentUserId != null) {
-            Optional<ForumReaction> reaction = reactionRepository.findByUserIdAndTargetTypeAndTargetId(
-                    currentUserId, ForumReaction.TargetType.THREAD, thread.getId());
-            userReaction = reaction.map(r -> r.getReactionType().name()).orElse(null);
+            userReactions = reactionRepository.findByUserIdAndTargetTypeAndTargetIdIn(
+                            currentUserId, ForumReaction.TargetType.THREAD, threadIds).stream()
+                    .collect(Collectors.toMap(ForumReaction::getTargetId, r -> r.getReactionType().name(), (a, b) -> a));
+            subscribedThreadIds = new HashSet<>(subscriptionRepository.findActiveSubscribedThreadIds(currentUserId, threadIds));
         }
-        
-        // Проверяем подписку
-        Boolean isSubscribed = false;
-        if (currentUserId != null) {
-            isSubscribed = subscriptionRepository.isUserSubscribedToThread(currentUserId, thread.getId());
+
+        Map<Long, String> categoryNames = resolveCategoryNames(threads.stream().map(ForumThread::getCategoryId).toList());
+        Map<Long, UserDirectoryClient.UserBasic> authors = userDirectoryClient.fetchUsers(
+                threads.stream().map(ForumThread::getAuthorId).toList());
+        boolean isModerator = hasModRights();
+
+        List<ForumThreadResponse> responses = new ArrayList<>(threads.size());
+        for (ForumThread thread : threads) {
+            responses.add(buildResponse(thread, currentUserId,
+                    userReactions.get(thread.getId()),
+                    subscribedThreadIds.contains(thread.getId()),
+                    categoryNames.getOrDefault(thread.getCategoryId(), "Неизвестная категория"),
+                    authors.get(thread.getAuthorId()),
+                    isModerator));
         }
-        
-        // Получаем информацию о категории
-    String categoryName = categoryRepository.findById(thread.getCategoryId())
-        .map(ForumCategory::getName)
-        .orElse("Неизвестная категория");
-        
-    // Автор: имя формируется простым placeholder. Аватар и финальное отображаемое имя подгружает фронтенд через AuthService.
-    String authorName = "Пользователь " + thread.getAuthorId();
+        return responses;
+    }
+
+    private Map<Long, String> resolveCategoryNames(Collection<Long> categoryIds) {
+        long now = System.currentTimeMillis();
+        Map<Long, String> result = new HashMap<>();
+        List<Long> toLoad = new ArrayList<>();
+        for (Long id : new HashSet<>(categoryIds)) {
+            if (id == null) continue;
+            CachedCategoryName cached = categoryNameCache.get(id);
+            if (cached != null && cached.expiresAt() > now) {
+                result.put(id, cached.name());
+            } else {
+                toLoad.add(id);
+            }
+        }
+        if (!toLoad.isEmpty()) {
+            long expiresAt = now + CATEGORY_CACHE_TTL.toMillis();
+            for (ForumCategory category : categoryRepository.findAllById(toLoad)) {
+                categoryNameCache.put(category.getId(), new CachedCategoryName(category.getName(), expiresAt));
+                result.put(category.getId(), category.getName());
+            }
+        }
+        return result;
+    }
+
+    private ForumThreadResponse buildResponse(ForumThread thread, Long currentUserId, String userReaction, boolean isSubscribed,
+                                              String categoryName, UserDirectoryClient.UserBasic author, boolean isModerator) {
+    // Автор: отображаемое имя и аватар из AuthService, placeholder если каталог недоступен
+    String authorName = author != null && author.displayName() != null ? author.displayName() : "Пользователь " + thread.getAuthorId();
     // Редактирование разрешено автору в течение 7 дней
     boolean isAuthor = currentUserId != null && currentUserId.equals(thread.getAuthorId());
-    boolean isModerator = hasModRights();
     boolean withinEditWindow = Duration.between(thread.getCreatedAt(), LocalDateTime.now()).toDays() < 7;
 
     return ForumThreadResponse.builder()
@@ -322,7 +363,7 @@ public class ForumThreadService {
                 .categoryName(categoryName)
         .authorId(thread.getAuthorId())
     .authorName(authorName)
-    .authorAvatar(null)
+    .authorAvatar(author != null ? author.avatar() : null)
                 .viewsCount(thread.getViewsCount())
                 .repliesCount(thread.getRepliesCount())
                 .likesCount(thread.getLikesCount())
@@ -0,0 +1,239 @@
+package shadowshift.studio.forumservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Буфер просмотров тем.
+ * Повторные просмотры отсекаются в памяти (ограниченное по размеру окно с истечением по времени),
+ * новые просмотры копятся в очереди и периодически сбрасываются пачкой:
+ * строки вставляются с ON CONFLICT DO NOTHING, а счетчики тем увеличиваются одним UPDATE на тему
+ * ровно на число реально вставленных строк, поэтому счетчик остается счетчиком уникальных зрителей.
+ * Пачка, которую не удалось записать, возвращается в очередь (не больше {@code forum.views.max-flush-attempts}
+ * попыток и в пределах {@code forum.views.max-pending}); если просмотр все же отброшен, его ключ убирается
+ * из окна дедупликации, чтобы следующий просмотр того же зрителя был учтен.
+ * IP-адрес приходит из заголовка клиента, поэтому перед записью он проверяется и приводится к каноничному виду;
+ * некорректный адрес пишется как NULL, чтобы одна строка не роняла всю пачку.
+ */
+@Component
+@Slf4j
+public class ForumThreadViewBuffer {
+
+    private static final String INSERT_VIEW_SQL =
+            "INSERT INTO forum_thread_views (thread_id, user_id, ip_address, created_at) " +
+            "VALUES (?, ?, CAST(? AS inet), ?) ON CONFLICT DO NOTHING";
+    private static final String INCREMENT_VIEWS_SQL =
+            "UPDATE forum_threads SET views_count = views_count + ? WHERE id = ?";
+    private static final Pattern IPV4 = Pattern.compile("(\\d{1,3})\\.(\\d{1,3})\\.(\\d{1,3})\\.(\\d{1,3})");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Boolean> recentViewers;
+    private final Queue<PendingView> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    private final int maxPending;
+    private final int flushBatchSize;
+    private final int maxFlushAttempts;
+
+    private record PendingView(Long threadId, Long userId, String ipAddress, LocalDateTime viewedAt, int attempts) {
+
+        String viewerKey() {
+            return ForumThreadViewBuffer.viewerKey(threadId, userId, ipAddress);
+        }
+
+        PendingView retried() {
+            return new PendingView(threadId, userId, ipAddress, viewedAt, attempts + 1);
+        }
+    }
+
+    public ForumThreadViewBuffer(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${forum.views.dedupe-window:PT30M}") Duration dedupeWindow,
+                                 @Value("${forum.views.dedupe-max-entries:200000}") long dedupeMaxEntries,
+                                 @Value("${forum.views.max-pending:50000}") int maxPending,
+                                 @Value("${forum.views.flush-batch-size:1000}") int flushBatchSize,
+                                 @Value("${forum.views.max-flush-attempts:5}") int maxFlushAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.recentViewers = Caffeine.newBuilder()
+                .expireAfterWrite(dedupeWindow)
+                .maximumSize(dedupeMaxEntries)
+                .build();
+        this.maxPending = maxPending;
+        this.flushBatchSize = flushBatchSize;
+        this.maxFlushAttempts = Math.max(1, maxFlushAttempts);
+    }
+
+    /**
+     * Зарегистрировать просмотр без обращения к БД.
+     *
+     * @return true, если просмотр поставлен в очередь на запись
+     */
+    public boolean record(Long threadId, Long userId, String ipAddress) {
+        if (threadId == null || (userId == null && ipAddress == null)) {
+            return false;
+        }
+        // Для авторизованных пользователей уникальность определяется только userId (как и в схеме)
+        String ip = userId != null ? null : normalizeIpAddress(ipAddress);
+        String viewerKey = viewerKey(threadId, userId, ip);
+        if (recentViewers.asMap().putIfAbsent(viewerKey, Boolean.TRUE) != null) {
+            return false;
+        }
+        if (!enqueue(new PendingView(threadId, userId, ip, LocalDateTime.now(), 0))) {
+            recentViewers.invalidate(viewerKey);
+            log.debug("Буфер просмотров переполнен, просмотр темы {} пропущен", threadId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Сбросить накопленные просмотры в БД.
+     */
+    @Scheduled(fixedDelayString = "${forum.views.flush-interval-ms:5000}")
+    public void flush() {
+        while (pendingSize.get() > 0) {
+            List<PendingView> batch = drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeBatch(batch));
+            } catch (Exception e) {
+                int dropped = requeue(batch);
+                log.warn("Не удалось записать {} просмотров тем, отброшено {}: {}", batch.size(), dropped, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Приводит адрес к виду, который примет колонка inet: берется первый адрес из списка X-Forwarded-For,
+     * допускаются только литералы IPv4/IPv6 (без DNS-запросов и зоны интерфейса).
+     *
+     * @return каноничный адрес или null, если адрес некорректен
+     */
+    static String normalizeIpAddress(String ipAddress) {
+        if (ipAddress == null) {
+            return null;
+        }
+        String candidate = ipAddress.split(",", 2)[0].trim();
+        if (candidate.startsWith("[") && candidate.endsWith("]")) {
+            candidate = candidate.substring(1, candidate.length() - 1);
+        }
+        if (candidate.isEmpty() || candidate.length() > 45) {
+            return null;
+        }
+        Matcher ipv4 = IPV4.matcher(candidate);
+        if (ipv4.matches()) {
+            for (int group = 1; group <= 4; group++) {
+                if (Integer.parseInt(ipv4.group(group)) > 255) {
+                    return null;
+                }
+            }
+        } else if (candidate.indexOf(':') < 0 || candidate.indexOf('%') >= 0
+                || !candidate.chars().allMatch(c -> c == ':' || c == '.' || Character.digit(c, 16) >= 0)) {
+            return null;
+        }
+        try {
+            // Строка уже проверена как литерал, поэтому разбор идет без обращения к DNS
+            return InetAddress.getByName(candidate).getHostAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static String viewerKey(Long threadId, Long userId, String ipAddress) {
+        return threadId + ":" + (userId != null ? "u" + userId : "ip" + ipAddress);
+    }
+
+    private boolean enqueue(PendingView view) {
+        if (pendingSize.incrementAndGet() > maxPending) {
+            pendingSize.decrementAndGet();
+            return false;
+        }
+        pending.add(view);
+        return true;
+    }
+
+    /**
+     * Возвращает неудавшуюся пачку в очередь до следующего сброса.
+     * Просмотры, исчерпавшие попытки или не поместившиеся в очередь, отбрасываются вместе с ключом дедупликации.
+     *
+     * @return число отброшенных просмотров
+     */
+    private int requeue(List<PendingView> batch) {
+        int dropped = 0;
+        for (PendingView view : batch) {
+            PendingView retry = view.retried();
+            if (retry.attempts() >= maxFlushAttempts || !enqueue(retry)) {
+                recentViewers.invalidate(view.viewerKey());
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private List<PendingView> drain() {
+        List<PendingView> batch = new ArrayList<>(Math.min(flushBatchSize, pendingSize.get()));
+        PendingView view;
+        while (batch.size() < flushBatchSize && (view = pending.poll()) != null) {
+            pendingSize.decrementAndGet();
+            batch.add(view);
+        }
+        return batch;
+    }
+
+    private void writeBatch(List<PendingView> batch) {
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_VIEW_SQL, batch, batch.size(), (ps, view) -> {
+            ps.setLong(1, view.threadId());
+            ps.setObject(2, view.userId());
+            ps.setString(3, view.ipAddress());
+            ps.setTimestamp(4, Timestamp.valueOf(view.viewedAt()));
+        });
+
+        // Дельта по теме = число реально вставленных строк (конфликты не считаются)
+        // TreeMap: стабильный порядок UPDATE по id темы, чтобы параллельные сбросы не взаимоблокировались
+        Map<Long, Integer> deltas = new TreeMap<>();
+        int index = 0;
+        for (int[] chunk : results) {
+            for (int inserted : chunk) {
+                if (inserted > 0) {
+                    deltas.merge(batch.get(index).threadId(), 1, Integer::sum);
+                }
+                index++;
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((threadId, delta) -> updates.add(new Object[]{delta, threadId}));
+        jdbcTemplate.batchUpdate(INCREMENT_VIEWS_SQL, updates);
+        log.debug("Сброшено {} просмотров, обновлены счетчики {} тем", index, deltas.size());
+    }
+}
@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.*;
@@ -28,6 +30,9 @@ public class UserDirectoryClient {
     // Simple cache (id -> entry)
     private final Map<Long, CacheEntry> cache = new ConcurrentHashMap<>();
     private static final Duration TTL = Duration.ofMinutes(5);
+    private static final int MAX_CONCURRENT_FETCHES = 8;
+    private static final Duration BATCH_TIMEOUT = Duration.ofSeconds(3);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(2);
 
     public record UserBasic(Long id, String displayName, String username, String avatar) {}
     private record CacheEntry(UserBasic user, long expiresAt) {}
@@ -48,30 +53,45 @@ public class UserDirectoryClient {
             }
         }
 
-        // No batch endpoint currently present; fall back to sequential fetch.
-        for (Long id : toLoad) {
-            try {
-                UserBasic u = webClientBuilder.build()
-                        .get()
-                        .uri(authServiceBaseUrl + "/api/users/" + id)
-                        .accept(MediaType.APPLICATION_JSON)
-                        .retrieve()
-                        .bodyToMono(AuthUserDTO.class)
-                        .timeout(Duration.ofSeconds(2))
-                        .map(dto -> new UserBasic(dto.id, dto.displayName != null && !dto.displayName.isBlank() ? dto.displayName : dto.username, dto.username, dto.avatar))
-                        .onErrorResume(ex -> { log.debug("Failed to fetch user {}: {}", id, ex.getMessage()); return reactor.core.publisher.Mono.empty(); })
-                        .block();
-                if (u != null) {
-                    cache.put(id, new CacheEntry(u, System.currentTimeMillis() + TTL.toMillis()));
-                    result.put(id, u);
+        if (toLoad.isEmpty()) return result;
+
+        // No batch endpoint in AuthService: resolve cache misses concurrently in one bounded fan-out
+        // instead of one blocking round trip per user. Each request times out on its own and the batch
+        // deadline only cuts off requests still running, so users resolved in time are kept.
+        WebClient client = webClientBuilder.build();
+        try {
+            List<UserBasic> loaded = Flux.fromIterable(toLoad)
+                    .flatMap(id -> fetchOne(client, id), MAX_CONCURRENT_FETCHES)
+                    .take(BATCH_TIMEOUT)
+                    .collectList()
+                    .block();
+            if (loaded != null) {
+                long expiresAt = System.currentTimeMillis() + TTL.toMillis();
+                for (UserBasic u : loaded) {
+                    cache.put(u.id(), new CacheEntry(u, expiresAt));
+                    result.put(u.id(), u);
                 }
-            } catch (Exception e) {
-                log.debug("Error fetching user {}: {}", id, e.getMessage());
             }
+            if (loaded == null || loaded.size() < toLoad.size()) {
+                log.debug("Resolved {} of {} users", loaded != null ? loaded.size() : 0, toLoad.size());
+            }
+        } catch (Exception e) {
+            log.debug("Error fetching users {}: {}", toLoad, e.getMessage());
         }
         return result;
     }
 
+    private Mono<UserBasic> fetchOne(WebClient client, Long id) {
+        return client.get()
+                .uri(authServiceBaseUrl + "/api/users/" + id)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(AuthUserDTO.class)
+                .timeout(REQUEST_TIMEOUT)
+                .map(dto -> new UserBasic(dto.id != null ? dto.id : id, dto.displayName != null && !dto.displayName.isBlank() ? dto.displayName : dto.username, dto.username, dto.avatar))
+                .onErrorResume(ex -> { log.debug("Failed to fetch user {}: {}", id, ex.getMessage()); return Mono.empty(); });
+    }
+
     // Minimal projection of AuthService user JSON
     private static class AuthUserDTO { public Long id; public String username; public String displayName; public String avatar; }
 
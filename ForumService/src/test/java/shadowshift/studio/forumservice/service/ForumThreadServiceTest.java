@@ -0,0 +1,124 @@
+package shadowshift.studio.forumservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import shadowshift.studio.forumservice.dto.response.ForumThreadResponse;
+import shadowshift.studio.forumservice.entity.ForumCategory;
+import shadowshift.studio.forumservice.entity.ForumReaction;
+import shadowshift.studio.forumservice.entity.ForumThread;
+import shadowshift.studio.forumservice.repository.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ForumThreadServiceTest {
+
+    private static final Long VIEWER_ID = 7L;
+
+    @Mock
+    private ForumThreadRepository threadRepository;
+    @Mock
+    private ForumCategoryRepository categoryRepository;
+    @Mock
+    private ForumReactionRepository reactionRepository;
+    @Mock
+    private ForumThreadViewBuffer viewBuffer;
+    @Mock
+    private ForumSubscriptionRepository subscriptionRepository;
+    @Mock
+    private UserDirectoryClient userDirectoryClient;
+
+    @InjectMocks
+    private ForumThreadService threadService;
+
+    @Test
+    void listQueryCountDoesNotDependOnPageSize() {
+        // разные категории, чтобы оба прогона одинаково промахивались мимо кэша категорий
+        int smallPageQueries = countQueriesForPageSize(1, 1L);
+        resetMocks();
+        int largePageQueries = countQueriesForPageSize(50, 2L);
+
+        assertThat(largePageQueries).isEqualTo(smallPageQueries);
+        verify(reactionRepository, never()).findByUserIdAndTargetTypeAndTargetId(any(), any(), any());
+        verify(subscriptionRepository, never()).isUserSubscribedToThread(any(), any());
+        verify(categoryRepository, never()).findById(any());
+    }
+
+    @Test
+    void listMapsViewerStateFromBatchedLookups() {
+        List<ForumThread> threads = threads(3, 1L);
+        Pageable pageable = PageRequest.of(0, 3);
+        when(threadRepository.findAllNotDeleted(pageable)).thenReturn(new PageImpl<>(threads, pageable, 3));
+        when(reactionRepository.findByUserIdAndTargetTypeAndTargetIdIn(eq(VIEWER_ID), eq(ForumReaction.TargetType.THREAD), anyCollection()))
+                .thenReturn(List.of(ForumReaction.builder()
+                        .userId(VIEWER_ID)
+                        .targetType(ForumReaction.TargetType.THREAD)
+                        .targetId(2L)
+                        .reactionType(ForumReaction.ReactionType.LIKE)
+                        .build()));
+        when(subscriptionRepository.findActiveSubscribedThreadIds(eq(VIEWER_ID), anyCollection())).thenReturn(List.of(3L));
+        when(categoryRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(ForumCategory.builder().id(1L).name("Общее").build()));
+        when(userDirectoryClient.fetchUsers(anyCollection()))
+                .thenReturn(Map.of(100L, new UserDirectoryClient.UserBasic(100L, "Автор", "author", "avatar.png")));
+
+        List<ForumThreadResponse> content = threadService.getAllThreads(pageable, VIEWER_ID).getContent();
+
+        assertThat(content).hasSize(3);
+        assertThat(content.get(0).getUserReaction()).isNull();
+        assertThat(content.get(1).getUserReaction()).isEqualTo("LIKE");
+        assertThat(content.get(2).getIsSubscribed()).isTrue();
+        assertThat(content.get(0).getIsSubscribed()).isFalse();
+        assertThat(content).allSatisfy(dto -> {
+            assertThat(dto.getCategoryName()).isEqualTo("Общее");
+            assertThat(dto.getAuthorName()).isEqualTo("Автор");
+        });
+    }
+
+    private int countQueriesForPageSize(int pageSize, Long categoryId) {
+        List<ForumThread> threads = threads(pageSize, categoryId);
+        Pageable pageable = PageRequest.of(0, pageSize);
+        Page<ForumThread> page = new PageImpl<>(threads, pageable, pageSize);
+        when(threadRepository.findAllNotDeleted(pageable)).thenReturn(page);
+        when(categoryRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(ForumCategory.builder().id(categoryId).name("Общее").build()));
+
+        assertThat(threadService.getAllThreads(pageable, VIEWER_ID).getContent()).hasSize(pageSize);
+
+        return Mockito.mockingDetails(threadRepository).getInvocations().size()
+                + Mockito.mockingDetails(categoryRepository).getInvocations().size()
+                + Mockito.mockingDetails(reactionRepository).getInvocations().size()
+                + Mockito.mockingDetails(subscriptionRepository).getInvocations().size()
+                + Mockito.mockingDetails(userDirectoryClient).getInvocations().size();
+    }
+
+    private void resetMocks() {
+        reset(threadRepository, categoryRepository, reactionRepository, viewBuffer, subscriptionRepository, userDirectoryClient);
+    }
+
+    private static List<ForumThread> threads(int count, Long categoryId) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> ForumThread.builder()
+                        .id(id)
+                        .title("Тема " + id)
+                        .content("...")
+                        .categoryId(categoryId)
+                        .authorId(100L)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,119 @@
+package shadowshift.studio.forumservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ForumThreadViewBufferTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private ForumThreadViewBuffer buffer(int maxFlushAttempts) {
+        return new ForumThreadViewBuffer(jdbcTemplate, transactionTemplate, Duration.ofMinutes(30), 1000, 100, 10,
+                maxFlushAttempts);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchIsRetriedOnNextFlush() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenReturn(new int[][]{{1}});
+        ForumThreadViewBuffer buffer = buffer(5);
+
+        assertThat(buffer.record(1L, 7L, null)).isTrue();
+        buffer.flush();
+        buffer.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE forum_threads SET views_count = views_count + ? WHERE id = ?"), anyList());
+        // Просмотр уже учтен — повтор в окне дедупликации не ставится в очередь
+        assertThat(buffer.record(1L, 7L, null)).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void droppedViewIsRemovedFromDedupeWindow() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+        ForumThreadViewBuffer buffer = buffer(2);
+
+        assertThat(buffer.record(1L, 7L, null)).isTrue();
+        buffer.flush();
+        buffer.flush();
+        buffer.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        // После исчерпания попыток зритель снова может быть учтен
+        assertThat(buffer.record(1L, 7L, null)).isTrue();
+    }
+
+    @Test
+    void ipAddressIsNormalizedToFirstValidHop() {
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress("203.0.113.7, 10.0.0.1")).isEqualTo("203.0.113.7");
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress(" 198.51.100.2 ")).isEqualTo("198.51.100.2");
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress("[2001:db8::1]")).isEqualTo("2001:db8:0:0:0:0:0:1");
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress("::ffff:192.0.2.1")).isEqualTo("192.0.2.1");
+    }
+
+    @Test
+    void malformedIpAddressIsRejected() {
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress("unknown")).isNull();
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress("example.com")).isNull();
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress("300.1.1.1")).isNull();
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress("1.2.3")).isNull();
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress("fe80::1%eth0")).isNull();
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress("2001:db8::zz")).isNull();
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress("1.2.3.4'); DROP TABLE x; --")).isNull();
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress(", 1.2.3.4")).isNull();
+        assertThat(ForumThreadViewBuffer.normalizeIpAddress("")).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void malformedIpAddressIsWrittenAsNull() throws Exception {
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        ArgumentCaptor<Collection<Object>> rows = ArgumentCaptor.forClass(Collection.class);
+        when(jdbcTemplate.batchUpdate(anyString(), rows.capture(), anyInt(), setter.capture()))
+                .thenReturn(new int[][]{{1, 1}});
+        ForumThreadViewBuffer buffer = buffer(5);
+
+        assertThat(buffer.record(1L, null, "not-an-ip")).isTrue();
+        assertThat(buffer.record(2L, null, "192.0.2.10, 10.0.0.1")).isTrue();
+        buffer.flush();
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        for (Object row : rows.getValue()) {
+            setter.getValue().setValues(statement, row);
+        }
+        verify(statement).setString(3, null);
+        verify(statement).setString(3, "192.0.2.10");
+    }
+}
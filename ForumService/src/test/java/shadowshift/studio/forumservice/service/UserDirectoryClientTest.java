@@ -0,0 +1,96 @@
+package shadowshift.studio.forumservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserDirectoryClientTest {
+
+    private final Set<Long> hanging = ConcurrentHashMap.newKeySet();
+    private final Set<Long> failing = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Duration> delays = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private UserDirectoryClient client;
+
+    @BeforeEach
+    void setUp() {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            requests.incrementAndGet();
+            String path = request.url().getPath();
+            long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+            if (hanging.contains(id)) {
+                return Mono.never();
+            }
+            if (failing.contains(id)) {
+                return Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+            }
+            Mono<ClientResponse> response = Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"id\":" + id + ",\"username\":\"user" + id + "\",\"displayName\":\"\"}")
+                    .build());
+            Duration delay = delays.get(id);
+            return delay != null ? response.delayElement(delay) : response;
+        });
+        client = new UserDirectoryClient(builder);
+        ReflectionTestUtils.setField(client, "authServiceBaseUrl", "http://auth");
+    }
+
+    @Test
+    void usersAreResolvedAndCached() {
+        Map<Long, UserDirectoryClient.UserBasic> users = client.fetchUsers(List.of(1L, 2L, 1L));
+
+        assertThat(users).containsOnlyKeys(1L, 2L);
+        // Пустое отображаемое имя заменяется логином
+        assertThat(users.get(1L).displayName()).isEqualTo("user1");
+
+        client.fetchUsers(List.of(1L, 2L));
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void failedAndHangingUsersDoNotDiscardOthers() {
+        failing.add(2L);
+        hanging.add(3L);
+
+        Map<Long, UserDirectoryClient.UserBasic> users = client.fetchUsers(List.of(1L, 2L, 3L, 4L));
+
+        assertThat(users).containsOnlyKeys(1L, 4L);
+    }
+
+    @Test
+    void batchDeadlineKeepsUsersResolvedInTime() {
+        // Восемь запросов идут параллельно: первая волна заканчивается к 1.5 с, вторая — к 3.4 с,
+        // позже срока пакета, хотя каждый ее запрос укладывается в собственный таймаут
+        LongStream.rangeClosed(1, 16).forEach(id -> delays.put(id, Duration.ofMillis(id <= 8 ? 1500 : 1900)));
+
+        long started = System.nanoTime();
+        Map<Long, UserDirectoryClient.UserBasic> users = client.fetchUsers(LongStream.rangeClosed(1, 16).boxed().toList());
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(4));
+        assertThat(users).containsOnlyKeys(LongStream.rangeClosed(1, 8).boxed().toList());
+    }
+
+    @Test
+    void emptyAndNullIdsMakeNoRequests() {
+        assertThat(client.fetchUsers(Arrays.asList(null, null))).isEmpty();
+        assertThat(requests).hasValue(0);
+    }
+}
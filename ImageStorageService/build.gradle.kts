@@ -36,7 +36,10 @@ dependencies {
 
 tasks.withType<Test> {
     useJUnitPlatform()
-    enabled = false
+    // Контексту приложения нужны PostgreSQL и хранилище, поэтому по умолчанию тесты не запускаются;
+    // ./gradlew test -PunitTests запускает unit-тесты без поднятия контекста
+    enabled = project.hasProperty("unitTests")
+    exclude("**/ImageStorageServiceApplicationTests*")
 }
 
 tasks.named<Jar>("jar") {
@@ -0,0 +1,64 @@
+package shadowshift.studio.imagestorageservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Настройки уменьшенных копий изображений ({@code images.variants.*}), которые отдаются через
+ * {@code /api/images/proxy/{key}?w=...}.
+ */
+@Component
+@ConfigurationProperties(prefix = "images.variants")
+public class ImageVariantProperties {
+
+    /** Допустимые ширины; запрошенная ширина округляется вверх до ближайшей из них */
+    private List<Integer> widths = List.of(160, 320, 640, 960, 1280);
+    private float jpegQuality = 0.82f;
+    /** Каталог локального кэша готовых копий */
+    private String cacheDir = System.getProperty("java.io.tmpdir") + "/image-variants";
+    private long cacheMaxBytes = 512L * 1024 * 1024;
+    /** Исходники больше этого числа пикселей не уменьшаются (защита от распаковки гигантских картинок) */
+    private long maxSourcePixels = 60_000_000L;
+
+    public List<Integer> getWidths() {
+        return widths;
+    }
+
+    public void setWidths(List<Integer> widths) {
+        this.widths = widths;
+    }
+
+    public float getJpegQuality() {
+        return jpegQuality;
+    }
+
+    public void setJpegQuality(float jpegQuality) {
+        this.jpegQuality = jpegQuality;
+    }
+
+    public String getCacheDir() {
+        return cacheDir;
+    }
+
+    public void setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    public void setCacheMaxBytes(long cacheMaxBytes) {
+        this.cacheMaxBytes = cacheMaxBytes;
+    }
+
+    public long getMaxSourcePixels() {
+        return maxSourcePixels;
+    }
+
+    public void setMaxSourcePixels(long maxSourcePixels) {
+        this.maxSourcePixels = maxSourcePixels;
+    }
+}
@@ -1,10 +1,16 @@
 package shadowshift.studio.imagestorageservice.config;
 
 import io.minio.MinioClient;
+import io.minio.http.HttpUtils;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class MinioConfig {
 
@@ -19,10 +25,26 @@ public class MinioConfig {
         System.out.println("Access Key: " + (yandexProperties.getAccessKey() != null ? 
             yandexProperties.getAccessKey().substring(0, Math.min(yandexProperties.getAccessKey().length(), 8)) + "..." : "null"));
         
+        // Стандартный клиент MinIO, но с пулом и лимитом запросов под пакетную загрузку страниц:
+        // по умолчанию OkHttp пускает к одному хосту только 5 запросов одновременно
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(yandexProperties.getMaxConnections());
+        dispatcher.setMaxRequestsPerHost(yandexProperties.getMaxConnections());
+        OkHttpClient httpClient = HttpUtils.newDefaultHttpClient(
+                        yandexProperties.getConnectTimeoutMs(),
+                        yandexProperties.getWriteTimeoutMs(),
+                        yandexProperties.getReadTimeoutMs())
+                .newBuilder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(yandexProperties.getMaxConnections(),
+                        yandexProperties.getKeepAliveSeconds(), TimeUnit.SECONDS))
+                .build();
+
         return MinioClient.builder()
                 .endpoint(yandexProperties.getEndpoint())
                 .credentials(yandexProperties.getAccessKey(), yandexProperties.getSecretKey())
                 .region(yandexProperties.getRegion())
+                .httpClient(httpClient)
                 .build();
     }
 }
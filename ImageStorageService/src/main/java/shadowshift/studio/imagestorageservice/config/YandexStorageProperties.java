@@ -13,6 +13,18 @@ public class YandexStorageProperties {
     private String secretKey;
     private String bucketName;
     private String region;
+    /** Таймауты HTTP-клиента хранилища */
+    private long connectTimeoutMs = 5_000;
+    private long readTimeoutMs = 30_000;
+    private long writeTimeoutMs = 60_000;
+    /** Максимум одновременных запросов к хранилищу и размер пула keep-alive соединений */
+    private int maxConnections = 64;
+    private long keepAliveSeconds = 300;
+    /**
+     * Размер части multipart-загрузки. Объекты меньше него (а это почти все изображения)
+     * загружаются одним PUT вместо трех запросов multipart. Не меньше 5 МБ по ограничению S3.
+     */
+    private long partSize = 16L * 1024 * 1024;
 
     // Getters and Setters
     public String getEndpoint() {
@@ -62,4 +74,52 @@ public class YandexStorageProperties {
     public void setRegion(String region) {
         this.region = region;
     }
+
+    public long getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(long connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public long getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    public void setReadTimeoutMs(long readTimeoutMs) {
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    public long getWriteTimeoutMs() {
+        return writeTimeoutMs;
+    }
+
+    public void setWriteTimeoutMs(long writeTimeoutMs) {
+        this.writeTimeoutMs = writeTimeoutMs;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public long getKeepAliveSeconds() {
+        return keepAliveSeconds;
+    }
+
+    public void setKeepAliveSeconds(long keepAliveSeconds) {
+        this.keepAliveSeconds = keepAliveSeconds;
+    }
+
+    public long getPartSize() {
+        return Math.max(partSize, 5L * 1024 * 1024);
+    }
+
+    public void setPartSize(long partSize) {
+        this.partSize = partSize;
+    }
 }
@@ -6,12 +6,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import shadowshift.studio.imagestorageservice.dto.ChapterImageResponseDTO;
+import shadowshift.studio.imagestorageservice.dto.ChapterPageUrlsDTO;
 import shadowshift.studio.imagestorageservice.dto.CharacterImageUploadResponseDTO;
 import shadowshift.studio.imagestorageservice.dto.MomentImageUploadResponseDTO;
 import shadowshift.studio.imagestorageservice.dto.UserAvatarResponseDTO;
+import shadowshift.studio.imagestorageservice.service.ChapterPageUrlService;
+import shadowshift.studio.imagestorageservice.service.ImageDeletionService;
 import shadowshift.studio.imagestorageservice.service.ImageStorageService;
+import shadowshift.studio.imagestorageservice.service.ImageVariantService;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,6 +37,15 @@ public class ImageStorageController {
     @Autowired
     private ImageStorageService imageStorageService;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ImageDeletionService imageDeletionService;
+
+    @Autowired
+    private ChapterPageUrlService pageUrlService;
+
     /**
      * Получает список всех изображений для указанной главы.
      *
@@ -43,6 +58,21 @@ public class ImageStorageController {
         return ResponseEntity.ok(images);
     }
 
+    /**
+     * Возвращает подписанные ссылки на все страницы главы для загрузки прямо из хранилища.
+     * Прокси {@code /proxy/**} остается запасным путем.
+     *
+     * @param chapterId идентификатор главы
+     * @return ссылки на страницы с временем истечения
+     */
+    @GetMapping("/chapter/{chapterId}/urls")
+    public ResponseEntity<ChapterPageUrlsDTO> getChapterPageUrls(@PathVariable Long chapterId) {
+        ChapterPageUrlsDTO urls = pageUrlService.getChapterPageUrls(chapterId);
+        return ResponseEntity.ok()
+                .header("Cache-Control", "private, max-age=" + pageUrlService.clientCacheSeconds(urls))
+                .body(urls);
+    }
+
     /**
      * Получает изображение по номеру страницы для указанной главы.
      *
@@ -139,7 +169,7 @@ public class ImageStorageController {
      *
      * @param chapterId идентификатор главы
      * @param imageIds список идентификаторов изображений в новом порядке
-     * @return список изображений с обновленным порядком или сообщение об ошибке
+     * @return все страницы главы в новом порядке или сообщение об ошибке
      */
     @PostMapping("/chapter/{chapterId}/reorder")
     public ResponseEntity<?> reorderPages(
@@ -153,6 +183,49 @@ public class ImageStorageController {
         }
     }
 
+    /**
+     * Вставляет новые страницы в указанную позицию главы, сдвигая последующие.
+     *
+     * @param chapterId идентификатор главы
+     * @param files файлы страниц в порядке вставки
+     * @param position номер первой новой страницы; без него страницы добавляются в конец
+     * @return все страницы главы в новом порядке или сообщение об ошибке
+     */
+    @PostMapping("/chapter/{chapterId}/insert")
+    public ResponseEntity<?> insertPages(
+            @PathVariable Long chapterId,
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "position", required = false) Integer position) {
+        try {
+            List<ChapterImageResponseDTO> pages = imageStorageService.insertPages(chapterId, position, files);
+            return ResponseEntity.status(HttpStatus.CREATED).body(pages);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Insert failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Удаляет страницы главы из диапазона и перенумеровывает оставшиеся.
+     *
+     * @param chapterId идентификатор главы
+     * @param from первая удаляемая страница
+     * @param to последняя удаляемая страница
+     * @return оставшиеся страницы главы в новом порядке или сообщение об ошибке
+     */
+    @DeleteMapping("/chapter/{chapterId}/pages")
+    public ResponseEntity<?> removePageRange(
+            @PathVariable Long chapterId,
+            @RequestParam("from") Integer from,
+            @RequestParam("to") Integer to) {
+        try {
+            return ResponseEntity.ok(imageStorageService.removePageRange(chapterId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Delete failed: " + e.getMessage());
+        }
+    }
+
     /**
      * Получает превью изображений для указанной главы.
      *
@@ -206,32 +279,89 @@ public class ImageStorageController {
     }
 
     /**
-     * Удаляет все изображения для указанной главы.
+     * Удаляет все изображения для указанной главы. Записи удаляются сразу, объекты в хранилище — в фоне.
      *
      * @param chapterId идентификатор главы
-     * @return 204 No Content при успешном удалении или сообщение об ошибке
+     * @return 202 Accepted с заданием на удаление или сообщение об ошибке
      */
     @DeleteMapping("/chapter/{chapterId}")
     public ResponseEntity<?> deleteAllChapterImages(@PathVariable Long chapterId) {
         try {
-            imageStorageService.deleteAllChapterImages(chapterId);
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.accepted().body(imageStorageService.deleteAllChapterImages(chapterId));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Delete failed: " + e.getMessage());
         }
     }
 
+    /**
+     * Удаляет изображения всех глав манги одной операцией.
+     *
+     * @param mangaId идентификатор манги
+     * @param request объект с параметрами: chapterIds, includeCover (по умолчанию true)
+     * @return 202 Accepted с заданием на удаление или сообщение об ошибке
+     */
+    @PostMapping("/manga/{mangaId}/delete")
+    public ResponseEntity<?> deleteMangaImages(@PathVariable Long mangaId,
+                                               @RequestBody(required = false) Map<String, Object> request) {
+        try {
+            List<Long> chapterIds = new ArrayList<>();
+            boolean includeCover = true;
+            if (request != null) {
+                if (request.get("chapterIds") instanceof List<?> ids) {
+                    for (Object id : ids) {
+                        chapterIds.add(Long.valueOf(id.toString()));
+                    }
+                }
+                if (request.get("includeCover") != null) {
+                    includeCover = Boolean.parseBoolean(request.get("includeCover").toString());
+                }
+            }
+            return ResponseEntity.accepted().body(imageStorageService.deleteMangaImages(mangaId, chapterIds, includeCover));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body("Invalid chapterIds format");
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Delete failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Возвращает состояние фонового задания на удаление.
+     *
+     * @param jobId идентификатор задания
+     * @return задание или 404, если оно неизвестно или уже забыто
+     */
+    @GetMapping("/deletions/{jobId}")
+    public ResponseEntity<ImageDeletionService.DeletionJob> getDeletionJob(@PathVariable String jobId) {
+        return imageDeletionService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Проксирует изображение по его ключу в хранилище.
      * Предоставляет прямой доступ к изображениям с настройками кэширования.
      *
+     * С параметром {@code w} отдает уменьшенную копию в JPEG.
+     *
      * @param request HTTP запрос с путем к изображению
+     * @param width желаемая ширина в пикселях, округляется до ближайшего разрешенного размера
      * @return байты изображения с соответствующими заголовками или 404 если не найдено
      */
     @GetMapping("/proxy/**")
-    public ResponseEntity<byte[]> proxyImage(HttpServletRequest request) {
+    public ResponseEntity<byte[]> proxyImage(HttpServletRequest request,
+                                             @RequestParam(value = "w", required = false) Integer width) {
         try {
             String imageKey = request.getRequestURI().substring("/api/images/proxy/".length());
+            if (width != null) {
+                Optional<ImageVariantService.Variant> variant = imageVariantService.getVariant(imageKey, width);
+                if (variant.isPresent()) {
+                    return ResponseEntity.ok()
+                            .header("Content-Type", ImageVariantService.CONTENT_TYPE)
+                            .header("Cache-Control", "public, max-age=86400")
+                            .body(variant.get().bytes());
+                }
+                // Копию построить не удалось (например, GIF) — отдаем оригинал
+            }
             byte[] imageBytes = imageStorageService.getImageBytes(imageKey);
             if (imageBytes != null) {
                 return ResponseEntity.ok()
@@ -246,6 +376,57 @@ public class ImageStorageController {
         }
     }
 
+    /**
+     * Импортирует страницы главы по URL одним пакетом.
+     *
+     * @param chapterId идентификатор главы
+     * @param items список объектов с параметрами: pageNumber, imageUrl
+     * @return результат по каждой странице или сообщение об ошибке
+     */
+    @PostMapping("/chapter/{chapterId}/import-urls")
+    public ResponseEntity<?> importImagesFromUrls(@PathVariable Long chapterId,
+                                                  @RequestBody List<Map<String, Object>> items) {
+        if (items == null || items.isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one item is required");
+        }
+        Map<Integer, String> pageUrls = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> item = items.get(i);
+            Integer pageNumber = item != null ? parsePageNumber(item.get("pageNumber")) : null;
+            if (pageNumber == null) {
+                return ResponseEntity.badRequest().body("Item " + i + ": pageNumber must be a positive integer");
+            }
+            if (pageUrls.containsKey(pageNumber)) {
+                return ResponseEntity.badRequest().body("Duplicate pageNumber " + pageNumber);
+            }
+            Object imageUrl = item.get("imageUrl");
+            pageUrls.put(pageNumber, imageUrl != null ? imageUrl.toString() : null);
+        }
+        try {
+            return ResponseEntity.ok(imageStorageService.importImagesFromUrls(chapterId, pageUrls));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Import failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Номер страницы из JSON: целое число (или строка с ним) не меньше 1, иначе null.
+     */
+    private static Integer parsePageNumber(Object value) {
+        if (value instanceof Integer number) {
+            return number >= 1 ? number : null;
+        }
+        if (value instanceof String text) {
+            try {
+                int number = Integer.parseInt(text.trim());
+                return number >= 1 ? number : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
     /**
      * Импортирует изображение из локального файла системы.
      *
@@ -0,0 +1,96 @@
+package shadowshift.studio.imagestorageservice.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Ссылки на все страницы главы для прямой загрузки из хранилища, минуя сервис.
+ *
+ * @author ShadowShiftStudio
+ */
+public class ChapterPageUrlsDTO {
+
+    /** Идентификатор главы */
+    private final Long chapterId;
+
+    /** Момент, после которого подписанные ссылки перестают работать */
+    private final Instant expiresAt;
+
+    /** Страницы в порядке номеров */
+    private final List<PageUrlDTO> pages;
+
+    public ChapterPageUrlsDTO(Long chapterId, Instant expiresAt, List<PageUrlDTO> pages) {
+        this.chapterId = chapterId;
+        this.expiresAt = expiresAt;
+        this.pages = pages;
+    }
+
+    public Long getChapterId() {
+        return chapterId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public List<PageUrlDTO> getPages() {
+        return pages;
+    }
+
+    /**
+     * Ссылки на одну страницу.
+     */
+    public static class PageUrlDTO {
+
+        /** Идентификатор изображения */
+        private final Long id;
+
+        /** Номер страницы в главе */
+        private final Integer pageNumber;
+
+        /** Подписанная ссылка с ограниченным сроком действия (или ссылка на прокси, если подписать не удалось) */
+        private final String url;
+
+        /** Постоянная ссылка для CDN; работает, только если объекты доступны публично */
+        private final String cdnUrl;
+
+        /** Ширина изображения в пикселях */
+        private final Integer width;
+
+        /** Высота изображения в пикселях */
+        private final Integer height;
+
+        public PageUrlDTO(Long id, Integer pageNumber, String url, String cdnUrl, Integer width, Integer height) {
+            this.id = id;
+            this.pageNumber = pageNumber;
+            this.url = url;
+            this.cdnUrl = cdnUrl;
+            this.width = width;
+            this.height = height;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Integer getPageNumber() {
+            return pageNumber;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getCdnUrl() {
+            return cdnUrl;
+        }
+
+        public Integer getWidth() {
+            return width;
+        }
+
+        public Integer getHeight() {
+            return height;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package shadowshift.studio.imagestorageservice.dto;
+
+/**
+ * Результат импорта одной страницы из пакетного импорта по URL.
+ *
+ * @author ShadowShiftStudio
+ */
+public class UrlImportResultDTO {
+
+    public enum Status {
+        /** Изображение скачано и сохранено */
+        IMPORTED,
+        /** Тот же URL уже скачан в этом пакете, объект скопирован внутри хранилища */
+        DEDUPLICATED,
+        /** Страница уже существовала, ничего не менялось */
+        EXISTING,
+        /** Импорт не удался, причина в error */
+        FAILED
+    }
+
+    /** Номер страницы в главе */
+    private final Integer pageNumber;
+
+    /** Исходный URL изображения */
+    private final String sourceUrl;
+
+    private final Status status;
+
+    /** SHA-256 содержимого, если изображение скачивалось */
+    private final String sha256;
+
+    /** Сохраненная страница; null при ошибке */
+    private final ChapterImageResponseDTO image;
+
+    /** Описание ошибки при статусе FAILED */
+    private final String error;
+
+    public UrlImportResultDTO(Integer pageNumber, String sourceUrl, Status status, String sha256,
+                              ChapterImageResponseDTO image, String error) {
+        this.pageNumber = pageNumber;
+        this.sourceUrl = sourceUrl;
+        this.status = status;
+        this.sha256 = sha256;
+        this.image = image;
+        this.error = error;
+    }
+
+    public Integer getPageNumber() {
+        return pageNumber;
+    }
+
+    public String getSourceUrl() {
+        return sourceUrl;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public ChapterImageResponseDTO getImage() {
+        return image;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -47,13 +47,113 @@ public interface ChapterImageRepository extends JpaRepository<ChapterImage, Long
     Integer countByChapterId(Long chapterId);
 
     /**
-     * Удалить все изображения для указанной главы.
+     * Удалить все изображения для указанной главы одним запросом.
      *
      * @param chapterId идентификатор главы
+     * @return количество удаленных записей
      */
     @Modifying
     @Transactional
-    void deleteByChapterId(Long chapterId);
+    @Query("DELETE FROM ChapterImage ci WHERE ci.chapterId = :chapterId")
+    int deleteByChapterId(@Param("chapterId") Long chapterId);
+
+    /**
+     * Найти ключи объектов всех страниц указанных глав.
+     *
+     * @param chapterIds идентификаторы глав
+     * @return ключи объектов в хранилище
+     */
+    @Query("SELECT ci.imageKey FROM ChapterImage ci WHERE ci.chapterId IN :chapterIds")
+    List<String> findImageKeysByChapterIdIn(@Param("chapterIds") List<Long> chapterIds);
+
+    /**
+     * Удалить все изображения указанных глав одним запросом.
+     *
+     * @param chapterIds идентификаторы глав
+     * @return количество удаленных записей
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChapterImage ci WHERE ci.chapterId IN :chapterIds")
+    int deleteAllByChapterIdIn(@Param("chapterIds") List<Long> chapterIds);
+
+    /**
+     * Заблокировать страницы главы до конца транзакции, чтобы изменения порядка шли по очереди.
+     *
+     * @param chapterId идентификатор главы
+     * @return идентификаторы заблокированных изображений
+     */
+    @Query(nativeQuery = true, value = "SELECT ci.id FROM chapter_images ci WHERE ci.chapter_id = :chapterId FOR UPDATE")
+    List<Long> lockPagesByChapterId(@Param("chapterId") Long chapterId);
+
+    /**
+     * Сдвинуть номера страниц главы начиная с указанной.
+     *
+     * @param chapterId идентификатор главы
+     * @param fromPage первая сдвигаемая страница
+     * @param delta величина сдвига
+     * @return количество обновленных записей
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ChapterImage ci SET ci.pageNumber = ci.pageNumber + :delta " +
+           "WHERE ci.chapterId = :chapterId AND ci.pageNumber >= :fromPage")
+    int shiftPages(@Param("chapterId") Long chapterId, @Param("fromPage") Integer fromPage, @Param("delta") Integer delta);
+
+    /**
+     * Перенумеровать страницы главы с 1 одним запросом: сначала изображения из списка в заданном порядке,
+     * затем остальные в прежнем порядке. Изображения других глав из списка игнорируются.
+     *
+     * @param chapterId идентификатор главы
+     * @param orderedIds идентификаторы изображений через запятую (может быть пустой строкой)
+     * @return количество обновленных записей
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            WITH requested AS (
+                SELECT CAST(x.id AS bigint) AS id, MIN(x.pos) AS pos
+                FROM unnest(string_to_array(:orderedIds, ',')) WITH ORDINALITY AS x(id, pos)
+                WHERE x.id <> ''
+                GROUP BY x.id
+            ), ranked AS (
+                SELECT ci.id, ROW_NUMBER() OVER (ORDER BY r.pos NULLS LAST, ci.page_number, ci.id) AS new_page
+                FROM chapter_images ci
+                LEFT JOIN requested r ON r.id = ci.id
+                WHERE ci.chapter_id = :chapterId
+            )
+            UPDATE chapter_images ci
+            SET page_number = ranked.new_page, updated_at = now()
+            FROM ranked
+            WHERE ci.id = ranked.id
+            """)
+    int renumberPages(@Param("chapterId") Long chapterId, @Param("orderedIds") String orderedIds);
+
+    /**
+     * Найти ключи объектов страниц главы в диапазоне номеров.
+     *
+     * @param chapterId идентификатор главы
+     * @param fromPage первая страница диапазона
+     * @param toPage последняя страница диапазона
+     * @return ключи объектов в хранилище
+     */
+    @Query("SELECT ci.imageKey FROM ChapterImage ci " +
+           "WHERE ci.chapterId = :chapterId AND ci.pageNumber BETWEEN :fromPage AND :toPage")
+    List<String> findImageKeysByPageRange(@Param("chapterId") Long chapterId,
+                                          @Param("fromPage") Integer fromPage,
+                                          @Param("toPage") Integer toPage);
+
+    /**
+     * Удалить страницы главы в диапазоне номеров одним запросом.
+     *
+     * @param chapterId идентификатор главы
+     * @param fromPage первая страница диапазона
+     * @param toPage последняя страница диапазона
+     * @return количество удаленных записей
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ChapterImage ci WHERE ci.chapterId = :chapterId AND ci.pageNumber BETWEEN :fromPage AND :toPage")
+    int deleteByPageRange(@Param("chapterId") Long chapterId,
+                          @Param("fromPage") Integer fromPage,
+                          @Param("toPage") Integer toPage);
 
     /**
      * Найти максимальный номер страницы для указанной главы.
@@ -0,0 +1,89 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import shadowshift.studio.imagestorageservice.entity.ChapterImage;
+import shadowshift.studio.imagestorageservice.repository.ChapterImageRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Изменение порядка страниц главы пакетными запросами в одной транзакции.
+ * Перед перенумерацией затронутые страницы уводятся на временное смещение {@value #TEMP_PAGE_OFFSET},
+ * чтобы промежуточные номера не совпадали с уже занятыми и уникальность (глава, страница) не нарушалась
+ * даже при построчной проверке.
+ *
+ * @author ShadowShiftStudio
+ */
+@Service
+public class ChapterPageOrderService {
+
+    static final int TEMP_PAGE_OFFSET = 1_000_000;
+
+    @Autowired
+    private ChapterImageRepository imageRepository;
+
+    /**
+     * Перенумеровывает страницы: сначала изображения из списка в заданном порядке, затем остальные.
+     *
+     * @param chapterId идентификатор главы
+     * @param imageIds идентификаторы изображений в новом порядке
+     * @return итоговый порядок страниц
+     */
+    @Transactional
+    public List<ChapterImage> reorder(Long chapterId, List<Long> imageIds) {
+        String orderedIds = imageIds == null ? "" : imageIds.stream()
+                .filter(id -> id != null)
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        imageRepository.shiftPages(chapterId, 1, TEMP_PAGE_OFFSET);
+        imageRepository.renumberPages(chapterId, orderedIds);
+        return imageRepository.findByChapterIdOrderByPageNumberAsc(chapterId);
+    }
+
+    /**
+     * Освобождает место под новые страницы, нумерует и сохраняет их. Позиция вставки вычисляется
+     * внутри транзакции под блокировкой страниц главы, поэтому параллельная вставка или удаление
+     * не сдвигают ее между чтением последней страницы и сдвигом.
+     *
+     * @param chapterId идентификатор главы
+     * @param position номер первой новой страницы; {@code null} или больше последней страницы — добавление в конец
+     * @param pages новые страницы в порядке вставки
+     * @return итоговый порядок страниц
+     */
+    @Transactional
+    public List<ChapterImage> insert(Long chapterId, Integer position, List<ChapterImage> pages) {
+        imageRepository.lockPagesByChapterId(chapterId);
+        int lastPage = imageRepository.findMaxPageNumberByChapterId(chapterId).orElse(0);
+        int start = position == null ? lastPage + 1 : Math.max(1, Math.min(position, lastPage + 1));
+        for (int i = 0; i < pages.size(); i++) {
+            pages.get(i).setPageNumber(start + i);
+        }
+        imageRepository.shiftPages(chapterId, start, TEMP_PAGE_OFFSET);
+        imageRepository.shiftPages(chapterId, TEMP_PAGE_OFFSET, pages.size() - TEMP_PAGE_OFFSET);
+        imageRepository.saveAll(pages);
+        imageRepository.flush();
+        return imageRepository.findByChapterIdOrderByPageNumberAsc(chapterId);
+    }
+
+    /**
+     * Удаляет страницы из диапазона и закрывает образовавшийся пробел.
+     *
+     * @param chapterId идентификатор главы
+     * @param fromPage первая удаляемая страница
+     * @param toPage последняя удаляемая страница
+     * @return ключи объектов удаленных страниц
+     */
+    @Transactional
+    public List<String> removeRange(Long chapterId, int fromPage, int toPage) {
+        List<String> keys = imageRepository.findImageKeysByPageRange(chapterId, fromPage, toPage);
+        if (!keys.isEmpty()) {
+            imageRepository.deleteByPageRange(chapterId, fromPage, toPage);
+            imageRepository.shiftPages(chapterId, 1, TEMP_PAGE_OFFSET);
+            imageRepository.renumberPages(chapterId, "");
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,154 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.http.Method;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import shadowshift.studio.imagestorageservice.config.YandexStorageProperties;
+import shadowshift.studio.imagestorageservice.dto.ChapterPageUrlsDTO;
+import shadowshift.studio.imagestorageservice.entity.ChapterImage;
+import shadowshift.studio.imagestorageservice.repository.ChapterImageRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Выдает подписанные ссылки на все страницы главы, чтобы браузер читал изображения прямо из хранилища.
+ * Ссылки подписываются для публичного адреса хранилища ({@code yandex.storage.public-endpoint}),
+ * поэтому в dev-профиле работают с локальным MinIO так же, как в prod с Yandex Object Storage.
+ * Набор ссылок кэшируется на главу и перевыпускается за {@code images.presign.refresh-margin-seconds}
+ * до истечения; любое изменение страниц главы сбрасывает кэш.
+ *
+ * @author ShadowShiftStudio
+ */
+@Service
+public class ChapterPageUrlService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChapterPageUrlService.class);
+
+    /** Максимальный срок жизни подписанной ссылки в S3 — 7 дней */
+    private static final int MAX_EXPIRY_SECONDS = 7 * 24 * 3600;
+    /** При таком числе глав в кэше из него вычищаются устаревшие записи */
+    private static final int MAX_CACHED_CHAPTERS = 10_000;
+
+    private record CachedUrls(ChapterPageUrlsDTO urls, Instant refreshAfter) {
+    }
+
+    @Autowired
+    private ChapterImageRepository imageRepository;
+
+    @Autowired
+    private YandexStorageProperties yandexProperties;
+
+    @Value("${images.presign.expiry-seconds:900}")
+    private int expirySeconds = 900;
+
+    @Value("${images.presign.refresh-margin-seconds:120}")
+    private int refreshMarginSeconds = 120;
+
+    /** Базовый адрес CDN для постоянных ссылок; по умолчанию — публичный адрес бакета */
+    @Value("${images.presign.cdn-base-url:}")
+    private String cdnBaseUrl;
+
+    private final ConcurrentMap<Long, CachedUrls> cache = new ConcurrentHashMap<>();
+
+    private MinioClient presignClient;
+
+    @PostConstruct
+    void init() {
+        String endpoint = StringUtils.hasText(yandexProperties.getPublicEndpoint())
+                ? yandexProperties.getPublicEndpoint()
+                : yandexProperties.getEndpoint();
+        // Подпись включает хост, поэтому подписываем тем адресом, по которому пойдет браузер.
+        // Регион задан явно — подпись не требует обращения к хранилищу.
+        presignClient = MinioClient.builder()
+                .endpoint(endpoint)
+                .credentials(yandexProperties.getAccessKey(), yandexProperties.getSecretKey())
+                .region(yandexProperties.getRegion())
+                .build();
+        expirySeconds = Math.max(60, Math.min(expirySeconds, MAX_EXPIRY_SECONDS));
+        refreshMarginSeconds = Math.max(0, Math.min(refreshMarginSeconds, expirySeconds / 2));
+        if (!StringUtils.hasText(cdnBaseUrl)) {
+            cdnBaseUrl = endpoint.replaceAll("/+$", "") + "/" + yandexProperties.getBucketName();
+        }
+    }
+
+    /**
+     * Возвращает ссылки на все страницы главы, из кэша, если они действуют еще достаточно долго.
+     *
+     * @param chapterId идентификатор главы
+     * @return ссылки на страницы в порядке номеров
+     */
+    public ChapterPageUrlsDTO getChapterPageUrls(Long chapterId) {
+        Instant now = Instant.now();
+        CachedUrls cached = cache.get(chapterId);
+        if (cached != null && now.isBefore(cached.refreshAfter())) {
+            return cached.urls();
+        }
+
+        Instant expiresAt = now.plusSeconds(expirySeconds);
+        List<ChapterImage> images = imageRepository.findByChapterIdOrderByPageNumberAsc(chapterId);
+        List<ChapterPageUrlsDTO.PageUrlDTO> pages = new ArrayList<>(images.size());
+        for (ChapterImage image : images) {
+            pages.add(new ChapterPageUrlsDTO.PageUrlDTO(
+                    image.getId(),
+                    image.getPageNumber(),
+                    presign(image.getImageKey()),
+                    cdnBaseUrl + "/" + image.getImageKey(),
+                    image.getWidth(),
+                    image.getHeight()
+            ));
+        }
+
+        ChapterPageUrlsDTO urls = new ChapterPageUrlsDTO(chapterId, expiresAt, List.copyOf(pages));
+        if (!pages.isEmpty()) {
+            if (cache.size() >= MAX_CACHED_CHAPTERS) {
+                cache.values().removeIf(entry -> now.isAfter(entry.refreshAfter()));
+            }
+            cache.put(chapterId, new CachedUrls(urls, expiresAt.minusSeconds(refreshMarginSeconds)));
+        }
+        return urls;
+    }
+
+    /**
+     * Сколько секунд клиент может держать ответ, не рискуя получить просроченные ссылки
+     */
+    public long clientCacheSeconds(ChapterPageUrlsDTO urls) {
+        return Math.max(0, urls.getExpiresAt().getEpochSecond() - Instant.now().getEpochSecond() - refreshMarginSeconds);
+    }
+
+    /**
+     * Сбрасывает кэш ссылок главы после изменения ее страниц
+     */
+    public void invalidate(Long chapterId) {
+        if (chapterId != null) {
+            cache.remove(chapterId);
+        }
+    }
+
+    private String presign(String imageKey) {
+        try {
+            return presignClient.getPresignedObjectUrl(
+                    GetPresignedObjectUrlArgs.builder()
+                            .method(Method.GET)
+                            .bucket(yandexProperties.getBucketName())
+                            .object(imageKey)
+                            .expiry(expirySeconds)
+                            .build()
+            );
+        } catch (Exception e) {
+            // Без подписи страница все равно доступна через прокси сервиса
+            logger.warn("Failed to presign {}: {}", imageKey, e.getMessage());
+            return "/api/images/proxy/" + imageKey;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import shadowshift.studio.imagestorageservice.config.YandexStorageProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновое удаление объектов из хранилища пачками через S3 multi-object delete
+ * (до {@value #MAX_KEYS_PER_REQUEST} ключей за запрос). Ключи, которые хранилище не удалило,
+ * повторяются с растущей паузой до {@code images.deletion.max-attempts} раз. Префикс снимается с задания
+ * только после полного перечисления его объектов, поэтому ошибка перечисления тоже ведет к повтору.
+ * Состояние задания доступно по его идентификатору, пока не истечет {@code images.deletion.job-retention-minutes}.
+ *
+ * @author ShadowShiftStudio
+ */
+@Service
+public class ImageDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDeletionService.class);
+
+    static final int MAX_KEYS_PER_REQUEST = 1000;
+
+    public enum Status { PENDING, RUNNING, RETRYING, COMPLETED, FAILED }
+
+    /**
+     * Задание на удаление набора объектов. Поля читаются контроллером, пишутся только потоком удаления.
+     */
+    public static class DeletionJob {
+
+        private final String id = UUID.randomUUID().toString();
+        private final String description;
+        private final Instant createdAt = Instant.now();
+        private final Set<String> pending;
+        private final List<String> prefixes; // еще не перечисленные префиксы
+        private volatile Status status = Status.PENDING;
+        private volatile int totalKeys;
+        private volatile int deletedKeys;
+        private volatile int attempts;
+        private volatile String lastError;
+        private volatile Instant finishedAt;
+
+        private DeletionJob(String description, Collection<String> objectKeys, Collection<String> prefixes) {
+            this.description = description;
+            this.pending = new LinkedHashSet<>(objectKeys);
+            this.prefixes = new ArrayList<>(prefixes);
+            this.totalKeys = pending.size();
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public int getTotalKeys() {
+            return totalKeys;
+        }
+
+        public int getDeletedKeys() {
+            return deletedKeys;
+        }
+
+        public int getFailedKeys() {
+            return status == Status.COMPLETED ? 0 : totalKeys - deletedKeys;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public String getLastError() {
+            return lastError;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+
+        public Instant getFinishedAt() {
+            return finishedAt;
+        }
+    }
+
+    @Autowired
+    private MinioClient minioClient;
+
+    @Autowired
+    private YandexStorageProperties yandexProperties;
+
+    @Value("${images.deletion.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${images.deletion.retry-delay-ms:2000}")
+    private long retryDelayMs = 2000;
+
+    @Value("${images.deletion.job-retention-minutes:60}")
+    private long jobRetentionMinutes = 60;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("image-deletion").daemon().factory());
+    private final ConcurrentMap<String, DeletionJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Ставит удаление в очередь и сразу возвращает задание.
+     *
+     * @param description что удаляется (для логов и статуса)
+     * @param objectKeys ключи объектов
+     * @param prefixes префиксы, все объекты под которыми тоже удаляются (например, уменьшенные копии страниц)
+     * @return задание на удаление
+     */
+    public DeletionJob submit(String description, Collection<String> objectKeys, Collection<String> prefixes) {
+        pruneFinishedJobs();
+        DeletionJob job = new DeletionJob(description, objectKeys, prefixes);
+        jobs.put(job.id, job);
+        logger.info("Queued deletion {} ({}): {} objects, {} prefixes", job.id, description, job.totalKeys, prefixes.size());
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    public Optional<DeletionJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(DeletionJob job) {
+        job.status = Status.RUNNING;
+        job.attempts++;
+        try {
+            String listingError = listPrefixes(job);
+            deletePending(job);
+            if (listingError != null) {
+                job.lastError = listingError;
+            }
+        } catch (Exception e) {
+            job.lastError = e.getMessage();
+            logger.warn("Deletion {} attempt {} failed: {}", job.id, job.attempts, e.getMessage());
+        }
+
+        if (job.pending.isEmpty() && job.prefixes.isEmpty() && job.lastError == null) {
+            finish(job, Status.COMPLETED);
+        } else if (job.attempts >= maxAttempts) {
+            finish(job, Status.FAILED);
+            logger.error("Deletion {} ({}) gave up after {} attempts, {} objects left: {}",
+                    job.id, job.description, job.attempts, job.pending.size(), job.lastError);
+        } else {
+            job.status = Status.RETRYING;
+            long delay = retryDelayMs << Math.min(job.attempts - 1, 6);
+            executor.schedule(() -> run(job), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Удаляет ожидающие ключи пачками; в pending остаются только те, что хранилище не удалило
+     */
+    private void deletePending(DeletionJob job) {
+        List<String> keys = new ArrayList<>(job.pending);
+        Set<String> failed = new HashSet<>();
+        String lastError = null;
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_REQUEST) {
+            List<String> batch = keys.subList(from, Math.min(from + MAX_KEYS_PER_REQUEST, keys.size()));
+            try {
+                Iterable<Result<DeleteError>> results = minioClient.removeObjects(
+                        RemoveObjectsArgs.builder()
+                                .bucket(yandexProperties.getBucketName())
+                                .objects(batch.stream().map(DeleteObject::new).toList())
+                                .build()
+                );
+                for (Result<DeleteError> result : results) {
+                    DeleteError error = result.get();
+                    if (!"NoSuchKey".equalsIgnoreCase(error.code())) {
+                        failed.add(error.objectName());
+                        lastError = error.objectName() + ": " + error.message();
+                    }
+                }
+            } catch (Exception e) {
+                failed.addAll(batch);
+                lastError = e.getMessage();
+            }
+        }
+        job.pending.retainAll(failed);
+        job.deletedKeys = job.totalKeys - job.pending.size();
+        job.lastError = lastError;
+        if (!failed.isEmpty()) {
+            logger.warn("Deletion {} attempt {}: {} of {} objects not deleted: {}",
+                    job.id, job.attempts, failed.size(), keys.size(), lastError);
+        }
+    }
+
+    /**
+     * Добавляет в pending объекты еще не перечисленных префиксов. Префикс, перечисление которого
+     * оборвалось, остается в задании и перечисляется заново на следующей попытке.
+     *
+     * @return описание последней ошибки перечисления или null
+     */
+    private String listPrefixes(DeletionJob job) {
+        String error = null;
+        for (Iterator<String> iterator = job.prefixes.iterator(); iterator.hasNext(); ) {
+            String prefix = iterator.next();
+            try {
+                job.pending.addAll(listKeys(prefix));
+                iterator.remove();
+            } catch (Exception e) {
+                error = "Listing " + prefix + " failed: " + e.getMessage();
+                logger.warn("Deletion {} attempt {}: {}", job.id, job.attempts, error);
+            }
+        }
+        job.totalKeys = job.pending.size() + job.deletedKeys;
+        return error;
+    }
+
+    private List<String> listKeys(String prefix) throws Exception {
+        List<String> keys = new ArrayList<>();
+        for (Result<Item> result : minioClient.listObjects(
+                ListObjectsArgs.builder()
+                        .bucket(yandexProperties.getBucketName())
+                        .prefix(prefix)
+                        .recursive(true)
+                        .build())) {
+            keys.add(result.get().objectName());
+        }
+        return keys;
+    }
+
+    private void finish(DeletionJob job, Status status) {
+        job.status = status;
+        job.finishedAt = Instant.now();
+        if (status == Status.COMPLETED) {
+            logger.info("Deletion {} ({}) completed: {} objects in {} attempt(s)",
+                    job.id, job.description, job.deletedKeys, job.attempts);
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        Instant threshold = Instant.now().minus(Duration.ofMinutes(jobRetentionMinutes));
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+}
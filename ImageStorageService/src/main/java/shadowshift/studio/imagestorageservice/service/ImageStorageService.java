@@ -10,6 +10,7 @@ import shadowshift.studio.imagestorageservice.config.YandexStorageProperties;
 import shadowshift.studio.imagestorageservice.dto.ChapterImageResponseDTO;
 import shadowshift.studio.imagestorageservice.dto.CharacterImageUploadResponseDTO;
 import shadowshift.studio.imagestorageservice.dto.MomentImageUploadResponseDTO;
+import shadowshift.studio.imagestorageservice.dto.UrlImportResultDTO;
 import shadowshift.studio.imagestorageservice.dto.UserAvatarResponseDTO;
 import shadowshift.studio.imagestorageservice.entity.ChapterImage;
 import shadowshift.studio.imagestorageservice.entity.UserAvatar;
@@ -22,13 +23,13 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -47,6 +48,8 @@ public class ImageStorageService {
 
     private static final long MAX_MOMENT_IMAGE_SIZE_BYTES = 8L * 1024 * 1024;
     private static final long MAX_CHARACTER_IMAGE_SIZE_BYTES = 8L * 1024 * 1024;
+    /** Размер списка идентификаторов глав в одном IN-запросе */
+    private static final int CHAPTER_ID_BATCH_SIZE = 1000;
 
     @Autowired
     private ChapterImageRepository imageRepository;
@@ -60,6 +63,24 @@ public class ImageStorageService {
     @Autowired
     private UserAvatarRepository userAvatarRepository;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ImageDeletionService imageDeletionService;
+
+    @Autowired
+    private ChapterPageUrlService pageUrlService;
+
+    @Autowired
+    private StorageBucketService storageBucketService;
+
+    @Autowired
+    private ChapterPageOrderService pageOrderService;
+
+    @Autowired
+    private UrlImportService urlImportService;
+
     /**
      * Получает список всех изображений для указанной главы, отсортированных по номеру страницы.
      *
@@ -117,71 +138,116 @@ public class ImageStorageService {
      * @throws RuntimeException если загрузка или обработка изображения не удалась
      */
     public ChapterImageResponseDTO uploadImageFromUrl(Long chapterId, Integer pageNumber, String imageUrl) {
-        try {
-            Optional<ChapterImage> existingImage = imageRepository.findByChapterIdAndPageNumber(chapterId, pageNumber);
-            if (existingImage.isPresent()) {
-                return new ChapterImageResponseDTO(existingImage.get());
-            }
-
-            createBucketIfNotExists();
-
-            URL url = new URL(imageUrl);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(10000);
-            connection.setReadTimeout(30000);
+        UrlImportResultDTO result = importImagesFromUrls(chapterId, Map.of(pageNumber, imageUrl)).get(0);
+        if (result.getStatus() == UrlImportResultDTO.Status.FAILED) {
+            throw new RuntimeException("Failed to transfer image from MelonService to MinIO: " + imageUrl
+                    + ": " + result.getError());
+        }
+        return result.getImage();
+    }
 
-            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
-                throw new RuntimeException("Failed to download image from MelonService: " + imageUrl +
-                        ", response code: " + connection.getResponseCode());
+    /**
+     * Импортирует страницы главы по URL пакетом. Изображения скачиваются параллельно и потоком
+     * уходят в хранилище (см. {@link UrlImportService}); одинаковые URL скачиваются один раз,
+     * остальные страницы получают копию объекта внутри хранилища. Уже существующие страницы не трогаются.
+     *
+     * @param chapterId идентификатор главы
+     * @param pageUrls номер страницы → URL изображения
+     * @return результат по каждой странице в порядке запроса
+     */
+    public List<UrlImportResultDTO> importImagesFromUrls(Long chapterId, Map<Integer, String> pageUrls) {
+        Map<Integer, ChapterImage> existing = imageRepository.findByChapterIdOrderByPageNumberAsc(chapterId).stream()
+                .collect(Collectors.toMap(ChapterImage::getPageNumber, image -> image, (first, second) -> first));
+
+        Map<Integer, UrlImportResultDTO> results = new LinkedHashMap<>();
+        Map<String, List<Integer>> pagesByUrl = new LinkedHashMap<>();
+        pageUrls.forEach((page, url) -> {
+            ChapterImage current = existing.get(page);
+            if (current != null) {
+                results.put(page, new UrlImportResultDTO(page, url, UrlImportResultDTO.Status.EXISTING, null,
+                        new ChapterImageResponseDTO(current), null));
+            } else if (!StringUtils.hasText(url)) {
+                results.put(page, new UrlImportResultDTO(page, url, UrlImportResultDTO.Status.FAILED, null, null,
+                        "imageUrl is required"));
+            } else {
+                results.put(page, null);
+                pagesByUrl.computeIfAbsent(url.trim(), key -> new ArrayList<>()).add(page);
             }
+        });
 
-            InputStream inputStream = connection.getInputStream();
-            byte[] imageBytes = inputStream.readAllBytes();
-            inputStream.close();
-
-            String contentType = connection.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                contentType = "image/jpeg";
+        Map<String, String> targets = new LinkedHashMap<>();
+        pagesByUrl.forEach((url, pages) ->
+                targets.put(url, generateObjectKey(chapterId, pages.get(0), "page_" + pages.get(0) + ".jpg")));
+        Map<String, UrlImportService.Outcome> outcomes = urlImportService.importAll(targets);
+
+        List<ChapterImage> rows = new ArrayList<>();
+        Map<Integer, UrlImportResultDTO.Status> statuses = new HashMap<>();
+        Map<Integer, String> sha256ByPage = new HashMap<>();
+        pagesByUrl.forEach((url, pages) -> {
+            UrlImportService.Outcome outcome = outcomes.get(url);
+            for (int i = 0; i < pages.size(); i++) {
+                Integer page = pages.get(i);
+                if (!outcome.isSuccess()) {
+                    results.put(page, new UrlImportResultDTO(page, url, UrlImportResultDTO.Status.FAILED, null, null,
+                            outcome.error()));
+                    continue;
+                }
+                String objectKey = outcome.objectKey();
+                if (i > 0) {
+                    objectKey = generateObjectKey(chapterId, page, "page_" + page + ".jpg");
+                    try {
+                        minioClient.copyObject(
+                                CopyObjectArgs.builder()
+                                        .bucket(yandexProperties.getBucketName())
+                                        .object(objectKey)
+                                        .source(CopySource.builder()
+                                                .bucket(yandexProperties.getBucketName())
+                                                .object(outcome.objectKey())
+                                                .build())
+                                        .build()
+                        );
+                    } catch (Exception e) {
+                        results.put(page, new UrlImportResultDTO(page, url, UrlImportResultDTO.Status.FAILED, null, null,
+                                "Copy failed: " + e.getMessage()));
+                        continue;
+                    }
+                }
+                rows.add(newPageRow(chapterId, page, objectKey, outcome));
+                statuses.put(page, i == 0 ? UrlImportResultDTO.Status.IMPORTED : UrlImportResultDTO.Status.DEDUPLICATED);
+                sha256ByPage.put(page, outcome.sha256());
             }
+        });
 
-            BufferedImage bufferedImage = ImageIO.read(new ByteArrayInputStream(imageBytes));
-            int width = bufferedImage != null ? bufferedImage.getWidth() : 0;
-            int height = bufferedImage != null ? bufferedImage.getHeight() : 0;
-
-            String imageKey = generateObjectKey(chapterId, pageNumber, "page_" + pageNumber + ".jpg");
-
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(yandexProperties.getBucketName())
-                            .object(imageKey)
-                            .stream(new ByteArrayInputStream(imageBytes), imageBytes.length, -1)
-                            .contentType(contentType)
-                            .build()
-            );
-
-            String minioImageUrl = generateImageUrl(imageKey);
-
-            ChapterImage chapterImage = new ChapterImage();
-            chapterImage.setChapterId(chapterId);
-            chapterImage.setPageNumber(pageNumber);
-            chapterImage.setImageUrl(minioImageUrl);
-            chapterImage.setImageKey(imageKey);
-            chapterImage.setFileSize((long) imageBytes.length);
-            chapterImage.setMimeType(contentType);
-            chapterImage.setWidth(width);
-            chapterImage.setHeight(height);
-            chapterImage.setCreatedAt(LocalDateTime.now());
-
-            ChapterImage savedImage = imageRepository.save(chapterImage);
-
-            return new ChapterImageResponseDTO(savedImage);
-
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to download or process image from MelonService: " + imageUrl, e);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to transfer image from MelonService to MinIO: " + imageUrl, e);
+        if (!rows.isEmpty()) {
+            try {
+                imageRepository.saveAll(rows);
+            } catch (RuntimeException e) {
+                imageDeletionService.submit("failed URL import into chapter " + chapterId,
+                        rows.stream().map(ChapterImage::getImageKey).toList(), List.of());
+                throw e;
+            }
+            pageUrlService.invalidate(chapterId);
+            for (ChapterImage row : rows) {
+                Integer page = row.getPageNumber();
+                results.put(page, new UrlImportResultDTO(page, pageUrls.get(page), statuses.get(page),
+                        sha256ByPage.get(page), new ChapterImageResponseDTO(row), null));
+            }
         }
+        return new ArrayList<>(results.values());
+    }
+
+    private ChapterImage newPageRow(Long chapterId, Integer pageNumber, String objectKey, UrlImportService.Outcome outcome) {
+        ChapterImage chapterImage = new ChapterImage();
+        chapterImage.setChapterId(chapterId);
+        chapterImage.setPageNumber(pageNumber);
+        chapterImage.setImageUrl(generateImageUrl(objectKey));
+        chapterImage.setImageKey(objectKey);
+        chapterImage.setFileSize(outcome.size());
+        chapterImage.setMimeType(outcome.contentType());
+        chapterImage.setWidth(outcome.width());
+        chapterImage.setHeight(outcome.height());
+        chapterImage.setCreatedAt(LocalDateTime.now());
+        return chapterImage;
     }
 
     /**
@@ -249,11 +315,11 @@ public class ImageStorageService {
 
         // Загружаем ОРИГИНАЛЬНЫЕ байты в MinIO (без пересжатия)
         try (ByteArrayInputStream inputStream = new ByteArrayInputStream(imageBytes)) {
-            minioClient.putObject(
+            putObject(
                     PutObjectArgs.builder()
                             .bucket(yandexProperties.getBucketName())
                             .object(objectKey)
-                            .stream(inputStream, imageBytes.length, -1)
+                            .stream(inputStream, imageBytes.length, yandexProperties.getPartSize())
                             .contentType(file.getContentType())
                             .build()
             );
@@ -270,6 +336,7 @@ public class ImageStorageService {
         chapterImage.setHeight(height);
 
         ChapterImage savedImage = imageRepository.save(chapterImage);
+        pageUrlService.invalidate(savedImage.getChapterId());
         return new ChapterImageResponseDTO(savedImage);
     }
 
@@ -304,46 +371,9 @@ public class ImageStorageService {
             MultipartFile file = files.get(i);
             Integer pageNumber = nextPageNumber + i;
 
-            String objectKey = generateObjectKey(chapterId, pageNumber, file.getOriginalFilename());
-
-            // Читаем байты ОДИН РАЗ для избежания двойного чтения stream (потеря качества)
-            byte[] imageBytes = file.getBytes();
-            
-            // Загружаем ОРИГИНАЛЬНЫЕ байты в MinIO (без пересжатия)
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(yandexProperties.getBucketName())
-                            .object(objectKey)
-                            .stream(new ByteArrayInputStream(imageBytes), imageBytes.length, -1)
-                            .contentType(file.getContentType())
-                            .build()
-            );
-
-            // Читаем метаданные из тех же байтов (без повторного I/O)
-            Integer width = null;
-            Integer height = null;
-            try (ByteArrayInputStream bais = new ByteArrayInputStream(imageBytes)) {
-                BufferedImage bufferedImage = ImageIO.read(bais);
-                if (bufferedImage != null) {
-                    width = bufferedImage.getWidth();
-                    height = bufferedImage.getHeight();
-                }
-            } catch (Exception e) {
-                // Если не удалось прочитать метаданные, это не критично — сохраняем null
-                System.err.println("Failed to read image dimensions: " + e.getMessage());
-            }
-
-            ChapterImage chapterImage = new ChapterImage();
-            chapterImage.setChapterId(chapterId);
-            chapterImage.setPageNumber(pageNumber);
-            chapterImage.setImageKey(objectKey);
-            chapterImage.setImageUrl(generateImageUrl(objectKey));
-            chapterImage.setFileSize(file.getSize());
-            chapterImage.setMimeType(file.getContentType());
-            chapterImage.setWidth(width);
-            chapterImage.setHeight(height);
-
+            ChapterImage chapterImage = storePageObject(chapterId, pageNumber, file);
             ChapterImage savedImage = imageRepository.save(chapterImage);
+            pageUrlService.invalidate(savedImage.getChapterId());
             uploadedImages.add(new ChapterImageResponseDTO(savedImage));
         }
 
@@ -397,46 +427,9 @@ public class ImageStorageService {
                 throw new RuntimeException("Page " + pageNumber + " already exists for chapter " + chapterId);
             }
 
-            String objectKey = generateObjectKey(chapterId, pageNumber, file.getOriginalFilename());
-
-            // Читаем байты ОДИН РАЗ для избежания двойного чтения stream (потеря качества)
-            byte[] imageBytes = file.getBytes();
-            
-            // Загружаем ОРИГИНАЛЬНЫЕ байты в MinIO (без пересжатия)
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(yandexProperties.getBucketName())
-                            .object(objectKey)
-                            .stream(new ByteArrayInputStream(imageBytes), imageBytes.length, -1)
-                            .contentType(file.getContentType())
-                            .build()
-            );
-
-            // Читаем метаданные из тех же байтов (без повторного I/O)
-            Integer width = null;
-            Integer height = null;
-            try (ByteArrayInputStream bais = new ByteArrayInputStream(imageBytes)) {
-                BufferedImage bufferedImage = ImageIO.read(bais);
-                if (bufferedImage != null) {
-                    width = bufferedImage.getWidth();
-                    height = bufferedImage.getHeight();
-                }
-            } catch (Exception e) {
-                // Если не удалось прочитать метаданные, это не критично — сохраняем null
-                System.err.println("Failed to read image dimensions: " + e.getMessage());
-            }
-
-            ChapterImage chapterImage = new ChapterImage();
-            chapterImage.setChapterId(chapterId);
-            chapterImage.setPageNumber(pageNumber);
-            chapterImage.setImageKey(objectKey);
-            chapterImage.setImageUrl(generateImageUrl(objectKey));
-            chapterImage.setFileSize(file.getSize());
-            chapterImage.setMimeType(file.getContentType());
-            chapterImage.setWidth(width);
-            chapterImage.setHeight(height);
-
+            ChapterImage chapterImage = storePageObject(chapterId, pageNumber, file);
             ChapterImage savedImage = imageRepository.save(chapterImage);
+            pageUrlService.invalidate(savedImage.getChapterId());
             uploadedImages.add(new ChapterImageResponseDTO(savedImage));
         }
 
@@ -486,11 +479,11 @@ public class ImageStorageService {
             String objectKey = objectKeyBuilder.toString();
 
             try (ByteArrayInputStream uploadStream = new ByteArrayInputStream(bytes)) {
-                minioClient.putObject(
+                putObject(
                         PutObjectArgs.builder()
                                 .bucket(yandexProperties.getBucketName())
                                 .object(objectKey)
-                                .stream(uploadStream, bytes.length, -1)
+                                .stream(uploadStream, bytes.length, yandexProperties.getPartSize())
                                 .contentType(contentType)
                                 .build()
                 );
@@ -553,11 +546,11 @@ public class ImageStorageService {
             String objectKey = objectKeyBuilder.toString();
 
             try (ByteArrayInputStream uploadStream = new ByteArrayInputStream(bytes)) {
-                minioClient.putObject(
+                putObject(
                         PutObjectArgs.builder()
                                 .bucket(yandexProperties.getBucketName())
                                 .object(objectKey)
-                                .stream(uploadStream, bytes.length, -1)
+                                .stream(uploadStream, bytes.length, yandexProperties.getPartSize())
                                 .contentType(contentType)
                                 .build()
                 );
@@ -580,13 +573,13 @@ public class ImageStorageService {
             throw new IllegalArgumentException("Refusing to delete non-character image key");
         }
         try {
-            createBucketIfNotExists();
             minioClient.removeObject(
                     RemoveObjectArgs.builder()
                             .bucket(yandexProperties.getBucketName())
                             .object(objectKey)
                             .build()
             );
+            imageVariantService.deleteVariants(objectKey);
         } catch (ErrorResponseException e) {
             if ("NoSuchKey".equalsIgnoreCase(e.errorResponse().code())) {
                 return;
@@ -606,11 +599,11 @@ public class ImageStorageService {
                 String safeName = file.getOriginalFilename() == null ? "image" : file.getOriginalFilename();
                 String objectKey = "posts/" + (userId != null ? ("u" + userId + "/") : "") + System.currentTimeMillis() + "_" + index + "_" + UUID.randomUUID().toString().substring(0,8) + "_" + safeName.replaceAll("[^a-zA-Z0-9._-]","_");
                 try (InputStream in = file.getInputStream()) {
-                    minioClient.putObject(
+                    putObject(
                             PutObjectArgs.builder()
                                     .bucket(yandexProperties.getBucketName())
                                     .object(objectKey)
-                                    .stream(in, file.getSize(), -1)
+                                    .stream(in, file.getSize(), yandexProperties.getPartSize())
                                     .contentType(file.getContentType())
                                     .build()
                     );
@@ -658,41 +651,64 @@ public class ImageStorageService {
                             .object(image.getImageKey())
                             .build()
             );
+            imageVariantService.deleteVariants(image.getImageKey());
 
             imageRepository.delete(image);
+            pageUrlService.invalidate(image.getChapterId());
         }
     }
 
     /**
-     * Удаляет все изображения для указанной главы из MinIO хранилища и базы данных.
+     * Удаляет все изображения для указанной главы. Записи в базе удаляются сразу одним запросом,
+     * объекты в хранилище (вместе с уменьшенными копиями) — фоновым заданием пачками до 1000 ключей.
      *
      * @param chapterId идентификатор главы
-     * @throws ServerException при ошибках сервера MinIO
-     * @throws InsufficientDataException при недостатке данных
-     * @throws ErrorResponseException при ошибках ответа MinIO
-     * @throws IOException при ошибках ввода-вывода
-     * @throws NoSuchAlgorithmException при отсутствии алгоритма
-     * @throws InvalidKeyException при недействительном ключе
-     * @throws InvalidResponseException при недействительном ответе
-     * @throws XmlParserException при ошибках парсинга XML
-     * @throws InternalException при внутренних ошибках
+     * @return задание на удаление объектов из хранилища
      */
-    public void deleteAllChapterImages(Long chapterId) throws ServerException, InsufficientDataException,
-            ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException,
-            InvalidResponseException, XmlParserException, InternalException {
+    public ImageDeletionService.DeletionJob deleteAllChapterImages(Long chapterId) {
+        return deleteChapterImages(List.of(chapterId), List.of(), "chapter " + chapterId);
+    }
 
-        List<ChapterImage> images = imageRepository.findByChapterIdOrderByPageNumberAsc(chapterId);
+    /**
+     * Удаляет изображения всех глав манги и, по запросу, ее обложку одной операцией.
+     * Страницы глав не хранят идентификатор манги, поэтому список глав передает вызывающая сторона.
+     *
+     * @param mangaId идентификатор манги
+     * @param chapterIds идентификаторы глав манги
+     * @param includeCover удалять ли обложку
+     * @return задание на удаление объектов из хранилища
+     */
+    public ImageDeletionService.DeletionJob deleteMangaImages(Long mangaId, List<Long> chapterIds, boolean includeCover) {
+        List<String> extraKeys = new ArrayList<>();
+        if (includeCover) {
+            imageRepository.findByMangaIdAndChapterId(mangaId, -1L).ifPresent(cover -> {
+                extraKeys.add(cover.getImageKey());
+                extraKeys.addAll(imageVariantService.variantKeys(cover.getImageKey()));
+                imageVariantService.evictCached(cover.getImageKey());
+                imageRepository.delete(cover);
+            });
+        }
+        return deleteChapterImages(chapterIds, extraKeys, "manga " + mangaId);
+    }
 
-        for (ChapterImage image : images) {
-            minioClient.removeObject(
-                    RemoveObjectArgs.builder()
-                            .bucket(yandexProperties.getBucketName())
-                            .object(image.getImageKey())
-                            .build()
-            );
+    private ImageDeletionService.DeletionJob deleteChapterImages(List<Long> chapterIds, List<String> extraKeys,
+                                                                 String description) {
+        // Обложки лежат под chapters/-1/ вместе со всеми остальными — этот префикс целиком не трогаем
+        List<Long> ids = chapterIds == null ? List.of()
+                : chapterIds.stream().filter(id -> id != null && id >= 0).distinct().toList();
+
+        List<String> keys = new ArrayList<>(extraKeys);
+        for (int from = 0; from < ids.size(); from += CHAPTER_ID_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + CHAPTER_ID_BATCH_SIZE, ids.size()));
+            List<String> batchKeys = imageRepository.findImageKeysByChapterIdIn(batch);
+            imageRepository.deleteAllByChapterIdIn(batch);
+            batch.forEach(pageUrlService::invalidate);
+            batchKeys.forEach(imageVariantService::evictCached);
+            keys.addAll(batchKeys);
         }
 
-        imageRepository.deleteByChapterId(chapterId);
+        List<String> prefixes = ids.stream().map(id -> "chapters/" + id + "/").toList();
+        return imageDeletionService.submit(description, keys, prefixes);
     }
 
     /**
@@ -729,30 +745,135 @@ public class ImageStorageService {
 
     /**
      * Изменяет порядок страниц в главе на основе предоставленного списка идентификаторов изображений.
+     * Страницы, которых нет в списке, следуют за перечисленными в прежнем порядке.
      *
      * @param chapterId идентификатор главы
      * @param imageIds список идентификаторов изображений в новом порядке
-     * @return список изображений с обновленным порядком
+     * @return все страницы главы в новом порядке
      */
     public List<ChapterImageResponseDTO> reorderPages(Long chapterId, List<Long> imageIds) {
-        List<ChapterImage> images = new ArrayList<>();
+        List<ChapterImage> pages = pageOrderService.reorder(chapterId, imageIds);
+        pageUrlService.invalidate(chapterId);
+        return pages.stream()
+                .map(ChapterImageResponseDTO::new)
+                .collect(Collectors.toList());
+    }
 
-        for (Long imageId : imageIds) {
-            Optional<ChapterImage> imageOpt = imageRepository.findById(imageId);
-            if (imageOpt.isPresent() && imageOpt.get().getChapterId().equals(chapterId)) {
-                images.add(imageOpt.get());
+    /**
+     * Вставляет новые страницы в указанную позицию, сдвигая последующие.
+     *
+     * @param chapterId идентификатор главы
+     * @param position номер первой новой страницы; больше последней страницы — добавление в конец
+     * @param files файлы страниц в порядке вставки
+     * @return все страницы главы в новом порядке
+     * @throws IOException при ошибках ввода-вывода
+     * @throws ServerException при ошибках сервера MinIO
+     * @throws InsufficientDataException при недостатке данных
+     * @throws ErrorResponseException при ошибках ответа MinIO
+     * @throws NoSuchAlgorithmException при отсутствии алгоритма
+     * @throws InvalidKeyException при недействительном ключе
+     * @throws InvalidResponseException при недействительном ответе
+     * @throws XmlParserException при ошибках парсинга XML
+     * @throws InternalException при внутренних ошибках
+     */
+    public List<ChapterImageResponseDTO> insertPages(Long chapterId, Integer position, List<MultipartFile> files)
+            throws IOException, ServerException, InsufficientDataException, ErrorResponseException,
+            NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException,
+            InternalException {
+
+        createBucketIfNotExists();
+
+        // Объекты загружаем до транзакции, чтобы не держать блокировки на время работы с хранилищем.
+        // Номер в ключе объекта — лишь подсказка: окончательные номера назначаются в транзакции
+        int keyPage = position == null ? 1 : Math.max(1, position);
+        List<ChapterImage> pages = new ArrayList<>();
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                pages.add(storePageObject(chapterId, keyPage + i, files.get(i)));
+            }
+            List<ChapterImage> ordered = pageOrderService.insert(chapterId, position, pages);
+            pageUrlService.invalidate(chapterId);
+            return ordered.stream()
+                    .map(ChapterImageResponseDTO::new)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            imageDeletionService.submit("failed insert into chapter " + chapterId,
+                    pages.stream().map(ChapterImage::getImageKey).toList(), List.of());
+            throw e;
+        }
+    }
+
+    /**
+     * Удаляет страницы из диапазона и перенумеровывает оставшиеся. Объекты удаляются в фоне.
+     *
+     * @param chapterId идентификатор главы
+     * @param fromPage первая удаляемая страница
+     * @param toPage последняя удаляемая страница
+     * @return все оставшиеся страницы главы в новом порядке
+     */
+    public List<ChapterImageResponseDTO> removePageRange(Long chapterId, Integer fromPage, Integer toPage) {
+        if (fromPage == null || toPage == null || fromPage < 1 || toPage < fromPage) {
+            throw new IllegalArgumentException("Invalid page range: " + fromPage + "-" + toPage);
+        }
+        List<String> keys = pageOrderService.removeRange(chapterId, fromPage, toPage);
+        pageUrlService.invalidate(chapterId);
+        if (!keys.isEmpty()) {
+            List<String> objectKeys = new ArrayList<>(keys);
+            for (String key : keys) {
+                imageVariantService.evictCached(key);
+                objectKeys.addAll(imageVariantService.variantKeys(key));
             }
+            imageDeletionService.submit("chapter " + chapterId + " pages " + fromPage + "-" + toPage, objectKeys, List.of());
         }
+        return getImagesByChapterId(chapterId);
+    }
+
+    /**
+     * Загружает файл страницы в хранилище и готовит (но не сохраняет) запись о нем.
+     */
+    private ChapterImage storePageObject(Long chapterId, Integer pageNumber, MultipartFile file)
+            throws IOException, ServerException, InsufficientDataException, ErrorResponseException,
+            NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException,
+            InternalException {
+        String objectKey = generateObjectKey(chapterId, pageNumber, file.getOriginalFilename());
+
+        // Читаем байты ОДИН РАЗ для избежания двойного чтения stream (потеря качества)
+        byte[] imageBytes = file.getBytes();
+        
+        // Загружаем ОРИГИНАЛЬНЫЕ байты в MinIO (без пересжатия)
+        putObject(
+                PutObjectArgs.builder()
+                        .bucket(yandexProperties.getBucketName())
+                        .object(objectKey)
+                        .stream(new ByteArrayInputStream(imageBytes), imageBytes.length, yandexProperties.getPartSize())
+                        .contentType(file.getContentType())
+                        .build()
+        );
 
-        for (int i = 0; i < images.size(); i++) {
-            ChapterImage image = images.get(i);
-            image.setPageNumber(i + 1);
-            imageRepository.save(image);
+        // Читаем метаданные из тех же байтов (без повторного I/O)
+        Integer width = null;
+        Integer height = null;
+        try (ByteArrayInputStream bais = new ByteArrayInputStream(imageBytes)) {
+            BufferedImage bufferedImage = ImageIO.read(bais);
+            if (bufferedImage != null) {
+                width = bufferedImage.getWidth();
+                height = bufferedImage.getHeight();
+            }
+        } catch (Exception e) {
+            // Если не удалось прочитать метаданные, это не критично — сохраняем null
+            System.err.println("Failed to read image dimensions: " + e.getMessage());
         }
 
-        return images.stream()
-                .map(ChapterImageResponseDTO::new)
-                .collect(Collectors.toList());
+        ChapterImage chapterImage = new ChapterImage();
+        chapterImage.setChapterId(chapterId);
+        chapterImage.setPageNumber(pageNumber);
+        chapterImage.setImageKey(objectKey);
+        chapterImage.setImageUrl(generateImageUrl(objectKey));
+        chapterImage.setFileSize(file.getSize());
+        chapterImage.setMimeType(file.getContentType());
+        chapterImage.setWidth(width);
+        chapterImage.setHeight(height);
+        return chapterImage;
     }
 
     /**
@@ -795,11 +916,11 @@ public class ImageStorageService {
         String objectKey = generateObjectKey(chapterId, pageNumber, localFile.getName());
 
         try (java.io.FileInputStream fileInputStream = new java.io.FileInputStream(localFile)) {
-            minioClient.putObject(
+            putObject(
                     PutObjectArgs.builder()
                             .bucket(yandexProperties.getBucketName())
                             .object(objectKey)
-                            .stream(fileInputStream, localFile.length(), -1)
+                            .stream(fileInputStream, localFile.length(), yandexProperties.getPartSize())
                             .contentType("image/jpeg")
                             .build()
             );
@@ -824,11 +945,13 @@ public class ImageStorageService {
         chapterImage.setHeight(height);
 
         ChapterImage savedImage = imageRepository.save(chapterImage);
+        pageUrlService.invalidate(savedImage.getChapterId());
         return new ChapterImageResponseDTO(savedImage);
     }
 
     /**
-     * Создает bucket в MinIO если он не существует.
+     * Проверяет, что bucket существует. Обращается к хранилищу только при первом вызове
+     * и после ошибки NoSuchBucket, см. {@link StorageBucketService}.
      *
      * @throws ServerException при ошибках сервера MinIO
      * @throws InsufficientDataException при недостатке данных
@@ -843,22 +966,20 @@ public class ImageStorageService {
     private void createBucketIfNotExists() throws ServerException, InsufficientDataException,
             ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException,
             InvalidResponseException, XmlParserException, InternalException {
+        storageBucketService.ensureBucket();
+    }
 
+    /**
+     * Загружает объект в хранилище; при ошибке NoSuchBucket помечает bucket для повторной проверки.
+     */
+    private ObjectWriteResponse putObject(PutObjectArgs args) throws ServerException, InsufficientDataException,
+            ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException,
+            InvalidResponseException, XmlParserException, InternalException {
         try {
-            boolean exists = minioClient.bucketExists(
-                    BucketExistsArgs.builder().bucket(yandexProperties.getBucketName()).build()
-            );
-
-            if (!exists) {
-                minioClient.makeBucket(
-                        MakeBucketArgs.builder().bucket(yandexProperties.getBucketName()).build()
-                );
-            }
+            return minioClient.putObject(args);
         } catch (ErrorResponseException e) {
-            if (e.response() != null && e.response().code() == 400) {
-            } else {
-                throw e;
-            }
+            storageBucketService.onStorageError(e);
+            throw e;
         }
     }
 
@@ -958,6 +1079,7 @@ public class ImageStorageService {
                             .object(existingCover.get().getImageKey())
                             .build()
             );
+            imageVariantService.deleteVariants(existingCover.get().getImageKey());
             imageRepository.delete(existingCover.get());
         }
 
@@ -967,11 +1089,11 @@ public class ImageStorageService {
         byte[] imageBytes = file.getBytes();
         
         // Загружаем ОРИГИНАЛЬНЫЕ байты в MinIO (без пересжатия)
-        minioClient.putObject(
+        putObject(
                 PutObjectArgs.builder()
                         .bucket(yandexProperties.getBucketName())
                         .object(objectKey)
-                        .stream(new ByteArrayInputStream(imageBytes), imageBytes.length, -1)
+                        .stream(new ByteArrayInputStream(imageBytes), imageBytes.length, yandexProperties.getPartSize())
                         .contentType(file.getContentType())
                         .build()
         );
@@ -1002,6 +1124,7 @@ public class ImageStorageService {
         chapterImage.setCreatedAt(LocalDateTime.now());
 
         ChapterImage savedImage = imageRepository.save(chapterImage);
+        pageUrlService.invalidate(savedImage.getChapterId());
         return new ChapterImageResponseDTO(savedImage);
     }
 
@@ -1050,6 +1173,7 @@ public class ImageStorageService {
                                     .object(existingOpt.get().getImageKey())
                                     .build()
                     );
+                    imageVariantService.deleteVariants(existingOpt.get().getImageKey());
                 } catch (Exception ignored) {}
             }
 
@@ -1057,11 +1181,11 @@ public class ImageStorageService {
             byte[] imageBytes = file.getBytes();
             
             // Загружаем ОРИГИНАЛЬНЫЕ байты в MinIO (без пересжатия)
-            minioClient.putObject(
+            putObject(
                     PutObjectArgs.builder()
                             .bucket(yandexProperties.getBucketName())
                             .object(objectKey)
-                            .stream(new ByteArrayInputStream(imageBytes), imageBytes.length, -1)
+                            .stream(new ByteArrayInputStream(imageBytes), imageBytes.length, yandexProperties.getPartSize())
                             .contentType(contentType)
                             .build()
             );
@@ -0,0 +1,492 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import shadowshift.studio.imagestorageservice.config.ImageVariantProperties;
+import shadowshift.studio.imagestorageservice.config.YandexStorageProperties;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Уменьшенные копии изображений для сетки каталога, мобильного читалки и аватаров.
+ * Запрошенная ширина округляется вверх до одной из {@code images.variants.widths}, копия кодируется
+ * в JPEG: WebP-кодировщика нет ни в JDK, ни среди зависимостей сервиса.
+ * Готовая копия кладется в хранилище рядом с оригиналом ({@code <key>.w320.jpg}) и в локальный
+ * дисковый кэш ограниченного размера; одновременные запросы одной копии генерируют ее один раз.
+ *
+ * @author ShadowShiftStudio
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    // Суффикс ключа копии: <key>.w320.jpg
+    private static final Pattern VARIANT_SUFFIX = Pattern.compile("(\\.w\\d+\\.jpg)+$");
+
+    /**
+     * Готовая копия изображения в JPEG
+     */
+    public record Variant(byte[] bytes) { }
+
+    @Autowired
+    private MinioClient minioClient;
+
+    @Autowired
+    private YandexStorageProperties yandexProperties;
+
+    @Autowired
+    private ImageVariantProperties properties;
+
+    private final ConcurrentMap<String, CompletableFuture<Optional<Variant>>> inFlight = new ConcurrentHashMap<>();
+
+    // Файлы локального кэша в порядке последнего обращения → размер
+    private final LinkedHashMap<String, Long> cacheIndex = new LinkedHashMap<>(256, 0.75f, true);
+    private long cacheBytes;
+    private Path cacheDir;
+    private List<Integer> widths = List.of();
+
+    @PostConstruct
+    public void init() {
+        widths = properties.getWidths().stream().filter(width -> width > 0).distinct().sorted().toList();
+        cacheDir = prepareCacheDir(Paths.get(properties.getCacheDir()));
+        if (cacheDir != null) {
+            evictOverflow(null);
+        }
+        logger.info("Image variants: widths {}, local cache {}", widths, cacheDir);
+    }
+
+    /**
+     * Возвращает копию изображения шириной не больше ближайшего разрешенного размера.
+     * Ключ, который сам указывает на копию ({@code <key>.w320.jpg}), сводится к ключу оригинала,
+     * чтобы не плодить копии копий.
+     *
+     * @param imageKey ключ оригинала в хранилище
+     * @param requestedWidth ширина, которую запросил клиент
+     * @return копия или пусто, если оригинала нет либо его не удалось декодировать
+     */
+    public Optional<Variant> getVariant(String imageKey, int requestedWidth) {
+        Integer width = bucketWidth(requestedWidth);
+        if (width == null) {
+            return Optional.empty();
+        }
+        String originalKey = originalKey(imageKey);
+        if (originalKey.isEmpty()) {
+            return Optional.empty();
+        }
+        String variantKey = variantKey(originalKey, width);
+
+        Optional<Variant> cached = readCache(variantKey);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        CompletableFuture<Optional<Variant>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<Variant>> existing = inFlight.putIfAbsent(variantKey, created);
+        if (existing != null) {
+            return existing.join();
+        }
+        try {
+            Optional<Variant> variant = loadOrGenerate(originalKey, variantKey, width);
+            created.complete(variant);
+            return variant;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to build variant {}: {}", variantKey, e.getMessage());
+            created.complete(Optional.empty());
+            return Optional.empty();
+        } finally {
+            inFlight.remove(variantKey, created);
+        }
+    }
+
+    /**
+     * Ключи всех возможных копий оригинала — для удаления вместе с ним
+     */
+    public List<String> variantKeys(String imageKey) {
+        List<String> keys = new ArrayList<>(widths.size());
+        for (Integer width : widths) {
+            keys.add(variantKey(imageKey, width));
+        }
+        return keys;
+    }
+
+    /**
+     * Удаляет копии оригинала из хранилища и локального кэша. Ошибки только логируются.
+     */
+    public void deleteVariants(String imageKey) {
+        List<String> keys = variantKeys(imageKey);
+        evictCached(imageKey);
+        try {
+            Iterable<Result<DeleteError>> errors = minioClient.removeObjects(
+                    RemoveObjectsArgs.builder()
+                            .bucket(yandexProperties.getBucketName())
+                            .objects(keys.stream().map(DeleteObject::new).toList())
+                            .build()
+            );
+            for (Result<DeleteError> result : errors) {
+                DeleteError error = result.get();
+                logger.warn("Failed to delete image variant {}: {}", error.objectName(), error.message());
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to delete variants of {}: {}", imageKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Убирает копии оригинала только из локального кэша — когда сами объекты удаляются пакетно
+     */
+    public void evictCached(String imageKey) {
+        variantKeys(imageKey).forEach(this::evictFromCache);
+    }
+
+    private Optional<Variant> loadOrGenerate(String imageKey, String variantKey, int width) {
+        byte[] stored = getObject(variantKey);
+        if (stored != null) {
+            writeCache(variantKey, stored);
+            return Optional.of(new Variant(stored));
+        }
+
+        byte[] original = getObject(imageKey);
+        if (original == null) {
+            return Optional.empty();
+        }
+        byte[] encoded = render(original, width);
+        if (encoded == null) {
+            return Optional.empty();
+        }
+
+        try {
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(yandexProperties.getBucketName())
+                            .object(variantKey)
+                            .stream(new ByteArrayInputStream(encoded), encoded.length, yandexProperties.getPartSize())
+                            .contentType(CONTENT_TYPE)
+                            .build()
+            );
+        } catch (Exception e) {
+            // Копию все равно отдаем, в следующий раз она будет сгенерирована заново
+            logger.warn("Failed to store image variant {}: {}", variantKey, e.getMessage());
+        }
+        writeCache(variantKey, encoded);
+        return Optional.of(new Variant(encoded));
+    }
+
+    private byte[] getObject(String objectKey) {
+        try (GetObjectResponse response = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(yandexProperties.getBucketName())
+                        .object(objectKey)
+                        .build())) {
+            return response.readAllBytes();
+        } catch (ErrorResponseException e) {
+            if (!"NoSuchKey".equalsIgnoreCase(e.errorResponse().code())) {
+                logger.warn("Failed to read {} from storage: {}", objectKey, e.getMessage());
+            }
+            return null;
+        } catch (Exception e) {
+            logger.warn("Failed to read {} from storage: {}", objectKey, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Декодирует оригинал, уменьшает его до width (без увеличения) и кодирует в JPEG
+     */
+    private byte[] render(byte[] original, int width) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(original))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > properties.getMaxSourcePixels()) {
+                    logger.warn("Image {}x{} is too large to build a variant", sourceWidth, sourceHeight);
+                    return null;
+                }
+                BufferedImage source = reader.read(0);
+                int targetWidth = Math.min(width, sourceWidth);
+                int targetHeight = Math.max(1, (int) Math.round((double) sourceHeight * targetWidth / sourceWidth));
+                return encode(resize(source, targetWidth, targetHeight));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to decode image for a variant: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Уменьшение последовательными шагами вдвое: билинейная интерполяция за один шаг дает на
+     * больших коэффициентах заметные артефакты
+     */
+    private static BufferedImage resize(BufferedImage source, int targetWidth, int targetHeight) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        boolean first = true;
+        do {
+            if (currentWidth / 2 >= targetWidth) {
+                currentWidth /= 2;
+                currentHeight = Math.max(targetHeight, currentHeight / 2);
+            } else {
+                currentWidth = targetWidth;
+                currentHeight = targetHeight;
+            }
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                if (first) {
+                    // JPEG без альфа-канала: прозрачные области PNG становятся белыми, а не черными
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, currentWidth, currentHeight);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+            first = false;
+        } while (currentWidth != targetWidth || currentHeight != targetHeight);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(CONTENT_TYPE);
+        if (!writers.hasNext()) {
+            throw new IOException("No ImageIO writer for " + CONTENT_TYPE);
+        }
+        ImageWriter writer = writers.next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(properties.getJpegQuality());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private Integer bucketWidth(int requestedWidth) {
+        if (requestedWidth <= 0 || widths.isEmpty()) {
+            return null;
+        }
+        for (Integer width : widths) {
+            if (width >= requestedWidth) {
+                return width;
+            }
+        }
+        return widths.get(widths.size() - 1);
+    }
+
+    private static String variantKey(String imageKey, int width) {
+        return imageKey + ".w" + width + ".jpg";
+    }
+
+    /**
+     * Ключ оригинала для ключа копии; ключ без суффикса копии возвращается как есть
+     */
+    static String originalKey(String imageKey) {
+        return VARIANT_SUFFIX.matcher(imageKey).replaceFirst("");
+    }
+
+    private Optional<Variant> readCache(String variantKey) {
+        if (cacheDir == null) {
+            return Optional.empty();
+        }
+        String name = cacheFileName(variantKey);
+        try {
+            byte[] bytes = Files.readAllBytes(cacheDir.resolve(name));
+            synchronized (cacheIndex) {
+                cacheIndex.get(name);
+            }
+            return Optional.of(new Variant(bytes));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            logger.warn("Failed to read cached variant {}: {}", variantKey, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void writeCache(String variantKey, byte[] bytes) {
+        if (cacheDir == null || bytes.length > properties.getCacheMaxBytes()) {
+            return;
+        }
+        String name = cacheFileName(variantKey);
+        Path target = cacheDir.resolve(name);
+        Path temp = cacheDir.resolve(name + "." + UUID.randomUUID() + ".part");
+        try {
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to cache variant {}: {}", variantKey, e.getMessage());
+            deleteQuietly(temp);
+            return;
+        }
+        remember(name, bytes.length);
+    }
+
+    private void evictFromCache(String variantKey) {
+        if (cacheDir == null) {
+            return;
+        }
+        String name = cacheFileName(variantKey);
+        synchronized (cacheIndex) {
+            Long size = cacheIndex.remove(name);
+            if (size != null) {
+                cacheBytes -= size;
+            }
+        }
+        deleteQuietly(cacheDir.resolve(name));
+    }
+
+    /**
+     * Учитывает файл в индексе и вытесняет самые давно запрошенные, пока кэш не уложится в лимит
+     */
+    private void remember(String name, long size) {
+        synchronized (cacheIndex) {
+            Long previous = cacheIndex.put(name, size);
+            cacheBytes += size - (previous != null ? previous : 0L);
+        }
+        evictOverflow(name);
+    }
+
+    private void evictOverflow(String keep) {
+        List<String> victims = new ArrayList<>();
+        synchronized (cacheIndex) {
+            Iterator<Map.Entry<String, Long>> iterator = cacheIndex.entrySet().iterator();
+            while (cacheBytes > properties.getCacheMaxBytes() && iterator.hasNext()) {
+                Map.Entry<String, Long> entry = iterator.next();
+                if (entry.getKey().equals(keep)) {
+                    continue;
+                }
+                victims.add(entry.getKey());
+                cacheBytes -= entry.getValue();
+                iterator.remove();
+            }
+        }
+        victims.forEach(victim -> deleteQuietly(cacheDir.resolve(victim)));
+    }
+
+    private Path prepareCacheDir(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(Files::isRegularFile)
+                        .sorted(Comparator.comparingLong(ImageVariantService::lastModified))
+                        .forEach(file -> {
+                            String name = file.getFileName().toString();
+                            if (name.endsWith(".part")) {
+                                deleteQuietly(file);
+                            } else {
+                                try {
+                                    long size = Files.size(file);
+                                    synchronized (cacheIndex) {
+                                        cacheIndex.put(name, size);
+                                        cacheBytes += size;
+                                    }
+                                } catch (IOException ignored) {
+                                    // Файл удалили во время сканирования
+                                }
+                            }
+                        });
+            }
+            return directory;
+        } catch (IOException | SecurityException e) {
+            logger.warn("Image variant cache {} is unavailable, variants will be served from storage only: {}",
+                    directory, e.getMessage());
+            return null;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static String cacheFileName(String variantKey) {
+        String extension = variantKey.substring(variantKey.lastIndexOf('.') + 1);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(variantKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest) + "." + extension;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+}
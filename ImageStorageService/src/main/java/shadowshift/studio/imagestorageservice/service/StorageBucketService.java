@@ -0,0 +1,124 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import io.minio.BucketExistsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.minio.errors.ErrorResponseException;
+import io.minio.errors.InsufficientDataException;
+import io.minio.errors.InternalException;
+import io.minio.errors.InvalidResponseException;
+import io.minio.errors.ServerException;
+import io.minio.errors.XmlParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import shadowshift.studio.imagestorageservice.config.YandexStorageProperties;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Проверяет наличие bucket один раз — при старте — и создает его при необходимости.
+ * Повторная проверка выполняется, только если хранилище ответило NoSuchBucket,
+ * поэтому запись объектов не тратит лишний запрос к хранилищу.
+ * Состояние bucket публикуется в {@code /actuator/health} как компонент {@code storageBucket}.
+ *
+ * @author ShadowShiftStudio
+ */
+@Service("storageBucket")
+public class StorageBucketService implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageBucketService.class);
+
+    @Autowired
+    private MinioClient minioClient;
+
+    @Autowired
+    private YandexStorageProperties yandexProperties;
+
+    private volatile boolean verified;
+    private volatile String lastError;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyOnStartup() {
+        try {
+            ensureBucket();
+        } catch (Exception e) {
+            // Не мешаем старту: проверка повторится при первой записи, состояние видно в health
+            logger.error("Bucket {} is not available at startup: {}", yandexProperties.getBucketName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Гарантирует, что bucket существует. После первой успешной проверки не обращается к хранилищу.
+     *
+     * @throws ErrorResponseException и другие ошибки MinIO, если хранилище недоступно или bucket не удалось создать
+     */
+    public void ensureBucket() throws ServerException, InsufficientDataException, ErrorResponseException,
+            IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException,
+            XmlParserException, InternalException {
+        if (verified) {
+            return;
+        }
+        synchronized (this) {
+            if (verified) {
+                return;
+            }
+            String bucket = yandexProperties.getBucketName();
+            try {
+                if (!minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucket).build())) {
+                    minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucket).build());
+                    logger.info("Created bucket {}", bucket);
+                }
+            } catch (ErrorResponseException e) {
+                // Как и прежде, ответ 400 на проверку bucket ошибкой не считаем
+                if (e.response() == null || e.response().code() != 400) {
+                    lastError = e.getMessage();
+                    throw e;
+                }
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                throw e;
+            }
+            verified = true;
+            lastError = null;
+            logger.info("Bucket {} verified", bucket);
+        }
+    }
+
+    /**
+     * Разбирает ошибку операции с объектом: если bucket пропал, следующая запись проверит его заново.
+     *
+     * @param e ошибка хранилища
+     */
+    public void onStorageError(ErrorResponseException e) {
+        if (e.errorResponse() != null && "NoSuchBucket".equalsIgnoreCase(e.errorResponse().code())) {
+            verified = false;
+            lastError = e.getMessage();
+            logger.warn("Bucket {} not found, it will be re-verified on the next write", yandexProperties.getBucketName());
+        }
+    }
+
+    @Override
+    public Health health() {
+        if (!verified) {
+            try {
+                ensureBucket();
+            } catch (Exception ignored) {
+                // Ошибка уже записана в lastError
+            }
+        }
+        Health.Builder builder = verified ? Health.up() : Health.down();
+        builder.withDetail("bucket", yandexProperties.getBucketName());
+        if (lastError != null) {
+            builder.withDetail("error", lastError);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,420 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import shadowshift.studio.imagestorageservice.config.YandexStorageProperties;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Потоковая загрузка изображений по URL прямо в хранилище. Тело ответа не собирается в памяти:
+ * оно проходит через поток с ограничением размера и подсчетом SHA-256 сразу в загрузку объекта,
+ * поэтому на одну загрузку приходится не больше одной части {@code yandex.storage.part-size}.
+ * Размеры изображения читаются только из заголовка файла. Одновременно выполняется не больше
+ * {@code images.url-import.max-concurrency} загрузок. Таймаут запроса ограничивает только ожидание
+ * заголовков ответа, поэтому на чтение тела отдельный срок {@code images.url-import.transfer-timeout-ms}:
+ * по его истечении поток тела закрывается, а загрузка завершается ошибкой.
+ *
+ * @author ShadowShiftStudio
+ */
+@Service
+public class UrlImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UrlImportService.class);
+
+    /** Сколько байт от начала файла разрешено прочитать в поисках размеров изображения */
+    private static final int HEADER_LIMIT = 256 * 1024;
+
+    /**
+     * Результат загрузки одного URL: либо описание сохраненного объекта, либо ошибка.
+     */
+    public record Outcome(String objectKey, long size, String sha256, String contentType,
+                          Integer width, Integer height, String error) {
+
+        static Outcome failed(String error) {
+            return new Outcome(null, 0, null, null, null, null, error);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    @Autowired
+    private MinioClient minioClient;
+
+    @Autowired
+    private YandexStorageProperties yandexProperties;
+
+    @Autowired
+    private StorageBucketService storageBucketService;
+
+    @Value("${images.url-import.max-concurrency:8}")
+    private int maxConcurrency = 8;
+
+    @Value("${images.url-import.max-bytes:33554432}")
+    private long maxBytes = 32L * 1024 * 1024;
+
+    @Value("${images.url-import.connect-timeout-ms:10000}")
+    private long connectTimeoutMs = 10_000;
+
+    @Value("${images.url-import.read-timeout-ms:30000}")
+    private long readTimeoutMs = 30_000;
+
+    @Value("${images.url-import.transfer-timeout-ms:120000}")
+    private long transferTimeoutMs = 120_000;
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("url-import-", 0).factory());
+    private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "url-import-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private HttpClient httpClient;
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+        permits = new Semaphore(Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * Загружает каждый URL в объект с заданным ключом, параллельно, но не больше лимита одновременно.
+     *
+     * @param targets URL источника → ключ объекта в хранилище
+     * @return результат по каждому URL в том же порядке
+     */
+    public Map<String, Outcome> importAll(Map<String, String> targets) {
+        Map<String, CompletableFuture<Outcome>> futures = new LinkedHashMap<>();
+        targets.forEach((url, key) -> futures.put(url, CompletableFuture.supplyAsync(() -> importOne(url, key), executor)));
+
+        Map<String, Outcome> outcomes = new LinkedHashMap<>();
+        futures.forEach((url, future) -> outcomes.put(url, future.join()));
+        return outcomes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        httpClient.shutdownNow();
+        executor.shutdownNow();
+        deadlines.shutdownNow();
+    }
+
+    private Outcome importOne(String imageUrl, String objectKey) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.failed("Interrupted");
+        }
+        try {
+            return transfer(imageUrl, objectKey);
+        } catch (Exception e) {
+            logger.warn("URL import of {} failed: {}", imageUrl, e.getMessage());
+            return Outcome.failed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Outcome transfer(String imageUrl, String objectKey) throws Exception {
+        URI uri = URI.create(imageUrl);
+        if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+            return Outcome.failed("Unsupported URL scheme: " + uri.getScheme());
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(readTimeoutMs))
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        DeadlineInputStream guarded = new DeadlineInputStream(response.body(), transferTimeoutMs);
+        ScheduledFuture<?> deadline = deadlines.schedule(guarded::expire, transferTimeoutMs, TimeUnit.MILLISECONDS);
+        try (InputStream body = guarded) {
+            if (response.statusCode() != 200) {
+                return Outcome.failed("HTTP " + response.statusCode());
+            }
+            long declaredLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+            if (declaredLength > maxBytes) {
+                return Outcome.failed("Image is larger than " + maxBytes + " bytes");
+            }
+            String contentType = response.headers().firstValue("Content-Type")
+                    .filter(type -> type.startsWith("image/"))
+                    .orElse("image/jpeg");
+
+            LimitedDigestInputStream counted = new LimitedDigestInputStream(body, maxBytes);
+            BufferedInputStream buffered = new BufferedInputStream(counted, 64 * 1024);
+            buffered.mark(HEADER_LIMIT + 1);
+            int[] dimensions = readDimensions(new HeaderInputStream(buffered, HEADER_LIMIT));
+            buffered.reset();
+
+            storageBucketService.ensureBucket();
+            try {
+                minioClient.putObject(
+                        PutObjectArgs.builder()
+                                .bucket(yandexProperties.getBucketName())
+                                .object(objectKey)
+                                .stream(buffered, declaredLength, yandexProperties.getPartSize())
+                                .contentType(contentType)
+                                .build()
+                );
+            } catch (ErrorResponseException e) {
+                storageBucketService.onStorageError(e);
+                throw e;
+            }
+
+            return new Outcome(objectKey, counted.getCount(), counted.getSha256(), contentType,
+                    dimensions != null ? dimensions[0] : null,
+                    dimensions != null ? dimensions[1] : null,
+                    null);
+        } finally {
+            deadline.cancel(false);
+        }
+    }
+
+    /**
+     * Читает ширину и высоту из заголовка изображения, не декодируя пиксели.
+     *
+     * @return {ширина, высота} или null, если формат не распознан
+     */
+    private static int[] readDimensions(InputStream header) {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(header)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[] { reader.getWidth(0), reader.getHeight(0) };
+            } finally {
+                reader.dispose();
+            }
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Обрывает чтение тела после срока: {@link #expire()} закрывает исходный поток, чтобы разбудить
+     * зависшее чтение. Закрытый поток может вернуть конец данных или ошибку «closed», поэтому после
+     * срока любое чтение бросает исключение о таймауте — обрезанный файл в хранилище не попадет.
+     */
+    private static final class DeadlineInputStream extends FilterInputStream {
+
+        private final long timeoutMs;
+        private volatile boolean expired;
+
+        DeadlineInputStream(InputStream in, long timeoutMs) {
+            super(in);
+            this.timeoutMs = timeoutMs;
+        }
+
+        void expire() {
+            expired = true;
+            try {
+                in.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close timed out response body: {}", e.getMessage());
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            int b;
+            try {
+                b = super.read();
+            } catch (IOException e) {
+                checkDeadline();
+                throw e;
+            }
+            checkDeadline();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            checkDeadline();
+            int n;
+            try {
+                n = super.read(buffer, offset, length);
+            } catch (IOException e) {
+                checkDeadline();
+                throw e;
+            }
+            checkDeadline();
+            return n;
+        }
+
+        private void checkDeadline() throws IOException {
+            if (expired) {
+                throw new IOException("Image download did not finish in " + timeoutMs + " ms");
+            }
+        }
+    }
+
+    /**
+     * Считает прочитанные байты и SHA-256; обрывает чтение, если тело больше лимита.
+     */
+    private static final class LimitedDigestInputStream extends FilterInputStream {
+
+        private final long limit;
+        private final MessageDigest digest;
+        private long count;
+
+        LimitedDigestInputStream(InputStream in, long limit) throws NoSuchAlgorithmException {
+            super(in);
+            this.limit = limit;
+            this.digest = MessageDigest.getInstance("SHA-256");
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                digest.update((byte) b);
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                digest.update(buffer, offset, n);
+                advance(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Пропуск сломал бы хеш — читаем и отбрасываем
+            byte[] scratch = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(scratch, 0, (int) Math.min(scratch.length, n - skipped));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void advance(int n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new IOException("Image is larger than " + limit + " bytes");
+            }
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        String getSha256() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    /**
+     * Отдает не больше limit байт и не закрывает исходный поток — он еще нужен для загрузки.
+     */
+    private static final class HeaderInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        HeaderInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // Исходный поток закрывает владелец
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package shadowshift.studio.imagestorageservice.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import shadowshift.studio.imagestorageservice.service.ImageStorageService;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Проверка входных данных пакетного импорта страниц по URL.
+ */
+class ImageStorageControllerTest {
+
+    private ImageStorageService imageStorageService;
+    private ImageStorageController controller;
+
+    @BeforeEach
+    void setUp() {
+        imageStorageService = mock(ImageStorageService.class);
+        controller = new ImageStorageController();
+        ReflectionTestUtils.setField(controller, "imageStorageService", imageStorageService);
+    }
+
+    @Test
+    void passesPagesInRequestOrder() {
+        when(imageStorageService.importImagesFromUrls(anyLong(), any())).thenReturn(List.of());
+
+        ResponseEntity<?> response = controller.importImagesFromUrls(7L, List.of(
+                Map.of("pageNumber", 2, "imageUrl", "http://example.org/2.png"),
+                Map.of("pageNumber", "1", "imageUrl", "http://example.org/1.png")));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<Integer, String> expected = new LinkedHashMap<>();
+        expected.put(2, "http://example.org/2.png");
+        expected.put(1, "http://example.org/1.png");
+        verify(imageStorageService).importImagesFromUrls(7L, expected);
+    }
+
+    @Test
+    void missingPageNumberIsBadRequest() {
+        ResponseEntity<?> response = controller.importImagesFromUrls(7L, List.of(
+                Map.of("imageUrl", "http://example.org/1.png")));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(imageStorageService, never()).importImagesFromUrls(anyLong(), any());
+    }
+
+    @Test
+    void nonIntegerPageNumberIsBadRequest() {
+        assertThat(controller.importImagesFromUrls(7L, List.of(Map.of("pageNumber", 1.5))).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(controller.importImagesFromUrls(7L, List.of(Map.of("pageNumber", "first"))).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(controller.importImagesFromUrls(7L, List.of(Map.of("pageNumber", 0))).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(imageStorageService, never()).importImagesFromUrls(anyLong(), any());
+    }
+
+    @Test
+    void duplicatePageNumberIsBadRequest() {
+        ResponseEntity<?> response = controller.importImagesFromUrls(7L, List.of(
+                Map.of("pageNumber", 3, "imageUrl", "http://example.org/a.png"),
+                Map.of("pageNumber", "3", "imageUrl", "http://example.org/b.png")));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("Duplicate pageNumber 3");
+        verify(imageStorageService, never()).importImagesFromUrls(anyLong(), any());
+    }
+
+    @Test
+    void emptyBodyIsBadRequest() {
+        assertThat(controller.importImagesFromUrls(7L, List.of()).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
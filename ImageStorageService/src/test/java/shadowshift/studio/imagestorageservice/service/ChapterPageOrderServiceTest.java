@@ -0,0 +1,241 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import shadowshift.studio.imagestorageservice.entity.ChapterImage;
+import shadowshift.studio.imagestorageservice.repository.ChapterImageRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Перенумерация страниц через временное смещение {@link ChapterPageOrderService#TEMP_PAGE_OFFSET}.
+ * Репозиторий подменен таблицей в памяти, повторяющей семантику запросов сдвига и перенумерации
+ * (unnest WITH ORDINALITY: первое вхождение идентификатора, пустые и чужие идентификаторы пропускаются,
+ * остальные страницы — в прежнем порядке). После каждого запроса проверяется уникальность (глава, страница).
+ */
+class ChapterPageOrderServiceTest {
+
+    private static final Long CHAPTER_ID = 7L;
+    private static final Long OTHER_CHAPTER_ID = 8L;
+
+    private final Map<Long, ChapterImage> rows = new HashMap<>();
+    private final AtomicLong ids = new AtomicLong(100);
+
+    private ChapterImageRepository imageRepository;
+    private ChapterPageOrderService service;
+
+    @BeforeEach
+    void setUp() {
+        imageRepository = mock(ChapterImageRepository.class);
+        when(imageRepository.shiftPages(anyLong(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            Long chapterId = invocation.getArgument(0);
+            int fromPage = invocation.getArgument(1);
+            int delta = invocation.getArgument(2);
+            int updated = 0;
+            for (ChapterImage image : chapterRows(chapterId)) {
+                if (image.getPageNumber() >= fromPage) {
+                    image.setPageNumber(image.getPageNumber() + delta);
+                    updated++;
+                }
+            }
+            assertUniquePages();
+            return updated;
+        });
+        when(imageRepository.renumberPages(anyLong(), anyString())).thenAnswer(invocation -> {
+            Long chapterId = invocation.getArgument(0);
+            String orderedIds = invocation.getArgument(1);
+            Map<Long, Integer> requested = new HashMap<>();
+            String[] parts = orderedIds.split(",", -1);
+            for (int pos = 0; pos < parts.length; pos++) {
+                if (!parts[pos].isEmpty()) {
+                    requested.putIfAbsent(Long.parseLong(parts[pos]), pos + 1);
+                }
+            }
+            List<ChapterImage> ranked = new ArrayList<>(chapterRows(chapterId));
+            ranked.sort(Comparator
+                    .comparing((ChapterImage image) -> requested.get(image.getId()),
+                            Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(ChapterImage::getPageNumber)
+                    .thenComparing(ChapterImage::getId));
+            for (int i = 0; i < ranked.size(); i++) {
+                ranked.get(i).setPageNumber(i + 1);
+            }
+            assertUniquePages();
+            return ranked.size();
+        });
+        when(imageRepository.findMaxPageNumberByChapterId(anyLong())).thenAnswer(invocation ->
+                Optional.of(chapterRows(invocation.getArgument(0)).stream()
+                        .mapToInt(ChapterImage::getPageNumber).max().orElse(0)));
+        when(imageRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<ChapterImage> saved = invocation.getArgument(0);
+            saved.forEach(image -> {
+                image.setId(ids.incrementAndGet());
+                rows.put(image.getId(), image);
+            });
+            assertUniquePages();
+            return saved;
+        });
+        when(imageRepository.findImageKeysByPageRange(anyLong(), anyInt(), anyInt())).thenAnswer(invocation ->
+                pagesInRange(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)).stream()
+                        .map(ChapterImage::getImageKey).toList());
+        when(imageRepository.deleteByPageRange(anyLong(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            List<ChapterImage> removed = pagesInRange(invocation.getArgument(0), invocation.getArgument(1),
+                    invocation.getArgument(2));
+            removed.forEach(image -> rows.remove(image.getId()));
+            return removed.size();
+        });
+        when(imageRepository.findByChapterIdOrderByPageNumberAsc(anyLong())).thenAnswer(invocation ->
+                chapterRows(invocation.getArgument(0)).stream()
+                        .sorted(Comparator.comparing(ChapterImage::getPageNumber)).toList());
+
+        service = new ChapterPageOrderService();
+        ReflectionTestUtils.setField(service, "imageRepository", imageRepository);
+
+        for (int page = 1; page <= 5; page++) {
+            addPage(CHAPTER_ID, (long) page, page);
+        }
+        addPage(OTHER_CHAPTER_ID, 50L, 1);
+    }
+
+    @Test
+    void reorderPutsListedPagesFirstAndKeepsTheRest() {
+        List<ChapterImage> pages = service.reorder(CHAPTER_ID, List.of(4L, 2L));
+
+        assertThat(pages).extracting(ChapterImage::getId).containsExactly(4L, 2L, 1L, 3L, 5L);
+        assertThat(pages).extracting(ChapterImage::getPageNumber).containsExactly(1, 2, 3, 4, 5);
+        InOrder order = inOrder(imageRepository);
+        order.verify(imageRepository).shiftPages(CHAPTER_ID, 1, ChapterPageOrderService.TEMP_PAGE_OFFSET);
+        order.verify(imageRepository).renumberPages(CHAPTER_ID, "4,2");
+    }
+
+    @Test
+    void reorderIgnoresNullsDuplicatesAndForeignImages() {
+        List<ChapterImage> pages = service.reorder(CHAPTER_ID, Arrays.asList(5L, null, 50L, 3L, 5L));
+
+        assertThat(pages).extracting(ChapterImage::getId).containsExactly(5L, 3L, 1L, 2L, 4L);
+        assertThat(rows.get(50L).getPageNumber()).isEqualTo(1);
+        verify(imageRepository).renumberPages(CHAPTER_ID, "5,50,3,5");
+    }
+
+    @Test
+    void reorderWithoutListClosesGaps() {
+        rows.get(3L).setPageNumber(9);
+
+        List<ChapterImage> pages = service.reorder(CHAPTER_ID, null);
+
+        assertThat(pages).extracting(ChapterImage::getId).containsExactly(1L, 2L, 4L, 5L, 3L);
+        assertThat(pages).extracting(ChapterImage::getPageNumber).containsExactly(1, 2, 3, 4, 5);
+        verify(imageRepository).renumberPages(CHAPTER_ID, "");
+    }
+
+    @Test
+    void insertShiftsTailThroughOffset() {
+        List<ChapterImage> pages = service.insert(CHAPTER_ID, 2, List.of(newPage("a"), newPage("b")));
+
+        assertThat(pages).extracting(ChapterImage::getImageKey)
+                .containsExactly("page-1", "a", "b", "page-2", "page-3", "page-4", "page-5");
+        assertThat(pages).extracting(ChapterImage::getPageNumber).containsExactly(1, 2, 3, 4, 5, 6, 7);
+        InOrder order = inOrder(imageRepository);
+        order.verify(imageRepository).lockPagesByChapterId(CHAPTER_ID);
+        order.verify(imageRepository).findMaxPageNumberByChapterId(CHAPTER_ID);
+        order.verify(imageRepository).shiftPages(CHAPTER_ID, 2, ChapterPageOrderService.TEMP_PAGE_OFFSET);
+        order.verify(imageRepository).shiftPages(CHAPTER_ID, ChapterPageOrderService.TEMP_PAGE_OFFSET,
+                2 - ChapterPageOrderService.TEMP_PAGE_OFFSET);
+        order.verify(imageRepository).saveAll(any());
+    }
+
+    @Test
+    void insertPositionIsClampedToCurrentPagesInsideTransaction() {
+        // Страницы удалены после того, как клиент выбрал позицию
+        rows.remove(4L);
+        rows.remove(5L);
+
+        List<ChapterImage> appended = service.insert(CHAPTER_ID, 10, List.of(newPage("end")));
+        List<ChapterImage> first = service.insert(CHAPTER_ID, 0, List.of(newPage("start")));
+        List<ChapterImage> noPosition = service.insert(CHAPTER_ID, null, List.of(newPage("tail")));
+
+        assertThat(appended).extracting(ChapterImage::getImageKey).endsWith("end");
+        assertThat(first).extracting(ChapterImage::getImageKey).startsWith("start");
+        assertThat(noPosition).extracting(ChapterImage::getImageKey)
+                .containsExactly("start", "page-1", "page-2", "page-3", "end", "tail");
+        assertThat(noPosition).extracting(ChapterImage::getPageNumber).containsExactly(1, 2, 3, 4, 5, 6);
+    }
+
+    @Test
+    void removeRangeDeletesAndRenumbersRemainingPages() {
+        List<String> keys = service.removeRange(CHAPTER_ID, 2, 3);
+
+        assertThat(keys).containsExactlyInAnyOrder("page-2", "page-3");
+        assertThat(imageRepository.findByChapterIdOrderByPageNumberAsc(CHAPTER_ID))
+                .extracting(ChapterImage::getImageKey, ChapterImage::getPageNumber)
+                .containsExactly(
+                        tuple("page-1", 1),
+                        tuple("page-4", 2),
+                        tuple("page-5", 3));
+        assertThat(rows.get(50L).getPageNumber()).isEqualTo(1);
+    }
+
+    @Test
+    void emptyRangeChangesNothing() {
+        List<String> keys = service.removeRange(CHAPTER_ID, 8, 9);
+
+        assertThat(keys).isEmpty();
+        verify(imageRepository, never()).deleteByPageRange(anyLong(), anyInt(), anyInt());
+        verify(imageRepository, never()).shiftPages(anyLong(), anyInt(), anyInt());
+        verify(imageRepository, never()).renumberPages(anyLong(), anyString());
+    }
+
+    private void addPage(Long chapterId, Long id, int pageNumber) {
+        ChapterImage image = new ChapterImage();
+        image.setId(id);
+        image.setChapterId(chapterId);
+        image.setPageNumber(pageNumber);
+        image.setImageKey(chapterId.equals(CHAPTER_ID) ? "page-" + pageNumber : "other-" + pageNumber);
+        rows.put(id, image);
+    }
+
+    private static ChapterImage newPage(String key) {
+        ChapterImage image = new ChapterImage();
+        image.setChapterId(CHAPTER_ID);
+        image.setImageKey(key);
+        return image;
+    }
+
+    private List<ChapterImage> chapterRows(Long chapterId) {
+        return rows.values().stream().filter(image -> image.getChapterId().equals(chapterId)).toList();
+    }
+
+    private List<ChapterImage> pagesInRange(Long chapterId, int fromPage, int toPage) {
+        return chapterRows(chapterId).stream()
+                .filter(image -> image.getPageNumber() >= fromPage && image.getPageNumber() <= toPage)
+                .toList();
+    }
+
+    /** Ограничение уникальности (глава, страница) после каждого запроса */
+    private void assertUniquePages() {
+        assertThat(rows.values())
+                .extracting(image -> image.getChapterId() + ":" + image.getPageNumber())
+                .doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,161 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import shadowshift.studio.imagestorageservice.config.YandexStorageProperties;
+import shadowshift.studio.imagestorageservice.dto.ChapterPageUrlsDTO;
+import shadowshift.studio.imagestorageservice.entity.ChapterImage;
+import shadowshift.studio.imagestorageservice.repository.ChapterImageRepository;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Кэш подписанных ссылок главы: перевыпуск за refresh-margin до истечения, сброс при изменении
+ * страниц и запасная ссылка на прокси. Подписывающий клиент подменен заглушкой.
+ */
+class ChapterPageUrlServiceTest {
+
+    private static final Long CHAPTER_ID = 5L;
+
+    private final AtomicInteger signatures = new AtomicInteger();
+
+    private ChapterImageRepository imageRepository;
+    private MinioClient presignClient;
+    private ChapterPageUrlService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        YandexStorageProperties storageProperties = new YandexStorageProperties();
+        storageProperties.setEndpoint("http://minio:9000");
+        storageProperties.setPublicEndpoint("http://localhost:9000/");
+        storageProperties.setAccessKey("access");
+        storageProperties.setSecretKey("secret");
+        storageProperties.setRegion("ru-central1");
+        storageProperties.setBucketName("test-bucket");
+
+        imageRepository = mock(ChapterImageRepository.class);
+        when(imageRepository.findByChapterIdOrderByPageNumberAsc(CHAPTER_ID))
+                .thenReturn(List.of(page(1L, 1, "chapters/5/1.jpg"), page(2L, 2, "chapters/5/2.jpg")));
+
+        service = new ChapterPageUrlService();
+        ReflectionTestUtils.setField(service, "imageRepository", imageRepository);
+        ReflectionTestUtils.setField(service, "yandexProperties", storageProperties);
+        service.init();
+
+        presignClient = mock(MinioClient.class);
+        when(presignClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class))).thenAnswer(invocation -> {
+            GetPresignedObjectUrlArgs args = invocation.getArgument(0);
+            return "signed/" + args.object() + "?v=" + signatures.incrementAndGet();
+        });
+    }
+
+    @Test
+    void urlsAreSignedForPublicEndpoint() {
+        ChapterPageUrlsDTO urls = service.getChapterPageUrls(CHAPTER_ID);
+
+        ChapterPageUrlsDTO.PageUrlDTO first = urls.getPages().get(0);
+        assertThat(first.getUrl()).startsWith("http://localhost:9000/test-bucket/chapters/5/1.jpg?")
+                .contains("X-Amz-Expires=900");
+        assertThat(first.getCdnUrl()).isEqualTo("http://localhost:9000/test-bucket/chapters/5/1.jpg");
+        assertThat(urls.getPages()).extracting(ChapterPageUrlsDTO.PageUrlDTO::getPageNumber).containsExactly(1, 2);
+    }
+
+    @Test
+    void cachedUrlsAreReusedBeforeRefreshMargin() {
+        useStubbedSigner();
+
+        ChapterPageUrlsDTO first = service.getChapterPageUrls(CHAPTER_ID);
+        ChapterPageUrlsDTO second = service.getChapterPageUrls(CHAPTER_ID);
+
+        assertThat(second).isSameAs(first);
+        assertThat(signatures).hasValue(2);
+        verify(imageRepository, times(1)).findByChapterIdOrderByPageNumberAsc(CHAPTER_ID);
+    }
+
+    @Test
+    void urlsInsideRefreshMarginAreSignedAgain() {
+        useStubbedSigner();
+        // Запас равен сроку жизни: записи кэша устаревают сразу после выпуска
+        ReflectionTestUtils.setField(service, "refreshMarginSeconds", 900);
+
+        ChapterPageUrlsDTO first = service.getChapterPageUrls(CHAPTER_ID);
+        ChapterPageUrlsDTO second = service.getChapterPageUrls(CHAPTER_ID);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPages().get(0).getUrl()).isEqualTo("signed/chapters/5/1.jpg?v=3");
+        verify(imageRepository, times(2)).findByChapterIdOrderByPageNumberAsc(CHAPTER_ID);
+    }
+
+    @Test
+    void invalidateDropsCachedUrls() {
+        useStubbedSigner();
+        service.getChapterPageUrls(CHAPTER_ID);
+        when(imageRepository.findByChapterIdOrderByPageNumberAsc(CHAPTER_ID))
+                .thenReturn(List.of(page(3L, 1, "chapters/5/new.jpg")));
+
+        service.invalidate(CHAPTER_ID);
+        ChapterPageUrlsDTO urls = service.getChapterPageUrls(CHAPTER_ID);
+
+        assertThat(urls.getPages()).extracting(ChapterPageUrlsDTO.PageUrlDTO::getId).containsExactly(3L);
+        service.invalidate(null);
+    }
+
+    @Test
+    void unsignedPageFallsBackToProxy() throws Exception {
+        useStubbedSigner();
+        when(presignClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class)))
+                .thenThrow(new IOException("no credentials"))
+                .thenReturn("signed/chapters/5/2.jpg");
+
+        ChapterPageUrlsDTO urls = service.getChapterPageUrls(CHAPTER_ID);
+
+        assertThat(urls.getPages()).extracting(ChapterPageUrlsDTO.PageUrlDTO::getUrl)
+                .containsExactly("/api/images/proxy/chapters/5/1.jpg", "signed/chapters/5/2.jpg");
+    }
+
+    @Test
+    void emptyChapterIsNotCached() {
+        useStubbedSigner();
+        when(imageRepository.findByChapterIdOrderByPageNumberAsc(CHAPTER_ID)).thenReturn(List.of());
+
+        assertThat(service.getChapterPageUrls(CHAPTER_ID).getPages()).isEmpty();
+        service.getChapterPageUrls(CHAPTER_ID);
+
+        verify(imageRepository, times(2)).findByChapterIdOrderByPageNumberAsc(CHAPTER_ID);
+    }
+
+    @Test
+    void clientCacheEndsBeforeRefreshMargin() {
+        ChapterPageUrlsDTO urls = new ChapterPageUrlsDTO(CHAPTER_ID, Instant.now().plusSeconds(900), List.of());
+        ChapterPageUrlsDTO expiring = new ChapterPageUrlsDTO(CHAPTER_ID, Instant.now().plusSeconds(60), List.of());
+
+        assertThat(service.clientCacheSeconds(urls)).isBetween(779L, 780L);
+        assertThat(service.clientCacheSeconds(expiring)).isZero();
+    }
+
+    private void useStubbedSigner() {
+        ReflectionTestUtils.setField(service, "presignClient", presignClient);
+    }
+
+    private static ChapterImage page(Long id, int pageNumber, String imageKey) {
+        ChapterImage image = new ChapterImage();
+        image.setId(id);
+        image.setChapterId(CHAPTER_ID);
+        image.setPageNumber(pageNumber);
+        image.setImageKey(imageKey);
+        return image;
+    }
+}
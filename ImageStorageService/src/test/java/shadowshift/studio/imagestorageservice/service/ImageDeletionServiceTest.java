@@ -0,0 +1,155 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import shadowshift.studio.imagestorageservice.config.YandexStorageProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Повторы фонового удаления: сбой перечисления префикса и частичный отказ multi-object delete.
+ * Хранилище подменено набором ключей в памяти.
+ */
+class ImageDeletionServiceTest {
+
+    private final Set<String> objects = ConcurrentHashMap.newKeySet();
+    private final List<List<String>> removeRequests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger listingFailures = new AtomicInteger();
+    private final Set<String> refusedOnce = ConcurrentHashMap.newKeySet();
+
+    private ImageDeletionService service;
+
+    @BeforeEach
+    void setUp() {
+        MinioClient minioClient = mock(MinioClient.class);
+        when(minioClient.listObjects(any(ListObjectsArgs.class))).thenAnswer(invocation -> {
+            if (listingFailures.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                throw new IllegalStateException("listing timed out");
+            }
+            ListObjectsArgs args = invocation.getArgument(0);
+            List<Result<Item>> items = new ArrayList<>();
+            objects.stream().filter(key -> key.startsWith(args.prefix())).sorted().forEach(key -> {
+                Item item = mock(Item.class);
+                when(item.objectName()).thenReturn(key);
+                items.add(new Result<>(item));
+            });
+            return items;
+        });
+        when(minioClient.removeObjects(any(RemoveObjectsArgs.class))).thenAnswer(invocation -> {
+            RemoveObjectsArgs args = invocation.getArgument(0);
+            List<String> keys = new ArrayList<>();
+            args.objects().forEach(object -> keys.add(nameOf(object)));
+            removeRequests.add(keys);
+            List<Result<DeleteError>> errors = new ArrayList<>();
+            for (String key : keys) {
+                if (refusedOnce.remove(key)) {
+                    errors.add(new Result<>(deleteError(key, "InternalError")));
+                } else if (!objects.remove(key)) {
+                    errors.add(new Result<>(deleteError(key, "NoSuchKey")));
+                }
+            }
+            return errors;
+        });
+
+        YandexStorageProperties storageProperties = new YandexStorageProperties();
+        storageProperties.setBucketName("test-bucket");
+
+        service = new ImageDeletionService();
+        ReflectionTestUtils.setField(service, "minioClient", minioClient);
+        ReflectionTestUtils.setField(service, "yandexProperties", storageProperties);
+        ReflectionTestUtils.setField(service, "retryDelayMs", 10L);
+        ReflectionTestUtils.setField(service, "maxAttempts", 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void prefixIsListedAgainAfterListingFailure() throws Exception {
+        objects.addAll(List.of("chapters/1/page_1.jpg", "chapters/1/page_1.jpg.w320.jpg", "chapters/1/page_2.jpg"));
+        listingFailures.set(1);
+
+        ImageDeletionService.DeletionJob job = await(service.submit("chapter 1", List.of("covers/1.jpg"),
+                List.of("chapters/1/")));
+
+        assertThat(job.getStatus()).isEqualTo(ImageDeletionService.Status.COMPLETED);
+        assertThat(job.getAttempts()).isEqualTo(2);
+        assertThat(objects).isEmpty();
+        assertThat(job.getTotalKeys()).isEqualTo(4);
+        assertThat(job.getDeletedKeys()).isEqualTo(4);
+        assertThat(job.getLastError()).isNull();
+    }
+
+    @Test
+    void listingThatNeverSucceedsFailsTheJob() throws Exception {
+        objects.add("chapters/2/page_1.jpg");
+        listingFailures.set(Integer.MAX_VALUE);
+
+        ImageDeletionService.DeletionJob job = await(service.submit("chapter 2", List.of(), List.of("chapters/2/")));
+
+        assertThat(job.getStatus()).isEqualTo(ImageDeletionService.Status.FAILED);
+        assertThat(job.getAttempts()).isEqualTo(5);
+        assertThat(job.getLastError()).contains("chapters/2/");
+        assertThat(objects).containsExactly("chapters/2/page_1.jpg");
+    }
+
+    @Test
+    void onlyKeysRefusedByStorageAreRetried() throws Exception {
+        objects.addAll(List.of("a.jpg", "b.jpg", "c.jpg"));
+        refusedOnce.add("b.jpg");
+
+        ImageDeletionService.DeletionJob job = await(service.submit("pages", List.of("a.jpg", "b.jpg", "c.jpg", "gone.jpg"),
+                List.of()));
+
+        assertThat(job.getStatus()).isEqualTo(ImageDeletionService.Status.COMPLETED);
+        assertThat(removeRequests).hasSize(2);
+        assertThat(removeRequests.get(0)).containsExactly("a.jpg", "b.jpg", "c.jpg", "gone.jpg");
+        assertThat(removeRequests.get(1)).containsExactly("b.jpg");
+        assertThat(objects).isEmpty();
+        assertThat(job.getDeletedKeys()).isEqualTo(4);
+        assertThat(job.getFailedKeys()).isZero();
+    }
+
+    private static ImageDeletionService.DeletionJob await(ImageDeletionService.DeletionJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (job.getFinishedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(job.getFinishedAt()).as("deletion job finished").isNotNull();
+        return job;
+    }
+
+    private static String nameOf(DeleteObject object) {
+        return (String) ReflectionTestUtils.getField(object, "name");
+    }
+
+    private static DeleteError deleteError(String key, String code) {
+        DeleteError error = mock(DeleteError.class);
+        when(error.code()).thenReturn(code);
+        when(error.objectName()).thenReturn(key);
+        when(error.message()).thenReturn(code);
+        return error;
+    }
+}
@@ -0,0 +1,249 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.ErrorResponse;
+import okhttp3.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import shadowshift.studio.imagestorageservice.config.ImageVariantProperties;
+import shadowshift.studio.imagestorageservice.config.YandexStorageProperties;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Проверяет выбор ширины копии, запрет увеличения и однократную генерацию копии при одновременных
+ * запросах. Хранилище подменено словарем в памяти.
+ */
+class ImageVariantServiceTest {
+
+    private static final String BUCKET = "test-bucket";
+    private static final String IMAGE_KEY = "chapters/1/page-1.png";
+
+    @TempDir
+    Path cacheDir;
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> reads = new ConcurrentHashMap<>();
+    private final AtomicInteger writes = new AtomicInteger();
+    private volatile CountDownLatch originalReadGate;
+
+    private ImageVariantService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MinioClient minioClient = mock(MinioClient.class);
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            GetObjectArgs args = invocation.getArgument(0);
+            String key = args.object();
+            reads.computeIfAbsent(key, ignored -> new AtomicInteger()).incrementAndGet();
+            CountDownLatch gate = originalReadGate;
+            if (gate != null && key.equals(IMAGE_KEY)) {
+                gate.await(5, TimeUnit.SECONDS);
+            }
+            byte[] bytes = objects.get(key);
+            if (bytes == null) {
+                throw new ErrorResponseException(
+                        new ErrorResponse("NoSuchKey", "missing", BUCKET, key, key, null, null), null, null);
+            }
+            return new GetObjectResponse(Headers.of(), BUCKET, null, key, new ByteArrayInputStream(bytes));
+        });
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenAnswer(invocation -> {
+            PutObjectArgs args = invocation.getArgument(0);
+            objects.put(args.object(), args.stream().readAllBytes());
+            writes.incrementAndGet();
+            return null;
+        });
+
+        YandexStorageProperties storageProperties = new YandexStorageProperties();
+        storageProperties.setBucketName(BUCKET);
+        ImageVariantProperties variantProperties = new ImageVariantProperties();
+        variantProperties.setWidths(List.of(640, 160, 320));
+        variantProperties.setCacheDir(cacheDir.toString());
+
+        service = new ImageVariantService();
+        ReflectionTestUtils.setField(service, "minioClient", minioClient);
+        ReflectionTestUtils.setField(service, "yandexProperties", storageProperties);
+        ReflectionTestUtils.setField(service, "properties", variantProperties);
+        service.init();
+    }
+
+    @Test
+    void roundsRequestedWidthUpToConfiguredBucket() throws IOException {
+        objects.put(IMAGE_KEY, png(1000, 500));
+
+        Optional<ImageVariantService.Variant> variant = service.getVariant(IMAGE_KEY, 200);
+
+        assertThat(variant).isPresent();
+        BufferedImage image = decode(variant.get());
+        assertThat(image.getWidth()).isEqualTo(320);
+        assertThat(image.getHeight()).isEqualTo(160);
+        assertThat(objects).containsKey(IMAGE_KEY + ".w320.jpg");
+    }
+
+    @Test
+    void widthAboveLargestBucketUsesLargestBucket() throws IOException {
+        objects.put(IMAGE_KEY, png(1000, 500));
+
+        Optional<ImageVariantService.Variant> variant = service.getVariant(IMAGE_KEY, 5000);
+
+        assertThat(variant).isPresent();
+        assertThat(decode(variant.get()).getWidth()).isEqualTo(640);
+        assertThat(objects).containsKey(IMAGE_KEY + ".w640.jpg");
+    }
+
+    @Test
+    void exactBucketWidthIsKept() throws IOException {
+        objects.put(IMAGE_KEY, png(1000, 500));
+
+        Optional<ImageVariantService.Variant> variant = service.getVariant(IMAGE_KEY, 160);
+
+        assertThat(variant).isPresent();
+        assertThat(decode(variant.get()).getWidth()).isEqualTo(160);
+    }
+
+    @Test
+    void nonPositiveWidthIsRejected() {
+        objects.put(IMAGE_KEY, new byte[] {1});
+
+        assertThat(service.getVariant(IMAGE_KEY, 0)).isEmpty();
+        assertThat(service.getVariant(IMAGE_KEY, -10)).isEmpty();
+        assertThat(reads).isEmpty();
+    }
+
+    @Test
+    void smallerOriginalIsNotUpscaled() throws IOException {
+        objects.put(IMAGE_KEY, png(100, 80));
+
+        Optional<ImageVariantService.Variant> variant = service.getVariant(IMAGE_KEY, 600);
+
+        assertThat(variant).isPresent();
+        BufferedImage image = decode(variant.get());
+        assertThat(image.getWidth()).isEqualTo(100);
+        assertThat(image.getHeight()).isEqualTo(80);
+        // Копия все равно сохраняется под ключом запрошенной ширины
+        assertThat(objects).containsKey(IMAGE_KEY + ".w640.jpg");
+    }
+
+    @Test
+    void missingOriginalGivesNoVariant() {
+        assertThat(service.getVariant(IMAGE_KEY, 320)).isEmpty();
+        assertThat(writes).hasValue(0);
+    }
+
+    @Test
+    void storedVariantIsServedWithoutRendering() throws IOException {
+        byte[] stored = jpeg(320, 160);
+        objects.put(IMAGE_KEY + ".w320.jpg", stored);
+
+        Optional<ImageVariantService.Variant> variant = service.getVariant(IMAGE_KEY, 300);
+
+        assertThat(variant).isPresent();
+        assertThat(variant.get().bytes()).isEqualTo(stored);
+        assertThat(reads).doesNotContainKey(IMAGE_KEY);
+        assertThat(writes).hasValue(0);
+    }
+
+    @Test
+    void variantKeyIsResizedFromItsOriginal() throws IOException {
+        objects.put(IMAGE_KEY, png(1000, 500));
+        objects.put(IMAGE_KEY + ".w640.jpg", jpeg(640, 320));
+
+        Optional<ImageVariantService.Variant> variant = service.getVariant(IMAGE_KEY + ".w640.jpg", 160);
+
+        assertThat(variant).isPresent();
+        assertThat(decode(variant.get()).getWidth()).isEqualTo(160);
+        assertThat(objects).containsKey(IMAGE_KEY + ".w160.jpg");
+        assertThat(objects.keySet()).noneMatch(key -> key.endsWith(".w640.jpg.w160.jpg"));
+    }
+
+    @Test
+    void originalKeyStripsOnlyVariantSuffixes() {
+        assertThat(ImageVariantService.originalKey(IMAGE_KEY)).isEqualTo(IMAGE_KEY);
+        assertThat(ImageVariantService.originalKey(IMAGE_KEY + ".w320.jpg")).isEqualTo(IMAGE_KEY);
+        assertThat(ImageVariantService.originalKey(IMAGE_KEY + ".w320.jpg.w160.jpg")).isEqualTo(IMAGE_KEY);
+        assertThat(ImageVariantService.originalKey("covers/w320.jpg")).isEqualTo("covers/w320.jpg");
+    }
+
+    @Test
+    void concurrentRequestsRenderVariantOnce() throws Exception {
+        objects.put(IMAGE_KEY, png(1200, 800));
+        originalReadGate = new CountDownLatch(1);
+        int callers = 8;
+        CountDownLatch ready = new CountDownLatch(callers);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Optional<ImageVariantService.Variant>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    return service.getVariant(IMAGE_KEY, 300);
+                }));
+            }
+            ready.await(5, TimeUnit.SECONDS);
+            // Первый запрос держит генерацию, остальные успевают встать в ожидание
+            Thread.sleep(200);
+            originalReadGate.countDown();
+
+            byte[] first = null;
+            for (Future<Optional<ImageVariantService.Variant>> result : results) {
+                Optional<ImageVariantService.Variant> variant = result.get(10, TimeUnit.SECONDS);
+                assertThat(variant).isPresent();
+                if (first == null) {
+                    first = variant.get().bytes();
+                } else {
+                    assertThat(variant.get().bytes()).isEqualTo(first);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(reads.get(IMAGE_KEY)).hasValue(1);
+        assertThat(writes).hasValue(1);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        return write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png");
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        return write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg");
+    }
+
+    private static byte[] write(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, format, output);
+        return output.toByteArray();
+    }
+
+    private static BufferedImage decode(ImageVariantService.Variant variant) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(variant.bytes()));
+    }
+}
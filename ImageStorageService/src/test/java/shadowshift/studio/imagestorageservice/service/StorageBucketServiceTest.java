@@ -0,0 +1,164 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import io.minio.BucketExistsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.ErrorResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import shadowshift.studio.imagestorageservice.config.YandexStorageProperties;
+import shadowshift.studio.imagestorageservice.entity.ChapterImage;
+import shadowshift.studio.imagestorageservice.repository.ChapterImageRepository;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bucket проверяется один раз и повторно — только после ответа NoSuchBucket на запись объекта.
+ * Хранилище подменено флагом существования bucket.
+ */
+class StorageBucketServiceTest {
+
+    private static final String BUCKET = "test-bucket";
+
+    private final AtomicBoolean bucketExists = new AtomicBoolean(true);
+
+    private MinioClient minioClient;
+    private StorageBucketService bucketService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        minioClient = mock(MinioClient.class);
+        when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenAnswer(invocation -> bucketExists.get());
+        doAnswer(invocation -> {
+            bucketExists.set(true);
+            return null;
+        }).when(minioClient).makeBucket(any(MakeBucketArgs.class));
+
+        YandexStorageProperties properties = new YandexStorageProperties();
+        properties.setBucketName(BUCKET);
+        properties.setPublicEndpoint("https://storage.test");
+
+        bucketService = new StorageBucketService();
+        ReflectionTestUtils.setField(bucketService, "minioClient", minioClient);
+        ReflectionTestUtils.setField(bucketService, "yandexProperties", properties);
+    }
+
+    @Test
+    void bucketIsVerifiedOnlyOnce() throws Exception {
+        bucketService.verifyOnStartup();
+        bucketService.ensureBucket();
+        bucketService.ensureBucket();
+
+        verify(minioClient, times(1)).bucketExists(any(BucketExistsArgs.class));
+        verify(minioClient, never()).makeBucket(any(MakeBucketArgs.class));
+        assertThat(bucketService.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void missingBucketIsCreatedAtStartup() throws Exception {
+        bucketExists.set(false);
+
+        bucketService.verifyOnStartup();
+
+        verify(minioClient).makeBucket(any(MakeBucketArgs.class));
+        assertThat(bucketExists).isTrue();
+    }
+
+    @Test
+    void noSuchBucketTriggersReverification() throws Exception {
+        bucketService.ensureBucket();
+
+        bucketExists.set(false);
+        bucketService.onStorageError(storageError("NoSuchBucket"));
+        bucketService.ensureBucket();
+
+        verify(minioClient, times(2)).bucketExists(any(BucketExistsArgs.class));
+        verify(minioClient).makeBucket(any(MakeBucketArgs.class));
+    }
+
+    @Test
+    void otherObjectErrorsKeepBucketVerified() throws Exception {
+        bucketService.ensureBucket();
+
+        bucketService.onStorageError(storageError("AccessDenied"));
+        bucketService.onStorageError(storageError("NoSuchKey"));
+        bucketService.ensureBucket();
+
+        verify(minioClient, times(1)).bucketExists(any(BucketExistsArgs.class));
+    }
+
+    @Test
+    void unavailableStorageIsReportedAndRetried() throws Exception {
+        when(minioClient.bucketExists(any(BucketExistsArgs.class)))
+                .thenThrow(new IOException("connection refused"))
+                .thenThrow(new IOException("connection refused"))
+                .thenAnswer(invocation -> bucketExists.get());
+
+        // Старт не падает, а ошибка видна в health до первой успешной проверки
+        bucketService.verifyOnStartup();
+        Health down = bucketService.health();
+        assertThat(down.getStatus()).isEqualTo(Status.DOWN);
+        assertThat(down.getDetails()).containsEntry("error", "connection refused");
+
+        bucketService.ensureBucket();
+        assertThat(bucketService.health().getStatus()).isEqualTo(Status.UP);
+        verify(minioClient, times(3)).bucketExists(any(BucketExistsArgs.class));
+    }
+
+    @Test
+    void uploadAfterNoSuchBucketRecreatesBucket() throws Exception {
+        ChapterImageRepository imageRepository = mock(ChapterImageRepository.class);
+        when(imageRepository.findByChapterIdAndPageNumber(anyLong(), anyInt())).thenReturn(Optional.empty());
+        when(imageRepository.save(any(ChapterImage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(minioClient.putObject(any(PutObjectArgs.class)))
+                .thenAnswer(invocation -> {
+                    bucketExists.set(false);
+                    throw storageError("NoSuchBucket");
+                })
+                .thenReturn(null);
+
+        ImageStorageService storageService = new ImageStorageService();
+        ReflectionTestUtils.setField(storageService, "minioClient", minioClient);
+        ReflectionTestUtils.setField(storageService, "imageRepository", imageRepository);
+        ReflectionTestUtils.setField(storageService, "yandexProperties",
+                ReflectionTestUtils.getField(bucketService, "yandexProperties"));
+        ReflectionTestUtils.setField(storageService, "storageBucketService", bucketService);
+        ReflectionTestUtils.setField(storageService, "pageUrlService", mock(ChapterPageUrlService.class));
+
+        assertThatThrownBy(() -> storageService.uploadImage(1L, 1, page()))
+                .isInstanceOf(ErrorResponseException.class);
+        storageService.uploadImage(1L, 1, page());
+
+        verify(minioClient, times(2)).bucketExists(any(BucketExistsArgs.class));
+        verify(minioClient).makeBucket(any(MakeBucketArgs.class));
+        verify(minioClient, times(2)).putObject(any(PutObjectArgs.class));
+    }
+
+    private static MockMultipartFile page() {
+        return new MockMultipartFile("file", "page.png", "image/png", new byte[]{1, 2, 3});
+    }
+
+    private static ErrorResponseException storageError(String code) {
+        return new ErrorResponseException(new ErrorResponse(code, code, BUCKET, null, BUCKET, null, null), null, null);
+    }
+}
@@ -0,0 +1,165 @@
+package shadowshift.studio.imagestorageservice.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import shadowshift.studio.imagestorageservice.config.YandexStorageProperties;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Загрузка по URL против локального HTTP-сервера; хранилище подменено словарем в памяти.
+ */
+class UrlImportServiceTest {
+
+    private HttpServer server;
+    private UrlImportService service;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final CountDownLatch releaseStalled = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        MinioClient minioClient = mock(MinioClient.class);
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenAnswer(invocation -> {
+            PutObjectArgs args = invocation.getArgument(0);
+            objects.put(args.object(), args.stream().readAllBytes());
+            return null;
+        });
+        YandexStorageProperties storageProperties = new YandexStorageProperties();
+        storageProperties.setBucketName("test-bucket");
+
+        service = new UrlImportService();
+        ReflectionTestUtils.setField(service, "minioClient", minioClient);
+        ReflectionTestUtils.setField(service, "yandexProperties", storageProperties);
+        ReflectionTestUtils.setField(service, "storageBucketService", mock(StorageBucketService.class));
+        ReflectionTestUtils.setField(service, "maxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(service, "readTimeoutMs", 2_000L);
+        ReflectionTestUtils.setField(service, "transferTimeoutMs", 500L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseStalled.countDown();
+        service.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void storesImageWithSizeHashAndDimensions() throws Exception {
+        byte[] png = png(40, 30);
+        serve("/page.png", 200, "image/png", png);
+
+        UrlImportService.Outcome outcome = importOne("/page.png", "chapters/1/page_1.png");
+
+        assertThat(outcome.isSuccess()).isTrue();
+        assertThat(outcome.size()).isEqualTo(png.length);
+        assertThat(outcome.sha256()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png)));
+        assertThat(outcome.contentType()).isEqualTo("image/png");
+        assertThat(outcome.width()).isEqualTo(40);
+        assertThat(outcome.height()).isEqualTo(30);
+        assertThat(objects.get("chapters/1/page_1.png")).isEqualTo(png);
+    }
+
+    @Test
+    void stalledBodyFailsAfterTransferTimeout() {
+        server.createContext("/stalled.png", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "image/png");
+            exchange.sendResponseHeaders(200, 100_000);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(new byte[1024]);
+                body.flush();
+                releaseStalled.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ignored) {
+                // Клиент закрыл соединение по таймауту
+            }
+        });
+
+        long started = System.nanoTime();
+        UrlImportService.Outcome outcome = importOne("/stalled.png", "chapters/1/page_2.png");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(outcome.isSuccess()).isFalse();
+        assertThat(outcome.error()).contains("did not finish");
+        assertThat(elapsedMs).isLessThan(5_000);
+        assertThat(objects).doesNotContainKey("chapters/1/page_2.png");
+    }
+
+    @Test
+    void nonOkStatusFails() {
+        serve("/missing.png", 404, "text/plain", "not found".getBytes());
+
+        UrlImportService.Outcome outcome = importOne("/missing.png", "chapters/1/page_3.png");
+
+        assertThat(outcome.isSuccess()).isFalse();
+        assertThat(outcome.error()).isEqualTo("HTTP 404");
+    }
+
+    @Test
+    void declaredLengthAboveLimitFails() {
+        serve("/huge.png", 200, "image/png", new byte[2 * 1024 * 1024]);
+
+        UrlImportService.Outcome outcome = importOne("/huge.png", "chapters/1/page_4.png");
+
+        assertThat(outcome.isSuccess()).isFalse();
+        assertThat(outcome.error()).contains("larger than");
+        assertThat(objects).isEmpty();
+    }
+
+    @Test
+    void unsupportedSchemeFails() {
+        UrlImportService.Outcome outcome = service.importAll(Map.of("ftp://example.org/page.png", "key")).get("ftp://example.org/page.png");
+
+        assertThat(outcome.isSuccess()).isFalse();
+        assertThat(outcome.error()).startsWith("Unsupported URL scheme");
+    }
+
+    private UrlImportService.Outcome importOne(String path, String objectKey) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + path;
+        return service.importAll(Map.of(url, objectKey)).get(url);
+    }
+
+    private void serve(String path, int status, String contentType, byte[] body) {
+        server.createContext(path, exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", output);
+        return output.toByteArray();
+    }
+}
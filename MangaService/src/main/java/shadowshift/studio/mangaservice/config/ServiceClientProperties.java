@@ -0,0 +1,143 @@
+package shadowshift.studio.mangaservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки HTTP-клиентов соседних сервисов ({@code services.clients.*}).
+ * Для каждого сервиса можно переопределить таймауты, размер bulkhead, пороги circuit breaker
+ * и задержку hedged-запроса. Не заданные для сервиса поля (и сервисы без настроек) получают
+ * значения из {@code services.clients.defaults}.
+ */
+@Component
+@ConfigurationProperties(prefix = "services.clients")
+public class ServiceClientProperties {
+
+    private Target defaults = Target.builtIn();
+    private Map<String, Target> targets = new HashMap<>();
+
+    /**
+     * Настройки клиента конкретного сервиса: заданные для него поля поверх {@code defaults}
+     */
+    public Target resolve(String name) {
+        Target target = targets.get(name);
+        return target != null ? target.withDefaults(defaults) : defaults;
+    }
+
+    public Target getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Target defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Target> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(Map<String, Target> targets) {
+        this.targets = targets;
+    }
+
+    /**
+     * Настройки клиента. У настроек сервиса null означает «взять из defaults».
+     */
+    public static class Target {
+
+        private Integer connectTimeoutMs;
+        private Integer readTimeoutMs;
+        /** Одновременных вызовов сервиса (bulkhead) */
+        private Integer maxConcurrentCalls;
+        /** Сколько ждать свободного слота bulkhead, прежде чем отдать fallback */
+        private Long bulkheadWaitMs;
+        /** Подряд идущих сбоев, после которых цепь размыкается */
+        private Integer failureThreshold;
+        private Long openStateMs;
+        /** Через сколько миллисекунд без ответа дублировать идемпотентный GET; 0 — не дублировать */
+        private Long hedgeDelayMs;
+
+        static Target builtIn() {
+            Target target = new Target();
+            target.connectTimeoutMs = 2000;
+            target.readTimeoutMs = 5000;
+            target.maxConcurrentCalls = 20;
+            target.bulkheadWaitMs = 100L;
+            target.failureThreshold = 5;
+            target.openStateMs = 10000L;
+            target.hedgeDelayMs = 0L;
+            return target;
+        }
+
+        Target withDefaults(Target defaults) {
+            Target merged = new Target();
+            merged.connectTimeoutMs = connectTimeoutMs != null ? connectTimeoutMs : defaults.connectTimeoutMs;
+            merged.readTimeoutMs = readTimeoutMs != null ? readTimeoutMs : defaults.readTimeoutMs;
+            merged.maxConcurrentCalls = maxConcurrentCalls != null ? maxConcurrentCalls : defaults.maxConcurrentCalls;
+            merged.bulkheadWaitMs = bulkheadWaitMs != null ? bulkheadWaitMs : defaults.bulkheadWaitMs;
+            merged.failureThreshold = failureThreshold != null ? failureThreshold : defaults.failureThreshold;
+            merged.openStateMs = openStateMs != null ? openStateMs : defaults.openStateMs;
+            merged.hedgeDelayMs = hedgeDelayMs != null ? hedgeDelayMs : defaults.hedgeDelayMs;
+            return merged;
+        }
+
+        public Integer getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(Integer connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public Integer getReadTimeoutMs() {
+            return readTimeoutMs;
+        }
+
+        public void setReadTimeoutMs(Integer readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        public Integer getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(Integer maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public Long getBulkheadWaitMs() {
+            return bulkheadWaitMs;
+        }
+
+        public void setBulkheadWaitMs(Long bulkheadWaitMs) {
+            this.bulkheadWaitMs = bulkheadWaitMs;
+        }
+
+        public Integer getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(Integer failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Long getOpenStateMs() {
+            return openStateMs;
+        }
+
+        public void setOpenStateMs(Long openStateMs) {
+            this.openStateMs = openStateMs;
+        }
+
+        public Long getHedgeDelayMs() {
+            return hedgeDelayMs;
+        }
+
+        public void setHedgeDelayMs(Long hedgeDelayMs) {
+            this.hedgeDelayMs = hedgeDelayMs;
+        }
+    }
+}
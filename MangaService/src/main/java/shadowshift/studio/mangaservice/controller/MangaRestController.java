@@ -4,12 +4,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.multipart.MultipartFile;
 import shadowshift.studio.mangaservice.dto.ChapterDTO;
 import shadowshift.studio.mangaservice.dto.ChapterImageDTO;
@@ -22,6 +22,7 @@ import shadowshift.studio.mangaservice.dto.PageResponseDTO;
 import shadowshift.studio.mangaservice.service.MangaService;
 import shadowshift.studio.mangaservice.service.MangaCharacterService;
 import shadowshift.studio.mangaservice.service.external.ChapterServiceClient;
+import shadowshift.studio.mangaservice.service.external.ServiceClients;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
@@ -578,10 +579,8 @@ class ImageProxyControllerTemp {
 
     private static final Logger logger = LoggerFactory.getLogger(ImageProxyControllerTemp.class);
 
-    private WebClient.Builder webClientBuilder;
-
-    @Value("${image.storage.service.url}")
-    private String imageStorageServiceUrl;
+    @Autowired
+    private ServiceClients serviceClients;
 
     /**
      * Получает список изображений для указанной главы.
@@ -593,23 +592,12 @@ class ImageProxyControllerTemp {
     public ResponseEntity<List<ChapterImageDTO>> getChapterImages(@PathVariable Long chapterId) {
         logger.debug("API запрос: получение изображений для главы с ID {}", chapterId);
 
-        try {
-            WebClient webClient = webClientBuilder.build();
-            List<ChapterImageDTO> images = webClient.get()
-                    .uri(imageStorageServiceUrl + "/api/images/chapter/" + chapterId)
-                    .retrieve()
-                    .bodyToFlux(ChapterImageDTO.class)
-                    .collectList()
-                    .block();
-
-            List<ChapterImageDTO> result = images != null ? images : new ArrayList<>();
-            logger.debug("API ответ: найдено {} изображений для главы {}", result.size(), chapterId);
-            return ResponseEntity.ok(result);
-
-        } catch (Exception e) {
-            logger.error("Ошибка при получении изображений для главы {}: {}", chapterId, e.getMessage(), e);
-            return ResponseEntity.ok(new ArrayList<>());
-        }
+        List<ChapterImageDTO> images = serviceClients.imageStorageService().get("/api/images/chapter/" + chapterId,
+                new ParameterizedTypeReference<List<ChapterImageDTO>>() { }, ArrayList::new);
+
+        List<ChapterImageDTO> result = images != null ? images : new ArrayList<>();
+        logger.debug("API ответ: найдено {} изображений для главы {}", result.size(), chapterId);
+        return ResponseEntity.ok(result);
     }
 
     /**
@@ -620,27 +608,18 @@ class ImageProxyControllerTemp {
      */
     @GetMapping("/api/images/proxy/**")
     public ResponseEntity<byte[]> proxyImage(HttpServletRequest request) {
-        try {
-            String imageKey = request.getRequestURI().substring("/api/images/proxy/".length());
-            logger.debug("API запрос: прокси изображения с ключом '{}'", imageKey);
-
-            WebClient webClient = webClientBuilder.build();
-            byte[] imageBytes = webClient.get()
-                    .uri(imageStorageServiceUrl + "/api/images/proxy/" + imageKey)
-                    .retrieve()
-                    .bodyToMono(byte[].class)
-                    .block();
-
-            if (imageBytes != null) {
-                return ResponseEntity.ok()
-                        .header("Content-Type", "image/jpeg")
-                        .header("Cache-Control", "public, max-age=3600")
-                        .body(imageBytes);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (Exception e) {
-            logger.error("Ошибка при получении изображения: {}", e.getMessage(), e);
+        String imageKey = request.getRequestURI().substring("/api/images/proxy/".length());
+        logger.debug("API запрос: прокси изображения с ключом '{}'", imageKey);
+
+        byte[] imageBytes = serviceClients.imageStorageService()
+                .get("/api/images/proxy/" + imageKey, byte[].class, () -> null);
+
+        if (imageBytes != null) {
+            return ResponseEntity.ok()
+                    .header("Content-Type", "image/jpeg")
+                    .header("Cache-Control", "public, max-age=3600")
+                    .body(imageBytes);
+        } else {
             return ResponseEntity.notFound().build();
         }
     }
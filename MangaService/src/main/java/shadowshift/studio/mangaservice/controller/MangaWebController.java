@@ -2,17 +2,17 @@ package shadowshift.studio.mangaservice.controller;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import shadowshift.studio.mangaservice.dto.MangaCreateDTO;
 import shadowshift.studio.mangaservice.dto.MangaResponseDTO;
 import shadowshift.studio.mangaservice.entity.Manga;
 import shadowshift.studio.mangaservice.service.MangaService;
+import shadowshift.studio.mangaservice.service.external.ServiceClients;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -117,10 +117,7 @@ public class MangaWebController {
     private MangaService mangaService;
 
     @Autowired
-    private WebClient.Builder webClientBuilder;
-
-    @Value("${chapter.service.url}")
-    private String chapterServiceUrl;
+    private ServiceClients serviceClients;
 
     /**
      * Отображает страницу каталога со списком всех манг.
@@ -299,18 +296,8 @@ public class MangaWebController {
      * @return список глав манги
      */
     private List<ChapterResponseDTO> getChaptersFromService(Long mangaId) {
-        try {
-            WebClient webClient = webClientBuilder.build();
-            List<ChapterResponseDTO> chapters = webClient.get()
-                    .uri(chapterServiceUrl + "/api/chapters/manga/" + mangaId)
-                    .retrieve()
-                    .bodyToFlux(ChapterResponseDTO.class)
-                    .collectList()
-                    .block();
-
-            return chapters != null ? chapters : new ArrayList<>();
-        } catch (Exception e) {
-            return new ArrayList<>();
-        }
+        List<ChapterResponseDTO> chapters = serviceClients.chapterService().get("/api/chapters/manga/" + mangaId,
+                new ParameterizedTypeReference<List<ChapterResponseDTO>>() { }, ArrayList::new);
+        return chapters != null ? chapters : new ArrayList<>();
     }
 }
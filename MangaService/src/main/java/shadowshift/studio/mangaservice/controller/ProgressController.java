@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.*;
 import shadowshift.studio.mangaservice.service.ImportTaskService;
 import shadowshift.studio.mangaservice.service.AutoParsingService;
 import shadowshift.studio.mangaservice.service.MangaUpdateService;
+import shadowshift.studio.mangaservice.service.ParserTaskEventService;
 import java.util.Map;
 import java.util.List;
 import org.slf4j.Logger;
@@ -35,6 +36,23 @@ public class ProgressController {
     @Autowired
     private MangaUpdateService mangaUpdateService;
 
+    @Autowired
+    private ParserTaskEventService parserTaskEventService;
+
+    /**
+     * Принимает пакет событий задач ParserService (статус, прогресс, новые строки лога).
+     * Завершает ожидание задач парсинга и билда без опроса их статуса.
+     *
+     * @param events события задач
+     * @return количество обработанных событий
+     */
+    @PostMapping("/events")
+    public ResponseEntity<?> handleParserEvents(@RequestBody List<Map<String, Object>> events) {
+        int handled = parserTaskEventService.handleEvents(events);
+        logger.debug("Получено {} событий задач ParserService", handled);
+        return ResponseEntity.ok(Map.of("handled", handled));
+    }
+
     /**
      * Обновляет прогресс выполнения задачи импорта.
      *
@@ -1,15 +1,14 @@
 package shadowshift.studio.mangaservice.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.reactive.function.client.WebClient;
 import shadowshift.studio.mangaservice.dto.MangaResponseDTO;
 import shadowshift.studio.mangaservice.service.MangaService;
+import shadowshift.studio.mangaservice.service.external.ServiceClients;
 
 /**
  * Веб-контроллер для чтения глав манги.
@@ -28,13 +27,7 @@ public class ReaderController {
     private MangaService mangaService;
 
     @Autowired
-    private WebClient.Builder webClientBuilder;
-
-    @Value("${chapter.service.url}")
-    private String chapterServiceUrl;
-
-    @Value("${image.storage.service.url}")
-    private String imageStorageServiceUrl;
+    private ServiceClients serviceClients;
 
     /**
      * Отображает страницу чтения указанной главы манги.
@@ -49,12 +42,8 @@ public class ReaderController {
     @GetMapping("/{chapterId}")
     public String readChapter(@PathVariable Long chapterId, Model model) {
         try {
-            WebClient webClient = webClientBuilder.build();
-            ChapterResponseDTO chapter = webClient.get()
-                    .uri(chapterServiceUrl + "/api/chapters/" + chapterId)
-                    .retrieve()
-                    .bodyToMono(ChapterResponseDTO.class)
-                    .block();
+            ChapterResponseDTO chapter = serviceClients.chapterService()
+                    .get("/api/chapters/" + chapterId, ChapterResponseDTO.class, () -> null);
 
             if (chapter == null) {
                 return "redirect:/manga";
@@ -0,0 +1,317 @@
+package shadowshift.studio.mangaservice.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Долговременная запись задачи импорта (автопарсинг, полный парсинг или импорт одной манги).
+ * Хранит этап конвейера, идентификаторы дочерних задач и аренду (lease): задачу выполняет только
+ * экземпляр сервиса, чья аренда не истекла. После перезапуска незавершенные задачи с истекшей
+ * арендой подхватываются и продолжаются с сохраненного этапа.
+ */
+@Entity
+@Table(name = "import_jobs",
+        indexes = {
+                @Index(name = "idx_import_jobs_state", columnList = "state"),
+                @Index(name = "idx_import_jobs_parent", columnList = "parent_task_id")
+        })
+public class ImportJob {
+
+    /**
+     * Тип задачи.
+     */
+    public enum Type {
+        IMPORT, FULL_PARSING, AUTO_PARSING
+    }
+
+    /**
+     * Состояние задачи. Этапы идут только вперед, из завершающих состояний переходов нет.
+     */
+    public enum State {
+        QUEUED(0), RUNNING(1), PARSING(2), BUILDING(3), IMPORTING(4),
+        COMPLETED(5), FAILED(5), CANCELLED(5);
+
+        private final int rank;
+
+        State(int rank) {
+            this.rank = rank;
+        }
+
+        public boolean isTerminal() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+
+        public boolean isBefore(State other) {
+            return rank < other.rank;
+        }
+
+        public boolean canTransitionTo(State target) {
+            if (target == this) {
+                return true;
+            }
+            return !isTerminal() && (target.isTerminal() || target.rank >= rank);
+        }
+    }
+
+    @Id
+    @Column(name = "task_id", length = 64)
+    private String taskId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 20, nullable = false)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", length = 20, nullable = false)
+    private State state = State.QUEUED;
+
+    /**
+     * Задача верхнего уровня, которая запустила эту (например, автопарсинг для полного парсинга).
+     */
+    @Column(name = "parent_task_id", length = 64)
+    private String parentTaskId;
+
+    @Column(name = "slug", length = 255)
+    private String slug;
+
+    @Column(name = "branch_id", length = 64)
+    private String branchId;
+
+    /**
+     * Манга, созданная импортом (чтобы при продолжении не создавать её повторно).
+     */
+    @Column(name = "manga_id")
+    private Long mangaId;
+
+    @Column(name = "parse_task_id", length = 64)
+    private String parseTaskId;
+
+    @Column(name = "build_task_id", length = 64)
+    private String buildTaskId;
+
+    /**
+     * Текущая дочерняя задача (для автопарсинга — полный парсинг обрабатываемого тайтла).
+     */
+    @Column(name = "child_task_id", length = 64)
+    private String childTaskId;
+
+    /**
+     * Позиция продолжения (для автопарсинга — индекс следующего тайтла).
+     */
+    @Column(name = "cursor_position")
+    private Integer cursor;
+
+    /**
+     * Параметры и накопленные результаты задачи в JSON.
+     */
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "progress", nullable = false)
+    private Integer progress = 0;
+
+    @Column(name = "message", length = 1000)
+    private String message;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    /**
+     * Сколько раз задача продолжалась после потери владельца.
+     */
+    @Column(name = "resume_count", nullable = false)
+    private Integer resumeCount = 0;
+
+    /**
+     * Владелец аренды. Меняется только атомарными запросами репозитория.
+     */
+    @Column(name = "lease_owner", length = 128, updatable = false)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at", updatable = false)
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public ImportJob() {}
+
+    public ImportJob(String taskId, Type type) {
+        this.taskId = taskId;
+        this.type = type;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public String getParentTaskId() {
+        return parentTaskId;
+    }
+
+    public void setParentTaskId(String parentTaskId) {
+        this.parentTaskId = parentTaskId;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public void setSlug(String slug) {
+        this.slug = slug;
+    }
+
+    public String getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(String branchId) {
+        this.branchId = branchId;
+    }
+
+    public Long getMangaId() {
+        return mangaId;
+    }
+
+    public void setMangaId(Long mangaId) {
+        this.mangaId = mangaId;
+    }
+
+    public String getParseTaskId() {
+        return parseTaskId;
+    }
+
+    public void setParseTaskId(String parseTaskId) {
+        this.parseTaskId = parseTaskId;
+    }
+
+    public String getBuildTaskId() {
+        return buildTaskId;
+    }
+
+    public void setBuildTaskId(String buildTaskId) {
+        this.buildTaskId = buildTaskId;
+    }
+
+    public String getChildTaskId() {
+        return childTaskId;
+    }
+
+    public void setChildTaskId(String childTaskId) {
+        this.childTaskId = childTaskId;
+    }
+
+    public Integer getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(Integer cursor) {
+        this.cursor = cursor;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Integer getProgress() {
+        return progress;
+    }
+
+    public void setProgress(Integer progress) {
+        this.progress = progress;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public Integer getResumeCount() {
+        return resumeCount;
+    }
+
+    public void setResumeCount(Integer resumeCount) {
+        this.resumeCount = resumeCount;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -0,0 +1,83 @@
+package shadowshift.studio.mangaservice.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Контрольная точка импорта на уровне главы: глава создана в ChapterService
+ * и (если {@code pagesImported}) её страницы загружены в хранилище.
+ */
+@Entity
+@Table(name = "import_job_chapters",
+        uniqueConstraints = @UniqueConstraint(name = "uk_import_job_chapter", columnNames = {"task_id", "chapter_key"}),
+        indexes = @Index(name = "idx_import_job_chapters_task", columnList = "task_id"))
+public class ImportJobChapter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", length = 64, nullable = false)
+    private String taskId;
+
+    /**
+     * Внешний ID главы MangaLib, а при его отсутствии — том и номер.
+     */
+    @Column(name = "chapter_key", length = 128, nullable = false)
+    private String chapterKey;
+
+    @Column(name = "chapter_id")
+    private Long chapterId;
+
+    @Column(name = "pages_imported", nullable = false)
+    private Boolean pagesImported = false;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public ImportJobChapter() {}
+
+    public ImportJobChapter(String taskId, String chapterKey) {
+        this.taskId = taskId;
+        this.chapterKey = chapterKey;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public String getChapterKey() {
+        return chapterKey;
+    }
+
+    public Long getChapterId() {
+        return chapterId;
+    }
+
+    public void setChapterId(Long chapterId) {
+        this.chapterId = chapterId;
+    }
+
+    public boolean isPagesImported() {
+        return Boolean.TRUE.equals(pagesImported);
+    }
+
+    public void setPagesImported(boolean pagesImported) {
+        this.pagesImported = pagesImported;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
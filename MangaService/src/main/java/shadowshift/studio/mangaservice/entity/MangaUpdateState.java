@@ -0,0 +1,174 @@
+package shadowshift.studio.mangaservice.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Состояние автообновления манги: отпечаток списка глав на источнике при последней
+ * успешной проверке и статистика того, как часто у тайтла появляются новые главы.
+ * Хранится отдельно от {@link Manga}, чтобы проверки не меняли её updated_at.
+ */
+@Entity
+@Table(name = "manga_update_state")
+public class MangaUpdateState {
+
+    /**
+     * Вес последней проверки в скользящей оценке частоты обновлений.
+     */
+    private static final double UPDATE_RATE_WEIGHT = 0.2;
+
+    @Id
+    @Column(name = "manga_id")
+    private Long mangaId;
+
+    /**
+     * Источник, с которого берутся главы (используется для лимитов запросов).
+     */
+    @Column(name = "source", length = 50)
+    private String source;
+
+    /**
+     * SHA-256 от списка глав источника (id, том, номер, платность, число страниц).
+     */
+    @Column(name = "chapters_fingerprint", length = 64)
+    private String chaptersFingerprint;
+
+    /**
+     * Внешний ID последней главы на момент снятия отпечатка.
+     */
+    @Column(name = "last_remote_chapter_id", length = 100)
+    private String lastRemoteChapterId;
+
+    @Column(name = "remote_chapter_count")
+    private Integer remoteChapterCount;
+
+    /**
+     * Скользящая оценка доли проверок, на которых у тайтла менялся список глав (0..1).
+     * Новые тайтлы начинают с 1, чтобы их проверили в первую очередь.
+     */
+    @Column(name = "update_rate", nullable = false)
+    private Double updateRate = 1.0;
+
+    @Column(name = "checks_count", nullable = false)
+    private Integer checksCount = 0;
+
+    @Column(name = "changes_count", nullable = false)
+    private Integer changesCount = 0;
+
+    @Column(name = "last_checked_at")
+    private LocalDateTime lastCheckedAt;
+
+    @Column(name = "last_changed_at")
+    private LocalDateTime lastChangedAt;
+
+    public MangaUpdateState() {}
+
+    public MangaUpdateState(Long mangaId, String source) {
+        this.mangaId = mangaId;
+        this.source = source;
+    }
+
+    /**
+     * Фиксирует результат успешной проверки и пересчитывает частоту обновлений.
+     *
+     * @param fingerprint отпечаток списка глав источника
+     * @param lastChapterId внешний ID последней главы
+     * @param chapterCount число глав на источнике
+     * @param changed изменился ли список глав с прошлой проверки
+     */
+    public void recordCheck(String fingerprint, String lastChapterId, int chapterCount, boolean changed) {
+        LocalDateTime now = LocalDateTime.now();
+        this.chaptersFingerprint = fingerprint;
+        this.lastRemoteChapterId = lastChapterId;
+        this.remoteChapterCount = chapterCount;
+        this.lastCheckedAt = now;
+        this.checksCount = (checksCount != null ? checksCount : 0) + 1;
+        if (changed) {
+            this.changesCount = (changesCount != null ? changesCount : 0) + 1;
+            this.lastChangedAt = now;
+        }
+        double previous = updateRate != null ? updateRate : 1.0;
+        this.updateRate = previous * (1 - UPDATE_RATE_WEIGHT) + (changed ? UPDATE_RATE_WEIGHT : 0);
+    }
+
+    public Long getMangaId() {
+        return mangaId;
+    }
+
+    public void setMangaId(Long mangaId) {
+        this.mangaId = mangaId;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getChaptersFingerprint() {
+        return chaptersFingerprint;
+    }
+
+    public void setChaptersFingerprint(String chaptersFingerprint) {
+        this.chaptersFingerprint = chaptersFingerprint;
+    }
+
+    public String getLastRemoteChapterId() {
+        return lastRemoteChapterId;
+    }
+
+    public void setLastRemoteChapterId(String lastRemoteChapterId) {
+        this.lastRemoteChapterId = lastRemoteChapterId;
+    }
+
+    public Integer getRemoteChapterCount() {
+        return remoteChapterCount;
+    }
+
+    public void setRemoteChapterCount(Integer remoteChapterCount) {
+        this.remoteChapterCount = remoteChapterCount;
+    }
+
+    public Double getUpdateRate() {
+        return updateRate;
+    }
+
+    public void setUpdateRate(Double updateRate) {
+        this.updateRate = updateRate;
+    }
+
+    public Integer getChecksCount() {
+        return checksCount;
+    }
+
+    public void setChecksCount(Integer checksCount) {
+        this.checksCount = checksCount;
+    }
+
+    public Integer getChangesCount() {
+        return changesCount;
+    }
+
+    public void setChangesCount(Integer changesCount) {
+        this.changesCount = changesCount;
+    }
+
+    public LocalDateTime getLastCheckedAt() {
+        return lastCheckedAt;
+    }
+
+    public void setLastCheckedAt(LocalDateTime lastCheckedAt) {
+        this.lastCheckedAt = lastCheckedAt;
+    }
+
+    public LocalDateTime getLastChangedAt() {
+        return lastChangedAt;
+    }
+
+    public void setLastChangedAt(LocalDateTime lastChangedAt) {
+        this.lastChangedAt = lastChangedAt;
+    }
+}
@@ -0,0 +1,29 @@
+package shadowshift.studio.mangaservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import shadowshift.studio.mangaservice.entity.ImportJobChapter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Репозиторий контрольных точек импорта глав.
+ */
+@Repository
+public interface ImportJobChapterRepository extends JpaRepository<ImportJobChapter, Long> {
+
+    List<ImportJobChapter> findByTaskId(String taskId);
+
+    Optional<ImportJobChapter> findByTaskIdAndChapterKey(String taskId, String chapterKey);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ImportJobChapter c WHERE c.taskId IN :taskIds")
+    int deleteByTaskIds(@Param("taskIds") Collection<String> taskIds);
+}
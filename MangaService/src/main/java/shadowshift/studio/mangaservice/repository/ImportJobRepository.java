@@ -0,0 +1,80 @@
+package shadowshift.studio.mangaservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import shadowshift.studio.mangaservice.entity.ImportJob;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий долговременных задач импорта. Операции с арендой выполняются
+ * одним условным UPDATE, поэтому захват задачи атомарен между репликами.
+ */
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE ImportJob j SET j.leaseOwner = :owner, j.leaseExpiresAt = :until
+        WHERE j.taskId = :taskId
+          AND (j.leaseOwner IS NULL OR j.leaseOwner = :owner OR j.leaseExpiresAt IS NULL OR j.leaseExpiresAt < :now)
+        """)
+    int tryAcquireLease(@Param("taskId") String taskId, @Param("owner") String owner,
+                        @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.leaseExpiresAt = :until WHERE j.leaseOwner = :owner AND j.taskId IN :taskIds")
+    int renewLeases(@Param("owner") String owner, @Param("taskIds") Collection<String> taskIds,
+                    @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.leaseOwner = NULL, j.leaseExpiresAt = NULL WHERE j.taskId = :taskId AND j.leaseOwner = :owner")
+    int releaseLease(@Param("taskId") String taskId, @Param("owner") String owner);
+
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE ImportJob j SET j.progress = :progress, j.message = :message, j.updatedAt = :now
+        WHERE j.taskId = :taskId AND j.leaseOwner = :owner AND j.state NOT IN :terminal
+        """)
+    int updateProgress(@Param("taskId") String taskId, @Param("owner") String owner, @Param("progress") int progress,
+                       @Param("message") String message, @Param("now") LocalDateTime now,
+                       @Param("terminal") Collection<ImportJob.State> terminal);
+
+    @Query("SELECT j.taskId FROM ImportJob j WHERE j.leaseOwner = :owner AND j.taskId IN :taskIds")
+    List<String> findTaskIdsByLeaseOwner(@Param("owner") String owner, @Param("taskIds") Collection<String> taskIds);
+
+    /**
+     * Незавершенные задачи верхнего уровня, у которых нет живого владельца.
+     */
+    @Query("""
+        SELECT j FROM ImportJob j
+        WHERE j.parentTaskId IS NULL AND j.state NOT IN :terminal
+          AND (j.leaseExpiresAt IS NULL OR j.leaseExpiresAt < :now)
+        ORDER BY j.createdAt ASC
+        """)
+    List<ImportJob> findResumableRoots(@Param("terminal") Collection<ImportJob.State> terminal, @Param("now") LocalDateTime now);
+
+    /**
+     * Незавершенные дочерние задачи без владельца, чей родитель уже завершен или удален.
+     */
+    @Query("""
+        SELECT j FROM ImportJob j
+        WHERE j.parentTaskId IS NOT NULL AND j.state NOT IN :terminal
+          AND (j.leaseExpiresAt IS NULL OR j.leaseExpiresAt < :now)
+          AND NOT EXISTS (SELECT p FROM ImportJob p WHERE p.taskId = j.parentTaskId AND p.state NOT IN :terminal)
+        """)
+    List<ImportJob> findOrphans(@Param("terminal") Collection<ImportJob.State> terminal, @Param("now") LocalDateTime now);
+
+    @Query("SELECT j.taskId FROM ImportJob j WHERE j.state IN :terminal AND j.finishedAt < :threshold")
+    List<String> findFinishedBefore(@Param("terminal") Collection<ImportJob.State> terminal, @Param("threshold") LocalDateTime threshold);
+}
@@ -0,0 +1,12 @@
+package shadowshift.studio.mangaservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import shadowshift.studio.mangaservice.entity.MangaUpdateState;
+
+/**
+ * Репозиторий состояний автообновления манг.
+ */
+@Repository
+public interface MangaUpdateStateRepository extends JpaRepository<MangaUpdateState, Long> {
+}
@@ -1,11 +1,13 @@
 package shadowshift.studio.mangaservice.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import shadowshift.studio.mangaservice.entity.ImportJob;
 import shadowshift.studio.mangaservice.repository.MangaRepository;
 
 import java.time.Duration;
@@ -20,6 +22,8 @@ import java.util.concurrent.CompletableFuture;
 /**
  * Сервис для автоматического парсинга манги.
  * Обрабатывает список slug'ов, проверяет на дубликаты и импортирует только новые манги.
+ * Позиция в списке и итоги сохраняются в {@link ImportJobStore}, поэтому после перезапуска
+ * задача продолжается с того же тайтла.
  *
  * @author ShadowShiftStudio
  */
@@ -42,6 +46,9 @@ public class AutoParsingService {
     @Autowired
     private ApplicationContext applicationContext;
 
+    @Autowired
+    private ImportJobStore importJobStore;
+
     // Хранилище задач автопарсинга
     private final ConcurrentMap<String, AutoParseTask> autoParsingTasks = new ConcurrentHashMap<>();
     
@@ -65,26 +72,11 @@ public class AutoParsingService {
     public Map<String, Object> startAutoParsing(Integer page, Integer limit, Integer minChapters, Integer maxChapters) {
         String taskId = UUID.randomUUID().toString();
 
-        AutoParseTask task = new AutoParseTask();
-        task.taskId = taskId;
-        task.status = "pending";
-        task.totalSlugs = 0;
-        task.processedSlugs = 0;
-    task.skippedSlugs = new ArrayList<>();
-    task.importedSlugs = new ArrayList<>();
-    task.failedSlugs = new ArrayList<>();
-    task.logs = Collections.synchronizedList(new ArrayList<>());  // Инициализация списка логов
-    task.mangaMetrics = Collections.synchronizedList(new ArrayList<>());
-        task.message = "Получение списка манг из каталога...";
-        task.progress = 0;
-        task.startTime = new Date();
-        task.page = page != null ? page : 1;
-        task.limit = limit;
-        task.minChapters = minChapters;
-        task.maxChapters = maxChapters;
-
-    autoParsingTasks.put(taskId, task);
-    autoParsingChildTaskIds.put(taskId, ConcurrentHashMap.newKeySet());
+        AutoParseTask task = newTask(taskId, page, limit, minChapters, maxChapters);
+        autoParsingTasks.put(taskId, task);
+        autoParsingChildTaskIds.put(taskId, ConcurrentHashMap.newKeySet());
+        importJobStore.create(taskId, ImportJob.Type.AUTO_PARSING, null, null);
+        persistCheckpoint(task, 0);
 
         appendLog(task, String.format(
             "Старт автопарсинга: страница %d, лимит: %s, минимум глав: %s, максимум глав: %s",
@@ -115,6 +107,132 @@ public class AutoParsingService {
         return response;
     }
 
+    /**
+     * Продолжает задачу автопарсинга после перезапуска сервиса: список тайтлов и итоги берутся
+     * из сохраненной контрольной точки, обработка идет с сохраненной позиции. Полный парсинг,
+     * прерванный на текущем тайтле, продолжается, а не запускается заново.
+     */
+    public void resumeAutoParsing(ImportJob job) {
+        AutoParsingCheckpoint checkpoint = importJobStore.readPayload(job, new TypeReference<AutoParsingCheckpoint>() { });
+        if (checkpoint == null) {
+            importJobStore.transition(job.getTaskId(), ImportJob.State.FAILED,
+                "Не удалось продолжить автопарсинг: нет сохраненных данных");
+            return;
+        }
+
+        String taskId = job.getTaskId();
+        AutoParseTask task = newTask(taskId, checkpoint.page(), checkpoint.limit(),
+            checkpoint.minChapters(), checkpoint.maxChapters());
+        if (checkpoint.importedSlugs() != null) {
+            task.importedSlugs.addAll(checkpoint.importedSlugs());
+        }
+        if (checkpoint.skippedSlugs() != null) {
+            task.skippedSlugs.addAll(checkpoint.skippedSlugs());
+        }
+        if (checkpoint.failedSlugs() != null) {
+            task.failedSlugs.addAll(checkpoint.failedSlugs());
+        }
+        if (checkpoint.slugs() != null) {
+            task.slugs = new ArrayList<>(checkpoint.slugs());
+            task.totalSlugs = task.slugs.size();
+            task.resumeFrom = Math.min(job.getCursor() != null ? job.getCursor() : 0, task.totalSlugs);
+            task.processedSlugs = task.resumeFrom;
+            task.progress = task.totalSlugs > 0 ? (task.processedSlugs * 100) / task.totalSlugs : 0;
+            task.resumeChildTaskId = job.getChildTaskId();
+        }
+
+        autoParsingTasks.put(taskId, task);
+        autoParsingChildTaskIds.put(taskId, ConcurrentHashMap.newKeySet());
+        appendLog(task, String.format("Продолжение автопарсинга после перезапуска сервиса с позиции %d/%d",
+            task.processedSlugs, task.totalSlugs));
+
+        AutoParsingService proxy = applicationContext.getBean(AutoParsingService.class);
+        proxy.processAutoParsingAsync(taskId, task.page, task.limit);
+    }
+
+    private AutoParseTask newTask(String taskId, Integer page, Integer limit, Integer minChapters, Integer maxChapters) {
+        AutoParseTask task = new AutoParseTask();
+        task.taskId = taskId;
+        task.status = "pending";
+        task.totalSlugs = 0;
+        task.processedSlugs = 0;
+        task.skippedSlugs = new ArrayList<>();
+        task.importedSlugs = new ArrayList<>();
+        task.failedSlugs = new ArrayList<>();
+        task.logs = Collections.synchronizedList(new ArrayList<>());  // Инициализация списка логов
+        task.mangaMetrics = Collections.synchronizedList(new ArrayList<>());
+        task.message = "Получение списка манг из каталога...";
+        task.progress = 0;
+        task.startTime = new Date();
+        task.page = page != null ? page : 1;
+        task.limit = limit;
+        task.minChapters = minChapters;
+        task.maxChapters = maxChapters;
+        return task;
+    }
+
+    /**
+     * Сохраняет позицию в списке тайтлов и итоги задачи. Ссылка на дочерний полный парсинг
+     * сбрасывается: он относится к тайтлу до этой позиции.
+     */
+    private void persistCheckpoint(AutoParseTask task, int cursor) {
+        try {
+            String payload = importJobStore.writePayload(new AutoParsingCheckpoint(
+                task.page, task.limit, task.minChapters, task.maxChapters, task.slugs,
+                new ArrayList<>(task.importedSlugs), new ArrayList<>(task.skippedSlugs), new ArrayList<>(task.failedSlugs)));
+            int progress = task.progress;
+            String message = task.message;
+            importJobStore.update(task.taskId, null, job -> {
+                job.setCursor(cursor);
+                job.setChildTaskId(null);
+                job.setPayload(payload);
+                job.setProgress(progress);
+                job.setMessage(message);
+            });
+        } catch (Exception e) {
+            logger.warn("Не удалось сохранить контрольную точку автопарсинга {}: {}", task.taskId, e.getMessage());
+        }
+    }
+
+    private void finishJob(AutoParseTask task, ImportJob.State state) {
+        persistCheckpoint(task, task.processedSlugs);
+        importJobStore.transition(task.taskId, state, task.message);
+    }
+
+    /**
+     * Продолжает полный парсинг, прерванный перезапуском на тайтле с сохраненной позиции.
+     *
+     * @return ответ в формате {@link MelonIntegrationService#startFullParsing(String)} или null,
+     * если продолжать нечего и тайтл нужно обработать заново
+     */
+    private Map<String, Object> resumeChildFullParsing(AutoParseTask task, String slug) {
+        String childTaskId = task.resumeChildTaskId;
+        task.resumeChildTaskId = null;
+        if (childTaskId == null) {
+            return null;
+        }
+        ImportJob child = importJobStore.find(childTaskId).orElse(null);
+        if (child == null || !Objects.equals(child.getSlug(), slug)) {
+            return null;
+        }
+        melonService.registerAutoParsingLink(childTaskId, task.taskId);
+        if (!child.getState().isTerminal() && importJobStore.claim(childTaskId)) {
+            int resumeCount = child.getResumeCount() != null ? child.getResumeCount() + 1 : 1;
+            importJobStore.update(childTaskId, null, job -> job.setResumeCount(resumeCount));
+            child.setResumeCount(resumeCount);
+            melonService.resumeFullParsing(child);
+        }
+        appendLog(task, String.format("%s: продолжение полного парсинга %s (этап %s)",
+            normalizeSlug(slug), childTaskId, child.getState()));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("task_id", childTaskId);
+        if (child.getParseTaskId() != null) {
+            result.put("parse_task_id", child.getParseTaskId());
+        }
+        return result;
+    }
+
     /**
      * Получает статус задачи автопарсинга
      */
@@ -196,7 +314,8 @@ public class AutoParsingService {
         task.status = "cancelled";
         task.endTime = new Date();
         task.message = "Задача отменена пользователем";
-    appendLog(task, "Задача автопарсинга отменена пользователем");
+        appendLog(task, "Задача автопарсинга отменена пользователем");
+        importJobStore.transition(taskId, ImportJob.State.CANCELLED, task.message);
         
         logger.info("Задача автопарсинга {} отменена пользователем", taskId);
         
@@ -274,6 +393,14 @@ public class AutoParsingService {
     public CompletableFuture<Void> processAutoParsingAsync(String taskId, Integer page, Integer limit) {
         AutoParseTask task = autoParsingTasks.get(taskId);
         task.status = "running";
+        importJobStore.transition(taskId, ImportJob.State.RUNNING, null);
+        // Если задачу перехватит другой экземпляр, останавливаемся так же, как при отмене
+        Runnable stopOnLeaseLost = () -> {
+            task.status = "cancelled";
+            task.endTime = new Date();
+            task.message = "Задачу продолжает другой экземпляр сервиса";
+        };
+        importJobStore.onLeaseLost(taskId, stopOnLeaseLost);
         task.message = "Получение списка манг из каталога...";
         appendLog(task, String.format(
             "Запущена задача автопарсинга. Страница: %d, лимит: %s",
@@ -284,51 +411,59 @@ public class AutoParsingService {
         try {
             logger.info("Начало автопарсинга: страница {}, лимит {}", page, limit);
 
-            // Получаем список slug'ов из каталога
-            Map<String, Object> catalogResult = melonService.getCatalogSlugs(page, limit);
+            // При продолжении после перезапуска список тайтлов уже сохранен, каталог не запрашиваем
+            List<String> slugs = task.slugs;
+            if (slugs == null) {
+                // Получаем список slug'ов из каталога
+                Map<String, Object> catalogResult = melonService.getCatalogSlugs(page, limit);
             
-            if (catalogResult == null || !Boolean.TRUE.equals(catalogResult.get("success"))) {
-                String errorMessage = catalogResult != null && catalogResult.get("error") != null
-                    ? String.valueOf(catalogResult.get("error"))
-                    : "Неизвестная ошибка";
-                task.status = "failed";
-                task.endTime = new Date();
-                task.message = "Ошибка получения каталога: " + errorMessage;
-                appendLog(task, "Ошибка получения каталога: " + errorMessage);
-                logger.error("Не удалось получить каталог: {}", errorMessage);
-                cleanupChildTaskMappings(taskId);
-                return CompletableFuture.completedFuture(null);
-            }
+                if (catalogResult == null || !Boolean.TRUE.equals(catalogResult.get("success"))) {
+                    String errorMessage = catalogResult != null && catalogResult.get("error") != null
+                        ? String.valueOf(catalogResult.get("error"))
+                        : "Неизвестная ошибка";
+                    task.status = "failed";
+                    task.endTime = new Date();
+                    task.message = "Ошибка получения каталога: " + errorMessage;
+                    appendLog(task, "Ошибка получения каталога: " + errorMessage);
+                    logger.error("Не удалось получить каталог: {}", errorMessage);
+                    cleanupChildTaskMappings(taskId);
+                    finishJob(task, ImportJob.State.FAILED);
+                    return CompletableFuture.completedFuture(null);
+                }
 
-            @SuppressWarnings("unchecked")
-            List<String> slugs = (List<String>) catalogResult.get("slugs");
+                @SuppressWarnings("unchecked")
+                List<String> catalogSlugs = (List<String>) catalogResult.get("slugs");
             
-            if (slugs == null || slugs.isEmpty()) {
-                task.status = "completed";
-                task.progress = 100;
-                task.endTime = new Date();
-                task.message = "Каталог пуст или не найден";
-                appendLog(task, "Каталог пуст или не найден. Автопарсинг завершен.");
-                logger.info("Каталог пуст, автопарсинг завершен");
-                cleanupChildTaskMappings(taskId);
-                return CompletableFuture.completedFuture(null);
-            }
+                if (catalogSlugs == null || catalogSlugs.isEmpty()) {
+                    task.status = "completed";
+                    task.progress = 100;
+                    task.endTime = new Date();
+                    task.message = "Каталог пуст или не найден";
+                    appendLog(task, "Каталог пуст или не найден. Автопарсинг завершен.");
+                    logger.info("Каталог пуст, автопарсинг завершен");
+                    cleanupChildTaskMappings(taskId);
+                    finishJob(task, ImportJob.State.COMPLETED);
+                    return CompletableFuture.completedFuture(null);
+                }
 
-            // Deduplicate slugs based on normalized slug to prevent re-parsing the same manga
-            Map<String, String> normalizedToOriginal = new LinkedHashMap<>();
-            for (String slug : slugs) {
-                String normalized = normalizeSlug(slug);
-                if (!normalizedToOriginal.containsKey(normalized)) {
-                    normalizedToOriginal.put(normalized, slug);
+                // Deduplicate slugs based on normalized slug to prevent re-parsing the same manga
+                Map<String, String> normalizedToOriginal = new LinkedHashMap<>();
+                for (String slug : catalogSlugs) {
+                    String normalized = normalizeSlug(slug);
+                    if (!normalizedToOriginal.containsKey(normalized)) {
+                        normalizedToOriginal.put(normalized, slug);
+                    }
                 }
+                slugs = new ArrayList<>(normalizedToOriginal.values());
+                task.slugs = slugs;
             }
-            slugs = new ArrayList<>(normalizedToOriginal.values());
 
             task.totalSlugs = slugs.size();
             logger.info("Получено {} манг из каталога, после дедупликации: {}", slugs.size(), slugs.size());
             appendLog(task, String.format("Найдено %d тайтлов для обработки (после дедупликации)", slugs.size()));
+            persistCheckpoint(task, task.resumeFrom);
 
-            for (int i = 0; i < slugs.size(); i++) {
+            for (int i = task.resumeFrom; i < slugs.size(); i++) {
                 if ("cancelled".equals(task.status)) {
                     logger.info("Задача автопарсинга {} отменена, прерываем цикл", taskId);
                     appendLog(task, "Задача была отменена, оставшиеся тайтлы не будут обработаны.");
@@ -356,8 +491,13 @@ public class AutoParsingService {
                 ChapterThresholdDecision thresholdDecision = null;
 
                 try {
-                    boolean alreadyImported = mangaRepository.existsByMelonSlug(normalizedSlug);
-                    if (!alreadyImported && slugId != null) {
+                    // Тайтл, на котором задачу прервал перезапуск, продолжаем без повторных проверок:
+                    // его манга уже может быть частично импортирована
+                    Map<String, Object> parseResult = i == task.resumeFrom ? resumeChildFullParsing(task, slug) : null;
+                    boolean resumedChild = parseResult != null;
+
+                    boolean alreadyImported = !resumedChild && mangaRepository.existsByMelonSlug(normalizedSlug);
+                    if (!resumedChild && !alreadyImported && slugId != null) {
                         alreadyImported = mangaRepository.existsByMelonSlugId(slugId);
                     }
 
@@ -384,7 +524,7 @@ public class AutoParsingService {
                     }
 
                     // Check if this slug is currently being processed (import in progress)
-                    if (melonService.isSlugBeingProcessed(normalizedSlug)) {
+                    if (!resumedChild && melonService.isSlugBeingProcessed(normalizedSlug)) {
                         logger.info("Манга с slug '{}' (normalized: '{}') уже находится в обработке, пропускаем до завершения импорта",
                             slug, normalizedSlug);
                         task.skippedSlugs.add(slug);
@@ -407,38 +547,40 @@ public class AutoParsingService {
                     }
 
                     // Check if this manga has already been parsed in ParserService
-                    try {
-                        List<Map<String, Object>> parsedManga = melonService.listParsedManga();
-                        boolean alreadyParsed = parsedManga.stream()
-                            .anyMatch(manga -> normalizedSlug.equals(manga.get("slug")));
+                    if (!resumedChild) {
+                        try {
+                            List<Map<String, Object>> parsedManga = melonService.listParsedManga();
+                            boolean alreadyParsed = parsedManga.stream()
+                                .anyMatch(manga -> normalizedSlug.equals(manga.get("slug")));
                         
-                        if (alreadyParsed) {
-                            logger.info("Манга с slug '{}' (normalized: '{}') уже спаршена в ParserService, пропускаем",
-                                slug, normalizedSlug);
-                            task.skippedSlugs.add(slug);
-                            appendLog(task, String.format("[%d/%d] %s: пропуск — уже спаршена",
-                                i + 1, slugs.size(), normalizedSlug));
-
-                            mangaMetric.put("status", "skipped");
-                            mangaMetric.put("reason", "already_parsed");
-                            mangaMetric.put("completed_at", toIsoString(System.currentTimeMillis()));
-                            mangaMetric.put("duration_ms", 0L);
-                            mangaMetric.put("duration_formatted", formatDuration(0));
-                            addMangaMetric(task, mangaMetric);
-                            metricRecorded = true;
-
-                            task.processedSlugs++;
-                            task.progress = (task.processedSlugs * 100) / task.totalSlugs;
-                            task.message = String.format("Обработано: %d/%d (пропущено: %d, импортировано: %d)",
-                                task.processedSlugs, task.totalSlugs, task.skippedSlugs.size(), task.importedSlugs.size());
-                            continue;
+                            if (alreadyParsed) {
+                                logger.info("Манга с slug '{}' (normalized: '{}') уже спаршена в ParserService, пропускаем",
+                                    slug, normalizedSlug);
+                                task.skippedSlugs.add(slug);
+                                appendLog(task, String.format("[%d/%d] %s: пропуск — уже спаршена",
+                                    i + 1, slugs.size(), normalizedSlug));
+
+                                mangaMetric.put("status", "skipped");
+                                mangaMetric.put("reason", "already_parsed");
+                                mangaMetric.put("completed_at", toIsoString(System.currentTimeMillis()));
+                                mangaMetric.put("duration_ms", 0L);
+                                mangaMetric.put("duration_formatted", formatDuration(0));
+                                addMangaMetric(task, mangaMetric);
+                                metricRecorded = true;
+
+                                task.processedSlugs++;
+                                task.progress = (task.processedSlugs * 100) / task.totalSlugs;
+                                task.message = String.format("Обработано: %d/%d (пропущено: %d, импортировано: %d)",
+                                    task.processedSlugs, task.totalSlugs, task.skippedSlugs.size(), task.importedSlugs.size());
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            logger.warn("Не удалось проверить список спаршенных манг для '{}': {}", normalizedSlug, e.getMessage());
+                            // Continue with parsing if we can't check - better to parse than skip unnecessarily
                         }
-                    } catch (Exception e) {
-                        logger.warn("Не удалось проверить список спаршенных манг для '{}': {}", normalizedSlug, e.getMessage());
-                        // Continue with parsing if we can't check - better to parse than skip unnecessarily
                     }
 
-                    thresholdDecision = evaluateChapterThreshold(slug, normalizedSlug, task);
+                    thresholdDecision = resumedChild ? null : evaluateChapterThreshold(slug, normalizedSlug, task);
                     if (thresholdDecision != null) {
                         if (thresholdDecision.totalChapters() != null) {
                             thresholdMetrics.put("total_chapters", thresholdDecision.totalChapters());
@@ -511,11 +653,15 @@ public class AutoParsingService {
                     appendLog(task, String.format("[%d/%d] Запуск полного парсинга: %s",
                         i + 1, slugs.size(), normalizedSlug));
 
-                    Map<String, Object> parseResult = melonService.startFullParsing(slug);
+                    if (!resumedChild) {
+                        parseResult = melonService.startFullParsing(slug, taskId);
+                    }
 
                     if (parseResult != null && parseResult.containsKey("task_id")) {
                         fullParsingTaskId = (String) parseResult.get("task_id");
                         mangaMetric.put("full_parsing_task_id", fullParsingTaskId);
+                        String childTaskId = fullParsingTaskId;
+                        importJobStore.update(taskId, null, job -> job.setChildTaskId(childTaskId));
 
                         if (parseResult.containsKey("parse_task_id")) {
                             parseTaskId = (String) parseResult.get("parse_task_id");
@@ -645,6 +791,12 @@ public class AutoParsingService {
                     task.skippedSlugs.size(),
                     task.failedSlugs.size()
                 ));
+                persistCheckpoint(task, i + 1);
+            }
+
+            if ("cancelled".equals(task.status)) {
+                cleanupChildTaskMappings(taskId);
+                return CompletableFuture.completedFuture(null);
             }
 
             task.status = "completed";
@@ -660,6 +812,7 @@ public class AutoParsingService {
             ));
 
             cleanupChildTaskMappings(taskId);
+            finishJob(task, ImportJob.State.COMPLETED);
             
             logger.info("Автопарсинг завершен. Результаты: импортировано={}, пропущено={}, ошибок={}",
                 task.importedSlugs.size(), task.skippedSlugs.size(), task.failedSlugs.size());
@@ -671,6 +824,9 @@ public class AutoParsingService {
             logger.error("Критическая ошибка автопарсинга", e);
             appendLog(task, "Критическая ошибка автопарсинга: " + e.getMessage());
             cleanupChildTaskMappings(taskId);
+            finishJob(task, ImportJob.State.FAILED);
+        } finally {
+            importJobStore.removeLeaseLostHandler(taskId, stopOnLeaseLost);
         }
 
         return CompletableFuture.completedFuture(null);
@@ -1084,6 +1240,13 @@ public class AutoParsingService {
      */
     private record ChapterThresholdDecision(Integer totalChapters, boolean belowMinimum, boolean aboveMaximum, String failureMessage) {}
 
+    /**
+     * Сохраняемое состояние задачи автопарсинга: параметры запуска, список тайтлов и итоги.
+     */
+    record AutoParsingCheckpoint(Integer page, Integer limit, Integer minChapters, Integer maxChapters,
+                                 List<String> slugs, List<String> importedSlugs,
+                                 List<String> skippedSlugs, List<String> failedSlugs) {}
+
     private static class AutoParseTask {
         String taskId;
         String status;
@@ -1102,5 +1265,8 @@ public class AutoParsingService {
         Integer limit;  // Ограничение количества манг для парсинга
         Integer minChapters;
         Integer maxChapters;
+        List<String> slugs;  // Список тайтлов после дедупликации
+        int resumeFrom;  // Позиция, с которой продолжается обработка после перезапуска
+        String resumeChildTaskId;  // Полный парсинг, прерванный перезапуском на тайтле resumeFrom
     }
 }
@@ -1,18 +1,24 @@
 package shadowshift.studio.mangaservice.service;
 
-import org.springframework.scheduling.annotation.Async;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Сервис для асинхронного запуска задач полного парсинга манги.
- * Обеспечивает выполнение задач в фоновом режиме.
+ * Обеспечивает выполнение задач в фоновом режиме. Задача большую часть времени ждет ParserService,
+ * поэтому выполняется в виртуальном потоке и не занимает пул {@code @Async}, на котором работают импорты.
  *
  * @author ShadowShiftStudio
  */
 @Service
 public class FullParsingTaskRunner {
 
+    private final ExecutorService executor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("full-parsing-", 0).factory());
+
     /**
      * Запускает задачу полного парсинга манги асинхронно.
      *
@@ -22,9 +28,13 @@ public class FullParsingTaskRunner {
      * @param slug slug манги
      * @return CompletableFuture, завершающийся после выполнения задачи
      */
-    @Async
     public CompletableFuture<Void> startFullParsingTask(MelonIntegrationService melonIntegrationService, String fullTaskId, String parseTaskId, String slug) {
-        melonIntegrationService.runFullParsingTaskLogic(fullTaskId, parseTaskId, slug);
-        return CompletableFuture.completedFuture(null);
+        return CompletableFuture.runAsync(
+            () -> melonIntegrationService.runFullParsingTaskLogic(fullTaskId, parseTaskId, slug), executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
     }
 }
@@ -0,0 +1,73 @@
+package shadowshift.studio.mangaservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import shadowshift.studio.mangaservice.entity.ImportJob;
+
+/**
+ * Подхватывает задачи импорта, оставшиеся без владельца (после перезапуска или падения реплики),
+ * и продолжает их с сохраненного этапа. Дочерние задачи продолжает их родитель;
+ * дочерние задачи без живого родителя помечаются как FAILED.
+ *
+ * @author ShadowShiftStudio
+ */
+@Service
+public class ImportJobRecoveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobRecoveryService.class);
+
+    @Autowired
+    private ImportJobStore importJobStore;
+
+    @Autowired
+    @Lazy
+    private MelonIntegrationService melonIntegrationService;
+
+    @Autowired
+    @Lazy
+    private AutoParsingService autoParsingService;
+
+    @Scheduled(initialDelayString = "${import.jobs.recovery-initial-delay-ms:30000}",
+        fixedDelayString = "${import.jobs.recovery-interval-ms:60000}")
+    public void recoverAbandonedJobs() {
+        try {
+            for (ImportJob orphan : importJobStore.findOrphans()) {
+                if (importJobStore.claim(orphan.getTaskId())) {
+                    importJobStore.transition(orphan.getTaskId(), ImportJob.State.FAILED,
+                        "Родительская задача завершена, продолжение невозможно");
+                }
+            }
+
+            for (ImportJob job : importJobStore.findResumableRoots()) {
+                if (!importJobStore.claim(job.getTaskId())) {
+                    continue;
+                }
+                int resumeCount = job.getResumeCount() != null ? job.getResumeCount() + 1 : 1;
+                importJobStore.update(job.getTaskId(), null, j -> j.setResumeCount(resumeCount));
+                logger.info("Продолжаем задачу {} ({}, этап {}, попытка {})",
+                    job.getTaskId(), job.getType(), job.getState(), resumeCount);
+                resume(job);
+            }
+        } catch (Exception e) {
+            logger.warn("Ошибка восстановления задач импорта: {}", e.getMessage());
+        }
+    }
+
+    private void resume(ImportJob job) {
+        try {
+            switch (job.getType()) {
+                case AUTO_PARSING -> autoParsingService.resumeAutoParsing(job);
+                case FULL_PARSING -> melonIntegrationService.resumeFullParsing(job);
+                case IMPORT -> melonIntegrationService.resumeImport(job);
+            }
+        } catch (Exception e) {
+            logger.error("Не удалось продолжить задачу {}: {}", job.getTaskId(), e.getMessage(), e);
+            importJobStore.transition(job.getTaskId(), ImportJob.State.FAILED,
+                "Не удалось продолжить после перезапуска: " + e.getMessage());
+        }
+    }
+}
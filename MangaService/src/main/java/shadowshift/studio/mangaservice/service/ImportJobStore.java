@@ -0,0 +1,382 @@
+package shadowshift.studio.mangaservice.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import shadowshift.studio.mangaservice.entity.ImportJob;
+import shadowshift.studio.mangaservice.entity.ImportJobChapter;
+import shadowshift.studio.mangaservice.repository.ImportJobChapterRepository;
+import shadowshift.studio.mangaservice.repository.ImportJobRepository;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Долговременное состояние задач импорта: переходы по этапам, аренда (lease) для
+ * выполнения задачи только одной репликой и контрольные точки импорта глав.
+ * Ошибки БД здесь не прерывают импорт: состояние сохраняется по возможности,
+ * а проблемы пишутся в лог.
+ *
+ * @author ShadowShiftStudio
+ */
+@Service
+public class ImportJobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobStore.class);
+    private static final Set<ImportJob.State> TERMINAL_STATES =
+        EnumSet.of(ImportJob.State.COMPLETED, ImportJob.State.FAILED, ImportJob.State.CANCELLED);
+    private static final Duration PROGRESS_WRITE_INTERVAL = Duration.ofSeconds(5);
+
+    private final ImportJobRepository jobRepository;
+    private final ImportJobChapterRepository chapterRepository;
+    private final ObjectMapper objectMapper;
+    private final String instanceId;
+    private final Set<String> ownedJobs = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> lastProgressWrite = new ConcurrentHashMap<>();
+    private final Map<String, Runnable> leaseLostHandlers = new ConcurrentHashMap<>();
+
+    @Value("${import.jobs.lease-ttl-ms:120000}")
+    private long leaseTtlMs;
+
+    @Value("${import.jobs.retention-hours:72}")
+    private long retentionHours;
+
+    public ImportJobStore(ImportJobRepository jobRepository, ImportJobChapterRepository chapterRepository,
+                          ObjectMapper objectMapper) {
+        this.jobRepository = jobRepository;
+        this.chapterRepository = chapterRepository;
+        this.objectMapper = objectMapper;
+        this.instanceId = resolveInstanceId();
+    }
+
+    /**
+     * Создает запись задачи (или возвращает существующую с тем же ID) и забирает аренду на текущий экземпляр.
+     */
+    public synchronized Optional<ImportJob> create(String taskId, ImportJob.Type type, String parentTaskId, String slug) {
+        try {
+            ImportJob job = jobRepository.findById(taskId).orElse(null);
+            if (job == null) {
+                job = new ImportJob(taskId, type);
+                job.setParentTaskId(parentTaskId);
+                job.setSlug(slug);
+                job.setLeaseOwner(instanceId);
+                job.setLeaseExpiresAt(LocalDateTime.now().plus(leaseTtl()));
+                job = jobRepository.save(job);
+                ownedJobs.add(taskId);
+            } else {
+                claim(taskId);
+            }
+            return Optional.of(job);
+        } catch (Exception e) {
+            logger.warn("Не удалось сохранить задачу импорта {}: {}", taskId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public Optional<ImportJob> find(String taskId) {
+        if (taskId == null) {
+            return Optional.empty();
+        }
+        try {
+            return jobRepository.findById(taskId);
+        } catch (Exception e) {
+            logger.warn("Не удалось прочитать задачу импорта {}: {}", taskId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Пытается стать владельцем задачи. Удается, если аренда свободна или истекла.
+     * Задачу, которую этот экземпляр уже выполняет, повторно не захватывает.
+     */
+    public boolean claim(String taskId) {
+        if (ownedJobs.contains(taskId)) {
+            return false;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            boolean acquired = jobRepository.tryAcquireLease(taskId, instanceId, now.plus(leaseTtl()), now) > 0;
+            if (acquired) {
+                ownedJobs.add(taskId);
+            }
+            return acquired;
+        } catch (Exception e) {
+            logger.warn("Не удалось захватить аренду задачи {}: {}", taskId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Переводит задачу в новое состояние. Недопустимые переходы (назад по этапам,
+     * из завершенного состояния) игнорируются.
+     *
+     * @return true, если задача находится в целевом состоянии
+     */
+    public synchronized boolean transition(String taskId, ImportJob.State target, String message) {
+        return mutate(taskId, target, job -> {
+            if (message != null) {
+                job.setMessage(truncate(message, 1000));
+            }
+            if (target == ImportJob.State.FAILED && message != null) {
+                job.setErrorMessage(message);
+            }
+        });
+    }
+
+    /**
+     * Изменяет поля задачи и при необходимости переводит её в новое состояние.
+     */
+    public synchronized boolean update(String taskId, ImportJob.State target, Consumer<ImportJob> mutation) {
+        return mutate(taskId, target, mutation);
+    }
+
+    /**
+     * Сохраняет прогресс не чаще раза в {@link #PROGRESS_WRITE_INTERVAL}.
+     */
+    public void recordProgress(String taskId, int progress, String message) {
+        if (taskId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long last = lastProgressWrite.get(taskId);
+        if (last != null && now - last < PROGRESS_WRITE_INTERVAL.toMillis()) {
+            return;
+        }
+        lastProgressWrite.put(taskId, now);
+        try {
+            jobRepository.updateProgress(taskId, instanceId, progress, truncate(message, 1000), LocalDateTime.now(), TERMINAL_STATES);
+        } catch (Exception e) {
+            logger.debug("Не удалось сохранить прогресс задачи {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * Контрольные точки глав задачи по ключу главы.
+     */
+    public Map<String, ImportJobChapter> chapterCheckpoints(String taskId) {
+        Map<String, ImportJobChapter> result = new HashMap<>();
+        try {
+            for (ImportJobChapter chapter : chapterRepository.findByTaskId(taskId)) {
+                result.put(chapter.getChapterKey(), chapter);
+            }
+        } catch (Exception e) {
+            logger.warn("Не удалось прочитать контрольные точки задачи {}: {}", taskId, e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Отмечает, что глава создана (chapterId) и, если pagesImported, что её страницы загружены.
+     */
+    public void checkpointChapter(String taskId, String chapterKey, Long chapterId, boolean pagesImported) {
+        try {
+            ImportJobChapter checkpoint = chapterRepository.findByTaskIdAndChapterKey(taskId, chapterKey)
+                .orElseGet(() -> new ImportJobChapter(taskId, chapterKey));
+            checkpoint.setChapterId(chapterId);
+            checkpoint.setPagesImported(pagesImported);
+            chapterRepository.save(checkpoint);
+        } catch (Exception e) {
+            logger.warn("Не удалось сохранить контрольную точку главы {} задачи {}: {}", chapterKey, taskId, e.getMessage());
+        }
+    }
+
+    public <T> T readPayload(ImportJob job, TypeReference<T> type) {
+        if (job == null || job.getPayload() == null || job.getPayload().isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(job.getPayload(), type);
+        } catch (Exception e) {
+            logger.warn("Поврежденные данные задачи {}: {}", job.getTaskId(), e.getMessage());
+            return null;
+        }
+    }
+
+    public String writePayload(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (Exception e) {
+            throw new IllegalStateException("Не удалось сериализовать данные задачи", e);
+        }
+    }
+
+    /**
+     * Незавершенные задачи верхнего уровня без живого владельца.
+     */
+    public List<ImportJob> findResumableRoots() {
+        return jobRepository.findResumableRoots(TERMINAL_STATES, LocalDateTime.now());
+    }
+
+    /**
+     * Незавершенные дочерние задачи, родитель которых уже не выполняется.
+     */
+    public List<ImportJob> findOrphans() {
+        return jobRepository.findOrphans(TERMINAL_STATES, LocalDateTime.now());
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Регистрирует остановку исполнителя задачи, если продление обнаружит, что аренду
+     * перехватил другой экземпляр. Обработчик вызывается один раз и после этого снимается.
+     */
+    public void onLeaseLost(String taskId, Runnable handler) {
+        leaseLostHandlers.put(taskId, handler);
+    }
+
+    /**
+     * Снимает обработчик, когда исполнитель закончил работу. Обработчик нового
+     * исполнителя той же задачи не затрагивается.
+     */
+    public void removeLeaseLostHandler(String taskId, Runnable handler) {
+        leaseLostHandlers.remove(taskId, handler);
+    }
+
+    /**
+     * Продлевает аренду задач, которые выполняет этот экземпляр. Задачи, аренду которых
+     * перехватил другой экземпляр, перестают считаться своими, а их исполнители останавливаются.
+     */
+    @Scheduled(fixedDelayString = "${import.jobs.lease-renew-interval-ms:30000}")
+    public void renewLeases() {
+        if (ownedJobs.isEmpty()) {
+            return;
+        }
+        List<String> taskIds = new ArrayList<>(ownedJobs);
+        try {
+            int renewed = jobRepository.renewLeases(instanceId, taskIds, LocalDateTime.now().plus(leaseTtl()));
+            if (renewed < taskIds.size()) {
+                Set<String> held = new HashSet<>(jobRepository.findTaskIdsByLeaseOwner(instanceId, taskIds));
+                for (String taskId : taskIds) {
+                    if (!held.contains(taskId) && ownedJobs.remove(taskId)) {
+                        loseLease(taskId);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Не удалось продлить аренду задач импорта: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Удаляет завершенные задачи старше срока хранения вместе с контрольными точками.
+     */
+    @Scheduled(fixedDelayString = "${import.jobs.cleanup-interval-ms:3600000}", initialDelay = 600000)
+    public void purgeFinished() {
+        try {
+            List<String> expired = jobRepository.findFinishedBefore(TERMINAL_STATES,
+                LocalDateTime.now().minusHours(retentionHours));
+            if (expired.isEmpty()) {
+                return;
+            }
+            chapterRepository.deleteByTaskIds(expired);
+            jobRepository.deleteAllById(expired);
+            logger.info("Удалено {} завершенных задач импорта старше {} ч", expired.size(), retentionHours);
+        } catch (Exception e) {
+            logger.warn("Не удалось очистить завершенные задачи импорта: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Изменения пишет только владелец аренды: перед сохранением аренда продлевается
+     * условным UPDATE, поэтому до истечения нового срока её не перехватит другой экземпляр.
+     */
+    private boolean mutate(String taskId, ImportJob.State target, Consumer<ImportJob> mutation) {
+        if (taskId == null) {
+            return false;
+        }
+        try {
+            ImportJob job = jobRepository.findById(taskId).orElse(null);
+            if (job == null) {
+                return false;
+            }
+            ImportJob.State current = job.getState();
+            if (target != null && !current.canTransitionTo(target)) {
+                logger.debug("Переход {} -> {} для задачи {} недопустим, пропускаем", current, target, taskId);
+                return false;
+            }
+            if (current.isTerminal()) {
+                return current == target;
+            }
+            if (!instanceId.equals(job.getLeaseOwner())) {
+                logger.debug("Задача {} выполняется другим экземпляром ({}), изменение пропущено", taskId, job.getLeaseOwner());
+                return false;
+            }
+            if (mutation != null) {
+                mutation.accept(job);
+            }
+            if (target != null) {
+                job.setState(target);
+                if (target.isTerminal()) {
+                    job.setFinishedAt(LocalDateTime.now());
+                }
+            }
+            LocalDateTime leaseUntil = LocalDateTime.now().plus(leaseTtl());
+            if (jobRepository.renewLeases(instanceId, List.of(taskId), leaseUntil) == 0) {
+                logger.debug("Аренда задачи {} потеряна, изменение пропущено", taskId);
+                return false;
+            }
+            job.setLeaseExpiresAt(leaseUntil);
+            jobRepository.save(job);
+            if (target != null && target.isTerminal()) {
+                release(taskId);
+            }
+            return true;
+        } catch (Exception e) {
+            logger.warn("Не удалось обновить задачу импорта {}: {}", taskId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void release(String taskId) {
+        ownedJobs.remove(taskId);
+        lastProgressWrite.remove(taskId);
+        leaseLostHandlers.remove(taskId);
+        jobRepository.releaseLease(taskId, instanceId);
+    }
+
+    private void loseLease(String taskId) {
+        lastProgressWrite.remove(taskId);
+        logger.warn("Аренда задачи импорта {} перехвачена другим экземпляром, останавливаем выполнение", taskId);
+        Runnable handler = leaseLostHandlers.remove(taskId);
+        if (handler != null) {
+            try {
+                handler.run();
+            } catch (Exception e) {
+                logger.warn("Не удалось остановить задачу {}: {}", taskId, e.getMessage());
+            }
+        }
+    }
+
+    private Duration leaseTtl() {
+        return Duration.ofMillis(Math.max(10_000L, leaseTtlMs));
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength);
+    }
+
+    private static String resolveInstanceId() {
+        String host = System.getenv("HOSTNAME");
+        if (host == null || host.isBlank()) {
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "manga-service";
+            }
+        }
+        return host + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
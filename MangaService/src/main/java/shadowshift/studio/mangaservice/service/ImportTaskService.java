@@ -2,19 +2,24 @@ package shadowshift.studio.mangaservice.service;
 
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import shadowshift.studio.mangaservice.entity.ImportJob;
 import shadowshift.studio.mangaservice.websocket.ProgressWebSocketHandler;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Сервис для управления задачами импорта манги.
  * Предоставляет функциональность для создания, обновления и отслеживания прогресса задач импорта.
+ * Живой прогресс хранится в памяти, а статус и этап дублируются в {@link ImportJobStore},
+ * поэтому задача переживает перезапуск сервиса.
  *
  * @author ShadowShiftStudio
  */
@@ -24,6 +29,9 @@ public class ImportTaskService {
     @Autowired
     private ProgressWebSocketHandler webSocketHandler;
 
+    @Autowired
+    private ImportJobStore importJobStore;
+
     /**
      * Перечисление статусов задачи импорта.
      */
@@ -95,6 +103,34 @@ public class ImportTaskService {
             this.metrics = new HashMap<>();
         }
 
+        /**
+         * Восстанавливает задачу из долговременной записи (после перезапуска сервиса).
+         *
+         * @param job сохраненная задача
+         * @return задача с последним сохраненным состоянием
+         */
+        static ImportTask fromJob(ImportJob job) {
+            ImportTask task = new ImportTask(job.getTaskId());
+            task.status = switch (job.getState()) {
+                case QUEUED -> TaskStatus.PENDING;
+                case COMPLETED -> TaskStatus.COMPLETED;
+                case FAILED, CANCELLED -> TaskStatus.FAILED;
+                case IMPORTING -> TaskStatus.IMPORTING_CHAPTERS;
+                default -> TaskStatus.RUNNING;
+            };
+            task.progress = job.getProgress() != null ? job.getProgress() : 0;
+            task.message = job.getMessage();
+            task.errorMessage = job.getErrorMessage();
+            task.mangaId = job.getMangaId();
+            if (job.getCreatedAt() != null) {
+                task.createdAt = job.getCreatedAt();
+            }
+            if (job.getUpdatedAt() != null) {
+                task.updatedAt = job.getUpdatedAt();
+            }
+            return task;
+        }
+
         /**
          * Возвращает идентификатор задачи.
          *
@@ -356,6 +392,16 @@ public class ImportTaskService {
 
     private final Map<String, ImportTask> tasks = new ConcurrentHashMap<>();
 
+    /**
+     * Ожидания завершения задач (вместо опроса статуса).
+     */
+    private final Map<String, CompletableFuture<ImportTask>> completions = new ConcurrentHashMap<>();
+
+    /**
+     * Задачи, для которых переход в IMPORTING уже записан: дальше сохраняется только прогресс.
+     */
+    private final Set<String> importingJobs = ConcurrentHashMap.newKeySet();
+
     private record LogEntry(long timestamp, String level, String message) {}
 
     /**
@@ -365,19 +411,49 @@ public class ImportTaskService {
      * @return созданная задача
      */
     public ImportTask createTask(String taskId) {
+        return createTask(taskId, null, null);
+    }
+
+    /**
+     * Создает новую задачу импорта и сохраняет её долговременную запись.
+     * Если запись с таким ID уже есть (задача полного парсинга или продолжение после перезапуска),
+     * используется она.
+     *
+     * @param taskId уникальный идентификатор задачи
+     * @param slug slug импортируемой манги
+     * @param branchId ветка перевода (опционально)
+     * @return созданная задача
+     */
+    public ImportTask createTask(String taskId, String slug, String branchId) {
         ImportTask task = new ImportTask(taskId);
         tasks.put(taskId, task);
+        importingJobs.remove(taskId);
+        importJobStore.create(taskId, ImportJob.Type.IMPORT, null, slug).ifPresent(job -> {
+            if (job.getMangaId() != null) {
+                task.setMangaId(job.getMangaId());
+            }
+            if (branchId != null && job.getBranchId() == null) {
+                importJobStore.update(taskId, null, j -> j.setBranchId(branchId));
+            }
+        });
         return task;
     }
 
     /**
-     * Возвращает задачу по идентификатору.
+     * Возвращает задачу по идентификатору. Задачи, которых нет в памяти
+     * (например, после перезапуска), восстанавливаются из долговременной записи.
      *
      * @param taskId идентификатор задачи
      * @return задача или null, если не найдена
      */
     public ImportTask getTask(String taskId) {
-        return tasks.get(taskId);
+        ImportTask task = tasks.get(taskId);
+        if (task != null || taskId == null) {
+            return task;
+        }
+        return importJobStore.find(taskId)
+            .map(job -> tasks.computeIfAbsent(taskId, key -> ImportTask.fromJob(job)))
+            .orElse(null);
     }
 
     /**
@@ -410,9 +486,13 @@ public class ImportTaskService {
             if (metrics != null) {
                 task.setMetrics(metrics);
             }
+            persistState(taskId, task);
 
             // Отправляем обновление через WebSocket
             sendWebSocketUpdate(taskId, task);
+            if (status == TaskStatus.COMPLETED || status == TaskStatus.FAILED) {
+                notifyCompletion(taskId, task);
+            }
         }
     }
 
@@ -445,9 +525,12 @@ public class ImportTaskService {
 
             LocalDateTime completedAt = task.getUpdatedAt();
             task.setMetrics(buildMetricsSnapshot(task, completedAt, "completed", null));
+            importingJobs.remove(taskId);
+            importJobStore.transition(taskId, ImportJob.State.COMPLETED, task.getMessage());
 
             // Отправляем обновление через WebSocket
             sendWebSocketUpdate(taskId, task);
+            notifyCompletion(taskId, task);
         }
     }
 
@@ -466,9 +549,12 @@ public class ImportTaskService {
 
             LocalDateTime failedAt = task.getUpdatedAt();
             task.setMetrics(buildMetricsSnapshot(task, failedAt, "failed", errorMessage));
+            importingJobs.remove(taskId);
+            importJobStore.transition(taskId, ImportJob.State.FAILED, task.getMessage());
 
             // Отправляем обновление через WebSocket
             sendWebSocketUpdate(taskId, task);
+            notifyCompletion(taskId, task);
         }
     }
 
@@ -483,6 +569,7 @@ public class ImportTaskService {
             task.setImportedChapters(task.getImportedChapters() + 1);
             task.updateProgress();
             task.setMessage("Импортировано глав: " + task.getImportedChapters() + "/" + task.getTotalChapters());
+            importJobStore.recordProgress(taskId, task.getProgress(), task.getMessage());
 
             // Отправляем обновление через WebSocket
             sendWebSocketUpdate(taskId, task);
@@ -524,6 +611,53 @@ public class ImportTaskService {
         }
     }
 
+    /**
+     * Возвращает future, который завершается, когда задача импорта завершится успешно или с ошибкой.
+     *
+     * @param taskId идентификатор задачи
+     * @return future с итоговым состоянием задачи
+     */
+    public CompletableFuture<ImportTask> awaitCompletion(String taskId) {
+        CompletableFuture<ImportTask> completion = completions.computeIfAbsent(taskId, key -> new CompletableFuture<>());
+        ImportTask task = tasks.get(taskId);
+        if (task != null && (task.getStatus() == TaskStatus.COMPLETED || task.getStatus() == TaskStatus.FAILED)) {
+            completions.remove(taskId, completion);
+            completion.complete(task);
+        }
+        return completion;
+    }
+
+    private void notifyCompletion(String taskId, ImportTask task) {
+        CompletableFuture<ImportTask> completion = completions.remove(taskId);
+        if (completion != null) {
+            completion.complete(task);
+        }
+    }
+
+    /**
+     * Дублирует статус задачи в долговременную запись: начало импорта, завершение и ошибка —
+     * как переход состояния (один раз), остальное — как прогресс с ограничением частоты записи.
+     */
+    private void persistState(String taskId, ImportTask task) {
+        switch (task.getStatus()) {
+            case COMPLETED -> {
+                importingJobs.remove(taskId);
+                importJobStore.transition(taskId, ImportJob.State.COMPLETED, task.getMessage());
+            }
+            case FAILED -> {
+                importingJobs.remove(taskId);
+                importJobStore.transition(taskId, ImportJob.State.FAILED, task.getMessage());
+            }
+            case PENDING -> importJobStore.recordProgress(taskId, task.getProgress(), task.getMessage());
+            default -> {
+                if (importingJobs.add(taskId)) {
+                    importJobStore.transition(taskId, ImportJob.State.IMPORTING, null);
+                }
+                importJobStore.recordProgress(taskId, task.getProgress(), task.getMessage());
+            }
+        }
+    }
+
     /**
      * Отправляет обновление прогресса через WebSocket
      */
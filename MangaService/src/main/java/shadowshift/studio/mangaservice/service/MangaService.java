@@ -2,7 +2,6 @@ package shadowshift.studio.mangaservice.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
@@ -12,8 +11,6 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
-import shadowshift.studio.mangaservice.config.ServiceUrlProperties;
 import shadowshift.studio.mangaservice.dto.MangaCreateDTO;
 import shadowshift.studio.mangaservice.dto.MangaResponseDTO;
 import shadowshift.studio.mangaservice.dto.PageResponseDTO;
@@ -27,6 +24,7 @@ import shadowshift.studio.mangaservice.metrics.MangaBusinessMetrics;
 import shadowshift.studio.mangaservice.repository.MangaRepository;
 import shadowshift.studio.mangaservice.service.external.ChapterServiceClient;
 import shadowshift.studio.mangaservice.service.external.ExternalMetricsClient;
+import shadowshift.studio.mangaservice.service.external.ServiceClients;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -75,8 +73,7 @@ public class MangaService {
     private final MangaRepository mangaRepository;
     private final ChapterServiceClient chapterServiceClient;
     private final MangaMapper mangaMapper;
-    private final RestTemplate restTemplate;
-    private final ServiceUrlProperties serviceUrlProperties;
+    private final ServiceClients serviceClients;
     private final GenreService genreService;
     private final TagService tagService;
     private final MelonIntegrationService melonIntegrationService;
@@ -88,10 +85,6 @@ public class MangaService {
 
     private final AtomicLong lastMetricsSync = new AtomicLong(0L);
 
-
-    @Value("${image.storage.service.url}")
-    private String imageStorageServiceUrl;
-
     /**
      * Конструктор сервиса с внедрением зависимостей.
      * 
@@ -101,8 +94,7 @@ public class MangaService {
      * @param mangaRepository репозиторий для работы с сущностями манги
      * @param chapterServiceClient клиент для работы с сервисом глав
      * @param mangaMapper маппер для преобразования между DTO и сущностями
-     * @param restTemplate шаблон для выполнения REST-запросов
-     * @param serviceUrlProperties конфигурация URL сервисов
+     * @param serviceClients общие HTTP-клиенты соседних сервисов
     * @param genreService сервис для работы с жанрами
     * @param tagService сервис для работы с тегами
     * @param melonIntegrationService сервис интеграции с Melon API
@@ -112,8 +104,7 @@ public class MangaService {
     public MangaService(MangaRepository mangaRepository, 
                        ChapterServiceClient chapterServiceClient,
                        MangaMapper mangaMapper,
-                       RestTemplate restTemplate,
-                       ServiceUrlProperties serviceUrlProperties,
+                       ServiceClients serviceClients,
                        GenreService genreService,
                        TagService tagService,
                        MelonIntegrationService melonIntegrationService,
@@ -122,8 +113,7 @@ public class MangaService {
         this.mangaRepository = mangaRepository;
         this.chapterServiceClient = chapterServiceClient;
         this.mangaMapper = mangaMapper;
-        this.restTemplate = restTemplate;
-        this.serviceUrlProperties = serviceUrlProperties;
+        this.serviceClients = serviceClients;
         this.genreService = genreService;
         this.tagService = tagService;
         this.melonIntegrationService = melonIntegrationService;
@@ -1139,8 +1129,9 @@ public class MangaService {
         
         try {
             if (mangaRepository.existsById(id)) {
-                // Сначала удаляем все закладки для этой манги
+                // Сначала удаляем все закладки и изображения этой манги
                 deleteBookmarksForManga(id);
+                deleteImagesForManga(id);
                 
                 // Затем удаляем саму мангу
                 mangaRepository.deleteById(id);
@@ -1173,6 +1164,7 @@ public class MangaService {
             try {
                 if (mangaRepository.existsById(id)) {
                     deleteBookmarksForManga(id);
+                    deleteImagesForManga(id);
                     mangaRepository.deleteById(id);
                     succeeded.add(id);
                     logger.info("✅ Манга ID {} успешно удалена", id);
@@ -1214,15 +1206,31 @@ public class MangaService {
      * @param mangaId идентификатор манги
      */
     private void deleteBookmarksForManga(Long mangaId) {
-        try {
-            String authServiceUrl = serviceUrlProperties.getAuthServiceUrl();
-            String deleteBookmarksUrl = authServiceUrl + "/api/bookmarks/manga/" + mangaId;
-            
-            restTemplate.delete(deleteBookmarksUrl);
+        // Не прерываем процесс удаления манги, если не удалось удалить закладки
+        if (serviceClients.authService().delete("/api/bookmarks/manga/" + mangaId)) {
             logger.info("Закладки для манги ID {} успешно удалены", mangaId);
-        } catch (Exception e) {
-            logger.warn("Не удалось удалить закладки для манги ID {}: {}", mangaId, e.getMessage());
-            // Не прерываем процесс удаления манги, если не удалось удалить закладки
+        } else {
+            logger.warn("Не удалось удалить закладки для манги ID {}", mangaId);
+        }
+    }
+
+    /**
+     * Ставит в ImageStorageService удаление страниц всех глав и обложки манги одной операцией.
+     * Объекты удаляются в фоне, поэтому вызов не ждет хранилище.
+     *
+     * @param mangaId идентификатор манги
+     */
+    private void deleteImagesForManga(Long mangaId) {
+        List<Long> chapterIds = externalMetricsClient.fetchMangaChapterIds(List.of(mangaId))
+            .getOrDefault(mangaId, List.of());
+        Map<String, Object> request = Map.of("chapterIds", chapterIds, "includeCover", true);
+        Map<?, ?> job = serviceClients.imageStorageService()
+            .post("/api/images/manga/" + mangaId + "/delete", request, Map.class, () -> null);
+        if (job != null) {
+            logger.info("Удаление изображений манги ID {} ({} глав) поставлено в очередь: {}",
+                mangaId, chapterIds.size(), job.get("id"));
+        } else {
+            logger.warn("Не удалось поставить удаление изображений манги ID {}", mangaId);
         }
     }
 
@@ -1315,25 +1323,19 @@ public class MangaService {
      * @param responseDTO DTO для обогащения
      */
     private void enrichWithCoverUrl(MangaResponseDTO responseDTO) {
-        try {
-            // Получаем обложку из ImageStorageService по manga_id
-            String coverUrl = imageStorageServiceUrl + "/api/images/cover/" + responseDTO.getId();
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> coverResponse = restTemplate.getForObject(coverUrl, Map.class);
-
-            if (coverResponse != null && coverResponse.containsKey("imageUrl")) {
-                String minioImageUrl = (String) coverResponse.get("imageUrl");
-                responseDTO.setCoverImageUrl(minioImageUrl);
-                logger.debug("Обновлен URL обложки для манги {} из MinIO: {}",
-                           responseDTO.getId(), minioImageUrl);
-            } else {
-                logger.debug("Обложка не найдена в ImageStorageService для манги {}, " +
-                           "используется сохраненный URL", responseDTO.getId());
-            }
-        } catch (Exception e) {
-            logger.debug("Не удалось получить обложку из ImageStorageService для манги {}: {}, " +
-                       "используется сохраненный URL", responseDTO.getId(), e.getMessage());
+        // Получаем обложку из ImageStorageService по manga_id; при недоступности сервиса остается сохраненный URL
+        @SuppressWarnings("unchecked")
+        Map<String, Object> coverResponse = serviceClients.imageStorageService()
+            .get("/api/images/cover/" + responseDTO.getId(), Map.class, () -> null);
+
+        if (coverResponse != null && coverResponse.containsKey("imageUrl")) {
+            String minioImageUrl = (String) coverResponse.get("imageUrl");
+            responseDTO.setCoverImageUrl(minioImageUrl);
+            logger.debug("Обновлен URL обложки для манги {} из MinIO: {}",
+                       responseDTO.getId(), minioImageUrl);
+        } else {
+            logger.debug("Обложка не найдена в ImageStorageService для манги {}, " +
+                       "используется сохраненный URL", responseDTO.getId());
         }
     }
 
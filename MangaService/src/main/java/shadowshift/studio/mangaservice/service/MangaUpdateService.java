@@ -16,21 +16,30 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriUtils;
 import org.springframework.web.util.UriComponentsBuilder;
 import shadowshift.studio.mangaservice.entity.Manga;
+import shadowshift.studio.mangaservice.entity.MangaUpdateState;
 import shadowshift.studio.mangaservice.dto.MelonChapterImagesResponse;
 import shadowshift.studio.mangaservice.dto.MelonImageData;
 import shadowshift.studio.mangaservice.config.ServiceUrlProperties;
 import shadowshift.studio.mangaservice.dto.PartialBuildChapterNumber;
 import shadowshift.studio.mangaservice.repository.MangaRepository;
+import shadowshift.studio.mangaservice.repository.MangaUpdateStateRepository;
 
 import java.math.BigDecimal;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 /**
  * Сервис для автоматического обновления манги.
@@ -64,12 +73,21 @@ public class MangaUpdateService {
     );
 
     private static final int MAX_TASK_LOGS = 1_000;
+    private static final int MAX_STORED_TASKS = 20;
+    private static final int MAX_PENDING_PARSE_TASKS = 500;
+    /**
+     * Все отслеживаемые манги сейчас обновляются с MangaLib через MelonService.
+     */
+    private static final String UPDATE_SOURCE = "mangalib";
     private static final DateTimeFormatter LOG_TIMESTAMP_FORMATTER =
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSX").withZone(ZoneOffset.UTC);
 
     @Autowired
     private MangaRepository mangaRepository;
 
+    @Autowired
+    private MangaUpdateStateRepository updateStateRepository;
+
     @Autowired
     private MelonIntegrationService melonService;
 
@@ -88,8 +106,20 @@ public class MangaUpdateService {
     @Value("${chapter.service.url}")
     private String chapterServiceUrl;
 
-    // Хранилище задач обновления
-    private final Map<String, UpdateTask> updateTasks = new HashMap<>();
+    @Value("${manga.auto-update.parallelism:4}")
+    private int autoUpdateParallelism;
+
+    @Value("${manga.auto-update.source-max-concurrency:3}")
+    private int sourceMaxConcurrency;
+
+    @Value("${manga.auto-update.source-min-interval-ms:500}")
+    private long sourceMinIntervalMs;
+
+    // Хранилище задач обновления (завершенные ограничены MAX_STORED_TASKS)
+    private final Map<String, UpdateTask> updateTasks = new ConcurrentHashMap<>();
+
+    // Ограничители запросов к источникам глав
+    private final Map<String, SourceLimiter> sourceLimiters = new ConcurrentHashMap<>();
     
     // Маппинг parseTaskId -> autoUpdateTaskId для связывания логов от MelonService
     private final Map<String, String> parseTaskToUpdateTask = new ConcurrentHashMap<>();
@@ -115,16 +145,9 @@ public class MangaUpdateService {
         task.taskId = taskId;
         task.status = "pending";
         task.totalMangas = mangaList.size();
-        task.processedMangas = 0;
-    task.updatedMangas.clear();
-    task.failedMangas.clear();
-        task.newChaptersCount = 0;
         task.message = "Подготовка к обновлению...";
         task.progress = 0;
         task.startTime = new Date();
-        task.updatedSlugs.clear();
-        task.updatedDetails.clear();
-        task.logs.clear();
 
         appendLog(task, String.format("Старт автообновления: найдено %d манг с доступным melonSlug", task.totalMangas));
 
@@ -141,8 +164,8 @@ public class MangaUpdateService {
         response.put("total_mangas", mangaList.size());
         response.put("message", "Автообновление запущено");
         response.put("progress", task.progress);
-        response.put("processed_mangas", task.processedMangas);
-        response.put("new_chapters_count", task.newChaptersCount);
+        response.put("processed_mangas", task.processedMangas.get());
+        response.put("new_chapters_count", task.newChaptersCount.get());
         response.put("updated_mangas", Collections.emptyList());
         response.put("failed_mangas", Collections.emptyList());
         response.put("mangas_with_updates", 0);
@@ -170,8 +193,9 @@ public class MangaUpdateService {
         result.put("progress", task.progress);
         result.put("message", task.message);
         result.put("total_mangas", task.totalMangas);
-        result.put("processed_mangas", task.processedMangas);
-        result.put("new_chapters_count", task.newChaptersCount);
+        result.put("processed_mangas", task.processedMangas.get());
+        result.put("unchanged_mangas", task.unchangedMangas.get());
+        result.put("new_chapters_count", task.newChaptersCount.get());
         result.put("start_time", task.startTime);
 
         List<String> updatedMangasSnapshot;
@@ -276,12 +300,19 @@ public class MangaUpdateService {
     }
 
     private void bufferParseTaskLog(String parseTaskId, String logMessage) {
+        if (!pendingParseTaskLogs.containsKey(parseTaskId) && pendingParseTaskLogs.size() >= MAX_PENDING_PARSE_TASKS) {
+            logger.debug("Буфер несвязанных логов переполнен, лог parseTaskId={} отброшен", parseTaskId);
+            return;
+        }
         pendingParseTaskLogs.compute(parseTaskId, (key, existing) -> {
             List<String> target = existing;
             if (target == null) {
                 target = Collections.synchronizedList(new ArrayList<>());
             }
             target.add(logMessage);
+            if (target.size() > MAX_TASK_LOGS) {
+                target.remove(0);
+            }
             return target;
         });
     }
@@ -308,7 +339,10 @@ public class MangaUpdateService {
     }
 
     /**
-     * Асинхронная обработка обновления манг
+     * Асинхронная обработка обновления манг.
+     * Тайтлы проверяются параллельно (не больше {@code manga.auto-update.parallelism} одновременно)
+     * в порядке убывания частоты обновлений. Сначала запрашивается только список глав источника:
+     * если его отпечаток совпал с сохраненным, глав в нашей системе и парсинга не запрашиваем.
      */
     @Async
     public CompletableFuture<Void> processAutoUpdateAsync(String taskId, List<Manga> mangaList) {
@@ -324,44 +358,123 @@ public class MangaUpdateService {
                 appendLog(task, "Список манг пуст. Завершение задачи без обновлений.");
             }
 
-            for (int i = 0; i < mangaList.size(); i++) {
-                Manga manga = mangaList.get(i);
-                String title = Optional.ofNullable(manga.getTitle()).orElse("Без названия");
-                String slug = manga.getMelonSlug();
-                Integer slugId = manga.getMelonSlugId();
-                String normalizedSlug = normalizeSlug(slug);
-                String slugForApi = melonService.buildSlugForMangaLibApi(normalizedSlug, slugId);
-                if (slugId == null) {
-                    logger.debug("Для манги '{}' отсутствует сохраненный MangaLib ID. Используем slug: {}", title, slugForApi);
-                }
-                if (slug == null || slug.isBlank()) {
-                    appendLog(task, String.format("[%d/%d] Пропуск манги '%s': отсутствует slug", i + 1, mangaList.size(), title));
-                    task.failedMangas.add(String.format("(slug отсутствует) — %s", title));
-                    continue;
+            Map<Long, MangaUpdateState> states = loadUpdateStates(mangaList);
+            List<Manga> ordered = prioritizeByUpdateFrequency(mangaList, states);
+            int workers = Math.max(1, Math.min(autoUpdateParallelism, ordered.size()));
+            appendLog(task, String.format("Проверка в %d потоков, порядок — по частоте обновлений тайтлов", workers));
+
+            AtomicInteger cursor = new AtomicInteger();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int w = 0; w < workers; w++) {
+                    executor.submit(() -> {
+                        int index;
+                        while ((index = cursor.getAndIncrement()) < ordered.size()) {
+                            Manga manga = ordered.get(index);
+                            processMangaUpdate(task, taskId, manga, states.get(manga.getId()), index + 1, ordered.size());
+                        }
+                    });
                 }
+            }
+
+            task.status = "completed";
+            task.progress = 100;
+            task.endTime = new Date();
+            task.message = String.format("Автообновление завершено. Тайтлов с обновлениями: %d, без изменений: %d, добавлено глав: %d, ошибок: %d",
+                task.updatedDetails.size(), task.unchangedMangas.get(), task.newChaptersCount.get(), task.failedMangas.size());
 
-                String displayName = String.format("%s — %s", slug, title);
+            logger.info("Автообновление завершено. Результаты: обновлено={}, без изменений={}, новых глав={}, ошибок={}",
+                task.updatedDetails.size(), task.unchangedMangas.get(), task.newChaptersCount.get(), task.failedMangas.size());
 
-                appendLog(task, String.format("[%d/%d] Старт проверки: %s", i + 1, mangaList.size(), displayName));
+            // Очищаем маппинг задач
+            cleanupTaskMappings(taskId);
 
-                try {
-                    task.message = String.format("Проверка манги %d/%d: %s", i + 1, mangaList.size(), title);
-                    logger.info("Проверка обновлений для манги: {} (slug: {})", title, slug);
+            List<String> finalSlugs;
+            synchronized (task.updatedSlugs) {
+                finalSlugs = new ArrayList<>(task.updatedSlugs);
+            }
+
+            String summarySlugs = finalSlugs.isEmpty() ? "нет" : String.join(", ", finalSlugs);
+            appendLog(task, String.format(
+                "Завершено. Тайтлов с обновлениями: %d (%s). Новых глав: %d. Ошибок: %d.",
+                task.updatedDetails.size(),
+                summarySlugs,
+                task.newChaptersCount.get(),
+                task.failedMangas.size()
+            ));
+
+        } catch (Exception e) {
+            task.status = "failed";
+            task.endTime = new Date();
+            task.message = "Критическая ошибка автообновления: " + e.getMessage();
+            logger.error("Критическая ошибка автообновления", e);
+            appendLog(task, "Критическая ошибка автообновления: " + e.getMessage());
+            cleanupTaskMappings(taskId);
+        }
+
+        pruneFinishedTasks();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Проверяет и при необходимости обновляет одну мангу. Вызывается параллельно из нескольких потоков.
+     */
+    private void processMangaUpdate(UpdateTask task, String taskId, Manga manga, MangaUpdateState state,
+                                    int position, int total) {
+        String title = Optional.ofNullable(manga.getTitle()).orElse("Без названия");
+        String slug = manga.getMelonSlug();
+        Integer slugId = manga.getMelonSlugId();
+        String normalizedSlug = normalizeSlug(slug);
+        String slugForApi = melonService.buildSlugForMangaLibApi(normalizedSlug, slugId);
+        if (slugId == null) {
+            logger.debug("Для манги '{}' отсутствует сохраненный MangaLib ID. Используем slug: {}", title, slugForApi);
+        }
+        if (slug == null || slug.isBlank()) {
+            appendLog(task, String.format("[%d/%d] Пропуск манги '%s': отсутствует slug", position, total, title));
+            task.failedMangas.add(String.format("(slug отсутствует) — %s", title));
+            completeMangaStep(task);
+            return;
+        }
+
+        String displayName = String.format("%s — %s", slug, title);
+        SourceLimiter limiter = sourceLimiters.computeIfAbsent(UPDATE_SOURCE,
+            key -> new SourceLimiter(sourceMaxConcurrency, sourceMinIntervalMs));
+
+        appendLog(task, String.format("[%d/%d] Старт проверки: %s", position, total, displayName));
+
+        try {
+            limiter.acquire();
+            try {
+                task.message = String.format("Проверка манги %d/%d: %s", position, total, title);
+                logger.info("Проверка обновлений для манги: {} (slug: {})", title, slug);
+
+                RemoteChapters remote = fetchRemoteChapters(manga, normalizedSlug, slugForApi, slugId);
+                if (remote == null) {
+                    appendLog(task, String.format("[%d/%d] %s: не удалось получить данные об обновлениях", position, total, displayName));
+                } else if (state != null && remote.fingerprint().equals(state.getChaptersFingerprint())) {
+                    // Список глав на источнике не изменился с прошлой успешной проверки
+                    task.unchangedMangas.incrementAndGet();
+                    recordUpdateCheck(state, remote, false);
+                    appendLog(task, String.format("[%d/%d] %s: список глав не изменился (последняя глава %s)",
+                        position, total, displayName, Objects.toString(remote.lastChapterId(), "—")));
+                } else {
+                    slugForApi = remote.slugForApi();
+                    slugId = remote.slugId();
 
                     // Получаем существующие главы из нашей системы
                     ExistingChapters existingChapters = getExistingChapters(manga.getId());
                     int existingCount = existingChapters.chapterNumbers().size();
                     logger.info("Найдено {} существующих глав для манги {} ({} внешних идентификаторов)",
                         existingCount, title, existingChapters.melonChapterIds().size());
-                    appendLog(task, String.format("[%d/%d] %s: найдено %d глав в базе", i + 1, mangaList.size(), displayName, existingCount));
+                    appendLog(task, String.format("[%d/%d] %s: найдено %d глав в базе", position, total, displayName, existingCount));
 
                     // Запрашиваем обновленную информацию у Melon
-                    Map<String, Object> updateInfo = checkForUpdates(manga, normalizedSlug, slugForApi, slugId, existingChapters, taskId);
+                    Map<String, Object> updateInfo = checkForUpdates(manga, normalizedSlug, remote, existingChapters, taskId);
 
                     if (updateInfo == null) {
-                        appendLog(task, String.format("[%d/%d] %s: не удалось получить данные об обновлениях", i + 1, mangaList.size(), displayName));
+                        appendLog(task, String.format("[%d/%d] %s: не удалось получить данные об обновлениях", position, total, displayName));
                     } else if (!Boolean.TRUE.equals(updateInfo.getOrDefault("has_updates", false))) {
-                        appendLog(task, String.format("[%d/%d] %s: новых глав не найдено", i + 1, mangaList.size(), displayName));
+                        appendLog(task, String.format("[%d/%d] %s: новых глав не найдено", position, total, displayName));
+                        recordUpdateCheck(stateFor(manga, state), remote, state != null);
                     } else {
                         @SuppressWarnings("unchecked")
                         List<Map<String, Object>> newChapters = (List<Map<String, Object>>) updateInfo.get("new_chapters");
@@ -379,15 +492,16 @@ public class MangaUpdateService {
                         }
 
                         if (newChapters == null || newChapters.isEmpty()) {
-                            appendLog(task, String.format("[%d/%d] %s: новые главы отсутствуют после фильтрации (вероятно платные)", i + 1, mangaList.size(), displayName));
+                            appendLog(task, String.format("[%d/%d] %s: новые главы отсутствуют после фильтрации (вероятно платные)", position, total, displayName));
+                            recordUpdateCheck(stateFor(manga, state), remote, state != null);
                         } else {
                             List<String> chapterLabels = extractChapterLabels(newChapters);
                             List<Double> normalizedNumbers = extractNormalizedChapterNumbers(newChapters);
 
                             logger.info("Найдено {} новых глав для манги {}", newChapters.size(), title);
-                            appendLog(task, String.format("[%d/%d] %s: обнаружено %d новых глав", i + 1, mangaList.size(), displayName, newChapters.size()));
+                            appendLog(task, String.format("[%d/%d] %s: обнаружено %d новых глав", position, total, displayName, newChapters.size()));
                             if (!chapterLabels.isEmpty()) {
-                                appendLog(task, String.format("[%d/%d] %s: главы -> %s", i + 1, mangaList.size(), displayName, String.join(", ", chapterLabels)));
+                                appendLog(task, String.format("[%d/%d] %s: главы -> %s", position, total, displayName, String.join(", ", chapterLabels)));
                             }
 
                             // Импортируем только новые главы (парсинг уже выполнен)
@@ -398,82 +512,116 @@ public class MangaUpdateService {
                                 task.updatedMangas.add(formatUpdatedMangaDisplay(record));
                                 task.updatedSlugs.add(slug);
                                 task.updatedDetails.add(record);
-                                task.newChaptersCount += newChapters.size();
+                                task.newChaptersCount.addAndGet(newChapters.size());
+                                recordUpdateCheck(stateFor(manga, state), remote, true);
 
                                 logger.info("Успешно обновлена манга {}: добавлено {} глав", title, newChapters.size());
-                                appendLog(task, String.format("[%d/%d] %s: импортировано %d глав", i + 1, mangaList.size(), displayName, newChapters.size()));
+                                appendLog(task, String.format("[%d/%d] %s: импортировано %d глав", position, total, displayName, newChapters.size()));
 
                                 try {
                                     melonService.deleteManga(normalizedSlug);
-                                    appendLog(task, String.format("[%d/%d] %s: временные данные Melon удалены", i + 1, mangaList.size(), displayName));
+                                    appendLog(task, String.format("[%d/%d] %s: временные данные Melon удалены", position, total, displayName));
                                 } catch (Exception cleanupEx) {
                                     logger.warn("Не удалось удалить данные из Melon для slug {}: {}", slug, cleanupEx.getMessage());
-                                    appendLog(task, String.format("[%d/%d] %s: не удалось удалить данные Melon: %s", i + 1, mangaList.size(), displayName, cleanupEx.getMessage()));
+                                    appendLog(task, String.format("[%d/%d] %s: не удалось удалить данные Melon: %s", position, total, displayName, cleanupEx.getMessage()));
                                 }
                             } else {
                                 logger.error("Не удалось обновить мангу {}", title);
                                 task.failedMangas.add(displayName);
-                                appendLog(task, String.format("[%d/%d] %s: ошибка импорта новых глав", i + 1, mangaList.size(), displayName));
+                                appendLog(task, String.format("[%d/%d] %s: ошибка импорта новых глав", position, total, displayName));
                             }
                         }
                     }
-
-                } catch (Exception e) {
-                    logger.error("Ошибка обработки манги '{}': {}", title, e.getMessage(), e);
-                    task.failedMangas.add(displayName);
-                    appendLog(task, String.format("[%d/%d] %s: ошибка обработки — %s", i + 1, mangaList.size(), displayName, e.getMessage()));
                 }
-
-                task.processedMangas++;
-                task.progress = task.totalMangas == 0 ? 100 : (task.processedMangas * 100) / task.totalMangas;
-                task.message = String.format("Обработано: %d/%d (обновлено тайтлов: %d, новых глав: %d)",
-                    task.processedMangas, task.totalMangas, task.updatedDetails.size(), task.newChaptersCount);
-
-                appendLog(task, String.format(
-                    "Прогресс: %d/%d | тайтлы с обновлениями: %d | новых глав: %d",
-                    task.processedMangas,
-                    task.totalMangas,
-                    task.updatedDetails.size(),
-                    task.newChaptersCount
-                ));
+            } finally {
+                limiter.release();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.failedMangas.add(displayName);
+            appendLog(task, String.format("[%d/%d] %s: проверка прервана", position, total, displayName));
+        } catch (Exception e) {
+            logger.error("Ошибка обработки манги '{}': {}", title, e.getMessage(), e);
+            task.failedMangas.add(displayName);
+            appendLog(task, String.format("[%d/%d] %s: ошибка обработки — %s", position, total, displayName, e.getMessage()));
+        }
 
-            task.status = "completed";
-            task.progress = 100;
-            task.endTime = new Date();
-            task.message = String.format("Автообновление завершено. Тайтлов с обновлениями: %d, добавлено глав: %d, ошибок: %d",
-                task.updatedDetails.size(), task.newChaptersCount, task.failedMangas.size());
+        completeMangaStep(task);
+    }
 
-            logger.info("Автообновление завершено. Результаты: обновлено={}, новых глав={}, ошибок={}",
-                task.updatedDetails.size(), task.newChaptersCount, task.failedMangas.size());
+    private void completeMangaStep(UpdateTask task) {
+        int processed = task.processedMangas.incrementAndGet();
+        task.progress = task.totalMangas == 0 ? 100 : (processed * 100) / task.totalMangas;
+        task.message = String.format("Обработано: %d/%d (обновлено тайтлов: %d, новых глав: %d)",
+            processed, task.totalMangas, task.updatedDetails.size(), task.newChaptersCount.get());
+
+        appendLog(task, String.format(
+            "Прогресс: %d/%d | тайтлы с обновлениями: %d | без изменений: %d | новых глав: %d",
+            processed,
+            task.totalMangas,
+            task.updatedDetails.size(),
+            task.unchangedMangas.get(),
+            task.newChaptersCount.get()
+        ));
+    }
 
-            // Очищаем маппинг задач
-            cleanupTaskMappings(taskId);
+    private Map<Long, MangaUpdateState> loadUpdateStates(List<Manga> mangaList) {
+        List<Long> ids = mangaList.stream().map(Manga::getId).filter(Objects::nonNull).toList();
+        Map<Long, MangaUpdateState> states = new ConcurrentHashMap<>();
+        for (MangaUpdateState state : updateStateRepository.findAllById(ids)) {
+            states.put(state.getMangaId(), state);
+        }
+        return states;
+    }
 
-            List<String> finalSlugs;
-            synchronized (task.updatedSlugs) {
-                finalSlugs = new ArrayList<>(task.updatedSlugs);
-            }
+    /**
+     * Сначала тайтлы, которые обновляются чаще (и ещё ни разу не проверенные),
+     * при равенстве — те, что дольше всего не проверялись.
+     */
+    private List<Manga> prioritizeByUpdateFrequency(List<Manga> mangaList, Map<Long, MangaUpdateState> states) {
+        Comparator<Manga> byRate = Comparator.comparingDouble(manga -> {
+            MangaUpdateState state = states.get(manga.getId());
+            return state != null && state.getUpdateRate() != null ? -state.getUpdateRate() : -1.0;
+        });
+        Comparator<Manga> byLastCheck = Comparator.comparing(
+            manga -> {
+                MangaUpdateState state = states.get(manga.getId());
+                return state != null ? state.getLastCheckedAt() : null;
+            },
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+        List<Manga> ordered = new ArrayList<>(mangaList);
+        ordered.sort(byRate.thenComparing(byLastCheck));
+        return ordered;
+    }
 
-            String summarySlugs = finalSlugs.isEmpty() ? "нет" : String.join(", ", finalSlugs);
-            appendLog(task, String.format(
-                "Завершено. Тайтлов с обновлениями: %d (%s). Новых глав: %d. Ошибок: %d.",
-                task.updatedDetails.size(),
-                summarySlugs,
-                task.newChaptersCount,
-                task.failedMangas.size()
-            ));
+    private MangaUpdateState stateFor(Manga manga, MangaUpdateState existing) {
+        return existing != null ? existing : new MangaUpdateState(manga.getId(), UPDATE_SOURCE);
+    }
 
+    /**
+     * Сохраняет отпечаток после успешной проверки. При ошибках отпечаток не обновляется,
+     * чтобы следующий проход проверил тайтл полностью.
+     */
+    private void recordUpdateCheck(MangaUpdateState state, RemoteChapters remote, boolean changed) {
+        try {
+            state.recordCheck(remote.fingerprint(), remote.lastChapterId(), remote.chapters().size(), changed);
+            updateStateRepository.save(state);
         } catch (Exception e) {
-            task.status = "failed";
-            task.endTime = new Date();
-            task.message = "Критическая ошибка автообновления: " + e.getMessage();
-            logger.error("Критическая ошибка автообновления", e);
-            appendLog(task, "Критическая ошибка автообновления: " + e.getMessage());
-            cleanupTaskMappings(taskId);
+            logger.warn("Не удалось сохранить состояние автообновления для манги {}: {}", state.getMangaId(), e.getMessage());
         }
+    }
 
-        return CompletableFuture.completedFuture(null);
+    /**
+     * Оставляет в памяти не больше {@link #MAX_STORED_TASKS} завершенных задач (самые старые удаляются).
+     */
+    private void pruneFinishedTasks() {
+        List<UpdateTask> finished = updateTasks.values().stream()
+            .filter(task -> task.endTime != null)
+            .sorted(Comparator.comparing((UpdateTask task) -> task.endTime))
+            .toList();
+        for (int i = 0; i < finished.size() - MAX_STORED_TASKS; i++) {
+            updateTasks.remove(finished.get(i).taskId);
+        }
     }
 
     private void cleanupTaskMappings(String updateTaskId) {
@@ -688,17 +836,17 @@ public class MangaUpdateService {
     }
 
     /**
-     * Проверяет наличие обновлений через парсинг и сравнение глав
-     * @param updateTaskId ID задачи автообновления для связывания логов
+     * Получает с источника список глав (метаданные без страниц) и вычисляет его отпечаток.
+     * При неудаче с сохраненным slug пытается определить MangaLib ID и повторяет запрос.
+     *
+     * @return список глав или null, если метаданные получить не удалось
      */
-    private Map<String, Object> checkForUpdates(Manga manga, String normalizedSlug, String initialSlugForApi, Integer initialSlugId,
-                                                ExistingChapters existingChapters, String updateTaskId) {
+    private RemoteChapters fetchRemoteChapters(Manga manga, String normalizedSlug, String initialSlugForApi, Integer initialSlugId) {
         String storedSlug = manga.getMelonSlug();
         Integer slugId = initialSlugId;
         String slugForApi = initialSlugForApi;
 
         try {
-
             logger.info("Получение метаданных глав с проверкой slides_count для slug (API формат): {}", slugForApi);
             // ✅ ИСПРАВЛЕНИЕ: Используем новый метод с проверкой slides_count
             // Force refresh so we do not rely on stale cached chapter lists on ParserService side
@@ -726,10 +874,71 @@ public class MangaUpdateService {
             }
 
             @SuppressWarnings("unchecked")
-            List<Map<String, Object>> allChaptersMetadata =
-                (List<Map<String, Object>>) metadata.get("chapters");
+            List<Map<String, Object>> chapters = (List<Map<String, Object>>) metadata.get("chapters");
+            if (chapters == null) {
+                chapters = List.of();
+            }
+            return new RemoteChapters(chapters, slugForApi, slugId, computeChaptersFingerprint(chapters), findLastChapterId(chapters));
+        } catch (Exception e) {
+            logger.error("Ошибка получения метаданных глав для slug '{}' (API '{}'): {}", storedSlug, slugForApi, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Отпечаток списка глав: SHA-256 от отсортированных строк "id|том|номер|платная|страниц".
+     * Меняется при появлении, удалении, перенумерации и открытии глав, а также при появлении страниц.
+     */
+    private String computeChaptersFingerprint(List<Map<String, Object>> chapters) {
+        List<String> lines = new ArrayList<>(chapters.size());
+        for (Map<String, Object> chapter : chapters) {
+            lines.add(String.join("|",
+                Objects.toString(extractMelonChapterId(chapter), ""),
+                Objects.toString(chapter.get("volume"), ""),
+                Objects.toString(chapter.get("number"), ""),
+                String.valueOf(isChapterPaid(chapter)),
+                Objects.toString(chapter.get("slides_count"), "")));
+        }
+        Collections.sort(lines);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String line : lines) {
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    private String findLastChapterId(List<Map<String, Object>> chapters) {
+        String lastId = null;
+        double lastKey = Double.NEGATIVE_INFINITY;
+        for (Map<String, Object> chapter : chapters) {
+            Optional<ChapterNumeric> numeric = parseChapterNumeric(chapter.get("volume"), chapter.get("number"));
+            if (numeric.isPresent() && numeric.get().compositeNumber() >= lastKey) {
+                lastKey = numeric.get().compositeNumber();
+                lastId = extractMelonChapterId(chapter);
+            }
+        }
+        return lastId;
+    }
+
+    /**
+     * Проверяет наличие обновлений через парсинг и сравнение глав
+     * @param remote список глав источника, уже полученный в {@link #fetchRemoteChapters}
+     * @param updateTaskId ID задачи автообновления для связывания логов
+     */
+    private Map<String, Object> checkForUpdates(Manga manga, String normalizedSlug, RemoteChapters remote,
+                                                ExistingChapters existingChapters, String updateTaskId) {
+        String storedSlug = manga.getMelonSlug();
+        String slugForApi = remote.slugForApi();
+
+        try {
+            List<Map<String, Object>> allChaptersMetadata = remote.chapters();
             
-            if (allChaptersMetadata == null || allChaptersMetadata.isEmpty()) {
+            if (allChaptersMetadata.isEmpty()) {
                 logger.warn("Не найдено глав в метаданных для slug: {} (API '{}')", storedSlug, slugForApi);
                 return Map.of(
                     "has_updates", false,
@@ -1253,7 +1462,7 @@ public class MangaUpdateService {
 
                     @SuppressWarnings("rawtypes")
                     ResponseEntity<Map> response = restTemplate.postForEntity(
-                        "http://chapter-service:8082/api/chapters",
+                        chapterServiceUrl + "/api/chapters",
                         entity,
                         Map.class
                     );
@@ -1749,7 +1958,7 @@ public class MangaUpdateService {
                 headers.setContentType(MediaType.APPLICATION_JSON);
                 HttpEntity<Map<String, Object>> entity = new HttpEntity<>(updateRequest, headers);
 
-                String updateUrl = "http://chapter-service:8082/api/chapters/" + chapterId + "/pagecount";
+                String updateUrl = chapterServiceUrl + "/api/chapters/" + chapterId + "/pagecount";
                 restTemplate.exchange(updateUrl, HttpMethod.PUT, entity, Void.class);
                 logger.info("Обновлено количество страниц для главы {}: {}", chapterId, pageCount);
             } else {
@@ -1775,7 +1984,7 @@ public class MangaUpdateService {
 
     private void deleteChapterSilently(Long chapterId) {
         try {
-            restTemplate.delete("http://chapter-service:8082/api/chapters/" + chapterId);
+            restTemplate.delete(chapterServiceUrl + "/api/chapters/" + chapterId);
             logger.info("Удалена глава {} после неудачного импорта", chapterId);
         } catch (Exception e) {
             logger.warn("Не удалось удалить главу {} после неудачного импорта: {}", chapterId, e.getMessage());
@@ -1784,6 +1993,9 @@ public class MangaUpdateService {
 
     private record ExistingChapters(Set<Double> chapterNumbers, Set<String> melonChapterIds) {}
 
+    private record RemoteChapters(List<Map<String, Object>> chapters, String slugForApi, Integer slugId,
+                                  String fingerprint, String lastChapterId) {}
+
     private record ChapterNumeric(int volume, double originalNumber, double compositeNumber) {}
 
     private boolean isChapterPaid(Map<String, Object> chapterData) {
@@ -1829,9 +2041,9 @@ public class MangaUpdateService {
         String line = "[" + timestamp + "] " + message;
 
         synchronized (task.logs) {
-            task.logs.add(line);
+            task.logs.addLast(line);
             if (task.logs.size() > MAX_TASK_LOGS) {
-                task.logs.remove(0);
+                task.logs.removeFirst();
             }
         }
     }
@@ -1922,21 +2134,62 @@ public class MangaUpdateService {
     }
 
     /**
-     * Внутренний класс для отслеживания задачи обновления
+     * Ограничение запросов к одному источнику: не больше maxConcurrent тайтлов одновременно
+     * и не чаще одного старта проверки в minIntervalMs.
+     */
+    static final class SourceLimiter {
+        private final Semaphore permits;
+        private final long minIntervalNanos;
+        private long nextStartNanos;
+
+        SourceLimiter(int maxConcurrent, long minIntervalMs) {
+            this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+            this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, minIntervalMs));
+            this.nextStartNanos = System.nanoTime();
+        }
+
+        void acquire() throws InterruptedException {
+            permits.acquire();
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long start = Math.max(now, nextStartNanos);
+                nextStartNanos = start + minIntervalNanos;
+                waitNanos = start - now;
+            }
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+    }
+
+    /**
+     * Внутренний класс для отслеживания задачи обновления.
+     * Изменяется параллельно несколькими потоками проверки.
      */
     private static class UpdateTask {
         String taskId;
-        String status;
-        int progress;
-        String message;
+        volatile String status;
+        volatile int progress;
+        volatile String message;
         int totalMangas;
-        int processedMangas;
-        List<String> updatedMangas = Collections.synchronizedList(new ArrayList<>());
-        List<String> failedMangas = Collections.synchronizedList(new ArrayList<>());
-        int newChaptersCount;
+        final AtomicInteger processedMangas = new AtomicInteger();
+        final AtomicInteger unchangedMangas = new AtomicInteger();
+        final AtomicInteger newChaptersCount = new AtomicInteger();
+        final List<String> updatedMangas = Collections.synchronizedList(new ArrayList<>());
+        final List<String> failedMangas = Collections.synchronizedList(new ArrayList<>());
         Date startTime;
-        Date endTime;
-        final List<String> logs = Collections.synchronizedList(new ArrayList<>());
+        volatile Date endTime;
+        final Deque<String> logs = new ArrayDeque<>();
         final Set<String> updatedSlugs = Collections.synchronizedSet(new LinkedHashSet<>());
         final List<UpdatedMangaRecord> updatedDetails = Collections.synchronizedList(new ArrayList<>());
     }
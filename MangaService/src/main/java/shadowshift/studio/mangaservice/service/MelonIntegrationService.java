@@ -13,9 +13,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
+import shadowshift.studio.mangaservice.config.ServiceUrlProperties;
 import shadowshift.studio.mangaservice.dto.MelonChapterImagesResponse;
 import shadowshift.studio.mangaservice.dto.MelonImageData;
 import shadowshift.studio.mangaservice.dto.PartialBuildChapterNumber;
+import shadowshift.studio.mangaservice.entity.ImportJob;
+import shadowshift.studio.mangaservice.entity.ImportJobChapter;
 import shadowshift.studio.mangaservice.entity.Manga;
 import shadowshift.studio.mangaservice.entity.Genre;
 import shadowshift.studio.mangaservice.entity.Tag;
@@ -29,9 +32,12 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.Objects;
 import java.util.regex.Matcher;
@@ -49,9 +55,8 @@ import java.util.Locale;
 public class MelonIntegrationService {
 
     private static final Logger logger = LoggerFactory.getLogger(MelonIntegrationService.class);
-    private static final Duration TASK_STATUS_POLL_INTERVAL = Duration.ofMillis(500); // Уменьшено с 2s до 500ms
     private static final Duration IMPORT_STATUS_POLL_INTERVAL = Duration.ofSeconds(2);
-    private static final int MAX_MISSING_TASK_STATUS_ATTEMPTS = 15;
+    private static final int MAX_MISSING_TASK_STATUS_ATTEMPTS = 4;
     private static final Pattern NUMERIC_TOKEN_PATTERN = Pattern.compile("[-+]?\\d+(?:[\\.,]\\d+)?");
     private static final Pattern VOLUME_KEYWORD_PATTERN = Pattern.compile("(?iu)(том|volume|vol\\.?|book|часть|part|season|сезон)\\s*([-+]?\\d+(?:[\\.,]\\d+)?)");
     private static final Pattern ROMAN_VOLUME_PATTERN = Pattern.compile("(?i)\\b[MDCLXVI]+\\b");
@@ -72,12 +77,27 @@ public class MelonIntegrationService {
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private ServiceUrlProperties serviceUrlProperties;
+
     @Autowired
     private MangaRepository mangaRepository;
 
     @Autowired
     private ImportTaskService importTaskService;
 
+    @Autowired
+    private ImportJobStore importJobStore;
+
+    @Autowired
+    private ParserTaskEventService parserTaskEventService;
+
+    /**
+     * Как часто проверять статус задачи ParserService по HTTP, если событие о её завершении не пришло.
+     */
+    @Value("${melon.task-status-fallback-interval-ms:15000}")
+    private long taskStatusFallbackIntervalMs = 15000;
+
     @Autowired
     private ProgressWebSocketHandler webSocketHandler;
 
@@ -120,7 +140,7 @@ public class MelonIntegrationService {
     }
     
     // Маппинг fullParsingTaskId -> autoParsingTaskId для связывания логов buildTask
-    private final Map<String, String> fullParsingToAutoParsingTask = new HashMap<>();
+    private final ConcurrentMap<String, String> fullParsingToAutoParsingTask = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, String> childTaskToFullParsingTask = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, Set<String>> fullParsingChildTasks = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, List<Map<String, Object>>> fullParsingLogs = new ConcurrentHashMap<>();
@@ -135,6 +155,11 @@ public class MelonIntegrationService {
     public void registerAutoParsingLink(String fullParsingTaskId, String autoParsingTaskId) {
         if (fullParsingTaskId != null && autoParsingTaskId != null) {
             fullParsingToAutoParsingTask.put(fullParsingTaskId, autoParsingTaskId);
+            importJobStore.update(fullParsingTaskId, null, job -> {
+                if (job.getParentTaskId() == null) {
+                    job.setParentTaskId(autoParsingTaskId);
+                }
+            });
             logger.info("Зарегистрирована связь fullParsingTaskId={} → autoParsingTaskId={}", 
                 fullParsingTaskId, autoParsingTaskId);
             trackChildTask(fullParsingTaskId, fullParsingTaskId);
@@ -453,6 +478,17 @@ public class MelonIntegrationService {
      * Это основной метод, который должен и��пользоваться вместо startParsing
      */
     public Map<String, Object> startFullParsing(String slug) {
+        return startFullParsing(slug, null);
+    }
+
+    /**
+     * Запускает полный парсинг манги в рамках родительской задачи (автопарсинга).
+     * Родитель продолжает такую задачу сам, если сервис перезапустится во время её выполнения.
+     *
+     * @param slug slug манги
+     * @param parentTaskId идентификатор родительской задачи или null
+     */
+    public Map<String, Object> startFullParsing(String slug, String parentTaskId) {
         try {
             Map<String, Object> parseResult = startParsing(slug);
             if (parseResult == null || !parseResult.containsKey("task_id")) {
@@ -460,6 +496,8 @@ public class MelonIntegrationService {
             }
             String parseTaskId = (String) parseResult.get("task_id");
             String fullParsingTaskId = UUID.randomUUID().toString();
+            importJobStore.create(fullParsingTaskId, ImportJob.Type.FULL_PARSING, parentTaskId, slug);
+            importJobStore.update(fullParsingTaskId, null, job -> job.setParseTaskId(parseTaskId));
             trackChildTask(fullParsingTaskId, fullParsingTaskId);
             trackChildTask(fullParsingTaskId, parseTaskId);
             // Исправлено: передаем ссылку на this
@@ -487,37 +525,70 @@ public class MelonIntegrationService {
         processingSlugs.add(normalizedSlug);
         logger.info("Добавлен в processingSlugs: {}", normalizedSlug);
         
+        // После перезапуска продолжаем с сохраненного этапа, пропуская уже пройденные
+        ImportJob job = importJobStore.find(fullTaskId).orElse(null);
+        ImportJob.State stage = job != null ? job.getState() : ImportJob.State.QUEUED;
+        boolean resumed = job != null && job.getResumeCount() != null && job.getResumeCount() > 0;
+        // Если задачу перехватит другой экземпляр, прерываем ожидание ParserService
+        Runnable stopOnLeaseLost = Thread.currentThread()::interrupt;
+        importJobStore.onLeaseLost(fullTaskId, stopOnLeaseLost);
+
         try {
-            updateFullParsingTask(fullTaskId, "running", 5, "Ожидание завершения парсинга JSON...", null);
-            Map<String, Object> finalStatus = waitForTaskCompletion(parseTaskId);
-            if (!"completed".equalsIgnoreCase(String.valueOf(finalStatus.get("status")))) {
-                updateFullParsingTask(fullTaskId, "failed", 100,
-                    "Парсинг завершился неуспешно: " + finalStatus.get("message"), finalStatus);
-                return;
-            }
-            
-            updateFullParsingTask(fullTaskId, "running", 50, "Парсинг JSON завершен, запускаем скачивание изображений...", null);
-            // ВАЖНО: НЕ включаем autoImport в ParserService, т.к. MangaService сам управляет импортом!
-            Map<String, Object> buildResult = buildManga(normalizedSlug, null, false, null, null);
-            if (buildResult == null || !buildResult.containsKey("task_id")) {
-                updateFullParsingTask(fullTaskId, "failed", 100,
-                    "Не удалось запустить скачивание изображений", buildResult);
-                return;
+            if (stage.isBefore(ImportJob.State.BUILDING)) {
+                String currentParseTaskId = parseTaskId != null ? parseTaskId : startParsingForJob(fullTaskId, slug);
+                importJobStore.transition(fullTaskId, ImportJob.State.PARSING, null);
+                updateFullParsingTask(fullTaskId, "running", 5, "Ожидание завершения парсинга JSON...", null);
+                Map<String, Object> finalStatus = currentParseTaskId != null
+                    ? waitForTaskCompletion(currentParseTaskId)
+                    : Map.of("status", "failed", "message", "Не удалось запустить парсинг");
+                if (resumed && parseTaskId != null && !isCompletedStatus(finalStatus)) {
+                    // Задача ParserService могла потеряться вместе с перезапуском — запускаем парсинг заново один раз
+                    logger.warn("Парсинг {} не завершился после перезапуска ({}), запускаем заново", slug, finalStatus.get("message"));
+                    currentParseTaskId = startParsingForJob(fullTaskId, slug);
+                    if (currentParseTaskId != null) {
+                        finalStatus = waitForTaskCompletion(currentParseTaskId);
+                    }
+                }
+                if (!isCompletedStatus(finalStatus)) {
+                    updateFullParsingTask(fullTaskId, "failed", 100,
+                        "Парсинг завершился неуспешно: " + finalStatus.get("message"), finalStatus);
+                    return;
+                }
             }
-            String buildTaskId = (String) buildResult.get("task_id");
-            trackChildTask(fullTaskId, buildTaskId);
-            
-            // Если этот fullParsingTask связан с autoParsingTask, то и buildTaskId тоже нужно связать
-            String autoParsingTaskId = fullParsingToAutoParsingTask.get(fullTaskId);
-            if (autoParsingTaskId != null) {
-                autoParsingService.linkAdditionalTaskId(buildTaskId, autoParsingTaskId);
-                logger.info("Связали buildTaskId={} с autoParsingTaskId={} через fullTaskId={}", 
-                    buildTaskId, autoParsingTaskId, fullTaskId);
+
+            String buildTaskId = job != null && stage == ImportJob.State.BUILDING ? job.getBuildTaskId() : null;
+            Map<String, Object> buildStatus;
+            if (stage.isBefore(ImportJob.State.IMPORTING)) {
+                updateFullParsingTask(fullTaskId, "running", 50, "Парсинг JSON завершен, запускаем скачивание изображений...", null);
+                boolean reusedBuild = buildTaskId != null;
+                if (reusedBuild) {
+                    trackChildTask(fullTaskId, buildTaskId);
+                    linkBuildToAutoParsing(fullTaskId, buildTaskId);
+                } else {
+                    buildTaskId = startBuildForJob(fullTaskId, normalizedSlug);
+                    if (buildTaskId == null) {
+                        updateFullParsingTask(fullTaskId, "failed", 100,
+                            "Не удалось запустить скачивание изображений", null);
+                        return;
+                    }
+                }
+
+                updateFullParsingTask(fullTaskId, "running", 60, "Скачивание изображений запущено, ожидание завершения...", null);
+                buildStatus = waitForTaskCompletion(buildTaskId);
+                if (reusedBuild && !isCompletedStatus(buildStatus)) {
+                    logger.warn("Скачивание {} не завершилось после перезапуска ({}), запускаем заново", slug, buildStatus.get("message"));
+                    String restartedBuildTaskId = startBuildForJob(fullTaskId, normalizedSlug);
+                    if (restartedBuildTaskId != null) {
+                        buildTaskId = restartedBuildTaskId;
+                        buildStatus = waitForTaskCompletion(buildTaskId);
+                    }
+                }
+            } else {
+                // Изображения уже скачаны до перезапуска, продолжаем импорт
+                buildTaskId = job.getBuildTaskId();
+                buildStatus = Map.of("status", "completed");
             }
-            
-            updateFullParsingTask(fullTaskId, "running", 60, "Скачивание изображений запущено, ожидание завершения...", null);
-            Map<String, Object> buildStatus = waitForTaskCompletion(buildTaskId);
-            if ("completed".equalsIgnoreCase(String.valueOf(buildStatus.get("status")))) {
+            if (isCompletedStatus(buildStatus)) {
                 // Билд завершен успешно, запускаем импорт
                 updateFullParsingTask(fullTaskId, "running", 70, "Скачивание завершено, запускаем импорт в базу данных...", null);
                 logger.info("Билд завершен для slug={}, запускаем импорт", slug);
@@ -529,8 +600,9 @@ public class MelonIntegrationService {
                     // Получаем mangaInfo ДО удаления манги из MelonService
                     Map<String, Object> mangaInfo = getMangaInfo(normalizedSlug);
                     
-                    // Создаем задачу импорта
-                    String importTaskId = importTaskService.createTask(fullTaskId).getTaskId();
+                    // Создаем задачу импорта (с тем же ID: контрольные точки глав переживают перезапуск)
+                    String importTaskId = importTaskService.createTask(fullTaskId, normalizedSlug, null).getTaskId();
+                    importJobStore.transition(fullTaskId, ImportJob.State.IMPORTING, null);
                     logger.info("Создана задача импорта: importTaskId={} для fullTaskId={}", importTaskId, fullTaskId);
                     
                     // КРИТИЧНО: Импортируем мангу используя normalizedSlug (без ID), не оригинальный slug!
@@ -675,14 +747,108 @@ public class MelonIntegrationService {
             updateFullParsingTask(fullTaskId, "failed", 100,
                 "Ошибка при полном парсинге: " + e.getMessage(), null);
         } finally {
+            importJobStore.removeLeaseLostHandler(fullTaskId, stopOnLeaseLost);
             // Очищаем маппинг после завершения (успех или ошибка)
             cleanupFullParsingMappings(fullTaskId);
             logger.debug("Очищены связи для fullParsingTaskId={}", fullTaskId);
         }
     }
 
+    private boolean isCompletedStatus(Map<String, Object> status) {
+        return status != null && "completed".equalsIgnoreCase(String.valueOf(status.get("status")));
+    }
+
+    /**
+     * Запускает (повторно) парсинг JSON для задачи полного парсинга и сохраняет ID задачи ParserService.
+     */
+    private String startParsingForJob(String fullTaskId, String slug) {
+        Map<String, Object> parseResult = startParsing(slug);
+        if (parseResult == null || !parseResult.containsKey("task_id")) {
+            return null;
+        }
+        String parseTaskId = (String) parseResult.get("task_id");
+        trackChildTask(fullTaskId, parseTaskId);
+        importJobStore.update(fullTaskId, null, job -> job.setParseTaskId(parseTaskId));
+        return parseTaskId;
+    }
+
+    /**
+     * Запускает скачивание изображений для задачи полного парсинга и сохраняет ID задачи ParserService.
+     */
+    private String startBuildForJob(String fullTaskId, String normalizedSlug) {
+        // ВАЖНО: НЕ включаем autoImport в ParserService, т.к. MangaService сам управляет импортом!
+        Map<String, Object> buildResult = buildManga(normalizedSlug, null, false, null, null);
+        if (buildResult == null || !buildResult.containsKey("task_id")) {
+            return null;
+        }
+        String buildTaskId = (String) buildResult.get("task_id");
+        trackChildTask(fullTaskId, buildTaskId);
+        importJobStore.update(fullTaskId, ImportJob.State.BUILDING, job -> job.setBuildTaskId(buildTaskId));
+        linkBuildToAutoParsing(fullTaskId, buildTaskId);
+        return buildTaskId;
+    }
+
+    private void linkBuildToAutoParsing(String fullTaskId, String buildTaskId) {
+        // Если этот fullParsingTask связан с autoParsingTask, то и buildTaskId тоже нужно связать
+        String autoParsingTaskId = fullParsingToAutoParsingTask.get(fullTaskId);
+        if (autoParsingTaskId != null) {
+            autoParsingService.linkAdditionalTaskId(buildTaskId, autoParsingTaskId);
+            logger.info("Связали buildTaskId={} с autoParsingTaskId={} через fullTaskId={}",
+                buildTaskId, autoParsingTaskId, fullTaskId);
+        }
+    }
+
+    /**
+     * Продолжает задачу полного парсинга после перезапуска сервиса с сохраненного этапа.
+     */
+    public void resumeFullParsing(ImportJob job) {
+        String fullTaskId = job.getTaskId();
+        trackChildTask(fullTaskId, fullTaskId);
+        trackChildTask(fullTaskId, job.getParseTaskId());
+        int progress = job.getProgress() != null ? job.getProgress() : 0;
+        updateFullParsingTask(fullTaskId, "running", progress,
+            "Продолжение после перезапуска сервиса (этап " + job.getState() + ")", null);
+        fullParsingTaskRunner.startFullParsingTask(this, fullTaskId, job.getParseTaskId(), job.getSlug());
+    }
+
+    /**
+     * Повторно ставит в очередь импорт, прерванный перезапуском сервиса.
+     * Уже импортированные главы пропускаются по контрольным точкам.
+     */
+    public void resumeImport(ImportJob job) {
+        String taskId = job.getTaskId();
+        String slug = job.getSlug();
+        if (slug == null) {
+            importJobStore.transition(taskId, ImportJob.State.FAILED, "Не удалось продолжить импорт: неизвестен slug");
+            return;
+        }
+        importTaskService.createTask(taskId, slug, job.getBranchId());
+        processingSlugs.add(normalizeSlugForMangaLib(slug));
+        executorService.submit(() -> {
+            while (true) {
+                try {
+                    importQueueService.queueImport(taskId, slug, job.getBranchId(),
+                        ImportQueueService.ImportQueueItem.Priority.NORMAL, () -> {
+                            if (mangaRepository.existsByMelonSlug(normalizeSlugForMangaLib(slug))) {
+                                processingSlugs.remove(normalizeSlugForMangaLib(slug));
+                            }
+                        });
+                    logger.info("Импорт {} ({}) снова поставлен в очередь после перезапуска", taskId, slug);
+                    return;
+                } catch (ImportQueueService.ImportInProgressException busy) {
+                    try {
+                        TimeUnit.SECONDS.sleep(20);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
     // Хранилище для отслеживания задач полного парсинга
-    private final Map<String, Map<String, Object>> fullParsingTasks = new HashMap<>();
+    private final Map<String, Map<String, Object>> fullParsingTasks = new ConcurrentHashMap<>();
 
     /**
      * Обновляет статус задачи полного парсинга и отправляет через WebSocket
@@ -734,11 +900,24 @@ public class MelonIntegrationService {
         }
 
         fullParsingTasks.put(taskId, task);
+        persistFullParsingState(taskId, status, progress, safeMessage);
 
         // Отправляем обновление прогресса через WebSocket
         webSocketHandler.sendProgressUpdate(taskId, task);
     }
 
+    private void persistFullParsingState(String taskId, String status, int progress, String message) {
+        if ("completed".equalsIgnoreCase(status)) {
+            importJobStore.transition(taskId, ImportJob.State.COMPLETED, message);
+        } else if ("failed".equalsIgnoreCase(status)) {
+            importJobStore.transition(taskId, ImportJob.State.FAILED, message);
+        } else if ("cancelled".equalsIgnoreCase(status)) {
+            importJobStore.transition(taskId, ImportJob.State.CANCELLED, message);
+        } else {
+            importJobStore.recordProgress(taskId, progress, message);
+        }
+    }
+
     private LocalDateTime parseDateTime(Object value) {
         if (value instanceof LocalDateTime ldt) {
             return ldt;
@@ -766,80 +945,130 @@ public class MelonIntegrationService {
      * Получает статус задачи полного парсинга
      */
     public Map<String, Object> getFullParsingTaskStatus(String taskId) {
-        return fullParsingTasks.getOrDefault(taskId, Map.of("error", "Задача не найдена"));
+        Map<String, Object> task = fullParsingTasks.get(taskId);
+        if (task != null) {
+            return task;
+        }
+        // Задачи, запущенные до перезапуска сервиса, есть только в долговременном хранилище
+        return importJobStore.find(taskId)
+            .filter(job -> job.getType() == ImportJob.Type.FULL_PARSING)
+            .map(this::describeFullParsingJob)
+            .orElse(Map.of("error", "Задача не найдена"));
+    }
+
+    private Map<String, Object> describeFullParsingJob(ImportJob job) {
+        Map<String, Object> task = new HashMap<>();
+        task.put("task_id", job.getTaskId());
+        task.put("status", job.getState().isTerminal() ? job.getState().name().toLowerCase(Locale.ROOT) : "running");
+        task.put("stage", job.getState().name().toLowerCase(Locale.ROOT));
+        task.put("progress", job.getProgress() != null ? job.getProgress() : 0);
+        task.put("message", job.getMessage() != null ? job.getMessage() : "");
+        if (job.getCreatedAt() != null) {
+            task.put("started_at", job.getCreatedAt().toString());
+        }
+        if (job.getUpdatedAt() != null) {
+            task.put("updated_at", job.getUpdatedAt().toString());
+        }
+        if (job.getFinishedAt() != null) {
+            task.put("finished_at", job.getFinishedAt().toString());
+        }
+        if (job.getErrorMessage() != null) {
+            task.put("error", job.getErrorMessage());
+        }
+        return task;
     }
 
     /**
-     * Ожидает завершения задачи парсинга
+     * Ожидает завершения задачи ParserService. Завершение и строки лога приходят событиями
+     * ({@link ParserTaskEventService}); статус по HTTP запрашивается лишь раз в
+     * {@link #getTaskStatusPollInterval()} — как страховка на случай потерянных событий.
      */
     private Map<String, Object> waitForTaskCompletion(String taskId) throws InterruptedException {
-        Map<String, Object> status = null;
+        ParserTaskEventService.Subscription subscription = parserTaskEventService.subscribe(taskId,
+            log -> broadcastLogMessage(taskId, "INFO", log));
         int attempts = 0; // БЕЗ таймаута - некоторые манги парсятся 100+ минут
         int missingStatusAttempts = 0;
-        int lastLogCount = 0; // Отслеживаем количество полученных логов
+        int lastLogCount = 0; // Отслеживаем количество полученных логов (если события не приходят)
 
-        while (true) {
-            sleep(getTaskStatusPollInterval());
-            attempts++;
+        try {
+            while (true) {
+                Map<String, Object> completed = awaitCompletion(subscription, getTaskStatusPollInterval());
+                if (completed != null) {
+                    return completed;
+                }
+                attempts++;
 
-            status = getTaskStatus(taskId);
-            String statusValue = status != null ? String.valueOf(status.get("status")) : null;
+                Map<String, Object> status = getTaskStatus(taskId);
+                String statusValue = status != null ? String.valueOf(status.get("status")) : null;
+                boolean pollLogs = !subscription.isEventsReceived();
 
-            // Получаем и отправляем логи из ParserService
-            if (status != null && !isMissingTaskStatus(status, statusValue)) {
-                try {
-                    List<String> newLogs = fetchTaskLogs(taskId, lastLogCount);
-                    if (newLogs != null && !newLogs.isEmpty()) {
-                        for (String log : newLogs) {
-                            broadcastLogMessage(taskId, "INFO", log != null ? log : "");
-                        }
-                        lastLogCount += newLogs.size();
-                        logger.debug("📋 Получено {} новых логов от ParserService для задачи {}", newLogs.size(), taskId);
-                    }
-                } catch (Exception e) {
-                    logger.debug("Ошибка получения логов для задачи {}: {}", taskId, e.getMessage());
+                // Пока ParserService не присылает события, логи забираем опросом
+                if (pollLogs && status != null && !isMissingTaskStatus(status, statusValue)) {
+                    lastLogCount += broadcastNewTaskLogs(taskId, lastLogCount);
                 }
-            }
 
-            if (isTerminalTaskStatus(statusValue)) {
-                // Получаем финальные логи перед выходом
-                try {
-                    List<String> finalLogs = fetchTaskLogs(taskId, lastLogCount);
-                    if (finalLogs != null && !finalLogs.isEmpty()) {
-                        for (String log : finalLogs) {
-                            broadcastLogMessage(taskId, "INFO", log != null ? log : "");
-                        }
+                if (isTerminalTaskStatus(statusValue)) {
+                    if (pollLogs) {
+                        broadcastNewTaskLogs(taskId, lastLogCount);
                     }
-                } catch (Exception e) {
-                    logger.debug("Ошибка получения финальных логов для задачи {}: {}", taskId, e.getMessage());
+                    return status;
                 }
-                return status;
-            }
 
-            if (isMissingTaskStatus(status, statusValue)) {
-                missingStatusAttempts++;
+                if (isMissingTaskStatus(status, statusValue)) {
+                    missingStatusAttempts++;
+
+                    if (missingStatusAttempts >= getMaxMissingTaskStatusAttempts()) {
+                        logger.warn("Статус задачи {} недоступен после {} попыток. Предполагаем потерю задачи.",
+                            taskId, missingStatusAttempts);
+                        String message = status != null && status.get("message") != null
+                            ? String.valueOf(status.get("message"))
+                            : "ParserService не предоставляет статус задачи (возможно, сервис был перезапущен)";
+                        return Map.of(
+                            "status", "failed",
+                            "message", message
+                        );
+                    }
+                } else {
+                    missingStatusAttempts = 0;
+                }
 
-                if (missingStatusAttempts >= getMaxMissingTaskStatusAttempts()) {
-                    logger.warn("Статус задачи {} недоступен после {} попыток. Предполагаем потерю задачи.",
-                        taskId, missingStatusAttempts);
-                    String message = status != null && status.get("message") != null
-                        ? String.valueOf(status.get("message"))
-                        : "ParserService не предоставляет статус задачи (возможно, сервис был перезапущен)";
-                    return Map.of(
-                        "status", "failed",
-                        "message", message
-                    );
+                if (attempts % 4 == 0) {
+                    long minutes = attempts * getTaskStatusPollInterval().toMillis() / 60000;
+                    logger.info("Ожидание задачи {}: {}min, статус: {}",
+                        taskId, minutes, statusValue != null ? statusValue : "null");
                 }
-            } else {
-                missingStatusAttempts = 0;
             }
+        } finally {
+            parserTaskEventService.release(taskId, subscription);
+        }
+    }
 
-            if (attempts % 30 == 0) {
-                long minutes = attempts * getTaskStatusPollInterval().toMillis() / 60000;
-                logger.info("Ожидание задачи {}: {}min, статус: {}",
-                    taskId, minutes, statusValue != null ? statusValue : "null");
+    private Map<String, Object> awaitCompletion(ParserTaskEventService.Subscription subscription, Duration timeout)
+        throws InterruptedException {
+        try {
+            return subscription.getCompletion().get(Math.max(1L, timeout.toMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            logger.debug("Ожидание события задачи завершилось ошибкой: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private int broadcastNewTaskLogs(String taskId, int lastLogCount) {
+        try {
+            List<String> newLogs = fetchTaskLogs(taskId, lastLogCount);
+            if (newLogs != null && !newLogs.isEmpty()) {
+                for (String log : newLogs) {
+                    broadcastLogMessage(taskId, "INFO", log != null ? log : "");
+                }
+                logger.debug("📋 Получено {} новых логов от ParserService для задачи {}", newLogs.size(), taskId);
+                return newLogs.size();
             }
+        } catch (Exception e) {
+            logger.debug("Ошибка получения логов для задачи {}: {}", taskId, e.getMessage());
         }
+        return 0;
     }
 
     /**
@@ -878,11 +1107,12 @@ public class MelonIntegrationService {
         Map<String, Object> resultData
     ) throws InterruptedException {
         int lastReportedProgress = 70;
+        CompletableFuture<ImportTaskService.ImportTask> completion = importTaskService.awaitCompletion(importTaskId);
 
         while (true) {
             ImportTaskService.ImportTask task = importTaskService.getTask(importTaskId);
             if (task == null) {
-                Thread.sleep(IMPORT_STATUS_POLL_INTERVAL.toMillis());
+                awaitImportCompletion(completion);
                 continue;
             }
 
@@ -917,7 +1147,18 @@ public class MelonIntegrationService {
                 : "Импорт выполняется...";
 
             updateFullParsingTask(fullParsingTaskId, "running", mappedProgress, statusMessage, new HashMap<>(resultData));
-            Thread.sleep(IMPORT_STATUS_POLL_INTERVAL.toMillis());
+            awaitImportCompletion(completion);
+        }
+    }
+
+    /**
+     * Ждет завершения импорта, но не дольше {@link #IMPORT_STATUS_POLL_INTERVAL}, чтобы транслировать его прогресс.
+     */
+    private void awaitImportCompletion(CompletableFuture<ImportTaskService.ImportTask> completion) throws InterruptedException {
+        try {
+            completion.get(IMPORT_STATUS_POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ignored) {
+            // Импорт еще выполняется — обновляем прогресс и ждем дальше
         }
     }
 
@@ -927,18 +1168,13 @@ public class MelonIntegrationService {
     }
 
     protected Duration getTaskStatusPollInterval() {
-        return TASK_STATUS_POLL_INTERVAL;
+        return Duration.ofMillis(taskStatusFallbackIntervalMs);
     }
 
     protected int getMaxMissingTaskStatusAttempts() {
         return MAX_MISSING_TASK_STATUS_ATTEMPTS;
     }
 
-    protected void sleep(Duration interval) throws InterruptedException {
-        long millis = Math.max(1L, interval.toMillis());
-        Thread.sleep(millis);
-    }
-
     private boolean isTerminalTaskStatus(String statusValue) {
         if (statusValue == null) {
             return false;
@@ -1534,7 +1770,7 @@ public class MelonIntegrationService {
 
                     // Сохраняем обложку в ImageStorageService
                     ResponseEntity<Map> uploadResponse = restTemplate.postForEntity(
-                        "http://image-storage-service:8083/api/images/cover/" + manga.getId(),
+                        serviceUrlProperties.getImageStorageServiceUrl() + "/api/images/cover/" + manga.getId(),
                         coverEntity,
                         Map.class
                     );
@@ -1651,8 +1887,8 @@ public class MelonIntegrationService {
     public Map<String, Object> importToSystemAsync(String filename, String branchId) {
         String taskId = UUID.randomUUID().toString();
 
-        // Создаем задачу
-        ImportTaskService.ImportTask task = importTaskService.createTask(taskId);
+        // Создаем задачу (slug и ветка сохраняются, чтобы продолжить импорт после перезапуска)
+        ImportTaskService.ImportTask task = importTaskService.createTask(taskId, filename, branchId);
 
         // Добавляем импорт в очередь (не блокирует парсинг/билдинг других тайтлов)
         logger.info("📥 [LOCK] Запуск импорта: taskId={}, filename={}", taskId, filename);
@@ -1703,6 +1939,11 @@ public class MelonIntegrationService {
         logger.info("Filename: {}", filename);
         logger.info("Branch ID: {}", branchId);
 
+        // Если задачу перехватит другой экземпляр, прекращаем импорт перед следующей главой
+        AtomicBoolean leaseLost = new AtomicBoolean();
+        Runnable stopOnLeaseLost = () -> leaseLost.set(true);
+        importJobStore.onLeaseLost(taskId, stopOnLeaseLost);
+
         try {
             // Шаг 1: Получаем данные манги
             task.setStatus(ImportTaskService.TaskStatus.IMPORTING_MANGA);
@@ -1725,8 +1966,18 @@ public class MelonIntegrationService {
             task.setMessage("Создание записи манги...");
             
             logger.info("Шаг 2: Создание записи манги в БД...");
-            Manga manga = createMangaFromData(mangaInfo, filename);
-            logger.info("✓ Манга создана с ID: {}, название: {}", manga.getId(), manga.getTitle());
+            Manga manga = importJobStore.find(taskId)
+                .map(ImportJob::getMangaId)
+                .flatMap(mangaRepository::findById)
+                .orElse(null);
+            if (manga != null) {
+                logger.info("✓ Продолжаем импорт в ранее созданную мангу ID: {}, название: {}", manga.getId(), manga.getTitle());
+            } else {
+                manga = createMangaFromData(mangaInfo, filename);
+                Long createdMangaId = manga.getId();
+                importJobStore.update(taskId, ImportJob.State.IMPORTING, job -> job.setMangaId(createdMangaId));
+                logger.info("✓ Манга создана с ID: {}, название: {}", manga.getId(), manga.getTitle());
+            }
 
             // Подсчитываем главы
             logger.info("Шаг 3: Подсчет глав для импорта...");
@@ -1793,7 +2044,7 @@ public class MelonIntegrationService {
             task.setProgress(20);
             task.setMessage("Импорт глав: 0/" + totalChapters);
 
-            importChaptersWithProgress(taskId, manga.getId(), chaptersToImport, filename);
+            importChaptersWithProgress(taskId, manga.getId(), chaptersToImport, filename, leaseLost);
             
             logger.info("✓ Все главы импортированы успешно");
             
@@ -1817,6 +2068,8 @@ public class MelonIntegrationService {
             logger.error("Сообщение ошибки: {}", e.getMessage());
             logger.error("Стек трейс:", e);
             importTaskService.markTaskFailed(taskId, e.getMessage());
+        } finally {
+            importJobStore.removeLeaseLostHandler(taskId, stopOnLeaseLost);
         }
 
         return CompletableFuture.completedFuture(null);
@@ -2086,7 +2339,7 @@ public class MelonIntegrationService {
                 System.out.println("Uploading cover to ImageStorageService for manga ID: " + manga.getId());
                 // ОСНОВНОЙ путь - всегда сохраняем в Minio через ImageStorageService
                 ResponseEntity<Map> uploadResponse = restTemplate.postForEntity(
-                    "http://image-storage-service:8083/api/images/cover/" + manga.getId(),
+                    serviceUrlProperties.getImageStorageServiceUrl() + "/api/images/cover/" + manga.getId(),
                     coverEntity,
                     Map.class
                 );
@@ -2096,7 +2349,7 @@ public class MelonIntegrationService {
                     if (savedImageUrl != null) {
                         // Если путь не содержит http, формируем публичный URL
                         if (!savedImageUrl.startsWith("http")) {
-                            savedImageUrl = "http://image-storage-service:8083/api/images/public/" + savedImageUrl;
+                            savedImageUrl = serviceUrlProperties.getImageStorageServiceUrl() + "/api/images/public/" + savedImageUrl;
                         }
                         manga.setCoverImageUrl(savedImageUrl);
                         manga = mangaRepository.save(manga); // Сохраняем обновленный URL
@@ -2403,7 +2656,7 @@ public class MelonIntegrationService {
 
                         // Сохраняем в Minio
                         ResponseEntity<Map> uploadResponse = restTemplate.postForEntity(
-                            "http://image-storage-service:8083/api/images/cover/" + manga.getId(),
+                            serviceUrlProperties.getImageStorageServiceUrl() + "/api/images/cover/" + manga.getId(),
                             coverEntity,
                             Map.class
                         );
@@ -2463,7 +2716,8 @@ public class MelonIntegrationService {
     }
 
     // Недостающие методы для importChaptersWithProgress
-    private void importChaptersWithProgress(String taskId, Long mangaId, List<Map<String, Object>> chapters, String filename) {
+    private void importChaptersWithProgress(String taskId, Long mangaId, List<Map<String, Object>> chapters, String filename,
+                                            AtomicBoolean leaseLost) {
         ImportTaskService.ImportTask task = importTaskService.getTask(taskId);
         
         logger.info("=== ИМПОРТ ГЛАВ ===");
@@ -2479,8 +2733,15 @@ public class MelonIntegrationService {
         Map<Integer, Integer> volumeNumericCounters = new HashMap<>();
         Map<Integer, Integer> volumeSpecialCounters = new HashMap<>();
         Set<String> usedChapterNumbers = new HashSet<>();
+        Map<String, ImportJobChapter> checkpoints = importJobStore.chapterCheckpoints(taskId);
+        if (!checkpoints.isEmpty()) {
+            logger.info("Найдено {} контрольных точек глав, продолжаем импорт", checkpoints.size());
+        }
 
         for (int i = 0; i < orderedChapters.size(); i++) {
+            if (leaseLost.get()) {
+                throw new IllegalStateException("Импорт продолжает другой экземпляр сервиса");
+            }
             Map<String, Object> chapterData = orderedChapters.get(i);
 
             try {
@@ -2551,18 +2812,34 @@ public class MelonIntegrationService {
                 }
                 chapterRequest.put("title", title);
 
+                // Номера глав вычисляются для всех глав по порядку, поэтому пропуск не сдвигает нумерацию
+                String chapterKey = chapterIdObj != null
+                    ? chapterIdObj.toString()
+                    : "v" + volumeForOrdering + ":n" + numberAsString + ":" + i;
+                ImportJobChapter checkpoint = checkpoints.get(chapterKey);
+                if (checkpoint != null && checkpoint.isPagesImported()) {
+                    importTaskService.incrementImportedChapters(taskId);
+                    task.setProgress(20 + (75 * (i + 1)) / orderedChapters.size());
+                    logger.debug("Глава {} уже импортирована (ID {}), пропускаем", chapterKey, checkpoint.getChapterId());
+                    continue;
+                }
+                if (checkpoint != null && checkpoint.getChapterId() != null) {
+                    deleteHalfImportedChapter(checkpoint.getChapterId());
+                }
+
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.APPLICATION_JSON);
                 HttpEntity<Map<String, Object>> entity = new HttpEntity<>(chapterRequest, headers);
 
                 ResponseEntity<Map> response = restTemplate.postForEntity(
-                    "http://chapter-service:8082/api/chapters",
+                    serviceUrlProperties.getChapterServiceUrl() + "/api/chapters",
                     entity,
                     Map.class
                 );
 
                 if (response.getStatusCode().is2xxSuccessful()) {
                     Long chapterId = Long.parseLong(response.getBody().get("id").toString());
+                    importJobStore.checkpointChapter(taskId, chapterKey, chapterId, false);
 
                     // Импортируем страницы из MelonService
                     List<Map<String, Object>> slides = (List<Map<String, Object>>) chapterData.get("slides");
@@ -2577,6 +2854,7 @@ public class MelonIntegrationService {
                     );
                     logger.debug("📁 Chapter folder name resolved: '{}' for chapter ID {}", chapterFolderName, chapterId);
                     importChapterPagesFromMelonService(taskId, chapterId, slides, filename, chapterFolderName);
+                    importJobStore.checkpointChapter(taskId, chapterKey, chapterId, true);
 
                     // Обновляем прогресс
                     importTaskService.incrementImportedChapters(taskId);
@@ -2597,6 +2875,18 @@ public class MelonIntegrationService {
         }
     }
 
+    /**
+     * Удаляет главу, импорт страниц которой был прерван, чтобы создать её заново.
+     */
+    private void deleteHalfImportedChapter(Long chapterId) {
+        try {
+            restTemplate.delete(serviceUrlProperties.getChapterServiceUrl() + "/api/chapters/" + chapterId);
+            logger.info("Удалена не до конца импортированная глава {}", chapterId);
+        } catch (Exception e) {
+            logger.warn("Не удалось удалить не до конца импортированную главу {}: {}", chapterId, e.getMessage());
+        }
+    }
+
     /**
      * Импортирует страницы главы из MelonService через оптимизированный BATCH endpoint.
      * Вместо N HTTP запросов делает 1 запрос и получает все изображения сразу.
@@ -2671,7 +2961,7 @@ public class MelonIntegrationService {
         
         // Обновляем pageCount в ChapterService
         try {
-            String getPageCountUrl = "http://image-storage-service:8083/api/images/chapter/" + chapterId + "/count";
+            String getPageCountUrl = serviceUrlProperties.getImageStorageServiceUrl() + "/api/images/chapter/" + chapterId + "/count";
             ResponseEntity<Integer> pageCountResponse = restTemplate.getForEntity(getPageCountUrl, Integer.class);
             
             if (pageCountResponse.getStatusCode().is2xxSuccessful() && pageCountResponse.getBody() != null) {
@@ -2684,7 +2974,7 @@ public class MelonIntegrationService {
                 headers.setContentType(MediaType.APPLICATION_JSON);
                 HttpEntity<Map<String, Object>> updateEntity = new HttpEntity<>(updateRequest, headers);
                 
-                String updateChapterUrl = "http://chapter-service:8082/api/chapters/" + chapterId + "/pagecount";
+                String updateChapterUrl = serviceUrlProperties.getChapterServiceUrl() + "/api/chapters/" + chapterId + "/pagecount";
                 restTemplate.put(updateChapterUrl, updateEntity);
                 
                 logger.info("Updated chapter {} pageCount to: {}", chapterId, actualPageCount);
@@ -3173,7 +3463,7 @@ public class MelonIntegrationService {
             HttpEntity<MultiValueMap<String, Object>> entity = new HttpEntity<>(multipartData, headers);
 
             String batchUploadUrl = String.format(
-                "http://image-storage-service:8083/api/images/chapter/%d/multiple-ordered?startPage=%d",
+                serviceUrlProperties.getImageStorageServiceUrl() + "/api/images/chapter/%d/multiple-ordered?startPage=%d",
                 chapterId, startPage);
 
             logger.info("Отправляем {} страниц батчево в ImageStorage (startPage={})", pages.size(), startPage);
@@ -0,0 +1,145 @@
+package shadowshift.studio.mangaservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Принимает события задач ParserService (прогресс, новые строки лога, завершение) и завершает
+ * ожидающие их {@link CompletableFuture}. Благодаря этому ожидание задачи не опрашивает статус по HTTP:
+ * опрос остается только редкой страховкой на случай потерянных событий.
+ *
+ * @author ShadowShiftStudio
+ */
+@Service
+public class ParserTaskEventService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParserTaskEventService.class);
+
+    /**
+     * Сколько завершившихся задач помнить для ожиданий, начатых уже после события о завершении.
+     */
+    private static final int MAX_REMEMBERED_RESULTS = 500;
+
+    /**
+     * Ожидание задачи: результат и получатель строк лога.
+     */
+    public static final class Subscription {
+        private final CompletableFuture<Map<String, Object>> completion = new CompletableFuture<>();
+        private final Consumer<String> logListener;
+        private volatile boolean eventsReceived;
+
+        private Subscription(Consumer<String> logListener) {
+            this.logListener = logListener;
+        }
+
+        public CompletableFuture<Map<String, Object>> getCompletion() {
+            return completion;
+        }
+
+        /**
+         * true, если по задаче уже приходили события (и логи доставляются ими, а не опросом).
+         */
+        public boolean isEventsReceived() {
+            return eventsReceived;
+        }
+    }
+
+    private final ConcurrentMap<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, Object>> recentResults = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
+            return size() > MAX_REMEMBERED_RESULTS;
+        }
+    };
+
+    /**
+     * Начинает ожидание задачи ParserService.
+     *
+     * @param taskId идентификатор задачи ParserService
+     * @param logListener получатель новых строк лога задачи
+     * @return подписка; после окончания ожидания её нужно передать в {@link #release(String, Subscription)}
+     */
+    public Subscription subscribe(String taskId, Consumer<String> logListener) {
+        Subscription subscription = new Subscription(logListener);
+        subscriptions.put(taskId, subscription);
+        Map<String, Object> result;
+        synchronized (recentResults) {
+            result = recentResults.get(taskId);
+        }
+        if (result != null) {
+            subscription.eventsReceived = true;
+            subscription.completion.complete(result);
+        }
+        return subscription;
+    }
+
+    public void release(String taskId, Subscription subscription) {
+        subscriptions.remove(taskId, subscription);
+    }
+
+    /**
+     * Обрабатывает пакет событий от ParserService.
+     *
+     * @return количество обработанных событий
+     */
+    public int handleEvents(List<Map<String, Object>> events) {
+        int handled = 0;
+        for (Map<String, Object> event : events) {
+            Object taskIdRaw = event.get("taskId");
+            if (taskIdRaw == null) {
+                continue;
+            }
+            handleEvent(taskIdRaw.toString(), event);
+            handled++;
+        }
+        return handled;
+    }
+
+    private void handleEvent(String taskId, Map<String, Object> event) {
+        String status = event.get("status") != null ? event.get("status").toString().toLowerCase(Locale.ROOT) : null;
+        boolean terminal = "completed".equals(status) || "failed".equals(status) || "cancelled".equals(status);
+
+        // Результат публикуется до чтения подписки: subscribe() делает наоборот, поэтому подписка,
+        // появившаяся между этими шагами, найдет результат сама
+        Map<String, Object> result = null;
+        if (terminal) {
+            result = new HashMap<>();
+            result.put("status", status);
+            result.put("progress", event.get("progress"));
+            result.put("message", event.get("message") != null ? event.get("message") : "");
+            synchronized (recentResults) {
+                recentResults.put(taskId, result);
+            }
+        }
+
+        Subscription subscription = subscriptions.get(taskId);
+        if (subscription == null) {
+            return;
+        }
+        subscription.eventsReceived = true;
+        if (event.get("logs") instanceof List<?> logs && subscription.logListener != null) {
+            for (Object line : logs) {
+                try {
+                    subscription.logListener.accept(line != null ? line.toString() : "");
+                } catch (Exception e) {
+                    logger.debug("Ошибка передачи лога задачи {}: {}", taskId, e.getMessage());
+                }
+            }
+        }
+        if (result != null) {
+            subscription.completion.complete(result);
+        }
+    }
+}
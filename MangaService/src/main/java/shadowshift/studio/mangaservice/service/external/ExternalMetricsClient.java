@@ -8,13 +8,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import shadowshift.studio.mangaservice.config.ServiceUrlProperties;
 import shadowshift.studio.mangaservice.dto.external.CommentAggregateResponse;
 import shadowshift.studio.mangaservice.dto.external.MangaChapterIdsResponse;
 import shadowshift.studio.mangaservice.dto.external.MangaLikesAggregateResponse;
@@ -28,14 +23,10 @@ import shadowshift.studio.mangaservice.dto.external.MangaReviewAggregateResponse
 @Service
 public class ExternalMetricsClient {
 
-    private static final Logger logger = LoggerFactory.getLogger(ExternalMetricsClient.class);
+    private final ServiceClients serviceClients;
 
-    private final RestTemplate restTemplate;
-    private final ServiceUrlProperties serviceUrlProperties;
-
-    public ExternalMetricsClient(RestTemplate restTemplate, ServiceUrlProperties serviceUrlProperties) {
-        this.restTemplate = restTemplate;
-        this.serviceUrlProperties = serviceUrlProperties;
+    public ExternalMetricsClient(ServiceClients serviceClients) {
+        this.serviceClients = serviceClients;
     }
 
     public Map<Long, Long> fetchMangaLikes(Collection<Long> mangaIds) {
@@ -44,166 +35,111 @@ public class ExternalMetricsClient {
             return Collections.emptyMap();
         }
 
-        String url = normalizeBaseUrl(serviceUrlProperties.getChapterServiceUrl()) + "/internal/manga/likes/aggregate";
-        try {
-            ResponseEntity<MangaLikesAggregateResponse[]> response = restTemplate.postForEntity(
-                    url,
-                    Map.of("mangaIds", payload),
-                    MangaLikesAggregateResponse[].class
-            );
-            MangaLikesAggregateResponse[] body = response.getBody();
-            if (body == null || body.length == 0) {
-                return Collections.emptyMap();
-            }
+        MangaLikesAggregateResponse[] body = serviceClients.chapterService().post(
+                "/internal/manga/likes/aggregate",
+                Map.of("mangaIds", payload),
+                MangaLikesAggregateResponse[].class,
+                () -> null
+        );
+        if (body == null || body.length == 0) {
+            return Collections.emptyMap();
+        }
 
-            Map<Long, Long> result = new HashMap<>();
-            for (MangaLikesAggregateResponse aggregate : body) {
-                if (aggregate != null && aggregate.mangaId() != null) {
-                    result.put(aggregate.mangaId(), defaultZero(aggregate.totalLikes()));
-                }
+        Map<Long, Long> result = new HashMap<>();
+        for (MangaLikesAggregateResponse aggregate : body) {
+            if (aggregate != null && aggregate.mangaId() != null) {
+                result.put(aggregate.mangaId(), defaultZero(aggregate.totalLikes()));
             }
-            return result;
-        } catch (Exception ex) {
-            logger.warn("Failed to fetch like aggregates from ChapterService: {}", ex.getMessage());
-            return Collections.emptyMap();
         }
+        return result;
     }
 
     public Map<Long, Long> fetchMangaComments(Collection<Long> mangaIds) {
+        return fetchCommentAggregates("MANGA", mangaIds);
+    }
+
+    public Map<Long, Long> fetchChapterComments(Collection<Long> chapterIds) {
+        return fetchCommentAggregates("CHAPTER", chapterIds);
+    }
+
+    public Map<Long, List<Long>> fetchMangaChapterIds(Collection<Long> mangaIds) {
         List<Long> payload = prepareIds(mangaIds);
         if (payload.isEmpty()) {
             return Collections.emptyMap();
         }
 
-        String url = normalizeBaseUrl(serviceUrlProperties.getCommentServiceUrl()) + "/internal/comments/aggregate";
-        try {
-            ResponseEntity<CommentAggregateResponse[]> response = restTemplate.postForEntity(
-                    url,
-                    Map.of(
-                        "commentType", "MANGA",
-                        "targetIds", payload
-                    ),
-                    CommentAggregateResponse[].class
-            );
-            CommentAggregateResponse[] body = response.getBody();
-            if (body == null || body.length == 0) {
-                return Collections.emptyMap();
-            }
-            Map<Long, Long> result = new HashMap<>();
-            for (CommentAggregateResponse aggregate : body) {
-                if (aggregate != null && aggregate.targetId() != null) {
-                    result.put(aggregate.targetId(), defaultZero(aggregate.totalComments()));
-                }
-            }
-            return result;
-        } catch (Exception ex) {
-            logger.warn("Failed to fetch comment aggregates from CommentService: {}", ex.getMessage());
-            return Collections.emptyMap();
-        }
-    }
-
-    public Map<Long, Long> fetchChapterComments(Collection<Long> chapterIds) {
-        List<Long> payload = prepareIds(chapterIds);
-        if (payload.isEmpty()) {
+        MangaChapterIdsResponse[] body = serviceClients.chapterService().post(
+                "/internal/manga/chapters/ids",
+                Map.of("mangaIds", payload),
+                MangaChapterIdsResponse[].class,
+                () -> null
+        );
+        if (body == null || body.length == 0) {
             return Collections.emptyMap();
         }
 
-    String url = normalizeBaseUrl(serviceUrlProperties.getCommentServiceUrl()) + "/internal/comments/aggregate";
-        try {
-            ResponseEntity<CommentAggregateResponse[]> response = restTemplate.postForEntity(
-                    url,
-                    Map.of(
-                        "commentType", "CHAPTER",
-                        "targetIds", payload
-                    ),
-                    CommentAggregateResponse[].class
-            );
-            CommentAggregateResponse[] body = response.getBody();
-            if (body == null || body.length == 0) {
-                return Collections.emptyMap();
-            }
-            Map<Long, Long> result = new HashMap<>();
-            for (CommentAggregateResponse aggregate : body) {
-                if (aggregate != null && aggregate.targetId() != null) {
-                    result.put(aggregate.targetId(), defaultZero(aggregate.totalComments()));
-                }
+        Map<Long, List<Long>> mapping = new HashMap<>();
+        for (MangaChapterIdsResponse aggregate : body) {
+            if (aggregate == null || aggregate.mangaId() == null) {
+                continue;
             }
-            return result;
-        } catch (Exception ex) {
-            logger.warn("Failed to fetch chapter comment aggregates from CommentService: {}", ex.getMessage());
-            return Collections.emptyMap();
+            List<Long> chapters = aggregate.chapterIds() != null ? aggregate.chapterIds() : Collections.emptyList();
+            mapping.put(aggregate.mangaId(), chapters);
         }
+        return mapping;
     }
 
-    public Map<Long, List<Long>> fetchMangaChapterIds(Collection<Long> mangaIds) {
+    public Map<Long, MangaReviewAggregateResponse> fetchMangaReviews(Collection<Long> mangaIds) {
         List<Long> payload = prepareIds(mangaIds);
         if (payload.isEmpty()) {
             return Collections.emptyMap();
         }
 
-            String url = normalizeBaseUrl(serviceUrlProperties.getChapterServiceUrl()) + "/internal/manga/chapters/ids";
-        try {
-            ResponseEntity<MangaChapterIdsResponse[]> response = restTemplate.postForEntity(
-                    url,
-                    Map.of("mangaIds", payload),
-                    MangaChapterIdsResponse[].class
-            );
-            MangaChapterIdsResponse[] body = response.getBody();
-            if (body == null || body.length == 0) {
-                return Collections.emptyMap();
-            }
+        MangaReviewAggregateResponse[] body = serviceClients.authService().post(
+                "/internal/reviews/manga/aggregate",
+                Map.of("mangaIds", payload),
+                MangaReviewAggregateResponse[].class,
+                () -> null
+        );
+        if (body == null || body.length == 0) {
+            return Collections.emptyMap();
+        }
 
-            Map<Long, List<Long>> mapping = new HashMap<>();
-            for (MangaChapterIdsResponse aggregate : body) {
-                if (aggregate == null || aggregate.mangaId() == null) {
-                    continue;
-                }
-                List<Long> chapters = aggregate.chapterIds() != null ? aggregate.chapterIds() : Collections.emptyList();
-                mapping.put(aggregate.mangaId(), chapters);
+        Map<Long, MangaReviewAggregateResponse> result = new HashMap<>();
+        for (MangaReviewAggregateResponse aggregate : body) {
+            if (aggregate != null && aggregate.mangaId() != null) {
+                result.put(aggregate.mangaId(), aggregate);
             }
-            return mapping;
-        } catch (Exception ex) {
-            logger.warn("Failed to fetch manga chapter ids from ChapterService: {}", ex.getMessage());
-            return Collections.emptyMap();
         }
+        return result;
     }
 
-    public Map<Long, MangaReviewAggregateResponse> fetchMangaReviews(Collection<Long> mangaIds) {
-        List<Long> payload = prepareIds(mangaIds);
+    private Map<Long, Long> fetchCommentAggregates(String commentType, Collection<Long> targetIds) {
+        List<Long> payload = prepareIds(targetIds);
         if (payload.isEmpty()) {
             return Collections.emptyMap();
         }
 
-            String url = normalizeBaseUrl(serviceUrlProperties.getAuthServiceUrl()) + "/internal/reviews/manga/aggregate";
-        try {
-            ResponseEntity<MangaReviewAggregateResponse[]> response = restTemplate.postForEntity(
-                    url,
-                    Map.of("mangaIds", payload),
-                    MangaReviewAggregateResponse[].class
-            );
-            MangaReviewAggregateResponse[] body = response.getBody();
-            if (body == null || body.length == 0) {
-                return Collections.emptyMap();
-            }
-
-            Map<Long, MangaReviewAggregateResponse> result = new HashMap<>();
-            for (MangaReviewAggregateResponse aggregate : body) {
-                if (aggregate != null && aggregate.mangaId() != null) {
-                    result.put(aggregate.mangaId(), aggregate);
-                }
-            }
-            return result;
-        } catch (Exception ex) {
-            logger.warn("Failed to fetch review aggregates from AuthService: {}", ex.getMessage());
+        CommentAggregateResponse[] body = serviceClients.commentService().post(
+                "/internal/comments/aggregate",
+                Map.of(
+                    "commentType", commentType,
+                    "targetIds", payload
+                ),
+                CommentAggregateResponse[].class,
+                () -> null
+        );
+        if (body == null || body.length == 0) {
             return Collections.emptyMap();
         }
-    }
 
-    private String normalizeBaseUrl(String url) {
-        if (url == null || url.isBlank()) {
-            return "";
+        Map<Long, Long> result = new HashMap<>();
+        for (CommentAggregateResponse aggregate : body) {
+            if (aggregate != null && aggregate.targetId() != null) {
+                result.put(aggregate.targetId(), defaultZero(aggregate.totalComments()));
+            }
         }
-        return url.replaceAll("/+$", "");
+        return result;
     }
 
     private static List<Long> prepareIds(Collection<Long> ids) {
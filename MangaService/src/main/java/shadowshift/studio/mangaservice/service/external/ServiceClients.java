@@ -0,0 +1,81 @@
+package shadowshift.studio.mangaservice.service.external;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import shadowshift.studio.mangaservice.config.ServiceClientProperties;
+import shadowshift.studio.mangaservice.config.ServiceUrlProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Общие HTTP-клиенты соседних сервисов. Клиент создается один раз на сервис, адреса берутся из
+ * {@code services.*-url}, настройки изоляции — из {@code services.clients.*}.
+ */
+@Component
+public class ServiceClients {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceClients.class);
+
+    public static final String CHAPTER_SERVICE = "chapter-service";
+    public static final String IMAGE_STORAGE_SERVICE = "image-storage-service";
+    public static final String COMMENT_SERVICE = "comment-service";
+    public static final String AUTH_SERVICE = "auth-service";
+
+    private final ExecutorService hedgeExecutor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("service-client-", 0).factory());
+    private final Map<String, ServiceHttpClient> clients = new LinkedHashMap<>();
+
+    public ServiceClients(ServiceUrlProperties urls,
+                          ServiceClientProperties properties,
+                          RestClient.Builder restClientBuilder,
+                          MeterRegistry meterRegistry) {
+        register(CHAPTER_SERVICE, urls.getChapterServiceUrl(), properties, restClientBuilder);
+        register(IMAGE_STORAGE_SERVICE, urls.getImageStorageServiceUrl(), properties, restClientBuilder);
+        register(COMMENT_SERVICE, urls.getCommentServiceUrl(), properties, restClientBuilder);
+        register(AUTH_SERVICE, urls.getAuthServiceUrl(), properties, restClientBuilder);
+
+        clients.values().forEach(client -> Gauge.builder("manga.service.client.circuit.state", client,
+                c -> c.getCircuitState().ordinal())
+            .tag("service", client.getName())
+            .description("Circuit state: 0 closed, 1 open, 2 half-open")
+            .register(meterRegistry));
+    }
+
+    public ServiceHttpClient chapterService() {
+        return clients.get(CHAPTER_SERVICE);
+    }
+
+    public ServiceHttpClient imageStorageService() {
+        return clients.get(IMAGE_STORAGE_SERVICE);
+    }
+
+    public ServiceHttpClient commentService() {
+        return clients.get(COMMENT_SERVICE);
+    }
+
+    public ServiceHttpClient authService() {
+        return clients.get(AUTH_SERVICE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.values().forEach(ServiceHttpClient::close);
+        hedgeExecutor.shutdownNow();
+    }
+
+    private void register(String name, String baseUrl, ServiceClientProperties properties,
+                          RestClient.Builder restClientBuilder) {
+        ServiceClientProperties.Target settings = properties.resolve(name);
+        clients.put(name, new ServiceHttpClient(name, baseUrl, settings, restClientBuilder.clone(), hedgeExecutor));
+        logger.info("HTTP client for {} at {}: read timeout {} ms, {} concurrent calls, hedge after {} ms",
+            name, baseUrl, settings.getReadTimeoutMs(), settings.getMaxConcurrentCalls(), settings.getHedgeDelayMs());
+    }
+}
@@ -0,0 +1,296 @@
+package shadowshift.studio.mangaservice.service.external;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import shadowshift.studio.mangaservice.config.ServiceClientProperties;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * HTTP-клиент одного соседнего сервиса. Все вызовы идут через общий пул keep-alive соединений
+ * и изолированы от остальных сервисов:
+ * <ul>
+ *     <li>bulkhead ограничивает число одновременных запросов, лишние сразу получают fallback;</li>
+ *     <li>circuit breaker после серии сбоев перестает ходить в сервис на {@code open-state-ms},
+ *     затем пропускает одну пробу;</li>
+ *     <li>идемпотентный GET, не ответивший за {@code hedge-delay-ms}, дублируется, берется первый успешный ответ.</li>
+ * </ul>
+ * Ответы 4xx считаются штатными и цепь не размыкают.
+ */
+public class ServiceHttpClient implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceHttpClient.class);
+
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final RestClient restClient;
+    private final Semaphore bulkhead;
+    private final long bulkheadWaitMs;
+    private final long hedgeDelayMs;
+    private final CircuitBreaker circuitBreaker;
+    private final Executor hedgeExecutor;
+
+    ServiceHttpClient(String name, String baseUrl, ServiceClientProperties.Target settings,
+                      RestClient.Builder restClientBuilder, Executor hedgeExecutor) {
+        this.name = name;
+        this.baseUrl = normalizeBaseUrl(baseUrl);
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(settings.getConnectTimeoutMs()))
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(settings.getReadTimeoutMs()));
+        this.restClient = restClientBuilder
+            .baseUrl(this.baseUrl)
+            .requestFactory(requestFactory)
+            .build();
+        this.bulkhead = new Semaphore(Math.max(1, settings.getMaxConcurrentCalls()));
+        this.bulkheadWaitMs = settings.getBulkheadWaitMs();
+        this.hedgeDelayMs = settings.getHedgeDelayMs();
+        this.circuitBreaker = new CircuitBreaker(Math.max(1, settings.getFailureThreshold()), settings.getOpenStateMs());
+        this.hedgeExecutor = hedgeExecutor;
+    }
+
+    /**
+     * Идемпотентный GET; при ошибке, открытой цепи или переполненном bulkhead возвращает fallback
+     */
+    public <T> T get(String path, Class<T> responseType, Supplier<T> fallback) {
+        return execute("GET", path, true, () -> restClient.get().uri(path).retrieve().body(responseType), fallback);
+    }
+
+    public <T> T get(String path, ParameterizedTypeReference<T> responseType, Supplier<T> fallback) {
+        return execute("GET", path, true, () -> restClient.get().uri(path).retrieve().body(responseType), fallback);
+    }
+
+    /**
+     * POST без повторов и дублирования
+     */
+    public <T> T post(String path, Object body, Class<T> responseType, Supplier<T> fallback) {
+        return execute("POST", path, false,
+            () -> restClient.post().uri(path).body(body).retrieve().body(responseType), fallback);
+    }
+
+    /**
+     * @return true, если сервис подтвердил удаление
+     */
+    public boolean delete(String path) {
+        return execute("DELETE", path, false, () -> {
+            restClient.delete().uri(path).retrieve().toBodilessEntity();
+            return Boolean.TRUE;
+        }, () -> Boolean.FALSE);
+    }
+
+    /**
+     * Абсолютный URL сервиса для вызовов, которые пока идут мимо клиента
+     */
+    public String url(String path) {
+        return baseUrl + (path.startsWith("/") ? path : "/" + path);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitState getCircuitState() {
+        return circuitBreaker.state();
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+
+    private <T> T execute(String method, String path, boolean idempotent, Supplier<T> call, Supplier<T> fallback) {
+        if (!circuitBreaker.allowRequest()) {
+            logger.debug("{}: circuit is open, {} {} served from fallback", name, method, path);
+            return fallback.get();
+        }
+        boolean acquired = false;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired) {
+            circuitBreaker.onAbandoned();
+            logger.warn("{}: bulkhead is full, {} {} served from fallback", name, method, path);
+            return fallback.get();
+        }
+
+        try {
+            if (idempotent && hedgeDelayMs > 0 && circuitBreaker.state() == CircuitState.CLOSED) {
+                return executeHedged(call);
+            }
+            return attempt(call);
+        } catch (HttpClientErrorException.NotFound e) {
+            logger.debug("{}: {} {} returned 404", name, method, path);
+            return fallback.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback.get();
+        } catch (Exception e) {
+            logger.warn("{}: {} {} failed: {}", name, method, path, e.getMessage());
+            return fallback.get();
+        }
+    }
+
+    /**
+     * Один запрос под уже захваченным слотом bulkhead; слот освобождается по завершении
+     */
+    private <T> T attempt(Supplier<T> call) {
+        try {
+            T result = call.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (HttpClientErrorException e) {
+            // Сервис ответил — он жив, ошибка в самом запросе
+            circuitBreaker.onSuccess();
+            throw e;
+        } catch (RuntimeException e) {
+            if (circuitBreaker.onFailure()) {
+                logger.warn("{}: circuit opened after repeated failures: {}", name, e.getMessage());
+            }
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private <T> T executeHedged(Supplier<T> call) throws Exception {
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(() -> attempt(call), hedgeExecutor);
+        try {
+            return primary.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (!bulkhead.tryAcquire()) {
+                return await(primary);
+            }
+            CompletableFuture<T> hedge = CompletableFuture.supplyAsync(() -> attempt(call), hedgeExecutor);
+            return await(firstSuccessful(primary, hedge));
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+        for (CompletableFuture<T> candidate : List.of(first, second)) {
+            candidate.whenComplete((value, error) -> {
+                if (error == null) {
+                    winner.complete(value);
+                } else if (remaining.decrementAndGet() == 0) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        return winner;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static Exception unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof Exception exception ? exception : new IllegalStateException(cause);
+    }
+
+    private static String normalizeBaseUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return "";
+        }
+        return url.trim().replaceAll("/+$", "");
+    }
+
+    /**
+     * Размыкается после failureThreshold сбоев подряд; по истечении openStateMs пропускает одну пробу.
+     */
+    private static final class CircuitBreaker {
+
+        private final int failureThreshold;
+        private final long openStateMs;
+        private CircuitState state = CircuitState.CLOSED;
+        private int consecutiveFailures;
+        private long openUntil;
+        private boolean probeInFlight;
+
+        private CircuitBreaker(int failureThreshold, long openStateMs) {
+            this.failureThreshold = failureThreshold;
+            this.openStateMs = openStateMs;
+        }
+
+        synchronized CircuitState state() {
+            return state;
+        }
+
+        synchronized boolean allowRequest() {
+            if (state == CircuitState.OPEN) {
+                if (System.currentTimeMillis() < openUntil) {
+                    return false;
+                }
+                state = CircuitState.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+            }
+            return true;
+        }
+
+        synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            state = CircuitState.CLOSED;
+        }
+
+        /**
+         * @return true, если цепь только что разомкнулась
+         */
+        synchronized boolean onFailure() {
+            consecutiveFailures++;
+            probeInFlight = false;
+            if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                boolean opened = state != CircuitState.OPEN;
+                state = CircuitState.OPEN;
+                openUntil = System.currentTimeMillis() + openStateMs;
+                return opened;
+            }
+            return false;
+        }
+
+        /**
+         * Разрешенный запрос так и не ушел (bulkhead переполнен)
+         */
+        synchronized void onAbandoned() {
+            probeInFlight = false;
+        }
+    }
+}
@@ -1,49 +1,94 @@
 package shadowshift.studio.mangaservice.websocket;
 
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * WebSocket-канал прогресса задач парсинга и импорта.
+ * Отправка не блокирует вызывающий поток: сообщение сериализуется один раз и кладется в очередь
+ * каждой подписанной сессии, а в сокет очередь сбрасывается отдельно, не чаще раза в
+ * {@code progress.websocket.min-send-interval-ms}. Для прогресса хранится только последнее состояние
+ * задачи, поэтому медленный браузер получает меньше промежуточных тиков, но не тормозит импорт.
+ */
 @Component
 public class ProgressWebSocketHandler extends TextWebSocketHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(ProgressWebSocketHandler.class);
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Value("${progress.websocket.min-send-interval-ms:100}")
+    private long minSendIntervalMs = 100;
+
+    @Value("${progress.websocket.max-queued-messages:500}")
+    private int maxQueuedMessages = 500;
+
+    @Value("${progress.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs = 10_000;
+
+    @Value("${progress.websocket.buffer-size-limit:1048576}")
+    private int bufferSizeLimit = 1024 * 1024;
+
     // Хранение активных WebSocket сессий
-    private final CopyOnWriteArraySet<WebSocketSession> sessions = new CopyOnWriteArraySet<>();
+    private final Map<String, SessionChannel> sessions = new ConcurrentHashMap<>();
 
     // Хранение сессий по task ID для targeted обновлений
-    private final Map<String, CopyOnWriteArraySet<WebSocketSession>> taskSessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<SessionChannel>> taskSessions = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("ws-progress-flush").daemon().factory());
+
+    // Запись в сокет может зависнуть на медленном клиенте, поэтому каждая выгрузка идет в своем виртуальном потоке
+    private final ExecutorService sender =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-progress-send-", 0).factory());
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        sessions.add(session);
+        SessionChannel channel = channelFor(session);
         logger.info("WebSocket connection established: {}", session.getId());
 
         // Отправляем приветственное сообщение
-        sendToSession(session, Map.of(
+        TextMessage greeting = serialize(Map.of(
             "type", "connection",
             "message", "WebSocket connection established",
             "sessionId", session.getId()
         ));
+        if (greeting != null) {
+            enqueue(channel, null, greeting);
+        }
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, org.springframework.web.socket.CloseStatus status) throws Exception {
-        sessions.remove(session);
+        SessionChannel channel = sessions.remove(session.getId());
 
-        // Удаляем сессию из всех task-specific групп
-        taskSessions.values().forEach(taskSessionSet -> taskSessionSet.remove(session));
+        if (channel != null) {
+            // Удаляем сессию из всех task-specific групп
+            taskSessions.values().forEach(taskSessionSet -> taskSessionSet.remove(channel));
+            channel.discard();
+        }
 
         logger.info("WebSocket connection closed: {} Reason: {} Code: {}", session.getId(), status.getReason(), status.getCode());
     }
@@ -82,41 +127,40 @@ public class ProgressWebSocketHandler extends TextWebSocketHandler {
      * Подписывает сессию на обновления конкретной задачи
      */
     public void subscribeToTask(WebSocketSession session, String taskId) {
-        taskSessions.computeIfAbsent(taskId, k -> new CopyOnWriteArraySet<>()).add(session);
+        taskSessions.computeIfAbsent(taskId, k -> ConcurrentHashMap.newKeySet()).add(channelFor(session));
     }
 
     /**
      * Отписывает сессию от обновлений конкретной задачи
      */
     public void unsubscribeFromTask(WebSocketSession session, String taskId) {
-        CopyOnWriteArraySet<WebSocketSession> taskSessionSet = taskSessions.get(taskId);
-        if (taskSessionSet != null) {
-            taskSessionSet.remove(session);
-            if (taskSessionSet.isEmpty()) {
-                taskSessions.remove(taskId);
-            }
+        SessionChannel channel = sessions.get(session.getId());
+        if (channel == null) {
+            return;
         }
+        taskSessions.computeIfPresent(taskId, (key, taskSessionSet) -> {
+            taskSessionSet.remove(channel);
+            return taskSessionSet.isEmpty() ? null : taskSessionSet;
+        });
     }
 
     /**
-     * Отправляет обновление прогресса всем подписанным на задачу сессиям
+     * Отправляет обновление прогресса всем подписанным на задачу сессиям.
+     * Если предыдущее состояние задачи еще не ушло в сессию, оно заменяется новым.
      */
     public void sendProgressUpdate(String taskId, Map<String, Object> progressData) {
-        CopyOnWriteArraySet<WebSocketSession> taskSessionSet = taskSessions.get(taskId);
-        logger.info("sendProgressUpdate: taskId={}, sessions={}", taskId, taskSessionSet != null ? taskSessionSet.size() : 0);
-        if (taskSessionSet != null && !taskSessionSet.isEmpty()) {
-            Map<String, Object> message = Map.of(
-                "type", "progress",
-                "taskId", taskId,
-                "data", progressData
-            );
-            logger.info("sendProgressUpdate: message={}", message);
-            taskSessionSet.forEach(session -> {
-                logger.info("sendProgressUpdate: sending to session {}", session.getId());
-                sendToSession(session, message);
-            });
-        } else {
-            logger.warn("sendProgressUpdate: no active sessions for taskId={}", taskId);
+        Set<SessionChannel> taskSessionSet = taskSessions.get(taskId);
+        if (taskSessionSet == null || taskSessionSet.isEmpty()) {
+            logger.debug("sendProgressUpdate: no active sessions for taskId={}", taskId);
+            return;
+        }
+        TextMessage message = serialize(Map.of(
+            "type", "progress",
+            "taskId", taskId,
+            "data", progressData
+        ));
+        if (message != null) {
+            taskSessionSet.forEach(channel -> enqueue(channel, taskId, message));
         }
     }
 
@@ -124,17 +168,18 @@ public class ProgressWebSocketHandler extends TextWebSocketHandler {
      * Отправляет лог-сообщение всем подписанным на задачу сессиям
      */
     public void sendLogMessage(String taskId, String level, String message) {
-        CopyOnWriteArraySet<WebSocketSession> taskSessionSet = taskSessions.get(taskId);
+        Set<SessionChannel> taskSessionSet = taskSessions.get(taskId);
         if (taskSessionSet != null && !taskSessionSet.isEmpty()) {
-            Map<String, Object> logMessage = Map.of(
+            TextMessage logMessage = serialize(Map.of(
                 "type", "log",
                 "taskId", taskId,
                 "level", level,
                 "message", message,
                 "timestamp", System.currentTimeMillis()
-            );
-
-            taskSessionSet.forEach(session -> sendToSession(session, logMessage));
+            ));
+            if (logMessage != null) {
+                taskSessionSet.forEach(channel -> enqueue(channel, null, logMessage));
+            }
         }
     }
 
@@ -142,20 +187,129 @@ public class ProgressWebSocketHandler extends TextWebSocketHandler {
      * Отправляет сообщение всем активным сессиям
      */
     public void broadcast(Map<String, Object> message) {
-        sessions.forEach(session -> sendToSession(session, message));
+        TextMessage textMessage = serialize(message);
+        if (textMessage != null) {
+            sessions.values().forEach(channel -> enqueue(channel, null, textMessage));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdownNow();
+        sender.shutdownNow();
+    }
+
+    private SessionChannel channelFor(WebSocketSession session) {
+        return sessions.computeIfAbsent(session.getId(), id -> new SessionChannel(new ConcurrentWebSocketSessionDecorator(
+            session, sendTimeLimitMs, bufferSizeLimit, ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP)));
+    }
+
+    private TextMessage serialize(Map<String, Object> message) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            logger.error("Error serializing WebSocket message: {}", e.getMessage());
+            return null;
+        }
     }
 
     /**
-     * Отправляет сообщение конкретной сессии
+     * Кладет сообщение в очередь сессии. Сообщения с ключом (прогресс задачи) схлопываются до последнего.
      */
-    private void sendToSession(WebSocketSession session, Map<String, Object> message) {
-        if (session.isOpen()) {
-            try {
-                String jsonMessage = objectMapper.writeValueAsString(message);
-                session.sendMessage(new TextMessage(jsonMessage));
-            } catch (IOException e) {
-                logger.error("Error sending WebSocket message to session {}: {}", session.getId(), e.getMessage());
+    private void enqueue(SessionChannel channel, String coalesceKey, TextMessage message) {
+        synchronized (channel) {
+            if (channel.closed) {
+                return;
             }
+            if (coalesceKey != null) {
+                channel.latest.put(coalesceKey, message);
+            } else {
+                if (channel.queue.size() >= maxQueuedMessages) {
+                    channel.queue.pollFirst();
+                    channel.dropped++;
+                }
+                channel.queue.addLast(message);
+            }
+        }
+        requestFlush(channel);
+    }
+
+    private void requestFlush(SessionChannel channel) {
+        long delay;
+        synchronized (channel) {
+            if (channel.flushScheduled || channel.closed || channel.isEmpty()) {
+                return;
+            }
+            channel.flushScheduled = true;
+            delay = Math.max(0, channel.lastFlushAt + minSendIntervalMs - System.currentTimeMillis());
+        }
+        try {
+            flushScheduler.schedule(() -> sender.execute(() -> flush(channel)), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Приложение останавливается
+            channel.discard();
+        }
+    }
+
+    private void flush(SessionChannel channel) {
+        List<TextMessage> batch;
+        int dropped;
+        synchronized (channel) {
+            batch = new ArrayList<>(channel.queue.size() + channel.latest.size());
+            batch.addAll(channel.queue);
+            batch.addAll(channel.latest.values());
+            channel.queue.clear();
+            channel.latest.clear();
+            dropped = channel.dropped;
+            channel.dropped = 0;
+        }
+        WebSocketSession session = channel.session;
+        if (dropped > 0) {
+            logger.warn("WebSocket session {} is too slow, dropped {} queued messages", session.getId(), dropped);
+        }
+        try {
+            for (TextMessage message : batch) {
+                if (!session.isOpen()) {
+                    break;
+                }
+                session.sendMessage(message);
+            }
+        } catch (Exception e) {
+            logger.error("Error sending WebSocket message to session {}: {}", session.getId(), e.getMessage());
+        } finally {
+            synchronized (channel) {
+                channel.lastFlushAt = System.currentTimeMillis();
+                channel.flushScheduled = false;
+            }
+            requestFlush(channel);
+        }
+    }
+
+    /**
+     * Исходящая очередь одной сессии. Все поля, кроме session, защищены монитором объекта.
+     */
+    private static final class SessionChannel {
+
+        private final WebSocketSession session;
+        private final Deque<TextMessage> queue = new ArrayDeque<>();
+        private final Map<String, TextMessage> latest = new LinkedHashMap<>();
+        private long lastFlushAt;
+        private boolean flushScheduled;
+        private boolean closed;
+        private int dropped;
+
+        private SessionChannel(WebSocketSession session) {
+            this.session = session;
+        }
+
+        private boolean isEmpty() {
+            return queue.isEmpty() && latest.isEmpty();
+        }
+
+        private synchronized void discard() {
+            closed = true;
+            queue.clear();
+            latest.clear();
         }
     }
 }
@@ -0,0 +1,13 @@
+-- Per-title auto-update state: remote chapter list fingerprint and update frequency
+CREATE TABLE IF NOT EXISTS manga_update_state (
+    manga_id BIGINT PRIMARY KEY REFERENCES manga(id) ON DELETE CASCADE,
+    source VARCHAR(50),
+    chapters_fingerprint VARCHAR(64),
+    last_remote_chapter_id VARCHAR(100),
+    remote_chapter_count INTEGER,
+    update_rate DOUBLE PRECISION NOT NULL DEFAULT 1.0,
+    checks_count INTEGER NOT NULL DEFAULT 0,
+    changes_count INTEGER NOT NULL DEFAULT 0,
+    last_checked_at TIMESTAMP,
+    last_changed_at TIMESTAMP
+);
@@ -0,0 +1,40 @@
+-- Durable import pipeline state: stage, child task ids, resume cursor and single-replica lease
+CREATE TABLE IF NOT EXISTS import_jobs (
+    task_id VARCHAR(64) PRIMARY KEY,
+    type VARCHAR(20) NOT NULL,
+    state VARCHAR(20) NOT NULL,
+    parent_task_id VARCHAR(64),
+    slug VARCHAR(255),
+    branch_id VARCHAR(64),
+    manga_id BIGINT,
+    parse_task_id VARCHAR(64),
+    build_task_id VARCHAR(64),
+    child_task_id VARCHAR(64),
+    cursor_position INTEGER,
+    payload TEXT,
+    progress INTEGER NOT NULL DEFAULT 0,
+    message VARCHAR(1000),
+    error_message TEXT,
+    resume_count INTEGER NOT NULL DEFAULT 0,
+    lease_owner VARCHAR(128),
+    lease_expires_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_import_jobs_state ON import_jobs(state);
+CREATE INDEX IF NOT EXISTS idx_import_jobs_parent ON import_jobs(parent_task_id);
+
+-- Chapter-level checkpoints: chapter created in ChapterService and whether its pages are uploaded
+CREATE TABLE IF NOT EXISTS import_job_chapters (
+    id BIGSERIAL PRIMARY KEY,
+    task_id VARCHAR(64) NOT NULL,
+    chapter_key VARCHAR(128) NOT NULL,
+    chapter_id BIGINT,
+    pages_imported BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_import_job_chapter UNIQUE (task_id, chapter_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_import_job_chapters_task ON import_job_chapters(task_id);
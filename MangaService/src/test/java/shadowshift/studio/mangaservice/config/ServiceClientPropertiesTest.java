@@ -0,0 +1,61 @@
+package shadowshift.studio.mangaservice.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ServiceClientProperties Unit Tests")
+class ServiceClientPropertiesTest {
+
+    private static ServiceClientProperties bind(Map<String, String> values) {
+        ServiceClientProperties properties = new ServiceClientProperties();
+        new Binder(new MapConfigurationPropertySource(values))
+            .bind("services.clients", Bindable.ofInstance(properties));
+        return properties;
+    }
+
+    @Test
+    @DisplayName("Частично настроенный сервис наследует остальные поля из defaults")
+    void partialTargetInheritsDefaults() {
+        ServiceClientProperties properties = bind(Map.of(
+            "services.clients.defaults.read-timeout-ms", "7000",
+            "services.clients.defaults.failure-threshold", "9",
+            "services.clients.targets.chapter.hedge-delay-ms", "150"));
+
+        ServiceClientProperties.Target chapter = properties.resolve("chapter");
+
+        assertThat(chapter.getHedgeDelayMs()).isEqualTo(150L);
+        assertThat(chapter.getReadTimeoutMs()).isEqualTo(7000);
+        assertThat(chapter.getFailureThreshold()).isEqualTo(9);
+        assertThat(chapter.getConnectTimeoutMs()).isEqualTo(2000);
+        assertThat(chapter.getMaxConcurrentCalls()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Поле сервиса переопределяет defaults")
+    void targetOverridesDefaults() {
+        ServiceClientProperties properties = bind(Map.of(
+            "services.clients.defaults.read-timeout-ms", "7000",
+            "services.clients.targets.auth.read-timeout-ms", "1000"));
+
+        assertThat(properties.resolve("auth").getReadTimeoutMs()).isEqualTo(1000);
+        assertThat(properties.getDefaults().getReadTimeoutMs()).isEqualTo(7000);
+    }
+
+    @Test
+    @DisplayName("Сервис без настроек получает defaults")
+    void unknownTargetGetsDefaults() {
+        ServiceClientProperties properties = bind(Map.of("services.clients.defaults.open-state-ms", "30000"));
+
+        ServiceClientProperties.Target settings = properties.resolve("image-storage");
+
+        assertThat(settings.getOpenStateMs()).isEqualTo(30000L);
+        assertThat(settings.getBulkheadWaitMs()).isEqualTo(100L);
+    }
+}
@@ -0,0 +1,97 @@
+package shadowshift.studio.mangaservice.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import shadowshift.studio.mangaservice.entity.ImportJob;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImportJobRecoveryService Unit Tests")
+class ImportJobRecoveryServiceTest {
+
+    @Mock private ImportJobStore importJobStore;
+    @Mock private MelonIntegrationService melonIntegrationService;
+    @Mock private AutoParsingService autoParsingService;
+
+    @InjectMocks private ImportJobRecoveryService recoveryService;
+
+    private static ImportJob job(String taskId, ImportJob.Type type) {
+        ImportJob job = new ImportJob(taskId, type);
+        job.setState(ImportJob.State.IMPORTING);
+        return job;
+    }
+
+    @Test
+    @DisplayName("Дочерняя задача без живого родителя помечается как FAILED")
+    void orphanIsFailed() {
+        when(importJobStore.findOrphans()).thenReturn(List.of(job("child", ImportJob.Type.FULL_PARSING)));
+        when(importJobStore.claim("child")).thenReturn(true);
+
+        recoveryService.recoverAbandonedJobs();
+
+        verify(importJobStore).transition(eq("child"), eq(ImportJob.State.FAILED), anyString());
+        verifyNoInteractions(melonIntegrationService);
+    }
+
+    @Test
+    @DisplayName("Задача, захваченная другим экземпляром, не продолжается")
+    void jobClaimedElsewhereIsSkipped() {
+        when(importJobStore.findOrphans()).thenReturn(List.of(job("child", ImportJob.Type.FULL_PARSING)));
+        when(importJobStore.findResumableRoots()).thenReturn(List.of(job("root", ImportJob.Type.IMPORT)));
+        when(importJobStore.claim(anyString())).thenReturn(false);
+
+        recoveryService.recoverAbandonedJobs();
+
+        verify(importJobStore, never()).transition(any(), any(), any());
+        verify(importJobStore, never()).update(any(), any(), any());
+        verifyNoInteractions(melonIntegrationService, autoParsingService);
+    }
+
+    @Test
+    @DisplayName("Задачи продолжаются по типу с увеличением счетчика попыток")
+    @SuppressWarnings("unchecked")
+    void rootsAreResumedByType() {
+        ImportJob imported = job("import", ImportJob.Type.IMPORT);
+        imported.setResumeCount(1);
+        ImportJob fullParsing = job("full", ImportJob.Type.FULL_PARSING);
+        ImportJob autoParsing = job("auto", ImportJob.Type.AUTO_PARSING);
+        when(importJobStore.findResumableRoots()).thenReturn(List.of(imported, fullParsing, autoParsing));
+        when(importJobStore.claim(anyString())).thenReturn(true);
+
+        recoveryService.recoverAbandonedJobs();
+
+        verify(melonIntegrationService).resumeImport(imported);
+        verify(melonIntegrationService).resumeFullParsing(fullParsing);
+        verify(autoParsingService).resumeAutoParsing(autoParsing);
+
+        ArgumentCaptor<Consumer<ImportJob>> mutation = ArgumentCaptor.forClass(Consumer.class);
+        verify(importJobStore).update(eq("import"), isNull(), mutation.capture());
+        ImportJob stored = job("import", ImportJob.Type.IMPORT);
+        mutation.getValue().accept(stored);
+        assertThat(stored.getResumeCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Ошибка продолжения помечает задачу как FAILED")
+    void resumeFailureFailsJob() {
+        ImportJob imported = job("import", ImportJob.Type.IMPORT);
+        when(importJobStore.findResumableRoots()).thenReturn(List.of(imported));
+        when(importJobStore.claim("import")).thenReturn(true);
+        doThrow(new IllegalStateException("boom")).when(melonIntegrationService).resumeImport(imported);
+
+        recoveryService.recoverAbandonedJobs();
+
+        verify(importJobStore).transition(eq("import"), eq(ImportJob.State.FAILED), contains("boom"));
+    }
+}
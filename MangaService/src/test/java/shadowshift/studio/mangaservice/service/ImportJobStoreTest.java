@@ -0,0 +1,236 @@
+package shadowshift.studio.mangaservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import shadowshift.studio.mangaservice.entity.ImportJob;
+import shadowshift.studio.mangaservice.entity.ImportJobChapter;
+import shadowshift.studio.mangaservice.repository.ImportJobChapterRepository;
+import shadowshift.studio.mangaservice.repository.ImportJobRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImportJobStore Unit Tests")
+class ImportJobStoreTest {
+
+    private static final String TASK_ID = "task-1";
+
+    @Mock private ImportJobRepository jobRepository;
+    @Mock private ImportJobChapterRepository chapterRepository;
+
+    private ImportJobStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ImportJobStore(jobRepository, chapterRepository, new ObjectMapper());
+    }
+
+    private ImportJob job(String leaseOwner, ImportJob.State state) {
+        ImportJob job = new ImportJob(TASK_ID, ImportJob.Type.IMPORT);
+        job.setLeaseOwner(leaseOwner);
+        job.setState(state);
+        return job;
+    }
+
+    @Nested
+    @DisplayName("Аренда")
+    class Lease {
+
+        @Test
+        @DisplayName("Задача, которую экземпляр уже выполняет, повторно не захватывается")
+        void claimRejectsOwnedJob() {
+            when(jobRepository.tryAcquireLease(eq(TASK_ID), eq(store.getInstanceId()), any(), any())).thenReturn(1);
+
+            assertThat(store.claim(TASK_ID)).isTrue();
+            assertThat(store.claim(TASK_ID)).isFalse();
+
+            verify(jobRepository, times(1)).tryAcquireLease(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Занятую другим экземпляром задачу захватить нельзя")
+        void claimFailsWhenLeaseIsHeldElsewhere() {
+            when(jobRepository.tryAcquireLease(eq(TASK_ID), eq(store.getInstanceId()), any(), any())).thenReturn(0);
+
+            assertThat(store.claim(TASK_ID)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Потеря аренды при продлении останавливает исполнителя и освобождает задачу")
+        void lostLeaseStopsWorker() {
+            when(jobRepository.tryAcquireLease(eq(TASK_ID), eq(store.getInstanceId()), any(), any())).thenReturn(1);
+            when(jobRepository.renewLeases(eq(store.getInstanceId()), eq(List.of(TASK_ID)), any())).thenReturn(0);
+            when(jobRepository.findTaskIdsByLeaseOwner(store.getInstanceId(), List.of(TASK_ID))).thenReturn(List.of());
+            AtomicInteger stops = new AtomicInteger();
+            store.claim(TASK_ID);
+            store.onLeaseLost(TASK_ID, stops::incrementAndGet);
+
+            store.renewLeases();
+            store.renewLeases();
+
+            assertThat(stops).hasValue(1);
+            // Задача больше не своя: её снова можно захватить
+            assertThat(store.claim(TASK_ID)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Продленная аренда не останавливает исполнителя")
+        void renewedLeaseKeepsWorker() {
+            when(jobRepository.tryAcquireLease(eq(TASK_ID), eq(store.getInstanceId()), any(), any())).thenReturn(1);
+            when(jobRepository.renewLeases(eq(store.getInstanceId()), eq(List.of(TASK_ID)), any())).thenReturn(1);
+            AtomicInteger stops = new AtomicInteger();
+            store.claim(TASK_ID);
+            store.onLeaseLost(TASK_ID, stops::incrementAndGet);
+
+            store.renewLeases();
+
+            assertThat(stops).hasValue(0);
+            verify(jobRepository, never()).findTaskIdsByLeaseOwner(any(), any());
+        }
+
+        @Test
+        @DisplayName("Снятый обработчик не вызывается")
+        void removedHandlerIsNotCalled() {
+            when(jobRepository.tryAcquireLease(eq(TASK_ID), eq(store.getInstanceId()), any(), any())).thenReturn(1);
+            when(jobRepository.renewLeases(eq(store.getInstanceId()), eq(List.of(TASK_ID)), any())).thenReturn(0);
+            when(jobRepository.findTaskIdsByLeaseOwner(store.getInstanceId(), List.of(TASK_ID))).thenReturn(List.of());
+            AtomicInteger stops = new AtomicInteger();
+            Runnable handler = stops::incrementAndGet;
+            store.claim(TASK_ID);
+            store.onLeaseLost(TASK_ID, handler);
+            store.removeLeaseLostHandler(TASK_ID, handler);
+
+            store.renewLeases();
+
+            assertThat(stops).hasValue(0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Изменение состояния")
+    class Mutation {
+
+        @Test
+        @DisplayName("Владелец аренды переводит задачу и продлевает аренду")
+        void ownerTransitionsJob() {
+            ImportJob job = job(store.getInstanceId(), ImportJob.State.QUEUED);
+            when(jobRepository.findById(TASK_ID)).thenReturn(Optional.of(job));
+            when(jobRepository.renewLeases(eq(store.getInstanceId()), eq(List.of(TASK_ID)), any())).thenReturn(1);
+
+            assertThat(store.transition(TASK_ID, ImportJob.State.IMPORTING, "импорт")).isTrue();
+
+            verify(jobRepository).save(job);
+            assertThat(job.getState()).isEqualTo(ImportJob.State.IMPORTING);
+            assertThat(job.getMessage()).isEqualTo("импорт");
+        }
+
+        @Test
+        @DisplayName("Задачу другого экземпляра не изменяет")
+        void foreignJobIsNotWritten() {
+            when(jobRepository.findById(TASK_ID)).thenReturn(Optional.of(job("other", ImportJob.State.IMPORTING)));
+
+            assertThat(store.transition(TASK_ID, ImportJob.State.FAILED, "ошибка")).isFalse();
+
+            verify(jobRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Если аренда перехвачена между чтением и записью, изменение не сохраняется")
+        void leaseLostBeforeWriteIsNotWritten() {
+            when(jobRepository.findById(TASK_ID)).thenReturn(Optional.of(job(store.getInstanceId(), ImportJob.State.IMPORTING)));
+            when(jobRepository.renewLeases(eq(store.getInstanceId()), eq(List.of(TASK_ID)), any())).thenReturn(0);
+
+            assertThat(store.transition(TASK_ID, ImportJob.State.COMPLETED, null)).isFalse();
+
+            verify(jobRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Завершение задачи освобождает аренду")
+        void terminalStateReleasesLease() {
+            when(jobRepository.findById(TASK_ID)).thenReturn(Optional.of(job(store.getInstanceId(), ImportJob.State.IMPORTING)));
+            when(jobRepository.renewLeases(eq(store.getInstanceId()), eq(List.of(TASK_ID)), any())).thenReturn(1);
+
+            assertThat(store.transition(TASK_ID, ImportJob.State.COMPLETED, null)).isTrue();
+
+            verify(jobRepository).releaseLease(TASK_ID, store.getInstanceId());
+        }
+
+        @Test
+        @DisplayName("Прогресс пишется с проверкой владельца и не чаще заданного интервала")
+        void progressIsFencedAndThrottled() {
+            store.recordProgress(TASK_ID, 10, "10%");
+            store.recordProgress(TASK_ID, 20, "20%");
+
+            verify(jobRepository, times(1))
+                .updateProgress(eq(TASK_ID), eq(store.getInstanceId()), eq(10), eq("10%"), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Контрольные точки глав")
+    class Checkpoints {
+
+        @Test
+        @DisplayName("Новая контрольная точка создается для главы")
+        void createsCheckpoint() {
+            when(chapterRepository.findByTaskIdAndChapterKey(TASK_ID, "ch-1")).thenReturn(Optional.empty());
+
+            store.checkpointChapter(TASK_ID, "ch-1", 42L, false);
+
+            ArgumentCaptor<ImportJobChapter> saved = ArgumentCaptor.forClass(ImportJobChapter.class);
+            verify(chapterRepository).save(saved.capture());
+            assertThat(saved.getValue().getTaskId()).isEqualTo(TASK_ID);
+            assertThat(saved.getValue().getChapterKey()).isEqualTo("ch-1");
+            assertThat(saved.getValue().getChapterId()).isEqualTo(42L);
+            assertThat(saved.getValue().isPagesImported()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Существующая контрольная точка отмечает загрузку страниц")
+        void updatesExistingCheckpoint() {
+            ImportJobChapter existing = new ImportJobChapter(TASK_ID, "ch-1");
+            existing.setChapterId(42L);
+            when(chapterRepository.findByTaskIdAndChapterKey(TASK_ID, "ch-1")).thenReturn(Optional.of(existing));
+
+            store.checkpointChapter(TASK_ID, "ch-1", 42L, true);
+
+            verify(chapterRepository).save(existing);
+            assertThat(existing.isPagesImported()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Контрольные точки возвращаются по ключу главы")
+        void readsCheckpointsByKey() {
+            ImportJobChapter first = new ImportJobChapter(TASK_ID, "ch-1");
+            ImportJobChapter second = new ImportJobChapter(TASK_ID, "ch-2");
+            when(chapterRepository.findByTaskId(TASK_ID)).thenReturn(List.of(first, second));
+
+            Map<String, ImportJobChapter> checkpoints = store.chapterCheckpoints(TASK_ID);
+
+            assertThat(checkpoints).containsOnly(entry("ch-1", first), entry("ch-2", second));
+        }
+
+        @Test
+        @DisplayName("Ошибка БД при чтении не прерывает импорт")
+        void readFailureReturnsEmpty() {
+            when(chapterRepository.findByTaskId(TASK_ID)).thenThrow(new IllegalStateException("db down"));
+
+            assertThat(store.chapterCheckpoints(TASK_ID)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package shadowshift.studio.mangaservice.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import shadowshift.studio.mangaservice.entity.ImportJob;
+import shadowshift.studio.mangaservice.websocket.ProgressWebSocketHandler;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImportTaskService Unit Tests")
+class ImportTaskServiceTest {
+
+    private static final String TASK_ID = "task-1";
+
+    @Mock private ProgressWebSocketHandler webSocketHandler;
+    @Mock private ImportJobStore importJobStore;
+
+    @InjectMocks private ImportTaskService importTaskService;
+
+    @Test
+    @DisplayName("Переход в IMPORTING записывается один раз, дальше сохраняется только прогресс")
+    void importingTransitionIsWrittenOnce() {
+        importTaskService.createTask(TASK_ID, "slug", null);
+
+        importTaskService.updateTask(TASK_ID, ImportTaskService.TaskStatus.IMPORTING_MANGA, 5, "Получение данных");
+        importTaskService.updateTask(TASK_ID, ImportTaskService.TaskStatus.IMPORTING_CHAPTERS, 20, "Импорт глав");
+        importTaskService.updateTask(TASK_ID, ImportTaskService.TaskStatus.IMPORTING_PAGES, 30, "Импорт страниц");
+
+        verify(importJobStore, times(1)).transition(TASK_ID, ImportJob.State.IMPORTING, null);
+        verify(importJobStore, times(3)).recordProgress(eq(TASK_ID), anyInt(), anyString());
+    }
+
+    @Test
+    @DisplayName("Повторно созданная задача снова записывает начало импорта")
+    void recreatedTaskTransitionsAgain() {
+        importTaskService.createTask(TASK_ID, "slug", null);
+        importTaskService.updateTask(TASK_ID, ImportTaskService.TaskStatus.IMPORTING_CHAPTERS, 20, "Импорт глав");
+        importTaskService.createTask(TASK_ID, "slug", null);
+        importTaskService.updateTask(TASK_ID, ImportTaskService.TaskStatus.IMPORTING_CHAPTERS, 20, "Импорт глав");
+
+        verify(importJobStore, times(2)).transition(TASK_ID, ImportJob.State.IMPORTING, null);
+    }
+
+    @Test
+    @DisplayName("Завершение записывается переходом состояния")
+    void completionIsTransition() {
+        importTaskService.createTask(TASK_ID, "slug", null);
+        importTaskService.updateTask(TASK_ID, ImportTaskService.TaskStatus.IMPORTING_CHAPTERS, 50, "Импорт глав");
+
+        importTaskService.markTaskCompleted(TASK_ID);
+
+        verify(importJobStore).transition(eq(TASK_ID), eq(ImportJob.State.COMPLETED), anyString());
+    }
+}
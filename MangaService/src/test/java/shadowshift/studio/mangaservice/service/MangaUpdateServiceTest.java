@@ -0,0 +1,202 @@
+package shadowshift.studio.mangaservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import shadowshift.studio.mangaservice.entity.Manga;
+import shadowshift.studio.mangaservice.entity.MangaUpdateState;
+import shadowshift.studio.mangaservice.repository.MangaRepository;
+import shadowshift.studio.mangaservice.repository.MangaUpdateStateRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MangaUpdateService Unit Tests")
+class MangaUpdateServiceTest {
+
+    private static final long MANGA_ID = 7L;
+    private static final String SLUG = "one-piece";
+
+    @Mock private MangaRepository mangaRepository;
+    @Mock private MangaUpdateStateRepository updateStateRepository;
+    @Mock private MelonIntegrationService melonService;
+    @Mock private RestTemplate restTemplate;
+    @Mock private ApplicationContext applicationContext;
+
+    @InjectMocks private MangaUpdateService updateService;
+
+    private final List<Map<String, Object>> chapters = List.of(
+        Map.of("id", 101, "volume", 1, "number", "1", "slides_count", 20),
+        Map.of("id", 102, "volume", 1, "number", "2", "slides_count", 18));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(updateService, "chapterServiceUrl", "http://chapter");
+        ReflectionTestUtils.setField(updateService, "autoUpdateParallelism", 2);
+        ReflectionTestUtils.setField(updateService, "sourceMaxConcurrency", 1);
+        ReflectionTestUtils.setField(updateService, "sourceMinIntervalMs", 0L);
+    }
+
+    @Test
+    @DisplayName("Тайтл с неизменным отпечатком списка глав не сверяется с главами в базе")
+    void unchangedFingerprintSkipsChapterComparison() {
+        MangaUpdateState state = new MangaUpdateState(MANGA_ID, "mangalib");
+        state.setChaptersFingerprint(fingerprint(chapters));
+        givenMangaOnSource(state);
+
+        Map<String, Object> status = runAutoUpdate();
+
+        assertThat(status)
+            .containsEntry("status", "completed")
+            .containsEntry("unchanged_mangas", 1)
+            .containsEntry("new_chapters_count", 0);
+        verifyNoInteractions(restTemplate);
+        verify(melonService, times(1)).getChaptersMetadataWithSlidesCount(SLUG, true, true);
+        // Проверка все равно учитывается в частоте обновлений
+        verify(updateStateRepository).save(state);
+        assertThat(state.getChecksCount()).isEqualTo(1);
+        assertThat(state.getChangesCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Изменившийся отпечаток приводит к сверке с главами в базе")
+    void changedFingerprintComparesChapters() {
+        MangaUpdateState state = new MangaUpdateState(MANGA_ID, "mangalib");
+        state.setChaptersFingerprint(fingerprint(chapters.subList(0, 1)));
+        givenMangaOnSource(state);
+
+        Map<String, Object> status = runAutoUpdate();
+
+        assertThat(status).containsEntry("unchanged_mangas", 0);
+        verify(restTemplate).getForEntity("http://chapter/api/chapters/manga/" + MANGA_ID, List.class);
+    }
+
+    @Test
+    @DisplayName("Отпечаток не зависит от порядка глав и меняется вместе с числом страниц")
+    void fingerprintIgnoresOrderAndTracksSlides() {
+        List<Map<String, Object>> reversed = List.of(chapters.get(1), chapters.get(0));
+        List<Map<String, Object>> withNewSlides = List.of(chapters.get(0),
+            Map.of("id", 102, "volume", 1, "number", "2", "slides_count", 19));
+
+        assertThat(fingerprint(reversed)).isEqualTo(fingerprint(chapters));
+        assertThat(fingerprint(withNewSlides)).isNotEqualTo(fingerprint(chapters));
+    }
+
+    @Test
+    @DisplayName("Старты проверок одного источника разнесены не меньше чем на минимальный интервал")
+    void sourceLimiterSpacesStarts() throws Exception {
+        MangaUpdateService.SourceLimiter limiter = new MangaUpdateService.SourceLimiter(3, 100);
+        List<Long> starts = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire();
+            starts.add(System.nanoTime());
+            limiter.release();
+        }
+
+        for (int i = 1; i < starts.size(); i++) {
+            assertThat(TimeUnit.NANOSECONDS.toMillis(starts.get(i) - starts.get(i - 1)))
+                .as("интервал перед стартом %d", i)
+                .isGreaterThanOrEqualTo(95);
+        }
+    }
+
+    @Test
+    @DisplayName("Одновременно к источнику идет не больше maxConcurrent проверок")
+    void sourceLimiterBoundsConcurrency() throws Exception {
+        MangaUpdateService.SourceLimiter limiter = new MangaUpdateService.SourceLimiter(1, 0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            limiter.acquire();
+            CountDownLatch started = new CountDownLatch(1);
+            AtomicBoolean acquired = new AtomicBoolean();
+            Future<?> second = executor.submit(() -> {
+                started.countDown();
+                limiter.acquire();
+                acquired.set(true);
+                limiter.release();
+                return null;
+            });
+
+            started.await();
+            Thread.sleep(100);
+            assertThat(acquired).isFalse();
+
+            limiter.release();
+            second.get(5, TimeUnit.SECONDS);
+            assertThat(acquired).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Прерванное ожидание интервала возвращает разрешение")
+    void interruptedWaitReleasesPermit() throws Exception {
+        MangaUpdateService.SourceLimiter limiter = new MangaUpdateService.SourceLimiter(1, 10_000);
+        limiter.acquire();
+        limiter.release();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Второй старт ждет интервал, удерживая единственное разрешение
+            Future<?> waiting = executor.submit(() -> {
+                limiter.acquire();
+                return null;
+            });
+            Semaphore permits = (Semaphore) ReflectionTestUtils.getField(limiter, "permits");
+            while (permits.availablePermits() > 0) {
+                Thread.sleep(10);
+            }
+
+            waiting.cancel(true);
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(permits.availablePermits()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void givenMangaOnSource(MangaUpdateState state) {
+        Manga manga = new Manga();
+        manga.setId(MANGA_ID);
+        manga.setTitle("One Piece");
+        manga.setMelonSlug(SLUG);
+        when(mangaRepository.findAll()).thenReturn(List.of(manga));
+        when(updateStateRepository.findAllById(List.of(MANGA_ID))).thenReturn(List.of(state));
+        when(applicationContext.getBean(MangaUpdateService.class)).thenReturn(updateService);
+        when(melonService.buildSlugForMangaLibApi(SLUG, null)).thenReturn(SLUG);
+        when(melonService.getChaptersMetadataWithSlidesCount(SLUG, true, true))
+            .thenReturn(Map.of("success", true, "chapters", chapters));
+    }
+
+    private Map<String, Object> runAutoUpdate() {
+        String taskId = (String) updateService.startAutoUpdate().get("task_id");
+        return updateService.getUpdateTaskStatus(taskId);
+    }
+
+    private String fingerprint(List<Map<String, Object>> list) {
+        return ReflectionTestUtils.invokeMethod(updateService, "computeChaptersFingerprint", list);
+    }
+}
@@ -0,0 +1,100 @@
+package shadowshift.studio.mangaservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ParserTaskEventService Unit Tests")
+class ParserTaskEventServiceTest {
+
+    private ParserTaskEventService eventService;
+
+    @BeforeEach
+    void setUp() {
+        eventService = new ParserTaskEventService();
+    }
+
+    @Test
+    @DisplayName("Событие о завершении, пришедшее до подписки, завершает ожидание сразу")
+    void terminalEventBeforeSubscriptionCompletesWait() {
+        eventService.handleEvents(List.of(Map.of("taskId", "task-1", "status", "COMPLETED", "progress", 100)));
+
+        ParserTaskEventService.Subscription subscription = eventService.subscribe("task-1", null);
+
+        assertThat(subscription.getCompletion()).isCompleted();
+        assertThat(subscription.getCompletion().join())
+            .containsEntry("status", "completed")
+            .containsEntry("progress", 100)
+            .containsEntry("message", "");
+        assertThat(subscription.isEventsReceived()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Логи доставляются подписчику, ожидание завершается терминальным событием")
+    void logsAreDeliveredUntilTerminalEvent() {
+        List<String> lines = new ArrayList<>();
+        ParserTaskEventService.Subscription subscription = eventService.subscribe("task-2", lines::add);
+
+        eventService.handleEvents(List.of(Map.of("taskId", "task-2", "status", "running", "logs", List.of("a", "b"))));
+
+        assertThat(lines).containsExactly("a", "b");
+        assertThat(subscription.isEventsReceived()).isTrue();
+        assertThat(subscription.getCompletion()).isNotDone();
+
+        eventService.handleEvents(List.of(Map.of("taskId", "task-2", "status", "failed", "message", "boom")));
+
+        assertThat(subscription.getCompletion().join())
+            .containsEntry("status", "failed")
+            .containsEntry("message", "boom");
+    }
+
+    @Test
+    @DisplayName("События без taskId пропускаются")
+    void eventsWithoutTaskIdAreSkipped() {
+        int handled = eventService.handleEvents(List.of(
+            Map.of("status", "completed"),
+            Map.of("taskId", "task-3", "status", "running")));
+
+        assertThat(handled).isEqualTo(1);
+        assertThat(eventService.subscribe("task-3", null).getCompletion()).isNotDone();
+    }
+
+    @Test
+    @DisplayName("Подписка, гонящаяся с событием о завершении, не теряет результат")
+    void subscriptionRacingTerminalEventIsCompleted() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 500; i++) {
+                String taskId = "race-" + i;
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> publisher = executor.submit(() -> {
+                    start.await();
+                    return eventService.handleEvents(List.of(Map.of("taskId", taskId, "status", "completed")));
+                });
+                Future<ParserTaskEventService.Subscription> subscriber = executor.submit(() -> {
+                    start.await();
+                    return eventService.subscribe(taskId, null);
+                });
+                start.countDown();
+                publisher.get(5, TimeUnit.SECONDS);
+
+                assertThat(subscriber.get(5, TimeUnit.SECONDS).getCompletion())
+                    .as("ожидание задачи %s", taskId)
+                    .isCompleted();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
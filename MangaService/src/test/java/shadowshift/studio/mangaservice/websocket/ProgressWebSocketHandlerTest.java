@@ -0,0 +1,173 @@
+package shadowshift.studio.mangaservice.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ProgressWebSocketHandler Unit Tests")
+class ProgressWebSocketHandlerTest {
+
+    private static final String TASK_ID = "task-1";
+    private static final long SEND_INTERVAL_MS = 300;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ProgressWebSocketHandler handler;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        handler = new ProgressWebSocketHandler();
+        ReflectionTestUtils.setField(handler, "minSendIntervalMs", SEND_INTERVAL_MS);
+        ReflectionTestUtils.setField(handler, "maxQueuedMessages", 2);
+
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("session-1");
+        when(session.isOpen()).thenReturn(true);
+        handler.subscribeToTask(session, TASK_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        handler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Прогресс, накопившийся между отправками, схлопывается до последнего состояния")
+    void progressIsCoalescedBetweenFlushes() throws Exception {
+        sendProgress(1);
+        verify(session, timeout(2000)).sendMessage(any());
+
+        // Пока не прошел интервал отправки, состояния копятся и заменяют друг друга
+        for (int progress = 2; progress <= 5; progress++) {
+            sendProgress(progress);
+        }
+
+        assertThat(progressValues(sentMessages(2))).containsExactly(1, 5);
+        Thread.sleep(SEND_INTERVAL_MS * 2);
+        verify(session, times(2)).sendMessage(any());
+    }
+
+    @Test
+    @DisplayName("Логи не схлопываются и уходят раньше прогресса в порядке отправки")
+    void logsKeepOrderAndPrecedeProgress() throws Exception {
+        sendProgress(1);
+        verify(session, timeout(2000)).sendMessage(any());
+
+        handler.sendLogMessage(TASK_ID, "INFO", "first");
+        sendProgress(2);
+        handler.sendLogMessage(TASK_ID, "INFO", "second");
+
+        List<Map<String, Object>> batch = sentMessages(4).subList(1, 4);
+        assertThat(batch).extracting(message -> message.get("type")).containsExactly("log", "log", "progress");
+        assertThat(batch).extracting(message -> message.get("message")).containsExactly("first", "second", null);
+    }
+
+    @Test
+    @DisplayName("Очередь медленной сессии ограничена, старые логи отбрасываются")
+    void slowSessionQueueIsBounded() throws Exception {
+        sendProgress(1);
+        verify(session, timeout(2000)).sendMessage(any());
+
+        for (int i = 1; i <= 5; i++) {
+            handler.sendLogMessage(TASK_ID, "INFO", "line " + i);
+        }
+
+        assertThat(sentMessages(3).subList(1, 3)).extracting(message -> message.get("message"))
+            .containsExactly("line 4", "line 5");
+        Thread.sleep(SEND_INTERVAL_MS * 2);
+        verify(session, times(3)).sendMessage(any());
+    }
+
+    @Test
+    @DisplayName("Зависшая запись в сокет не блокирует отправителя")
+    void stuckSocketDoesNotBlockCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(session).sendMessage(any());
+
+        try {
+            sendProgress(1);
+            verify(session, timeout(2000)).sendMessage(any());
+
+            long started = System.nanoTime();
+            for (int progress = 2; progress <= 100; progress++) {
+                sendProgress(progress);
+            }
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1000);
+        } finally {
+            release.countDown();
+        }
+
+        // После разблокировки уходит только последнее состояние
+        assertThat(progressValues(sentMessages(2))).containsExactly(1, 100);
+    }
+
+    @Test
+    @DisplayName("Закрытая сессия больше не получает сообщений")
+    void closedSessionReceivesNothing() throws Exception {
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        sendProgress(1);
+        handler.sendLogMessage(TASK_ID, "INFO", "ignored");
+
+        Thread.sleep(SEND_INTERVAL_MS);
+        verify(session, never()).sendMessage(any());
+    }
+
+    @Test
+    @DisplayName("Отписанная от задачи сессия не получает ее прогресс")
+    void unsubscribedSessionReceivesNothing() throws Exception {
+        handler.unsubscribeFromTask(session, TASK_ID);
+
+        sendProgress(1);
+
+        Thread.sleep(SEND_INTERVAL_MS);
+        verify(session, never()).sendMessage(any());
+    }
+
+    private void sendProgress(int progress) {
+        handler.sendProgressUpdate(TASK_ID, Map.of("progress", progress));
+    }
+
+    /** Ждет указанное число отправок и возвращает их разобранными в порядке отправки */
+    private List<Map<String, Object>> sentMessages(int count) throws Exception {
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, timeout(2000).times(count)).sendMessage(captor.capture());
+        return captor.getAllValues().stream().map(this::parse).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parse(TextMessage message) {
+        try {
+            return objectMapper.readValue(message.getPayload(), Map.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> progressValues(List<Map<String, Object>> messages) {
+        return messages.stream()
+            .map(message -> ((Map<String, Object>) message.get("data")).get("progress"))
+            .toList();
+    }
+}
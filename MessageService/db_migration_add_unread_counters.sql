@@ -0,0 +1,23 @@
+-- Migration: per-participant unread counters and last message pointer on conversations
+-- Maintained by MessagingService.sendMessage / markConversationRead; this backfills existing data
+-- Compatible with PostgreSQL
+
+ALTER TABLE conversation_participants ADD COLUMN IF NOT EXISTS unread_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE conversations ADD COLUMN IF NOT EXISTS last_message_id UUID REFERENCES messages(id) ON DELETE SET NULL;
+
+UPDATE conversations c
+SET last_message_id = (
+    SELECT m.id FROM messages m
+    WHERE m.conversation_id = c.id AND m.deleted_at IS NULL
+    ORDER BY m.created_at DESC, m.id DESC
+    LIMIT 1
+);
+
+UPDATE conversation_participants p
+SET unread_count = (
+    SELECT COUNT(*) FROM messages m
+    WHERE m.conversation_id = p.conversation_id
+      AND m.deleted_at IS NULL
+      AND m.sender_id <> p.user_id
+      AND m.created_at > COALESCE(p.last_read_at, p.joined_at)
+);
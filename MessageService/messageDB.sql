@@ -33,6 +33,7 @@ CREATE TABLE IF NOT EXISTS conversation_participants (
     last_read_message_id UUID,
     last_read_at         TIMESTAMP WITH TIME ZONE,
     muted                BOOLEAN NOT NULL DEFAULT FALSE,
+    unread_count         INTEGER NOT NULL DEFAULT 0,
     CONSTRAINT uk_conversation_participants_conversation_user UNIQUE (conversation_id, user_id)
 );
 
@@ -55,6 +56,9 @@ CREATE TABLE IF NOT EXISTS messages (
 CREATE INDEX IF NOT EXISTS idx_messages_conversation_created_at ON messages(conversation_id, created_at DESC);
 CREATE INDEX IF NOT EXISTS idx_messages_sender_created_at ON messages(sender_id, created_at DESC);
 
+-- Указатель на последнее сообщение диалога (messages создается после conversations)
+ALTER TABLE conversations ADD COLUMN IF NOT EXISTS last_message_id UUID REFERENCES messages(id) ON DELETE SET NULL;
+
 CREATE TABLE IF NOT EXISTS channel_read_markers (
     category_id          BIGINT NOT NULL REFERENCES chat_categories(id) ON DELETE CASCADE,
     user_id              BIGINT NOT NULL,
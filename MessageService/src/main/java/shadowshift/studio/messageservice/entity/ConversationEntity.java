@@ -56,6 +56,10 @@ public class ConversationEntity {
     @Column(name = "last_message_at")
     private LocalDateTime lastMessageAt;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_message_id")
+    private MessageEntity lastMessage;
+
     @OneToMany(mappedBy = "conversation", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private Set<ConversationParticipantEntity> participants = new LinkedHashSet<>();
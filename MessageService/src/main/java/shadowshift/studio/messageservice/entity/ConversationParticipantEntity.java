@@ -55,6 +55,10 @@ public class ConversationParticipantEntity {
     @Builder.Default
     private boolean muted = false;
 
+    @Column(name = "unread_count", nullable = false)
+    @Builder.Default
+    private int unreadCount = 0;
+
     @PrePersist
     public void prePersist() {
         if (this.joinedAt == null) {
@@ -1,11 +1,16 @@
 package shadowshift.studio.messageservice.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import shadowshift.studio.messageservice.entity.ConversationEntity;
 import shadowshift.studio.messageservice.entity.ConversationParticipantEntity;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 public interface ConversationParticipantRepository extends JpaRepository<ConversationParticipantEntity, Long> {
 
@@ -14,4 +19,37 @@ public interface ConversationParticipantRepository extends JpaRepository<Convers
     List<ConversationParticipantEntity> findByConversation(ConversationEntity conversation);
 
     List<ConversationParticipantEntity> findByUserId(Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update ConversationParticipantEntity p
+            set p.unreadCount = p.unreadCount + 1
+            where p.conversation.id = :conversationId and p.userId <> :senderId
+            """)
+    int incrementUnread(@Param("conversationId") UUID conversationId, @Param("senderId") Long senderId);
+
+    /**
+     * Сдвигает отметку прочтения участника и пересчитывает его счетчик непрочитанных одним UPDATE.
+     * Сохранение всей сущности затерло бы параллельный {@link #incrementUnread}.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            update conversation_participants p
+            set last_read_message_id = :messageId,
+                last_read_at = :readAt,
+                unread_count = (
+                    select count(*) from messages m
+                    where m.conversation_id = p.conversation_id
+                      and m.deleted_at is null
+                      and m.sender_id <> p.user_id
+                      and m.created_at > :readAt)
+            where p.conversation_id = :conversationId and p.user_id = :userId
+            """, nativeQuery = true)
+    int markRead(@Param("conversationId") UUID conversationId,
+                 @Param("userId") Long userId,
+                 @Param("messageId") UUID messageId,
+                 @Param("readAt") LocalDateTime readAt);
+
+    @Query("select coalesce(sum(p.unreadCount), 0L) from ConversationParticipantEntity p where p.userId = :userId")
+    long sumUnreadByUserId(@Param("userId") Long userId);
 }
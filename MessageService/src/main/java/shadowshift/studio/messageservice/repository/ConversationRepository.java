@@ -14,7 +14,7 @@ import java.util.UUID;
 
 public interface ConversationRepository extends JpaRepository<ConversationEntity, UUID> {
 
-    @EntityGraph(attributePaths = {"participants"})
+    @EntityGraph(attributePaths = {"participants", "lastMessage"})
     @Query("select c from ConversationEntity c join c.participants p where p.userId = :userId")
     Page<ConversationEntity> findAllByParticipant(@Param("userId") Long userId, Pageable pageable);
 
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import shadowshift.studio.messageservice.entity.MessageEntity;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -41,6 +42,19 @@ public interface MessageRepository extends JpaRepository<MessageEntity, UUID> {
 
         Optional<MessageEntity> findByIdAndConversationId(UUID id, UUID conversationId);
 
+        @Query("""
+                select c.category.id, count(m) from MessageEntity m
+                join m.conversation c
+                left join ChannelReadMarkerEntity r on r.id.categoryId = c.category.id and r.id.userId = :userId
+                where c.category.id in :categoryIds
+                  and m.deletedAt is null
+                  and m.senderId <> :userId
+                  and m.createdAt > coalesce(r.lastReadAt, c.createdAt)
+                group by c.category.id
+                """)
+        List<Object[]> countUnreadByCategory(@Param("userId") Long userId,
+                                             @Param("categoryIds") Collection<Long> categoryIds);
+
         long countByConversationIdAndDeletedAtIsNullAndSenderIdNotAndCreatedAtAfter(UUID conversationId,
                                                                                                                                                                 Long senderId,
                                                                                                                                                                 LocalDateTime after);
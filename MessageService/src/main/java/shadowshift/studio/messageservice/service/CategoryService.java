@@ -32,7 +32,6 @@ import shadowshift.studio.messageservice.repository.ConversationRepository;
 import shadowshift.studio.messageservice.repository.MessageRepository;
 
 import java.text.Normalizer;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -70,16 +69,10 @@ public class CategoryService {
             return List.of();
         }
 
-    Map<Long, ChannelReadMarkerEntity> markers = userId != null
-        ? channelReadMarkerRepository.findByIdUserId(userId).stream()
-            .collect(HashMap::new, (map, marker) -> map.put(marker.getId().getCategoryId(), marker), Map::putAll)
-                : Collections.emptyMap();
-
-        Map<Long, ConversationEntity> conversationsByCategory = loadCategoryConversations(categories);
+        Map<Long, Long> unread = userId != null ? countUnread(userId, categories) : Collections.emptyMap();
 
         return categories.stream()
-                .map(category -> mapper.toCategoryView(category,
-                        userId != null ? computeUnread(category, conversationsByCategory.get(category.getId()), markers.get(category.getId()), userId) : 0))
+                .map(category -> mapper.toCategoryView(category, unread.getOrDefault(category.getId(), 0L)))
                 .toList();
     }
 
@@ -165,6 +158,7 @@ public class CategoryService {
 
         MessageEntity saved = messageRepository.save(message);
         conversation.setLastMessageAt(saved.getCreatedAt());
+        conversation.setLastMessage(saved);
 
         upsertReadMarker(category, userId, saved);
 
@@ -196,13 +190,10 @@ public class CategoryService {
         if (categories.isEmpty()) {
             return Map.of();
         }
-        Map<Long, ChannelReadMarkerEntity> markers = channelReadMarkerRepository.findByIdUserId(userId).stream()
-                .collect(HashMap::new, (map, marker) -> map.put(marker.getId().getCategoryId(), marker), Map::putAll);
-        Map<Long, ConversationEntity> conversations = loadCategoryConversations(categories);
+        Map<Long, Long> unread = countUnread(userId, categories);
         Map<Long, Long> result = new HashMap<>();
         for (ChatCategoryEntity category : categories) {
-            long unread = computeUnread(category, conversations.get(category.getId()), markers.get(category.getId()), userId);
-            result.put(category.getId(), unread);
+            result.put(category.getId(), unread.getOrDefault(category.getId(), 0L));
         }
         return result;
     }
@@ -224,18 +215,16 @@ public class CategoryService {
         channelReadMarkerRepository.save(marker);
     }
 
-    private Map<Long, ConversationEntity> loadCategoryConversations(List<ChatCategoryEntity> categories) {
+    /**
+     * Непрочитанные по всем категориям одним агрегирующим запросом (категории без сообщений в результат не попадают).
+     */
+    private Map<Long, Long> countUnread(Long userId, List<ChatCategoryEntity> categories) {
         List<Long> ids = categories.stream().map(ChatCategoryEntity::getId).toList();
-        List<ConversationEntity> conversations = ids.isEmpty() ? List.of()
-                : conversationRepository.findAllByCategoryIds(ids);
-        Map<Long, ConversationEntity> map = new HashMap<>();
-        for (ConversationEntity conversation : conversations) {
-            map.put(conversation.getCategory().getId(), conversation);
-        }
-        for (ChatCategoryEntity category : categories) {
-            map.computeIfAbsent(category.getId(), id -> ensureCategoryConversation(category));
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : messageRepository.countUnreadByCategory(userId, ids)) {
+            counts.put((Long) row[0], (Long) row[1]);
         }
-        return map;
+        return counts;
     }
 
     private ConversationEntity ensureCategoryConversation(ChatCategoryEntity category) {
@@ -250,22 +239,6 @@ public class CategoryService {
         return conversationRepository.save(conversation);
     }
 
-    private long computeUnread(ChatCategoryEntity category,
-                               ConversationEntity conversation,
-                               ChannelReadMarkerEntity marker,
-                               Long userId) {
-        if (conversation == null || userId == null) {
-            return 0;
-        }
-        LocalDateTime lastRead = marker != null && marker.getLastReadAt() != null
-                ? marker.getLastReadAt()
-                : conversation.getCreatedAt();
-        return messageRepository.countByConversationIdAndDeletedAtIsNullAndSenderIdNotAndCreatedAtAfter(
-                conversation.getId(),
-                userId,
-                lastRead != null ? lastRead : conversation.getCreatedAt());
-    }
-
     private void ensureSlugUnique(String slug) {
         chatCategoryRepository.findBySlugIgnoreCase(slug)
                 .ifPresent(existing -> { throw new CategorySlugAlreadyExistsException(slug); });
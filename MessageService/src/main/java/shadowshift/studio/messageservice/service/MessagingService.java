@@ -26,7 +26,6 @@ import shadowshift.studio.messageservice.repository.ConversationParticipantRepos
 import shadowshift.studio.messageservice.repository.ConversationRepository;
 import shadowshift.studio.messageservice.repository.MessageRepository;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -67,9 +66,7 @@ public class MessagingService {
 
     @Transactional(readOnly = true)
     public long getDirectUnreadCount(Long userId) {
-        return conversationRepository.findAllByParticipant(userId).stream()
-                .mapToLong(conversation -> computeUnread(conversation, resolveParticipant(conversation, userId)))
-                .sum();
+        return participantRepository.sumUnreadByUserId(userId);
     }
 
     @Transactional(readOnly = true)
@@ -106,16 +103,11 @@ public class MessagingService {
 
         MessageEntity saved = messageRepository.save(message);
         conversation.setLastMessageAt(saved.getCreatedAt());
+        conversation.setLastMessage(saved);
+        participantRepository.incrementUnread(conversation.getId(), userId);
+        participantRepository.markRead(conversation.getId(), userId, saved.getId(), saved.getCreatedAt());
 
         List<ConversationParticipantEntity> participants = new ArrayList<>(conversation.getParticipants());
-        participants.stream()
-                .filter(participant -> Objects.equals(participant.getUserId(), userId))
-                .findFirst()
-                .ifPresent(participant -> {
-                    participant.setLastReadAt(saved.getCreatedAt());
-                    participant.setLastReadMessageId(saved.getId());
-                    participantRepository.save(participant);
-                });
 
         participants.stream()
                 .filter(participant -> !Objects.equals(participant.getUserId(), userId))
@@ -141,17 +133,13 @@ public class MessagingService {
 
     public void markConversationRead(Long userId, UUID conversationId, MarkConversationReadRequest request) {
         ConversationEntity conversation = requireConversationForUser(conversationId, userId);
-        ConversationParticipantEntity participant = conversation.getParticipants().stream()
-                .filter(p -> Objects.equals(p.getUserId(), userId))
-                .findFirst()
-                .orElseThrow(() -> new ConversationAccessDeniedException(conversationId));
-
         MessageEntity message = messageRepository.findByIdAndConversationId(request.lastMessageId(), conversation.getId())
                 .orElseThrow(() -> new MessageNotFoundException(request.lastMessageId()));
 
-        participant.setLastReadAt(message.getCreatedAt());
-        participant.setLastReadMessageId(message.getId());
-        participantRepository.save(participant);
+        // Пересчет и сброс одним UPDATE: сообщения, пришедшие между подсчетом и записью, не теряются
+        if (participantRepository.markRead(conversation.getId(), userId, message.getId(), message.getCreatedAt()) == 0) {
+            throw new ConversationAccessDeniedException(conversationId);
+        }
     }
 
     private ConversationEntity createConversation(Long requesterId, Long targetUserId) {
@@ -176,11 +164,7 @@ public class MessagingService {
 
     private ConversationView mapConversation(ConversationEntity conversation, Long userId) {
         ConversationParticipantEntity participant = resolveParticipant(conversation, userId);
-        long unread = computeUnread(conversation, participant);
-        MessageEntity lastMessage = messageRepository.findRecentMessages(conversation.getId(),
-                PageRequest.of(0, 1)).getContent().stream().findFirst().orElse(null);
-
-        return mapper.toConversationView(conversation, unread, lastMessage);
+        return mapper.toConversationView(conversation, participant.getUnreadCount(), conversation.getLastMessage());
     }
 
     private ConversationParticipantEntity resolveParticipant(ConversationEntity conversation, Long userId) {
@@ -190,16 +174,6 @@ public class MessagingService {
                 .orElseThrow(() -> new ConversationAccessDeniedException(conversation.getId()));
     }
 
-    private long computeUnread(ConversationEntity conversation, ConversationParticipantEntity participant) {
-        LocalDateTime lastRead = participant.getLastReadAt() != null
-                ? participant.getLastReadAt()
-                : participant.getJoinedAt();
-        return messageRepository.countByConversationIdAndDeletedAtIsNullAndSenderIdNotAndCreatedAtAfter(
-                conversation.getId(),
-                participant.getUserId(),
-                lastRead);
-    }
-
     private ConversationEntity requireConversationForUser(UUID conversationId, Long userId) {
         ConversationEntity conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new ConversationNotFoundException(conversationId));
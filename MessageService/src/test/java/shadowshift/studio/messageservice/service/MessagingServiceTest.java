@@ -137,4 +137,25 @@ class MessagingServiceTest {
 
         assertThat(messagingService.getDirectUnreadCount(7L)).isZero();
     }
+
+    @Test
+    void listConversationsShouldExposeLastMessageAndStoredUnread() {
+        ConversationView conversation = messagingService.createOrGetPrivateConversation(31L, 32L);
+        messagingService.sendMessage(32L, conversation.id(), new SendMessageRequest("первое", null));
+        MessageView second = messagingService.sendMessage(32L, conversation.id(), new SendMessageRequest("второе", null));
+        MessageView reply = messagingService.sendMessage(31L, conversation.id(), new SendMessageRequest("ответ", null));
+
+        ConversationView forReceiver = messagingService.listConversations(32L, 0, 10).get(0);
+        assertThat(forReceiver.lastMessage().id()).isEqualTo(reply.id());
+        assertThat(forReceiver.unreadCount()).isEqualTo(1);
+
+        ConversationView forSender = messagingService.listConversations(31L, 0, 10).get(0);
+        assertThat(forSender.unreadCount()).isZero();
+
+        messagingService.markConversationRead(32L, conversation.id(), new MarkConversationReadRequest(second.id()));
+        assertThat(messagingService.getDirectUnreadCount(32L)).isEqualTo(1);
+
+        messagingService.markConversationRead(32L, conversation.id(), new MarkConversationReadRequest(reply.id()));
+        assertThat(messagingService.getDirectUnreadCount(32L)).isZero();
+    }
 }
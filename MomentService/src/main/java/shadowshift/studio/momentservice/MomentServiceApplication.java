@@ -3,10 +3,12 @@ package shadowshift.studio.momentservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import shadowshift.studio.momentservice.config.MomentRateLimitProperties;
 
 @SpringBootApplication
 @EnableConfigurationProperties(MomentRateLimitProperties.class)
+@EnableScheduling
 public class MomentServiceApplication {
 
     public static void main(String[] args) {
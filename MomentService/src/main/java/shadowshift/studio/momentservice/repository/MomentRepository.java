@@ -4,6 +4,7 @@ import java.time.Instant;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -22,4 +23,62 @@ public interface MomentRepository extends JpaRepository<Moment, Long> {
 
     @Query("select coalesce(sum(m.fileSize), 0) from Moment m where m.uploaderId = :uploaderId and m.createdAt >= :createdAfter")
     long sumFileSizeByUploaderIdSince(@Param("uploaderId") Long uploaderId, @Param("createdAfter") Instant createdAfter);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update manga_moments set likes_count = likes_count + :likesDelta, dislikes_count = dislikes_count + :dislikesDelta, " +
+        "likes_count_7d = likes_count_7d + :likesWindowDelta, " +
+        "last_activity_at = case when :touchActivity then now() else last_activity_at end, updated_at = now() " +
+        "where id = :momentId", nativeQuery = true)
+    int applyReactionDelta(@Param("momentId") Long momentId,
+                           @Param("likesDelta") int likesDelta,
+                           @Param("dislikesDelta") int dislikesDelta,
+                           @Param("likesWindowDelta") int likesWindowDelta,
+                           @Param("touchActivity") boolean touchActivity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update manga_moments set comments_count = :count, comments_count_7d = comments_count_7d + :windowDelta, " +
+        "last_activity_at = :lastActivityAt, updated_at = now() where id = :momentId", nativeQuery = true)
+    int applyCommentStats(@Param("momentId") Long momentId,
+                          @Param("count") int count,
+                          @Param("windowDelta") int windowDelta,
+                          @Param("lastActivityAt") Instant lastActivityAt);
+
+    @Modifying
+    @Query(value = "insert into manga_moment_activity_buckets (moment_id, bucket_start, likes, comments) " +
+        "values (:momentId, :bucketStart, :likes, :comments) " +
+        "on conflict (moment_id, bucket_start) do update set likes = manga_moment_activity_buckets.likes + excluded.likes, " +
+        "comments = manga_moment_activity_buckets.comments + excluded.comments", nativeQuery = true)
+    int addActivity(@Param("momentId") Long momentId,
+                    @Param("bucketStart") Instant bucketStart,
+                    @Param("likes") int likes,
+                    @Param("comments") int comments);
+
+    /**
+     * Takes up to {@code removed} comments out of the moment's buckets that are still inside the window,
+     * newest first, so neither a bucket nor the 7d counter can drop below zero.
+     *
+     * @return number of comments actually taken out of the window
+     */
+    @Query(value = "with candidates as (select bucket_start, comments, " +
+        "sum(comments) over (order by bucket_start desc) - comments as taken_before " +
+        "from manga_moment_activity_buckets where moment_id = :momentId and bucket_start >= :cutoff and comments > 0), " +
+        "taken as (update manga_moment_activity_buckets b " +
+        "set comments = b.comments - least(c.comments, :removed - c.taken_before) " +
+        "from candidates c where b.moment_id = :momentId and b.bucket_start = c.bucket_start and c.taken_before < :removed " +
+        "returning least(c.comments, :removed - c.taken_before) as take) " +
+        "select cast(coalesce(sum(take), 0) as integer) from taken", nativeQuery = true)
+    int removeWindowComments(@Param("momentId") Long momentId,
+                             @Param("cutoff") Instant cutoff,
+                             @Param("removed") int removed);
+
+    /**
+     * Removes buckets that left the window and subtracts their tallies from the 7d counters in one statement.
+     */
+    @Modifying
+    @Query(value = "with expired as (delete from manga_moment_activity_buckets where bucket_start < :cutoff " +
+        "returning moment_id, likes, comments), " +
+        "totals as (select moment_id, sum(likes) as likes, sum(comments) as comments from expired group by moment_id) " +
+        "update manga_moments m set likes_count_7d = m.likes_count_7d - t.likes, comments_count_7d = m.comments_count_7d - t.comments " +
+        "from totals t where m.id = t.moment_id", nativeQuery = true)
+    int rollExpiredActivity(@Param("cutoff") Instant cutoff);
 }
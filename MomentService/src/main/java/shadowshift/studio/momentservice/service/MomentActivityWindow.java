@@ -0,0 +1,92 @@
+package shadowshift.studio.momentservice.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import shadowshift.studio.momentservice.repository.MomentRepository;
+
+/**
+ * Maintains the rolling 7-day like/comment counters used by the popular/active sorts.
+ * Activity is tallied in hourly buckets; a scheduled job drops buckets that left the window
+ * and subtracts them from the counters in bulk.
+ */
+@Component
+public class MomentActivityWindow {
+
+    private static final Logger log = LoggerFactory.getLogger(MomentActivityWindow.class);
+
+    static final Duration WINDOW = Duration.ofDays(7);
+
+    private final MomentRepository momentRepository;
+
+    public MomentActivityWindow(MomentRepository momentRepository) {
+        this.momentRepository = momentRepository;
+    }
+
+    /**
+     * @return delta to apply to {@code likes_count_7d}
+     */
+    int recordLikeAdded(Long momentId) {
+        momentRepository.addActivity(momentId, bucketOf(Instant.now()), 1, 0);
+        return 1;
+    }
+
+    /**
+     * Removes a like from the bucket it was counted in. Likes older than the window are no longer
+     * part of the counter, so nothing is subtracted for them.
+     *
+     * @return delta to apply to {@code likes_count_7d}
+     */
+    int recordLikeRemoved(Long momentId, Instant likedAt) {
+        if (likedAt == null) {
+            return 0;
+        }
+        Instant bucket = bucketOf(likedAt);
+        if (bucket.isBefore(cutoff(Instant.now()))) {
+            return 0;
+        }
+        momentRepository.addActivity(momentId, bucket, -1, 0);
+        return -1;
+    }
+
+    /**
+     * Comment stats arrive as absolute totals, so new comments are attributed to the current bucket.
+     * Removed comments carry no timestamp; they are taken out of the buckets still inside the window,
+     * and comments that already left the window are not subtracted again.
+     *
+     * @return delta to apply to {@code comments_count_7d}
+     */
+    int recordCommentsDelta(Long momentId, int delta) {
+        if (delta > 0) {
+            momentRepository.addActivity(momentId, bucketOf(Instant.now()), 0, delta);
+            return delta;
+        }
+        if (delta < 0) {
+            return -momentRepository.removeWindowComments(momentId, cutoff(Instant.now()), -delta);
+        }
+        return 0;
+    }
+
+    @Scheduled(cron = "${moments.activity-window.rollup-cron:0 1 * * * *}")
+    @Transactional
+    public void rollForward() {
+        Instant cutoff = cutoff(Instant.now());
+        int updated = momentRepository.rollExpiredActivity(cutoff);
+        if (updated > 0) {
+            log.info("Rolled 7d activity window forward to {}: {} moments updated", cutoff, updated);
+        }
+    }
+
+    static Instant bucketOf(Instant instant) {
+        return instant.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    static Instant cutoff(Instant now) {
+        return bucketOf(now.minus(WINDOW));
+    }
+}
@@ -36,15 +36,18 @@ public class MomentCrudService {
     private final MomentReactionRepository momentReactionRepository;
     private final MomentRateLimiter momentRateLimiter;
     private final MomentMetrics momentMetrics;
+    private final MomentActivityWindow activityWindow;
 
     public MomentCrudService(MomentRepository momentRepository,
                              MomentReactionRepository momentReactionRepository,
                              MomentRateLimiter momentRateLimiter,
-                             MomentMetrics momentMetrics) {
+                             MomentMetrics momentMetrics,
+                             MomentActivityWindow activityWindow) {
         this.momentRepository = momentRepository;
         this.momentReactionRepository = momentReactionRepository;
         this.momentRateLimiter = momentRateLimiter;
         this.momentMetrics = momentMetrics;
+        this.activityWindow = activityWindow;
     }
 
     public MomentDtos.MomentResponse create(Long uploaderId, MomentDtos.CreateMomentRequest request) {
@@ -151,11 +154,9 @@ public class MomentCrudService {
     public void updateCommentStats(Long momentId, CommentCountUpdateRequest request) {
         Moment moment = momentRepository.findById(momentId)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Moment not found"));
-        moment.setCommentsCount(request.count());
-        moment.setCommentsCount7d(request.count());
-        if (request.lastActivityAt() != null) {
-            moment.setLastActivityAt(request.lastActivityAt());
-        }
+        int windowDelta = activityWindow.recordCommentsDelta(momentId, request.count() - moment.getCommentsCount());
+        Instant lastActivityAt = request.lastActivityAt() != null ? request.lastActivityAt() : moment.getLastActivityAt();
+        momentRepository.applyCommentStats(momentId, request.count(), windowDelta, lastActivityAt);
     }
 
     MomentDtos.MomentResponse mapMoment(Moment entity, Long viewerId) {
@@ -183,10 +184,10 @@ public class MomentCrudService {
             entity.isHidden(),
             entity.isReported(),
             entity.getLikesCount(),
-            entity.getLikesCount7d(),
+            Math.max(0, entity.getLikesCount7d()),
             entity.getDislikesCount(),
             entity.getCommentsCount(),
-            entity.getCommentsCount7d(),
+            Math.max(0, entity.getCommentsCount7d()),
             entity.getLastActivityAt(),
             entity.getCreatedAt(),
             entity.getUpdatedAt(),
@@ -300,10 +301,10 @@ public class MomentCrudService {
             entity.isHidden(),
             entity.isReported(),
             entity.getLikesCount(),
-            entity.getLikesCount7d(),
+            Math.max(0, entity.getLikesCount7d()),
             entity.getDislikesCount(),
             entity.getCommentsCount(),
-            entity.getCommentsCount7d(),
+            Math.max(0, entity.getCommentsCount7d()),
             entity.getLastActivityAt(),
             entity.getCreatedAt(),
             entity.getUpdatedAt(),
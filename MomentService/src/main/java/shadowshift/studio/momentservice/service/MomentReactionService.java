@@ -34,6 +34,7 @@ public class MomentReactionService {
     private final NotificationClient notificationClient;
     private final RabbitTemplate rabbitTemplate;
     private final MomentMetrics momentMetrics;
+    private final MomentActivityWindow activityWindow;
 
     @Value("${xp.events.exchange:xp.events.exchange}")
     private String xpExchange;
@@ -46,13 +47,15 @@ public class MomentReactionService {
                                  MomentCrudService momentCrudService,
                                  NotificationClient notificationClient,
                                  RabbitTemplate rabbitTemplate,
-                                 MomentMetrics momentMetrics) {
+                                 MomentMetrics momentMetrics,
+                                 MomentActivityWindow activityWindow) {
         this.momentRepository = momentRepository;
         this.momentReactionRepository = momentReactionRepository;
         this.momentCrudService = momentCrudService;
         this.notificationClient = notificationClient;
         this.rabbitTemplate = rabbitTemplate;
         this.momentMetrics = momentMetrics;
+        this.activityWindow = activityWindow;
     }
 
     public MomentDtos.MomentResponse setReaction(Long momentId, Long userId, ReactionType reaction) {
@@ -68,9 +71,11 @@ public class MomentReactionService {
         boolean notifyLike = false;
 
         ReactionType previousReaction = null;
+        Instant previousReactedAt = null;
 
         if (existing != null) {
             previousReaction = existing.getReaction();
+            previousReactedAt = existing.getUpdatedAt();
             if (existing.getReaction() == reaction) {
                 return momentCrudService.mapMoment(moment, userId);
             }
@@ -88,7 +93,7 @@ public class MomentReactionService {
             notifyLike = true;
         }
 
-        recalcAndPersist(moment, reaction == ReactionType.LIKE);
+        moment = applyReactionChange(moment, previousReaction, previousReactedAt, reaction, reaction == ReactionType.LIKE);
         momentMetrics.recordReactionSet(reaction);
 
         if (notifyLike) {
@@ -109,23 +114,40 @@ public class MomentReactionService {
         }
         MomentReaction existing = momentReactionRepository.findByMomentIdAndUserId(momentId, userId).orElse(null);
         if (existing != null) {
+            ReactionType previousReaction = existing.getReaction();
+            Instant previousReactedAt = existing.getUpdatedAt();
             momentReactionRepository.delete(existing);
-            recalcAndPersist(moment, false);
+            moment = applyReactionChange(moment, previousReaction, previousReactedAt, null, false);
             momentMetrics.recordReactionCleared();
         }
         return momentCrudService.mapMoment(moment, userId);
     }
 
-    private void recalcAndPersist(Moment moment, boolean refreshActivity) {
-        long likes = momentReactionRepository.countByMomentIdAndReaction(moment.getId(), ReactionType.LIKE);
-        long dislikes = momentReactionRepository.countByMomentIdAndReaction(moment.getId(), ReactionType.DISLIKE);
-        moment.setLikesCount(Math.toIntExact(likes));
-        moment.setLikesCount7d(Math.toIntExact(likes));
-        moment.setDislikesCount(Math.toIntExact(dislikes));
-        if (refreshActivity) {
-            moment.setLastActivityAt(Instant.now());
+    /**
+     * Applies a reaction transition as counter deltas (all-time and 7d window) in a single UPDATE
+     * and returns the refreshed moment.
+     */
+    private Moment applyReactionChange(Moment moment, ReactionType removed, Instant removedReactedAt,
+                                       ReactionType added, boolean refreshActivity) {
+        Long momentId = moment.getId();
+        int likesDelta = 0;
+        int dislikesDelta = 0;
+        int likesWindowDelta = 0;
+        if (removed == ReactionType.LIKE) {
+            likesDelta--;
+            likesWindowDelta += activityWindow.recordLikeRemoved(momentId, removedReactedAt);
+        } else if (removed == ReactionType.DISLIKE) {
+            dislikesDelta--;
         }
-        momentRepository.save(moment);
+        if (added == ReactionType.LIKE) {
+            likesDelta++;
+            likesWindowDelta += activityWindow.recordLikeAdded(momentId);
+        } else if (added == ReactionType.DISLIKE) {
+            dislikesDelta++;
+        }
+        momentRepository.applyReactionDelta(momentId, likesDelta, dislikesDelta, likesWindowDelta, refreshActivity);
+        return momentRepository.findById(momentId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Moment not found"));
     }
 
     private void dispatchLikeSignals(Moment moment, Long actorUserId) {
@@ -0,0 +1,29 @@
+-- Hourly activity buckets backing the rolling 7-day counters (likes_count_7d, comments_count_7d)
+CREATE TABLE IF NOT EXISTS manga_moment_activity_buckets (
+    moment_id BIGINT NOT NULL REFERENCES manga_moments(id) ON DELETE CASCADE,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    likes INTEGER NOT NULL DEFAULT 0,
+    comments INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (moment_id, bucket_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_manga_moment_activity_buckets_start ON manga_moment_activity_buckets (bucket_start);
+
+-- Backfill like buckets from reactions that fall into the current window
+INSERT INTO manga_moment_activity_buckets (moment_id, bucket_start, likes)
+SELECT moment_id, date_trunc('hour', updated_at), COUNT(*)
+FROM manga_moment_reactions
+WHERE reaction = 'LIKE' AND updated_at >= date_trunc('hour', NOW() - INTERVAL '7 days')
+GROUP BY moment_id, date_trunc('hour', updated_at)
+ON CONFLICT (moment_id, bucket_start) DO NOTHING;
+
+UPDATE manga_moments m
+SET likes_count_7d = COALESCE((SELECT SUM(b.likes) FROM manga_moment_activity_buckets b WHERE b.moment_id = m.id), 0);
+
+-- Comment history is not available here, the window starts filling from now on
+UPDATE manga_moments SET comments_count_7d = 0;
+
+CREATE INDEX IF NOT EXISTS idx_manga_moments_manga_popular
+    ON manga_moments (manga_id, likes_count_7d DESC, likes_count DESC, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_manga_moments_manga_active
+    ON manga_moments (manga_id, comments_count_7d DESC, last_activity_at DESC, created_at DESC, id DESC);
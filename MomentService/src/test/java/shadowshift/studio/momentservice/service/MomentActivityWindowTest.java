@@ -0,0 +1,124 @@
+package shadowshift.studio.momentservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import shadowshift.studio.momentservice.dto.MomentDtos.CommentCountUpdateRequest;
+import shadowshift.studio.momentservice.entity.Moment;
+import shadowshift.studio.momentservice.metrics.MomentMetrics;
+import shadowshift.studio.momentservice.repository.MomentReactionRepository;
+import shadowshift.studio.momentservice.repository.MomentRepository;
+
+@ExtendWith(MockitoExtension.class)
+class MomentActivityWindowTest {
+
+    private static final Long MOMENT_ID = 42L;
+
+    @Mock
+    private MomentRepository momentRepository;
+
+    private MomentActivityWindow activityWindow;
+
+    @BeforeEach
+    void setUp() {
+        activityWindow = new MomentActivityWindow(momentRepository);
+    }
+
+    @Test
+    void addedLikeIsCountedInCurrentBucket() {
+        Instant before = MomentActivityWindow.bucketOf(Instant.now());
+
+        assertThat(activityWindow.recordLikeAdded(MOMENT_ID)).isEqualTo(1);
+
+        ArgumentCaptor<Instant> bucket = ArgumentCaptor.forClass(Instant.class);
+        verify(momentRepository).addActivity(eq(MOMENT_ID), bucket.capture(), eq(1), eq(0));
+        assertThat(bucket.getValue()).isAfterOrEqualTo(before);
+    }
+
+    @Test
+    void removedLikeIsTakenFromItsOwnBucket() {
+        Instant likedAt = Instant.now().minus(Duration.ofDays(2));
+
+        assertThat(activityWindow.recordLikeRemoved(MOMENT_ID, likedAt)).isEqualTo(-1);
+
+        verify(momentRepository).addActivity(MOMENT_ID, MomentActivityWindow.bucketOf(likedAt), -1, 0);
+    }
+
+    @Test
+    void likeOlderThanWindowIsNotSubtracted() {
+        Instant likedAt = Instant.now().minus(Duration.ofDays(8));
+
+        assertThat(activityWindow.recordLikeRemoved(MOMENT_ID, likedAt)).isZero();
+        assertThat(activityWindow.recordLikeRemoved(MOMENT_ID, null)).isZero();
+
+        verify(momentRepository, never()).addActivity(anyLong(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void newCommentsGoToCurrentBucket() {
+        assertThat(activityWindow.recordCommentsDelta(MOMENT_ID, 3)).isEqualTo(3);
+
+        verify(momentRepository).addActivity(eq(MOMENT_ID), any(Instant.class), eq(0), eq(3));
+        verify(momentRepository, never()).removeWindowComments(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void removedCommentsOnlyLeaveTheWindowWhenTheyWereInIt() {
+        // В окне остался один комментарий, удалены два: второй был старше окна
+        when(momentRepository.removeWindowComments(eq(MOMENT_ID), any(Instant.class), eq(2))).thenReturn(1);
+        Instant earliestCutoff = MomentActivityWindow.cutoff(Instant.now());
+
+        assertThat(activityWindow.recordCommentsDelta(MOMENT_ID, -2)).isEqualTo(-1);
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(momentRepository).removeWindowComments(eq(MOMENT_ID), cutoff.capture(), eq(2));
+        assertThat(cutoff.getValue()).isBetween(earliestCutoff, MomentActivityWindow.cutoff(Instant.now()));
+        verify(momentRepository, never()).addActivity(anyLong(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void removedCommentOutsideWindowLeavesCounterUntouched() {
+        when(momentRepository.removeWindowComments(eq(MOMENT_ID), any(Instant.class), eq(1))).thenReturn(0);
+
+        assertThat(activityWindow.recordCommentsDelta(MOMENT_ID, -1)).isZero();
+    }
+
+    @Test
+    void unchangedCommentCountTouchesNothing() {
+        assertThat(activityWindow.recordCommentsDelta(MOMENT_ID, 0)).isZero();
+
+        verify(momentRepository, never()).addActivity(anyLong(), any(), anyInt(), anyInt());
+        verify(momentRepository, never()).removeWindowComments(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void commentStatsApplyOnlyTheWindowPartOfARemoval() {
+        Moment moment = new Moment();
+        moment.setCommentsCount(5);
+        Instant lastActivityAt = Instant.now();
+        when(momentRepository.findById(MOMENT_ID)).thenReturn(Optional.of(moment));
+        when(momentRepository.removeWindowComments(eq(MOMENT_ID), any(Instant.class), eq(1))).thenReturn(0);
+        MomentCrudService crudService = new MomentCrudService(momentRepository, mock(MomentReactionRepository.class),
+            null, mock(MomentMetrics.class), activityWindow);
+
+        crudService.updateCommentStats(MOMENT_ID, new CommentCountUpdateRequest(4, lastActivityAt));
+
+        verify(momentRepository).applyCommentStats(MOMENT_ID, 4, 0, lastActivityAt);
+    }
+}
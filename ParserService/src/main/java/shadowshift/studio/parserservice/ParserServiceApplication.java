@@ -5,12 +5,14 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.http.client.HttpClientAutoConfiguration;
 import org.springframework.boot.autoconfigure.web.client.RestClientAutoConfiguration;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {
     HttpClientAutoConfiguration.class,
     RestClientAutoConfiguration.class
 })
 @ConfigurationPropertiesScan
+@EnableScheduling
 public class ParserServiceApplication {
 
     public static void main(String[] args) {
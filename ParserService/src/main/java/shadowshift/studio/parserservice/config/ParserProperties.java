@@ -55,6 +55,11 @@ public class ParserProperties {
      */
     private String mangaServiceUrl = "http://manga-service:8081";
 
+    /**
+     * Отправлять ли в MangaService события задач (прогресс, логи, завершение) вместо ожидания опроса.
+     */
+    private boolean taskEventsEnabled = true;
+
     /**
      * Настройки MangaLib API
      */
@@ -217,6 +222,36 @@ public class ParserProperties {
      */
     private int maxParallelDownloads = 80; // 10 быстрых прокси × 8 потоков на каждую ноду
     
+    /**
+     * Лимит одновременных загрузок на один хост (CDN). 0 — ограничивается только maxParallelDownloads.
+     */
+    private int downloadHostMaxConcurrency = 0;
+
+    /**
+     * Лимит запросов в секунду на один хост. 0 — без ограничения.
+     */
+    private double downloadHostRatePerSecond = 0;
+
+    /**
+     * Лимит одновременных запросов через один прокси. 0 — без ограничения.
+     */
+    private int proxyMaxConcurrency = 20;
+
+    /**
+     * Сколько ждать свободного слота прокси, когда все прокси заняты до proxyMaxConcurrency.
+     */
+    private long proxyAcquireTimeoutMs = 30_000;
+
+    /**
+     * Количество попыток загрузки изображения (включая первую).
+     */
+    private int downloadMaxAttempts = 3;
+
+    /**
+     * Базовая задержка перед повтором, удваивается с каждой попыткой.
+     */
+    private long downloadRetryBaseDelayMs = 200L;
+
     /**
     * ⚡ КРИТИЧНО: Максимальное количество глав, загружаемых параллельно.
     * При значении 1 - главы качаются последовательно (медленно).
@@ -229,6 +264,21 @@ public class ParserProperties {
      */
     private int imageTimeoutSeconds = 30;
 
+    /**
+     * Сколько хранить завершенные задачи (в памяти и на диске) перед автоматической очисткой.
+     */
+    private Duration taskRetention = Duration.ofHours(24);
+
+    /**
+     * Размер кольцевого буфера последних строк лога задачи в памяти.
+     */
+    private int taskLogBufferSize = 500;
+
+    /**
+     * Минимальный возраст блоба изображения без ссылок, после которого сборщик мусора его удаляет.
+     */
+    private Duration imageBlobGcGrace = Duration.ofHours(1);
+
     public Path getStorageBasePath() {
         return Paths.get(outputPath);
     }
@@ -321,6 +371,14 @@ public class ParserProperties {
         }
     }
 
+    public boolean isTaskEventsEnabled() {
+        return taskEventsEnabled;
+    }
+
+    public void setTaskEventsEnabled(boolean taskEventsEnabled) {
+        this.taskEventsEnabled = taskEventsEnabled;
+    }
+
     public boolean isUseProxyPool() {
         return useProxyPool;
     }
@@ -358,6 +416,42 @@ public class ParserProperties {
         }
     }
     
+    public int getDownloadHostMaxConcurrency() {
+        return downloadHostMaxConcurrency > 0 ? downloadHostMaxConcurrency : maxParallelDownloads;
+    }
+
+    public void setDownloadHostMaxConcurrency(int downloadHostMaxConcurrency) {
+        this.downloadHostMaxConcurrency = Math.max(0, downloadHostMaxConcurrency);
+    }
+
+    public double getDownloadHostRatePerSecond() {
+        return downloadHostRatePerSecond;
+    }
+
+    public void setDownloadHostRatePerSecond(double downloadHostRatePerSecond) {
+        this.downloadHostRatePerSecond = Math.max(0, downloadHostRatePerSecond);
+    }
+
+    public int getDownloadMaxAttempts() {
+        return downloadMaxAttempts;
+    }
+
+    public void setDownloadMaxAttempts(int downloadMaxAttempts) {
+        if (downloadMaxAttempts > 0) {
+            this.downloadMaxAttempts = downloadMaxAttempts;
+        }
+    }
+
+    public long getDownloadRetryBaseDelayMs() {
+        return downloadRetryBaseDelayMs;
+    }
+
+    public void setDownloadRetryBaseDelayMs(long downloadRetryBaseDelayMs) {
+        if (downloadRetryBaseDelayMs >= 0) {
+            this.downloadRetryBaseDelayMs = downloadRetryBaseDelayMs;
+        }
+    }
+
     public int getMaxParallelChapters() {
         return maxParallelChapters;
     }
@@ -379,6 +473,56 @@ public class ParserProperties {
         }
     }
 
+    public Duration getTaskRetention() {
+        return taskRetention;
+    }
+
+    public void setTaskRetention(Duration taskRetention) {
+        if (taskRetention != null && !taskRetention.isNegative()) {
+            this.taskRetention = taskRetention;
+        }
+    }
+
+    public int getTaskLogBufferSize() {
+        return taskLogBufferSize;
+    }
+
+    public void setTaskLogBufferSize(int taskLogBufferSize) {
+        if (taskLogBufferSize > 0) {
+            this.taskLogBufferSize = taskLogBufferSize;
+        }
+    }
+
+    public Duration getImageBlobGcGrace() {
+        return imageBlobGcGrace;
+    }
+
+    public void setImageBlobGcGrace(Duration imageBlobGcGrace) {
+        if (imageBlobGcGrace != null && !imageBlobGcGrace.isNegative()) {
+            this.imageBlobGcGrace = imageBlobGcGrace;
+        }
+    }
+
+    public int getProxyMaxConcurrency() {
+        return proxyMaxConcurrency;
+    }
+
+    public void setProxyMaxConcurrency(int proxyMaxConcurrency) {
+        if (proxyMaxConcurrency >= 0) {
+            this.proxyMaxConcurrency = proxyMaxConcurrency;
+        }
+    }
+
+    public long getProxyAcquireTimeoutMs() {
+        return proxyAcquireTimeoutMs;
+    }
+
+    public void setProxyAcquireTimeoutMs(long proxyAcquireTimeoutMs) {
+        if (proxyAcquireTimeoutMs >= 0) {
+            this.proxyAcquireTimeoutMs = proxyAcquireTimeoutMs;
+        }
+    }
+
     public MangaLibConfig getMangalib() {
         return mangalib;
     }
@@ -11,10 +11,13 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Представление задачи парсинга/билда. Изначально хранится в памяти, позднее будет вынесено в БД.
+ * Представление задачи парсинга/билда. Живет в памяти, состояние периодически сохраняется репозиторием
+ * в виде {@link TaskSnapshot}, логи держатся в кольцевом буфере с полным журналом на диске.
  */
 public class ParserTask {
 
+    public static final int DEFAULT_LOG_BUFFER_SIZE = 500;
+
     private final UUID id;
     private final TaskType type;
     private final List<String> slugs;
@@ -32,7 +35,7 @@ public class ParserTask {
     private volatile Instant updatedAt;
 
     private final Map<String, TaskResult> results = new ConcurrentHashMap<>();
-    private final List<TaskLogEntry> logs = new CopyOnWriteArrayList<>();
+    private final TaskLogBuffer logs;
     private final Map<String, Object> metrics = new ConcurrentHashMap<>();
 
     private volatile String branchId;
@@ -42,17 +45,58 @@ public class ParserTask {
     private final List<String> targetChapterCompositeKeys = new CopyOnWriteArrayList<>();
 
     public ParserTask(UUID id, TaskType type, List<String> slugs) {
+        this(id, type, slugs, new TaskLogBuffer(DEFAULT_LOG_BUFFER_SIZE, TaskLogJournal.NONE));
+    }
+
+    public ParserTask(UUID id, TaskType type, List<String> slugs, TaskLogBuffer logs) {
+        this(id, type, slugs, logs, Instant.now());
+    }
+
+    private ParserTask(UUID id, TaskType type, List<String> slugs, TaskLogBuffer logs, Instant createdAt) {
         this.id = Objects.requireNonNull(id, "id");
         this.type = Objects.requireNonNull(type, "type");
         this.slugs = slugs == null ? new ArrayList<>() : new ArrayList<>(slugs);
+        this.logs = Objects.requireNonNull(logs, "logs");
         this.status = TaskStatus.PENDING;
         this.progress = 0;
-        this.createdAt = Instant.now();
+        this.createdAt = createdAt;
         this.updatedAt = this.createdAt;
         this.totalSlugs = this.slugs.size();
         this.message = "Task created";
     }
 
+    /**
+     * Восстанавливает задачу из сохраненного снимка. Результаты и метрики не сохраняются и остаются пустыми.
+     */
+    public static ParserTask restore(TaskSnapshot snapshot, TaskLogBuffer logs) {
+        ParserTask task = new ParserTask(snapshot.id(), snapshot.type(), snapshot.slugs(), logs,
+                snapshot.createdAt() != null ? snapshot.createdAt() : Instant.now());
+        task.status = snapshot.status() != null ? snapshot.status() : TaskStatus.FAILED;
+        task.progress = snapshot.progress();
+        task.message = snapshot.message();
+        task.currentSlug = snapshot.currentSlug();
+        task.totalSlugs = snapshot.totalSlugs();
+        task.completedSlugs = snapshot.completedSlugs();
+        task.failedSlugs = snapshot.failedSlugs();
+        task.startedAt = snapshot.startedAt();
+        task.completedAt = snapshot.completedAt();
+        task.branchId = snapshot.branchId();
+        task.buildType = snapshot.buildType();
+        task.autoImport = snapshot.autoImport();
+        task.updatedAt = snapshot.updatedAt() != null ? snapshot.updatedAt() : task.createdAt;
+        return task;
+    }
+
+    public TaskSnapshot toSnapshot() {
+        return new TaskSnapshot(id, type, List.copyOf(slugs), status, progress, message, currentSlug,
+                totalSlugs, completedSlugs, failedSlugs, createdAt, startedAt, updatedAt, completedAt,
+                branchId, buildType, autoImport, logs.size());
+    }
+
+    public boolean isFinished() {
+        return status == TaskStatus.COMPLETED || status == TaskStatus.FAILED || status == TaskStatus.CANCELLED;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -165,13 +209,31 @@ public class ParserTask {
         }
     }
 
+    /**
+     * Все записи, которые еще держатся в кольцевом буфере (полная история — в журнале задачи).
+     */
     public List<TaskLogEntry> getLogs() {
-        return Collections.unmodifiableList(logs);
+        return logs.tail(logs.capacity());
+    }
+
+    /**
+     * Последние {@code limit} записей лога; копируется только запрошенный хвост.
+     */
+    public List<TaskLogEntry> getRecentLogs(int limit) {
+        return logs.tail(limit);
+    }
+
+    public long getLogCount() {
+        return logs.size();
+    }
+
+    public TaskLogBuffer getLogBuffer() {
+        return logs;
     }
 
     public void appendLog(TaskLogEntry entry) {
         if (entry != null) {
-            logs.add(entry);
+            logs.append(entry);
             touch();
         }
     }
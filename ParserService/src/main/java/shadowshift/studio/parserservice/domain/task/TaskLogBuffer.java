@@ -0,0 +1,80 @@
+package shadowshift.studio.parserservice.domain.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Кольцевой буфер последних записей лога задачи фиксированного размера.
+ * Добавление не копирует уже накопленные записи, чтение хвоста копирует только запрошенное количество.
+ * Каждая запись дополнительно уходит в {@link TaskLogJournal}, где хранится полная история.
+ */
+public class TaskLogBuffer {
+
+    private final TaskLogEntry[] ring;
+    private final TaskLogJournal journal;
+    private int next;
+    private long total;
+
+    public TaskLogBuffer(int capacity, TaskLogJournal journal) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.ring = new TaskLogEntry[capacity];
+        this.journal = Objects.requireNonNull(journal, "journal");
+    }
+
+    /**
+     * Заполняет буфер записями, восстановленными из журнала (без повторной записи в журнал).
+     *
+     * @param tail  последние записи в порядке возрастания sequence
+     * @param total общее количество записей в журнале
+     */
+    public synchronized void preload(List<TaskLogEntry> tail, long total) {
+        int skip = Math.max(0, tail.size() - ring.length);
+        for (int i = skip; i < tail.size(); i++) {
+            ring[next] = tail.get(i);
+            next = (next + 1) % ring.length;
+        }
+        this.total = Math.max(total, tail.size());
+    }
+
+    public synchronized void append(TaskLogEntry entry) {
+        ring[next] = entry;
+        next = (next + 1) % ring.length;
+        total++;
+        journal.append(entry);
+    }
+
+    /**
+     * Последние {@code limit} записей в порядке добавления.
+     */
+    public synchronized List<TaskLogEntry> tail(int limit) {
+        int count = (int) Math.min(Math.max(0, limit), Math.min(total, ring.length));
+        List<TaskLogEntry> result = new ArrayList<>(count);
+        int start = Math.floorMod(next - count, ring.length);
+        for (int i = 0; i < count; i++) {
+            result.add(ring[(start + i) % ring.length]);
+        }
+        return result;
+    }
+
+    /**
+     * Общее количество записей за жизнь задачи, включая вытесненные из буфера.
+     */
+    public synchronized long size() {
+        return total;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    public synchronized void flush() {
+        journal.flush();
+    }
+
+    public synchronized void close() {
+        journal.close();
+    }
+}
@@ -0,0 +1,21 @@
+package shadowshift.studio.parserservice.domain.task;
+
+/**
+ * Append-only журнал строк лога задачи. Хранит полную историю, пока в памяти держится только хвост.
+ * Вызовы приходят под блокировкой {@link TaskLogBuffer}, поэтому реализация может быть не потокобезопасной.
+ */
+public interface TaskLogJournal {
+
+    /**
+     * Журнал-заглушка для задач без долговременного хранилища.
+     */
+    TaskLogJournal NONE = entry -> { };
+
+    void append(TaskLogEntry entry);
+
+    default void flush() {
+    }
+
+    default void close() {
+    }
+}
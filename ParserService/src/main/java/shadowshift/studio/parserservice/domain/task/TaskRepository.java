@@ -1,5 +1,6 @@
 package shadowshift.studio.parserservice.domain.task;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,8 +16,23 @@ public interface TaskRepository {
 
     List<ParserTask> findAll();
 
+    /**
+     * Снимки всех задач без логов и результатов — для списков и опроса статуса.
+     */
+    List<TaskSnapshot> findSummaries();
+
+    /**
+     * Буфер лога для новой задачи, подключенный к журналу хранилища.
+     */
+    TaskLogBuffer createLogBuffer(UUID taskId);
+
     /**
      * Удаляет задачи со статусом COMPLETED/FAILED/CANCELLED и возвращает их идентификаторы.
      */
     List<UUID> removeFinished();
+
+    /**
+     * Удаляет завершенные задачи, которые закончились раньше указанного момента.
+     */
+    List<UUID> removeFinishedBefore(Instant threshold);
 }
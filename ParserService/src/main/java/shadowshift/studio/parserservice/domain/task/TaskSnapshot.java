@@ -0,0 +1,31 @@
+package shadowshift.studio.parserservice.domain.task;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Легковесная проекция задачи: статус и счетчики без логов, результатов и метрик.
+ * Используется для списка задач и как формат сохранения на диск.
+ */
+public record TaskSnapshot(
+        UUID id,
+        TaskType type,
+        List<String> slugs,
+        TaskStatus status,
+        int progress,
+        String message,
+        String currentSlug,
+        int totalSlugs,
+        int completedSlugs,
+        int failedSlugs,
+        Instant createdAt,
+        Instant startedAt,
+        Instant updatedAt,
+        Instant completedAt,
+        String branchId,
+        String buildType,
+        boolean autoImport,
+        long logCount
+) {
+}
@@ -0,0 +1,154 @@
+package shadowshift.studio.parserservice.infrastructure;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import shadowshift.studio.parserservice.domain.task.TaskLogEntry;
+import shadowshift.studio.parserservice.domain.task.TaskLogJournal;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Журнал лога задачи в текстовом файле: одна строка на запись, поля через табуляцию
+ * ({@code sequence, epochMillis, level, message}). Файл открывается при первой записи и только дописывается.
+ */
+final class FileTaskLogJournal implements TaskLogJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileTaskLogJournal.class);
+
+    private final Path path;
+    private BufferedWriter writer;
+    private boolean failed;
+
+    FileTaskLogJournal(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void append(TaskLogEntry entry) {
+        if (failed) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(encode(entry));
+            writer.newLine();
+        } catch (IOException e) {
+            // Журнал вспомогательный: при ошибке диска задача продолжает работать с буфером в памяти
+            failed = true;
+            logger.warn("Failed to write task log journal {}: {}", path, e.getMessage());
+            close();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to flush task log journal {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close task log journal {}: {}", path, e.getMessage());
+        } finally {
+            writer = null;
+        }
+    }
+
+    /**
+     * Читает последние {@code limit} записей журнала и общее количество строк.
+     */
+    static Tail readTail(Path path, int limit) throws IOException {
+        Deque<TaskLogEntry> tail = new ArrayDeque<>(limit);
+        long total = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                TaskLogEntry entry = decode(line);
+                if (entry == null) {
+                    continue;
+                }
+                total++;
+                if (tail.size() == limit) {
+                    tail.removeFirst();
+                }
+                tail.addLast(entry);
+            }
+        } catch (NoSuchFileException e) {
+            return new Tail(List.of(), 0);
+        }
+        return new Tail(new ArrayList<>(tail), total);
+    }
+
+    record Tail(List<TaskLogEntry> entries, long total) { }
+
+    static String encode(TaskLogEntry entry) {
+        return entry.sequence() + "\t" + entry.timestamp().toEpochMilli() + "\t" + escape(entry.level())
+                + "\t" + escape(entry.message());
+    }
+
+    static TaskLogEntry decode(String line) {
+        String[] parts = line.split("\t", 4);
+        if (parts.length < 4) {
+            return null;
+        }
+        try {
+            return new TaskLogEntry(Long.parseLong(parts[0]), Instant.ofEpochMilli(Long.parseLong(parts[1])),
+                    unescape(parts[2]), unescape(parts[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                result.append(c);
+                continue;
+            }
+            char escaped = value.charAt(++i);
+            switch (escaped) {
+                case 't' -> result.append('\t');
+                case 'n' -> result.append('\n');
+                case 'r' -> result.append('\r');
+                default -> result.append(escaped);
+            }
+        }
+        return result.toString();
+    }
+}
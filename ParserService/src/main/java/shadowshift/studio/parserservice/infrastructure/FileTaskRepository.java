@@ -0,0 +1,234 @@
+package shadowshift.studio.parserservice.infrastructure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import shadowshift.studio.parserservice.config.ParserProperties;
+import shadowshift.studio.parserservice.domain.task.ParserTask;
+import shadowshift.studio.parserservice.domain.task.TaskLogBuffer;
+import shadowshift.studio.parserservice.domain.task.TaskLogJournal;
+import shadowshift.studio.parserservice.domain.task.TaskRepository;
+import shadowshift.studio.parserservice.domain.task.TaskSnapshot;
+import shadowshift.studio.parserservice.domain.task.TaskStatus;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Хранилище задач: рабочие экземпляры живут в памяти, а на диск (каталог {@code <logs-path>/tasks})
+ * периодически сбрасываются снимки состояния ({@code <id>.json}) и журналы логов ({@code <id>.log}).
+ * После перезапуска задачи восстанавливаются из снимков; незавершенные помечаются как FAILED.
+ * Файл журнала завершенной задачи закрывается при ближайшем сбросе; поздняя запись откроет его снова,
+ * а чтение лога идет из буфера в памяти и файла не требует.
+ * Если каталог недоступен, репозиторий работает только в памяти.
+ */
+@Repository
+public class FileTaskRepository implements TaskRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileTaskRepository.class);
+
+    private static final String SNAPSHOT_SUFFIX = ".json";
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    private final ConcurrentMap<UUID, ParserTask> storage = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, Instant> persistedAt = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final int logBufferSize;
+    private final Path directory;
+
+    public FileTaskRepository(ParserProperties properties, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.logBufferSize = properties.getTaskLogBufferSize();
+        this.directory = prepareDirectory(properties.getLogsPath().resolve("tasks"));
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (directory == null) {
+            return;
+        }
+        int restored = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    TaskSnapshot snapshot = objectMapper.readValue(file.toFile(), TaskSnapshot.class);
+                    ParserTask task = ParserTask.restore(snapshot, restoreLogBuffer(snapshot.id()));
+                    if (!task.isFinished()) {
+                        task.setStatus(TaskStatus.FAILED);
+                        task.setMessage("Interrupted by service restart");
+                        task.setCompletedAt(Instant.now());
+                    }
+                    storage.put(task.getId(), task);
+                    restored++;
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Skipping unreadable task snapshot {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to list task snapshots in {}: {}", directory, e.getMessage());
+        }
+        if (restored > 0) {
+            logger.info("Restored {} parser tasks from {}", restored, directory);
+            persistChanged();
+        }
+    }
+
+    @Override
+    public ParserTask save(ParserTask task) {
+        storage.put(task.getId(), task);
+        persist(task);
+        return task;
+    }
+
+    @Override
+    public Optional<ParserTask> findById(UUID id) {
+        return Optional.ofNullable(storage.get(id));
+    }
+
+    @Override
+    public List<ParserTask> findAll() {
+        return new ArrayList<>(storage.values());
+    }
+
+    @Override
+    public List<TaskSnapshot> findSummaries() {
+        return storage.values().stream()
+                .map(ParserTask::toSnapshot)
+                .toList();
+    }
+
+    @Override
+    public TaskLogBuffer createLogBuffer(UUID taskId) {
+        TaskLogJournal journal = directory == null
+                ? TaskLogJournal.NONE
+                : new FileTaskLogJournal(journalPath(taskId));
+        return new TaskLogBuffer(logBufferSize, journal);
+    }
+
+    @Override
+    public List<UUID> removeFinished() {
+        return removeFinishedBefore(Instant.MAX);
+    }
+
+    @Override
+    public List<UUID> removeFinishedBefore(Instant threshold) {
+        List<UUID> removed = new ArrayList<>();
+        for (ParserTask task : new ArrayList<>(storage.values())) {
+            if (!task.isFinished()) {
+                continue;
+            }
+            Instant finishedAt = task.getCompletedAt() != null ? task.getCompletedAt() : task.getUpdatedAt();
+            if (finishedAt.isBefore(threshold) && storage.remove(task.getId(), task)) {
+                task.getLogBuffer().close();
+                persistedAt.remove(task.getId());
+                deleteFiles(task.getId());
+                removed.add(task.getId());
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Сбрасывает на диск снимки измененных задач и буферы их журналов.
+     */
+    @Scheduled(fixedDelayString = "${parser.task-persist-interval-ms:5000}")
+    public void persistChanged() {
+        for (ParserTask task : storage.values()) {
+            if (!task.getUpdatedAt().equals(persistedAt.get(task.getId()))) {
+                persist(task);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persistChanged();
+        storage.values().forEach(task -> task.getLogBuffer().close());
+    }
+
+    private void persist(ParserTask task) {
+        if (task.isFinished()) {
+            task.getLogBuffer().close();
+        } else {
+            task.getLogBuffer().flush();
+        }
+        if (directory == null) {
+            return;
+        }
+        TaskSnapshot snapshot = task.toSnapshot();
+        Path target = snapshotPath(task.getId());
+        Path temp = directory.resolve(task.getId() + SNAPSHOT_SUFFIX + ".tmp");
+        try {
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            persistedAt.put(task.getId(), snapshot.updatedAt());
+        } catch (IOException e) {
+            logger.warn("Failed to persist task {}: {}", task.getId(), e.getMessage());
+        }
+        if (!storage.containsKey(task.getId())) {
+            // Задачу удалили, пока писали снимок — не оставляем файл-сироту
+            deleteFiles(task.getId());
+        }
+    }
+
+    private TaskLogBuffer restoreLogBuffer(UUID taskId) {
+        TaskLogBuffer buffer = createLogBuffer(taskId);
+        try {
+            FileTaskLogJournal.Tail tail = FileTaskLogJournal.readTail(journalPath(taskId), logBufferSize);
+            buffer.preload(tail.entries(), tail.total());
+        } catch (IOException e) {
+            logger.warn("Failed to read log journal of task {}: {}", taskId, e.getMessage());
+        }
+        return buffer;
+    }
+
+    private void deleteFiles(UUID taskId) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(snapshotPath(taskId));
+            Files.deleteIfExists(journalPath(taskId));
+        } catch (IOException e) {
+            logger.warn("Failed to delete files of task {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    private Path snapshotPath(UUID taskId) {
+        return directory.resolve(taskId + SNAPSHOT_SUFFIX);
+    }
+
+    private Path journalPath(UUID taskId) {
+        return directory.resolve(taskId + JOURNAL_SUFFIX);
+    }
+
+    private static Path prepareDirectory(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            return directory;
+        } catch (IOException | SecurityException e) {
+            logger.warn("Task store directory {} is unavailable, tasks will be kept in memory only: {}",
+                    directory, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package shadowshift.studio.parserservice.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import shadowshift.studio.parserservice.config.ParserProperties;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Контентно-адресуемое хранилище изображений глав ({@code <output>/blobs/ab/abcdef...}, имя — SHA-256 тела).
+ * Файл главы — жесткая ссылка на блоб, поэтому одинаковые картинки (титульные страницы, баннеры переводчиков,
+ * перезалитые главы) лежат на диске один раз. Число ссылок на inode служит счетчиком использований:
+ * блоб, на который не ссылается ни одна глава, удаляет {@link #collectGarbage(Duration)}.
+ * Дополнительно хранится индекс URL → (ETag, Last-Modified, хэш) для условной перезагрузки.
+ */
+@Component
+public class ImageBlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageBlobStore.class);
+
+    private static final String INDEX_FILE = "url-index.json";
+
+    /**
+     * Валидаторы последнего успешного ответа для URL и хэш сохраненного тела
+     */
+    public record UrlValidators(String etag, String lastModified, String sha256) {
+
+        @JsonIgnore
+        public boolean isConditional() {
+            return etag != null || lastModified != null;
+        }
+    }
+
+    /**
+     * Итог сборки мусора
+     */
+    public record GcResult(int scannedBlobs, int deletedBlobs, long freedBytes, int prunedUrls) { }
+
+    private final Path root;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<String, UrlValidators> urlIndex = new ConcurrentHashMap<>();
+    private volatile boolean indexDirty;
+    private volatile boolean linkCountUnsupportedLogged;
+
+    public ImageBlobStore(ParserProperties properties, ObjectMapper objectMapper) {
+        this.root = Paths.get(properties.getOutputPath(), "blobs");
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void loadIndex() {
+        Path indexPath = root.resolve(INDEX_FILE);
+        if (!Files.exists(indexPath)) {
+            return;
+        }
+        try {
+            Map<String, UrlValidators> stored = objectMapper.readValue(indexPath.toFile(),
+                new TypeReference<Map<String, UrlValidators>>() { });
+            urlIndex.putAll(stored);
+            logger.info("🗂️ Loaded {} image URL validators from {}", stored.size(), indexPath);
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to read image URL index {}: {}", indexPath, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${parser.blob-index-flush-interval-ms:30000}")
+    public void flushIndex() {
+        if (!indexDirty) {
+            return;
+        }
+        indexDirty = false;
+        try {
+            Files.createDirectories(root);
+            Path temp = root.resolve(INDEX_FILE + "." + UUID.randomUUID() + ".part");
+            objectMapper.writeValue(temp.toFile(), Map.copyOf(urlIndex));
+            moveAtomically(temp, root.resolve(INDEX_FILE));
+        } catch (IOException e) {
+            indexDirty = true;
+            logger.warn("⚠️ Failed to write image URL index: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushIndex();
+    }
+
+    /**
+     * Валидаторы для условного запроса, если тело по этому URL уже есть в хранилище
+     */
+    public Optional<UrlValidators> validatorsFor(String url) {
+        UrlValidators validators = urlIndex.get(url);
+        if (validators == null || !Files.exists(blobPath(validators.sha256()))) {
+            return Optional.empty();
+        }
+        return Optional.of(validators);
+    }
+
+    /**
+     * Фиксирует скачанный временный файл: если такой блоб уже есть, временный файл удаляется,
+     * иначе он становится блобом. Целевой путь главы получает ссылку на блоб.
+     *
+     * @return true, если содержимое уже было в хранилище (дубликат)
+     */
+    public boolean commit(Path tempFile, String sha256, Path target, String url,
+                          String etag, String lastModified) throws IOException {
+        Path blob = blobPath(sha256);
+        Files.createDirectories(blob.getParent());
+        boolean duplicate = false;
+        try {
+            if (Files.exists(blob) && tryLink(blob, target)) {
+                duplicate = true;
+            } else {
+                moveIfAbsent(tempFile, blob);
+                link(blob, target);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        remember(url, new UrlValidators(etag, lastModified, sha256));
+        return duplicate;
+    }
+
+    /**
+     * Создает файл главы из уже сохраненного блоба (ответ 304 Not Modified).
+     *
+     * @return размер файла или -1, если блоба больше нет и нужна полная загрузка
+     */
+    public long materialize(UrlValidators validators, Path target) throws IOException {
+        Path blob = blobPath(validators.sha256());
+        if (!tryLink(blob, target)) {
+            return -1;
+        }
+        return Files.size(target);
+    }
+
+    /**
+     * Удаляет блобы, на которые не ссылается ни один файл глав и которые старше grace,
+     * и убирает из индекса URL, чьи блобы исчезли.
+     */
+    public GcResult collectGarbage(Duration grace) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return new GcResult(0, 0, 0, 0);
+        }
+        Instant threshold = Instant.now().minus(grace);
+        int scanned = 0;
+        int deleted = 0;
+        long freed = 0;
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            for (Path blob : (Iterable<Path>) files.filter(this::isBlob)::iterator) {
+                scanned++;
+                try {
+                    Integer links = linkCount(blob);
+                    if (links == null || links > 1
+                            || Files.getLastModifiedTime(blob).toInstant().isAfter(threshold)) {
+                        continue;
+                    }
+                    long size = Files.size(blob);
+                    if (Files.deleteIfExists(blob)) {
+                        deleted++;
+                        freed += size;
+                    }
+                } catch (NoSuchFileException ignored) {
+                    // Блоб удалили параллельно
+                }
+            }
+        }
+
+        int pruned = 0;
+        for (Map.Entry<String, UrlValidators> entry : urlIndex.entrySet()) {
+            if (!Files.exists(blobPath(entry.getValue().sha256())) && urlIndex.remove(entry.getKey(), entry.getValue())) {
+                pruned++;
+            }
+        }
+        if (pruned > 0) {
+            indexDirty = true;
+            flushIndex();
+        }
+        return new GcResult(scanned, deleted, freed, pruned);
+    }
+
+    Path blobPath(String sha256) {
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    static String toHex(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private void remember(String url, UrlValidators validators) {
+        if (url == null) {
+            return;
+        }
+        UrlValidators previous = urlIndex.put(url, validators);
+        if (!validators.equals(previous)) {
+            indexDirty = true;
+        }
+    }
+
+    private boolean isBlob(Path path) {
+        return Files.isRegularFile(path)
+            && path.getParent() != null
+            && !path.getParent().equals(root)
+            && path.getFileName().toString().length() == 64;
+    }
+
+    private Integer linkCount(Path blob) throws IOException {
+        try {
+            return (Integer) Files.getAttribute(blob, "unix:nlink");
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            if (!linkCountUnsupportedLogged) {
+                linkCountUnsupportedLogged = true;
+                logger.warn("⚠️ File system does not expose link counts, image blob GC is disabled");
+            }
+            return null;
+        }
+    }
+
+    private void moveIfAbsent(Path source, Path blob) throws IOException {
+        if (Files.exists(blob)) {
+            return;
+        }
+        try {
+            Files.move(source, blob, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, blob, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return false, если блоба уже нет (его удалил сборщик мусора)
+     */
+    private boolean tryLink(Path blob, Path target) throws IOException {
+        try {
+            link(blob, target);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private void link(Path blob, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        try {
+            try {
+                Files.createLink(temp, blob);
+            } catch (NoSuchFileException e) {
+                throw e;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                // ФС без жестких ссылок (или блоб на другом разделе) — дедупликация только сетевая
+                Files.copy(blob, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package shadowshift.studio.parserservice.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,15 +13,32 @@ import org.springframework.web.client.RestTemplate;
 import shadowshift.studio.parserservice.config.ParserProperties;
 import shadowshift.studio.parserservice.util.MangaBuffApiHelper;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Сервис для параллельной загрузки изображений с использованием пула прокси
+ * Сервис для параллельной загрузки изображений с использованием пула прокси.
+ * <p>
+ * Каждая попытка загрузки выполняется в отдельном виртуальном потоке; одновременность ограничивается
+ * общим лимитом и лимитом на хост, частота запросов к хосту — token bucket. Повторы не спят в потоке,
+ * а планируются таймером. Тело ответа пишется потоком во временный файл рядом с целевым и
+ * атомарно переименовывается после успешной загрузки. Если подключен {@link ImageBlobStore},
+ * файл вместо этого становится ссылкой на блоб по SHA-256, а уже известные URL перезапрашиваются условно.
  */
 @Service
 public class ImageDownloadService {
@@ -27,120 +48,338 @@ public class ImageDownloadService {
     private static final long DIRECT_SLOW_COOLDOWN_MS = 120_000L;
     private static final long DIRECT_MIN_BYTES_FOR_SPEED_CHECK = 256 * 1024L;
     private static final double DIRECT_MIN_SPEED_MBPS = 1.0;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
     
     @Autowired
     private org.springframework.context.ApplicationContext applicationContext;
     
     @Autowired
     private ProxyManagerService proxyManager;
+
+    @Autowired
+    private ImageBlobStore blobStore;
     
     private final ExecutorService executorService;
+    private final ScheduledExecutorService retryScheduler;
+    private final Semaphore globalPermits;
+    private final HostLimiter hostLimiter;
+    private final int maxAttempts;
+    private final long retryBaseDelayMs;
     private final java.util.concurrent.ConcurrentMap<String, Long> cdnCooldowns = new java.util.concurrent.ConcurrentHashMap<>();
+
+    // Метрики: незавершенные задачи, активные передачи, переданные байты и скорость за последнюю секунду
+    private final AtomicInteger pendingDownloads = new AtomicInteger();
+    private final AtomicInteger inFlightDownloads = new AtomicInteger();
+    private final AtomicLong transferredBytes = new AtomicLong();
+    private final Counter bytesCounter;
+    private volatile long lastBytesSample;
+    private volatile double bytesPerSecond;
     
-    public ImageDownloadService(ParserProperties properties) {
+    public ImageDownloadService(ParserProperties properties, MeterRegistry meterRegistry) {
         int poolSize = properties.getMaxParallelDownloads();
-        this.executorService = Executors.newFixedThreadPool(poolSize);
-        logger.info("🚀 ImageDownloadService initialized with {} parallel threads", poolSize);
+        this.executorService = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("image-download-", 0).factory());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("image-download-timer").daemon().factory());
+        this.globalPermits = new Semaphore(poolSize);
+        this.hostLimiter = new HostLimiter(properties.getDownloadHostMaxConcurrency(), properties.getDownloadHostRatePerSecond());
+        this.maxAttempts = properties.getDownloadMaxAttempts();
+        this.retryBaseDelayMs = properties.getDownloadRetryBaseDelayMs();
+
+        Gauge.builder("parser.downloads.queue", () -> Math.max(0, pendingDownloads.get() - inFlightDownloads.get()))
+            .description("Image downloads waiting for a slot or a scheduled retry")
+            .register(meterRegistry);
+        Gauge.builder("parser.downloads.inflight", inFlightDownloads, AtomicInteger::get)
+            .description("Image downloads currently transferring")
+            .register(meterRegistry);
+        Gauge.builder("parser.downloads.throughput", this, service -> service.bytesPerSecond)
+            .baseUnit("bytes")
+            .description("Downloaded bytes per second over the last sampling interval")
+            .register(meterRegistry);
+        this.bytesCounter = Counter.builder("parser.downloads.bytes")
+            .baseUnit("bytes")
+            .description("Total downloaded image bytes")
+            .register(meterRegistry);
+        retryScheduler.scheduleAtFixedRate(this::sampleThroughput, 1, 1, TimeUnit.SECONDS);
+
+        logger.info("🚀 ImageDownloadService initialized: {} parallel downloads (virtual threads), {} per host, {} req/s per host",
+            poolSize, properties.getDownloadHostMaxConcurrency(),
+            properties.getDownloadHostRatePerSecond() > 0 ? properties.getDownloadHostRatePerSecond() : "unlimited");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        executorService.shutdownNow();
     }
     
     /**
      * Загружает изображение по URL в указанный путь
      */
     public CompletableFuture<DownloadResult> downloadImage(String imageUrl, Path outputPath) {
-        return CompletableFuture.supplyAsync(() -> {
-            long startTime = System.currentTimeMillis();
-            long fileSize = 0;
-            int maxRetries = 3;
-            ProxyManagerService.ProxyServer currentProxy = null;
-            String proxyInfo = "NO_PROXY";
-            
-            try {
-                // Создаем директорию если нет
-                Files.createDirectories(outputPath.getParent());
-                
+        DownloadJob job = new DownloadJob(imageUrl, outputPath);
+        pendingDownloads.incrementAndGet();
+        submit(job);
+        return job.future;
+    }
+
+    /**
+     * Число загрузок, ожидающих слота или запланированного повтора
+     */
+    public int getQueueDepth() {
+        return Math.max(0, pendingDownloads.get() - inFlightDownloads.get());
+    }
+
+    /**
+     * Число активных передач
+     */
+    public int getInFlightCount() {
+        return inFlightDownloads.get();
+    }
+
+    /**
+     * Скорость загрузки (байт/с) за последнюю секунду
+     */
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    private void submit(DownloadJob job) {
+        try {
+            executorService.execute(() -> runAttempt(job));
+        } catch (RejectedExecutionException e) {
+            finish(job, new DownloadResult(false, job.elapsed(), 0, false, job.proxyInfo));
+        }
+    }
+
+    private void finish(DownloadJob job, DownloadResult result) {
+        // Счетчик уменьшаем до завершения future, чтобы ожидающий результат уже видел актуальные метрики
+        pendingDownloads.decrementAndGet();
+        job.future.complete(result);
+    }
+
+    private void schedule(DownloadJob job, long delayMs) {
+        try {
+            retryScheduler.schedule(() -> submit(job), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            finish(job, new DownloadResult(false, job.elapsed(), 0, false, job.proxyInfo));
+        }
+    }
+
+    private void runAttempt(DownloadJob job) {
+        try {
+            if (job.attempt == 0) {
+                Files.createDirectories(job.outputPath.getParent());
+
                 // Если файл уже существует - пропускаем
-                if (Files.exists(outputPath)) {
-                    fileSize = Files.size(outputPath);
-                    logger.debug("✅ File exists: {} ({}KB)", outputPath.getFileName(), fileSize / 1024);
-                    return new DownloadResult(true, System.currentTimeMillis() - startTime, fileSize, true, "CACHE");
+                if (Files.exists(job.outputPath)) {
+                    long fileSize = Files.size(job.outputPath);
+                    logger.debug("✅ File exists: {} ({}KB)", job.outputPath.getFileName(), fileSize / 1024);
+                    finish(job, new DownloadResult(true, job.elapsed(), fileSize, true, "CACHE"));
+                    return;
                 }
+            }
 
-                DownloadResult directResult = tryDirectCdnDownload(imageUrl, outputPath);
+            long waitMs = hostLimiter.tryAcquireRate(job.host);
+            if (waitMs > 0) {
+                // Лимит частоты: ждем таймером, а не в потоке
+                schedule(job, waitMs);
+                return;
+            }
+
+            if (job.attempt == 0) {
+                DownloadResult directResult = tryDirectCdnDownload(job.url, job.outputPath);
                 if (directResult != null) {
-                    return directResult;
+                    finish(job, directResult);
+                    return;
                 }
+            }
 
-                // 🔍 Получаем прокси для fallback
-                currentProxy = proxyManager.getProxyForCurrentThread();
-                proxyInfo = currentProxy != null ? currentProxy.getHost() + ":" + currentProxy.getPort() : "NO_PROXY";
-                
-                // Retry loop для загрузки
-                Exception lastException = null;
-                for (int attempt = 0; attempt < maxRetries; attempt++) {
-                    try {
-                        // Загружаем изображение через единый пул финских прокси
-                        RestTemplate restTemplate = applicationContext.getBean(RestTemplate.class);
-                        HttpEntity<String> entity = new HttpEntity<>(buildImageRequestHeaders());
-                        
-                        ResponseEntity<byte[]> response = restTemplate.exchange(
-                            imageUrl, 
-                            HttpMethod.GET, 
-                            entity, 
-                            byte[].class
-                        );
-                        
-                        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                            byte[] imageData = response.getBody();
-                            fileSize = imageData.length;
-                            Files.write(outputPath, imageData);
-                            
-                            long downloadTime = System.currentTimeMillis() - startTime;
-                            
-                            logger.debug("✅ Downloaded: {} ({}KB in {}ms)", 
-                                outputPath.getFileName(), fileSize / 1024, downloadTime);
-                            proxyManager.recordProxySample(currentProxy, downloadTime, fileSize, true, false);
-                            
-                            return new DownloadResult(true, downloadTime, fileSize, false, proxyInfo);
-                        } else if (attempt < maxRetries - 1) {
-                            logger.warn("⚠️ Bad response for {}: {}, retrying ({}/{})", 
-                                imageUrl, response.getStatusCode(), attempt + 1, maxRetries);
-                            // Задержка между retry для стабильности (200ms, 400ms, 800ms)
-                            Thread.sleep((long) (200 * Math.pow(2, attempt)));
-                            continue;
-                        }
-                        
-                        logger.error("❌ Failed to download {}: {}", imageUrl, response.getStatusCode());
-                        proxyManager.recordProxySample(currentProxy, System.currentTimeMillis() - startTime, 0, false, false);
-                        return new DownloadResult(false, System.currentTimeMillis() - startTime, 0, false, proxyInfo);
-                        
-                    } catch (Exception e) {
-                        lastException = e;
-                        if (attempt < maxRetries - 1) {
-                            logger.warn("⚠️ Error downloading {} (attempt {}/{}): {}", 
-                                imageUrl, attempt + 1, maxRetries, e.getMessage());
-                            // Задержка между retry для стабильности
-                            Thread.sleep((long) (200 * Math.pow(2, attempt)));
-                        }
+            // 🔍 Арендуем прокси на попытку: выбор по задержке/успешности, повтор может уйти через другой.
+            // Слоты загрузки занимаем до аренды, а в задержку прокси пишем только сам обмен:
+            // ожидание в локальной очереди не должно делать здоровый прокси "медленным"
+            TransferOutcome outcome;
+            try (TransferPermits permits = acquirePermits(job.host);
+                 ProxyManagerService.ProxyLease lease = proxyManager.acquireProxy()) {
+                job.proxy = lease.getProxy();
+                job.proxyInfo = job.proxy != null ? job.proxy.getHost() + ":" + job.proxy.getPort() : "NO_PROXY";
+
+                // Загружаем изображение через единый пул финских прокси (RestTemplate берет арендованный прокси)
+                RestTemplate restTemplate = applicationContext.getBean(RestTemplate.class);
+                long exchangeStart = System.currentTimeMillis();
+                try {
+                    outcome = transfer(restTemplate, job.url, job.url, job.outputPath, null);
+                } finally {
+                    job.exchangeMs = System.currentTimeMillis() - exchangeStart;
+                }
+            }
+            long downloadTime = System.currentTimeMillis() - job.startTime;
+
+            logger.debug("✅ Downloaded: {} ({}KB in {}ms{})", job.outputPath.getFileName(), outcome.size() / 1024, downloadTime,
+                outcome.notModified() ? ", not modified" : outcome.deduplicated() ? ", deduplicated" : "");
+            proxyManager.recordProxySample(job.proxy, job.exchangeMs,
+                outcome.notModified() ? 0 : outcome.size(), true, false);
+            finish(job, new DownloadResult(true, downloadTime, outcome.size(), outcome.notModified(), job.proxyInfo));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, new DownloadResult(false, job.elapsed(), 0, false, job.proxyInfo));
+        } catch (Exception e) {
+            handleFailure(job, e);
+        }
+    }
+
+    private void handleFailure(DownloadJob job, Exception error) {
+        job.attempt++;
+        // Каждая неудачная попытка снижает оценку успешности прокси, через который она шла
+        proxyManager.recordProxySample(job.proxy, job.exchangeMs, 0, false, false);
+        job.proxy = null;
+        job.exchangeMs = 0;
+        if (job.attempt < maxAttempts) {
+            long delay = retryBaseDelayMs << (job.attempt - 1); // 200ms, 400ms, 800ms...
+            logger.warn("⚠️ Error downloading {} (attempt {}/{}): {}, retry in {}ms",
+                job.url, job.attempt, maxAttempts, error.getMessage(), delay);
+            schedule(job, delay);
+            return;
+        }
+        logger.error("❌ Error downloading {} after {} attempts: {}", job.url, maxAttempts, error.getMessage());
+        finish(job, new DownloadResult(false, job.elapsed(), 0, false, job.proxyInfo));
+    }
+
+    /**
+     * Скачивает тело ответа потоком во временный файл и атомарно переименовывает его в целевой
+     * (или сдает в {@link ImageBlobStore}, попутно считая SHA-256).
+     * Если тело по sourceUrl уже есть в хранилище блобов, запрос отправляется с If-None-Match/If-Modified-Since,
+     * и на 304 файл создается из блоба без передачи тела.
+     * Если задан acceptance и он отклоняет результат (например, слишком медленно) — файл удаляется.
+     * Вызывающий должен держать {@link TransferPermits} хоста на время вызова.
+     *
+     * @param url       адрес запроса (для прямого CDN — переписанный на конкретный хост)
+     * @param sourceUrl исходный адрес изображения, ключ индекса валидаторов
+     */
+    private TransferOutcome transfer(RestTemplate restTemplate, String url, String sourceUrl, Path outputPath,
+                                     TransferAcceptance acceptance) throws IOException {
+        Path tempFile = outputPath.resolveSibling(outputPath.getFileName() + "." + UUID.randomUUID() + ".part");
+        ImageBlobStore.UrlValidators known = blobStore != null
+            ? blobStore.validatorsFor(sourceUrl).filter(ImageBlobStore.UrlValidators::isConditional).orElse(null)
+            : null;
+        boolean committed = false;
+        inFlightDownloads.incrementAndGet();
+        try {
+            long start = System.currentTimeMillis();
+            ResponseBody received = restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().addAll(buildImageRequestHeaders(known)),
+                response -> {
+                    if (known != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return ResponseBody.NOT_MODIFIED;
+                    }
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        throw new IOException("Bad response " + response.getStatusCode());
                     }
+                    MessageDigest digest = sha256();
+                    long copied;
+                    try (InputStream body = response.getBody(); OutputStream out = Files.newOutputStream(tempFile)) {
+                        copied = copy(body, out, digest);
+                    }
+                    HttpHeaders headers = response.getHeaders();
+                    return new ResponseBody(copied, ImageBlobStore.toHex(digest.digest()),
+                        headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED));
+                });
+            if (received == ResponseBody.NOT_MODIFIED) {
+                long size = blobStore.materialize(known, outputPath);
+                if (size < 0) {
+                    throw new IOException("Cached blob for " + sourceUrl + " disappeared, downloading again");
                 }
-                
-                logger.error("❌ Error downloading {} after {} attempts: {}", 
-                    imageUrl, maxRetries, lastException != null ? lastException.getMessage() : "unknown");
-                proxyManager.recordProxySample(currentProxy, System.currentTimeMillis() - startTime, 0, false, false);
-                return new DownloadResult(false, System.currentTimeMillis() - startTime, 0, false, proxyInfo);
-                
-            } catch (Exception e) {
-                logger.error("❌ Fatal error downloading {}: {}", imageUrl, e.getMessage());
-                proxyManager.recordProxySample(currentProxy, System.currentTimeMillis() - startTime, 0, false, false);
-                return new DownloadResult(false, System.currentTimeMillis() - startTime, 0, false, proxyInfo != null ? proxyInfo : "NO_PROXY");
+                committed = true;
+                return new TransferOutcome(size, true, false);
             }
-        }, executorService);
+            long size = received != null ? received.size() : 0L;
+            if (size == 0) {
+                throw new IOException("Empty response body");
+            }
+            if (acceptance != null) {
+                acceptance.check(System.currentTimeMillis() - start, size);
+            }
+            boolean deduplicated = false;
+            if (blobStore != null) {
+                deduplicated = blobStore.commit(tempFile, received.sha256(), outputPath, sourceUrl,
+                    received.etag(), received.lastModified());
+            } else {
+                moveAtomically(tempFile, outputPath);
+            }
+            committed = true;
+            return new TransferOutcome(size, false, deduplicated);
+        } finally {
+            inFlightDownloads.decrementAndGet();
+            if (!committed) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    /**
+     * Занимает общий слот загрузки и слот хоста; закрытие возвращает оба
+     */
+    private TransferPermits acquirePermits(String host) throws InterruptedException {
+        Semaphore hostPermits = hostLimiter.permits(host);
+        globalPermits.acquire();
+        try {
+            hostPermits.acquire();
+        } catch (InterruptedException e) {
+            globalPermits.release();
+            throw e;
+        }
+        return new TransferPermits(hostPermits);
     }
+
+    private long copy(InputStream in, OutputStream out, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            digest.update(buffer, 0, read);
+            total += read;
+            transferredBytes.addAndGet(read);
+            bytesCounter.increment(read);
+        }
+        return total;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void sampleThroughput() {
+        long current = transferredBytes.get();
+        bytesPerSecond = current - lastBytesSample;
+        lastBytesSample = current;
+    }
+
     
     /**
      * Загружает список изображений параллельно с периодическим логированием прогресса
      */
     public CompletableFuture<DownloadSummary> downloadImages(java.util.List<ImageDownloadTask> tasks) {
+        return downloadImages(tasks, () -> Integer.MAX_VALUE);
+    }
+
+    /**
+     * Загружает список изображений, держа в работе не больше maxOutstanding.getAsInt() страниц:
+     * следующая страница ставится в очередь, как только завершилась любая из текущих.
+     * Лимит перечитывается на каждом шаге, так что вызывающий может менять свою долю общего бюджета на лету.
+     */
+    public CompletableFuture<DownloadSummary> downloadImages(java.util.List<ImageDownloadTask> tasks,
+                                                             java.util.function.IntSupplier maxOutstanding) {
         long startTime = System.currentTimeMillis();
         int totalImages = tasks.size();
         
@@ -158,46 +397,48 @@ public class ImageDownloadService {
         // Прогресс-репортер каждые 10%
         int reportInterval = Math.max(1, totalImages / 10);
         
-        java.util.List<CompletableFuture<DownloadResult>> futures = tasks.stream()
-            .map(task -> downloadImage(task.url, task.outputPath)
-                .thenApply(result -> {
-                    int current = completed.incrementAndGet();
-                    
-                    if (result.success) {
-                        successful.incrementAndGet();
-                        totalBytes.addAndGet(result.fileSize);
-                        if (result.cached) {
-                            cached.incrementAndGet();
-                        }
-                        
-                        // 🔍 Подсчитываем использование прокси
-                        proxyUsageMap.computeIfAbsent(result.proxyUsed, 
-                            k -> new java.util.concurrent.atomic.AtomicInteger(0)).incrementAndGet();
-                    }
-                    
-                    // Логируем прогресс каждые reportInterval изображений
-                    if (current % reportInterval == 0 || current == totalImages) {
-                        long elapsed = System.currentTimeMillis() - startTime;
-                        double progress = (current * 100.0) / totalImages;
-                        double speedImagesPerSec = (current * 1000.0) / elapsed;
-                        long eta = (long) ((totalImages - current) / speedImagesPerSec);
-                        
-                        // 🔍 Получаем последний использованный прокси
-                        String proxyInfo = result.proxyUsed != null ? 
-                            " [Proxy: " + result.proxyUsed.substring(0, Math.min(15, result.proxyUsed.length())) + "...]" : "";
-                        
-                        logger.info("📊 [PROGRESS] {}/{} images ({}%), Speed: {} img/s, ETA: {}s, Success: {}, Cached: {}{}", 
-                            current, totalImages, 
-                            String.format("%.1f", progress), 
-                            String.format("%.1f", speedImagesPerSec), 
-                            eta, successful.get(), cached.get(), proxyInfo);
-                    }
-                    
-                    return result;
-                })
-            )
-            .collect(java.util.stream.Collectors.toList());
-        
+        java.util.function.Function<DownloadResult, DownloadResult> onResult = result -> {
+            int current = completed.incrementAndGet();
+            
+            if (result.success) {
+                successful.incrementAndGet();
+                totalBytes.addAndGet(result.fileSize);
+                if (result.cached) {
+                    cached.incrementAndGet();
+                }
+                
+                // 🔍 Подсчитываем использование прокси
+                proxyUsageMap.computeIfAbsent(result.proxyUsed, 
+                    k -> new java.util.concurrent.atomic.AtomicInteger(0)).incrementAndGet();
+            }
+            
+            // Логируем прогресс каждые reportInterval изображений
+            if (current % reportInterval == 0 || current == totalImages) {
+                long elapsed = System.currentTimeMillis() - startTime;
+                double progress = (current * 100.0) / totalImages;
+                double speedImagesPerSec = (current * 1000.0) / elapsed;
+                long eta = (long) ((totalImages - current) / speedImagesPerSec);
+                
+                // 🔍 Получаем последний использованный прокси
+                String proxyInfo = result.proxyUsed != null ? 
+                    " [Proxy: " + result.proxyUsed.substring(0, Math.min(15, result.proxyUsed.length())) + "...]" : "";
+                
+                logger.info("📊 [PROGRESS] {}/{} images ({}%), Speed: {} img/s, ETA: {}s, Success: {}, Cached: {}{}", 
+                    current, totalImages, 
+                    String.format("%.1f", progress), 
+                    String.format("%.1f", speedImagesPerSec), 
+                    eta, successful.get(), cached.get(), proxyInfo);
+            }
+            
+            return result;
+        };
+
+        java.util.List<CompletableFuture<DownloadResult>> futures = new ArrayList<>(totalImages);
+        for (int i = 0; i < totalImages; i++) {
+            futures.add(new CompletableFuture<>());
+        }
+        new PageFeeder(tasks, futures, onResult, maxOutstanding).pump();
+
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
             .thenApply(v -> {
                 long totalTime = System.currentTimeMillis() - startTime;
@@ -234,7 +475,8 @@ public class ImageDownloadService {
             });
     }
 
-    private DownloadResult tryDirectCdnDownload(String imageUrl, Path outputPath) {
+
+    private DownloadResult tryDirectCdnDownload(String imageUrl, Path outputPath) throws InterruptedException {
         if (!MangaBuffApiHelper.isMangaBuffCdnCandidate(imageUrl)) {
             return null;
         }
@@ -245,7 +487,6 @@ public class ImageDownloadService {
         }
 
         RestTemplate directRestTemplate = applicationContext.getBean("chapterRestTemplate", RestTemplate.class);
-        HttpEntity<String> requestEntity = new HttpEntity<>(buildImageRequestHeaders());
 
         boolean attempted = false;
 
@@ -259,35 +500,20 @@ public class ImageDownloadService {
             String attemptUrl = MangaBuffApiHelper.rewriteImageUrlToHost(imageUrl, host);
             long attemptStart = System.currentTimeMillis();
 
-            try {
-                ResponseEntity<byte[]> response = directRestTemplate.exchange(
-                        attemptUrl,
-                        HttpMethod.GET,
-                        requestEntity,
-                        byte[].class
-                );
-
-                if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-                    markHostSlow(host);
-                    logger.warn("❌ Direct CDN {} replied {} for {}", host, response.getStatusCode(), attemptUrl);
-                    continue;
-                }
-
-                byte[] imageData = response.getBody();
+            try (TransferPermits permits = acquirePermits(host)) {
+                TransferOutcome outcome = transfer(directRestTemplate, attemptUrl, imageUrl, outputPath, (elapsed, size) -> {
+                    double speed = calculateSpeedMbPerSec(size, elapsed);
+                    if (isSlowDirectResponse(elapsed, size, speed)) {
+                        throw new IOException(String.format("slow: %d ms, %s MB/s", elapsed, formatSpeed(speed)));
+                    }
+                });
                 long elapsed = System.currentTimeMillis() - attemptStart;
-                long bytes = imageData.length;
-                double speed = calculateSpeedMbPerSec(bytes, elapsed);
-
-                if (isSlowDirectResponse(elapsed, bytes, speed)) {
-                    markHostSlow(host);
-                    logger.warn("🐢 Direct CDN {} slow: {} ms, {} MB/s ({}).", host, elapsed, formatSpeed(speed), attemptUrl);
-                    continue;
-                }
-
-                Files.write(outputPath, imageData);
                 clearHostPenalty(host);
-                logger.debug("⚡ Direct CDN {} delivered {}KB in {}ms", host, bytes / 1024, elapsed);
-                return new DownloadResult(true, elapsed, bytes, false, "DIRECT:" + host);
+                logger.debug("⚡ Direct CDN {} delivered {}KB in {}ms{}", host, outcome.size() / 1024, elapsed,
+                    outcome.notModified() ? " (not modified)" : "");
+                return new DownloadResult(true, elapsed, outcome.size(), outcome.notModified(), "DIRECT:" + host);
+            } catch (InterruptedException ex) {
+                throw ex;
             } catch (Exception ex) {
                 markHostSlow(host);
                 logger.warn("⚠️ Direct CDN {} failed for {}: {}", host, attemptUrl, ex.getMessage());
@@ -362,10 +588,18 @@ public class ImageDownloadService {
         return speedMbPerSec < DIRECT_MIN_SPEED_MBPS;
     }
 
-    private HttpHeaders buildImageRequestHeaders() {
+    private HttpHeaders buildImageRequestHeaders(ImageBlobStore.UrlValidators known) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("User-Agent", "Mozilla/5.0");
         headers.set("Referer", MangaBuffApiHelper.BASE_URL + "/");
+        if (known != null) {
+            if (known.etag() != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, known.etag());
+            }
+            if (known.lastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, known.lastModified());
+            }
+        }
         return headers;
     }
 
@@ -429,4 +663,182 @@ public class ImageDownloadService {
             this.totalTime = totalTime;
         }
     }
+
+    /**
+     * Тело ответа, записанное во временный файл, с его хэшем и валидаторами
+     */
+    private record ResponseBody(long size, String sha256, String etag, String lastModified) {
+        static final ResponseBody NOT_MODIFIED = new ResponseBody(0, null, null, null);
+    }
+
+    /**
+     * Итог передачи: размер файла, ответ 304 или совпадение с уже сохраненным блобом
+     */
+    private record TransferOutcome(long size, boolean notModified, boolean deduplicated) { }
+
+    /**
+     * Занятые общий слот и слот хоста на время одной передачи
+     */
+    private final class TransferPermits implements AutoCloseable {
+        private final Semaphore hostPermits;
+
+        TransferPermits(Semaphore hostPermits) {
+            this.hostPermits = hostPermits;
+        }
+
+        @Override
+        public void close() {
+            hostPermits.release();
+            globalPermits.release();
+        }
+    }
+
+    /**
+     * Проверка результата загрузки перед фиксацией файла
+     */
+    @FunctionalInterface
+    private interface TransferAcceptance {
+        void check(long elapsedMs, long bytes) throws IOException;
+    }
+
+    /**
+     * Подача страниц одной пачки окном переменного размера
+     */
+    private final class PageFeeder {
+        private final List<ImageDownloadTask> tasks;
+        private final List<CompletableFuture<DownloadResult>> results;
+        private final java.util.function.Function<DownloadResult, DownloadResult> onResult;
+        private final java.util.function.IntSupplier maxOutstanding;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        PageFeeder(List<ImageDownloadTask> tasks,
+                   List<CompletableFuture<DownloadResult>> results,
+                   java.util.function.Function<DownloadResult, DownloadResult> onResult,
+                   java.util.function.IntSupplier maxOutstanding) {
+            this.tasks = tasks;
+            this.results = results;
+            this.onResult = onResult;
+            this.maxOutstanding = maxOutstanding;
+        }
+
+        void pump() {
+            while (true) {
+                int current = outstanding.get();
+                if (current >= Math.max(1, maxOutstanding.getAsInt())) {
+                    return;
+                }
+                if (!outstanding.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                int index = next.getAndIncrement();
+                if (index >= tasks.size()) {
+                    outstanding.decrementAndGet();
+                    return;
+                }
+                ImageDownloadTask task = tasks.get(index);
+                // Продолжение асинхронное: кэшированные страницы завершаются сразу и не должны раскручивать стек
+                downloadImage(task.url, task.outputPath).whenCompleteAsync((result, error) -> {
+                    outstanding.decrementAndGet();
+                    if (error != null) {
+                        results.get(index).completeExceptionally(error);
+                    } else {
+                        try {
+                            results.get(index).complete(onResult.apply(result));
+                        } catch (RuntimeException e) {
+                            results.get(index).completeExceptionally(e);
+                        }
+                    }
+                    pump();
+                }, executorService);
+            }
+        }
+    }
+
+    /**
+     * Состояние загрузки одного изображения между попытками
+     */
+    private static final class DownloadJob {
+        final String url;
+        final String host;
+        final Path outputPath;
+        final long startTime = System.currentTimeMillis();
+        final CompletableFuture<DownloadResult> future = new CompletableFuture<>();
+        int attempt;
+        ProxyManagerService.ProxyServer proxy;
+        String proxyInfo = "NO_PROXY";
+        long exchangeMs; // длительность обмена последней попытки, без ожидания слотов и прокси
+
+        DownloadJob(String url, Path outputPath) {
+            this.url = url;
+            this.host = hostOf(url);
+            this.outputPath = outputPath;
+        }
+
+        long elapsed() {
+            return System.currentTimeMillis() - startTime;
+        }
+
+        private static String hostOf(String url) {
+            try {
+                String host = URI.create(url).getHost();
+                return host != null ? host.toLowerCase(Locale.ROOT) : "";
+            } catch (IllegalArgumentException e) {
+                return "";
+            }
+        }
+    }
+
+    /**
+     * Лимиты на хост: семафор одновременных загрузок и token bucket для частоты запросов
+     */
+    static final class HostLimiter {
+        private final int maxConcurrency;
+        private final double ratePerSecond;
+        private final ConcurrentMap<String, Semaphore> permits = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+        HostLimiter(int maxConcurrency, double ratePerSecond) {
+            this.maxConcurrency = maxConcurrency;
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        Semaphore permits(String host) {
+            return permits.computeIfAbsent(host, h -> new Semaphore(maxConcurrency));
+        }
+
+        /**
+         * @return 0, если запрос можно выполнять сейчас, иначе сколько миллисекунд подождать
+         */
+        long tryAcquireRate(String host) {
+            if (ratePerSecond <= 0) {
+                return 0;
+            }
+            return buckets.computeIfAbsent(host, h -> new TokenBucket(ratePerSecond)).tryAcquire();
+        }
+    }
+
+    private static final class TokenBucket {
+        private final double ratePerMs;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill = System.currentTimeMillis();
+
+        TokenBucket(double ratePerSecond) {
+            this.ratePerMs = ratePerSecond / 1000.0;
+            this.capacity = Math.max(1.0, ratePerSecond);
+            this.tokens = capacity;
+        }
+
+        synchronized long tryAcquire() {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerMs);
+            lastRefill = now;
+            if (tokens >= 1.0) {
+                tokens -= 1.0;
+                return 0;
+            }
+            return Math.max(1L, (long) Math.ceil((1.0 - tokens) / ratePerMs));
+        }
+    }
 }
@@ -3,6 +3,7 @@ package shadowshift.studio.parserservice.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import shadowshift.studio.parserservice.config.ParserProperties;
 
@@ -24,6 +25,37 @@ public class MaintenanceService {
     @Autowired
     private ParserProperties properties;
 
+    @Autowired
+    private ImageBlobStore blobStore;
+
+    /**
+     * Сборка мусора в хранилище блобов изображений: удаляет блобы, на которые больше не ссылается
+     * ни один файл глав (например, после deleteManga), и устаревшие записи индекса URL.
+     */
+    @Scheduled(fixedDelayString = "${parser.image-blob-gc-interval-ms:3600000}",
+               initialDelayString = "${parser.image-blob-gc-interval-ms:3600000}")
+    public Map<String, Object> collectImageBlobs() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            ImageBlobStore.GcResult gc = blobStore.collectGarbage(properties.getImageBlobGcGrace());
+            result.put("success", true);
+            result.put("scanned_blobs", gc.scannedBlobs());
+            result.put("deleted_blobs", gc.deletedBlobs());
+            result.put("freed_space_bytes", gc.freedBytes());
+            result.put("freed_space_mb", gc.freedBytes() / (1024 * 1024));
+            result.put("pruned_urls", gc.prunedUrls());
+            if (gc.deletedBlobs() > 0 || gc.prunedUrls() > 0) {
+                logger.info("🧹 Сборка блобов: удалено {} из {}, освобождено {} байт, из индекса убрано {} URL",
+                    gc.deletedBlobs(), gc.scannedBlobs(), gc.freedBytes(), gc.prunedUrls());
+            }
+        } catch (Exception e) {
+            logger.error("Ошибка сборки мусора блобов изображений: {}", e.getMessage(), e);
+            result.put("success", false);
+            result.put("error", e.getMessage());
+        }
+        return result;
+    }
+
     /**
      * Очистка всех данных (archives, images, titles)
      */
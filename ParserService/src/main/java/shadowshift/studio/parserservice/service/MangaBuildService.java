@@ -20,8 +20,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -338,129 +341,135 @@ public class MangaBuildService {
             taskService.appendLog(task, String.format("📁 Created archives directory: %s", archivesDir));
             
             // ⚡ КРИТИЧНО: Параллельная загрузка глав для максимальной скорости
-            int maxParallelChapters = properties.getMaxParallelChapters();
-            taskService.appendLog(task, String.format("⚡ Downloading chapters with parallelism: %d chapters at once, %d images per chapter", 
-                maxParallelChapters, properties.getMaxParallelDownloads()));
+            int maxParallelChapters = Math.max(1, Math.min(properties.getMaxParallelChapters(), chapters.size()));
+            int pageBudget = properties.getMaxParallelDownloads();
+            taskService.appendLog(task, String.format("⚡ Downloading chapters with parallelism: %d chapters at once, %d images shared between them", 
+                maxParallelChapters, pageBudget));
             
             // Download images for each chapter (PARALLEL!)
             AtomicInteger chapterIndex = new AtomicInteger(0);
+            AtomicInteger completedChapters = new AtomicInteger(0);
+            AtomicInteger activeChapters = new AtomicInteger(0);
             AtomicInteger totalImages = new AtomicInteger(0);
             AtomicInteger downloadedImages = new AtomicInteger(0);
             AtomicInteger skippedChapters = new AtomicInteger(0);
-            
-            // Разбиваем главы на батчи для параллельной загрузки
-            int batchSize = maxParallelChapters;
-            List<List<ChapterInfo>> batches = new ArrayList<>();
-            for (int i = 0; i < chapters.size(); i += batchSize) {
-                batches.add(chapters.subList(i, Math.min(i + batchSize, chapters.size())));
-            }
-            
-            taskService.appendLog(task, String.format("📦 Split %d chapters into %d batches", chapters.size(), batches.size()));
-            
-            for (List<ChapterInfo> batch : batches) {
-                // Обрабатываем батч глав параллельно
-                List<CompletableFuture<Void>> futures = batch.stream()
-                    .map(chapter -> CompletableFuture.runAsync(() -> {
-                        int currentIndex = chapterIndex.incrementAndGet();
-                        
-                        if (chapter.getIsPaid() != null && chapter.getIsPaid()) {
-                            skippedChapters.incrementAndGet();
-                            taskService.appendLog(task, String.format("⏭️ [%d/%d] Skipping paid chapter %.1f", 
-                                currentIndex, chapters.size(), chapter.getNumber()));
+
+            // Бюджет страниц делится поровну между главами, которые качаются прямо сейчас:
+            // мелкие главы не ждут огромную, а оставшаяся в одиночестве глава забирает весь бюджет
+            IntSupplier pageWindow = () -> Math.max(1, pageBudget / Math.max(1, activeChapters.get()));
+
+            BiConsumer<ChapterInfo, Integer> downloadChapter = (chapter, currentIndex) -> {
+                if (chapter.getIsPaid() != null && chapter.getIsPaid()) {
+                    skippedChapters.incrementAndGet();
+                    taskService.appendLog(task, String.format("⏭️ [%d/%d] Skipping paid chapter %.1f", 
+                        currentIndex, chapters.size(), chapter.getNumber()));
+                    return;
+                }
+                
+                task.setMessage(String.format("Downloading chapter %d/%d (%.1f)", 
+                    currentIndex, chapters.size(), chapter.getNumber()));
+                taskService.appendLog(task, String.format("📥 [%d/%d] Downloading chapter %.1f: %s", 
+                    currentIndex, chapters.size(), chapter.getNumber(), 
+                    chapter.getTitle() != null ? chapter.getTitle() : ""));
+                
+                try {
+                    // Get chapter image URLs
+                    List<SlideInfo> slides = chapter.getSlides();
+                    if (slides == null || slides.isEmpty()) {
+                        ChapterPath chapterPath = resolveChapterPath(slugContext, chapter);
+                        if (chapterPath == null) {
+                            taskService.appendLog(task, String.format("   ⚠️ Chapter %.1f: unable to resolve chapter path", chapter.getNumber()));
                             return;
                         }
-                        
-                        task.setMessage(String.format("Downloading chapter %d/%d (%.1f)", 
-                            currentIndex, chapters.size(), chapter.getNumber()));
-                        taskService.appendLog(task, String.format("📥 [%d/%d] Downloading chapter %.1f: %s", 
-                            currentIndex, chapters.size(), chapter.getNumber(), 
-                            chapter.getTitle() != null ? chapter.getTitle() : ""));
-                        
-                        try {
-                            // Get chapter image URLs
-                            List<SlideInfo> slides = chapter.getSlides();
-                            if (slides == null || slides.isEmpty()) {
-                                ChapterPath chapterPath = resolveChapterPath(slugContext, chapter);
-                                if (chapterPath == null) {
-                                    taskService.appendLog(task, String.format("   ⚠️ Chapter %.1f: unable to resolve chapter path", chapter.getNumber()));
-                                    return;
-                                }
-                                slides = parserService.fetchChapterSlides(chapterPath.slug(), chapterPath.volumeSegment(), chapterPath.chapterSegment());
-                                chapter.setSlides(slides);
-                                logger.debug("Fetched {} slides from MangaBuff for chapter {}", slides.size(), chapter.getNumber());
-                            } else {
-                                logger.debug("Using {} slides from cached JSON for chapter {}", slides.size(), chapter.getNumber());
-                            }
+                        slides = parserService.fetchChapterSlides(chapterPath.slug(), chapterPath.volumeSegment(), chapterPath.chapterSegment());
+                        chapter.setSlides(slides);
+                        logger.debug("Fetched {} slides from MangaBuff for chapter {}", slides.size(), chapter.getNumber());
+                    } else {
+                        logger.debug("Using {} slides from cached JSON for chapter {}", slides.size(), chapter.getNumber());
+                    }
 
-                            List<SlideInfo> downloadableSlides = slides.stream()
-                                    .filter(Objects::nonNull)
-                                    .filter(slide -> slide.getLink() != null && !slide.getLink().isBlank())
-                                    .collect(Collectors.toList());
+                    List<SlideInfo> downloadableSlides = slides.stream()
+                            .filter(Objects::nonNull)
+                            .filter(slide -> slide.getLink() != null && !slide.getLink().isBlank())
+                            .collect(Collectors.toList());
 
-                            if (downloadableSlides.isEmpty()) {
-                                taskService.appendLog(task, String.format("   ⚠️ Chapter %.1f: no images found", chapter.getNumber()));
-                                return;
-                            }
-                            
-                            // Create chapter directory with volume prefix to avoid collisions
-                            String chapterDirName;
-                            Object volumeObj = chapter.getVolume();
-                            String volumeStr = volumeObj != null ? volumeObj.toString().trim() : "";
-                            
-                            // Include volume number in folder name if present
-                            if (!volumeStr.isEmpty() && !volumeStr.equals("0")) {
-                                chapterDirName = String.format("v%s_ch_%.1f", volumeStr, chapter.getNumber()).replace(",", ".");
-                            } else {
-                                chapterDirName = String.format("ch_%.1f", chapter.getNumber()).replace(",", ".");
-                            }
-                            
-                            Path chapterDir = archivesDir.resolve(chapterDirName);
-                            Files.createDirectories(chapterDir);
-                            
-                            // Сохраняем имя папки в ChapterInfo для последующего импорта
-                            chapter.setFolderName(chapterDirName);
-                            
-                            // Prepare download tasks
-                            List<ImageDownloadService.ImageDownloadTask> downloadTasks = new ArrayList<>();
-                            for (int i = 0; i < downloadableSlides.size(); i++) {
-                                SlideInfo slide = downloadableSlides.get(i);
-                                int index = slide.getIndex() != null ? slide.getIndex() : (i + 1);
-                                String imageName = String.format("%03d.jpg", index);
-                                Path imagePath = chapterDir.resolve(imageName);
-                                downloadTasks.add(new ImageDownloadService.ImageDownloadTask(slide.getLink(), imagePath));
+                    if (downloadableSlides.isEmpty()) {
+                        taskService.appendLog(task, String.format("   ⚠️ Chapter %.1f: no images found", chapter.getNumber()));
+                        return;
+                    }
+                    
+                    // Create chapter directory with volume prefix to avoid collisions
+                    String chapterDirName;
+                    Object volumeObj = chapter.getVolume();
+                    String volumeStr = volumeObj != null ? volumeObj.toString().trim() : "";
+                    
+                    // Include volume number in folder name if present
+                    if (!volumeStr.isEmpty() && !volumeStr.equals("0")) {
+                        chapterDirName = String.format("v%s_ch_%.1f", volumeStr, chapter.getNumber()).replace(",", ".");
+                    } else {
+                        chapterDirName = String.format("ch_%.1f", chapter.getNumber()).replace(",", ".");
+                    }
+                    
+                    Path chapterDir = archivesDir.resolve(chapterDirName);
+                    Files.createDirectories(chapterDir);
+                    
+                    // Сохраняем имя папки в ChapterInfo для последующего импорта
+                    chapter.setFolderName(chapterDirName);
+                    
+                    // Prepare download tasks
+                    List<ImageDownloadService.ImageDownloadTask> downloadTasks = new ArrayList<>();
+                    for (int i = 0; i < downloadableSlides.size(); i++) {
+                        SlideInfo slide = downloadableSlides.get(i);
+                        int index = slide.getIndex() != null ? slide.getIndex() : (i + 1);
+                        String imageName = String.format("%03d.jpg", index);
+                        Path imagePath = chapterDir.resolve(imageName);
+                        downloadTasks.add(new ImageDownloadService.ImageDownloadTask(slide.getLink(), imagePath));
+                    }
+                    
+                    totalImages.addAndGet(downloadableSlides.size());
+                    
+                    // Download images in parallel
+                    long chapterStartTime = System.currentTimeMillis();
+                    ImageDownloadService.DownloadSummary summary = imageDownloader.downloadImages(downloadTasks, pageWindow).join();
+                    long chapterElapsed = System.currentTimeMillis() - chapterStartTime;
+                    
+                    downloadedImages.addAndGet(summary.successCount);
+                    
+                    double speedMBps = summary.totalTime > 0 ? 
+                        (summary.totalBytes / 1024.0 / 1024.0) / (summary.totalTime / 1000.0) : 0;
+                    double speedImgps = summary.totalTime > 0 ? 
+                        (summary.totalImages * 1000.0) / summary.totalTime : 0;
+                    
+                    taskService.appendLog(task, String.format("   ✅ Downloaded %d/%d images (%.2f MB/s, %.1f img/s, %dms)", 
+                        summary.successCount, downloadableSlides.size(), speedMBps, speedImgps, chapterElapsed));
+                    
+                } catch (Exception e) {
+                    taskService.appendLog(task, String.format("   ❌ Error downloading chapter %.1f: %s", 
+                        chapter.getNumber(), e.getMessage()));
+                    logger.error("Error downloading chapter {}: {}", chapter.getNumber(), e.getMessage(), e);
+                }
+            };
+
+            // Непрерывное планирование: ровно maxParallelChapters воркеров берут следующую главу,
+            // как только закончили предыдущую, без барьеров между батчами
+            try (ExecutorService chapterWorkers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int worker = 0; worker < maxParallelChapters; worker++) {
+                    chapterWorkers.execute(() -> {
+                        int next;
+                        while ((next = chapterIndex.getAndIncrement()) < chapters.size()) {
+                            activeChapters.incrementAndGet();
+                            try {
+                                downloadChapter.accept(chapters.get(next), next + 1);
+                            } finally {
+                                activeChapters.decrementAndGet();
+                                // Прогресс считаем по завершенным главам, а не по порядковому номеру начатой
+                                int done = completedChapters.incrementAndGet();
+                                task.setProgress(10 + (done * 85 / chapters.size()));
+                                task.setMessage(String.format("Processed %d/%d chapters", done, chapters.size()));
                             }
-                            
-                            totalImages.addAndGet(downloadableSlides.size());
-                            
-                            // Download images in parallel
-                            long chapterStartTime = System.currentTimeMillis();
-                            ImageDownloadService.DownloadSummary summary = imageDownloader.downloadImages(downloadTasks).join();
-                            long chapterElapsed = System.currentTimeMillis() - chapterStartTime;
-                            
-                            downloadedImages.addAndGet(summary.successCount);
-                            
-                            double speedMBps = summary.totalTime > 0 ? 
-                                (summary.totalBytes / 1024.0 / 1024.0) / (summary.totalTime / 1000.0) : 0;
-                            double speedImgps = summary.totalTime > 0 ? 
-                                (summary.totalImages * 1000.0) / summary.totalTime : 0;
-                            
-                            taskService.appendLog(task, String.format("   ✅ Downloaded %d/%d images (%.2f MB/s, %.1f img/s, %dms)", 
-                                summary.successCount, downloadableSlides.size(), speedMBps, speedImgps, chapterElapsed));
-                            
-                            int progress = 10 + (currentIndex * 85 / chapters.size());
-                            task.setProgress(progress);
-                            task.setMessage(String.format("Processed %d/%d chapters", currentIndex, chapters.size()));
-                            
-                        } catch (Exception e) {
-                            taskService.appendLog(task, String.format("   ❌ Error downloading chapter %.1f: %s", 
-                                chapter.getNumber(), e.getMessage()));
-                            logger.error("Error downloading chapter {}: {}", chapter.getNumber(), e.getMessage(), e);
                         }
-                    }))
-                    .collect(Collectors.toList());
-                
-                // Ждем завершения батча перед переходом к следующему
-                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+                    });
+                }
             }
             
             long totalElapsed = System.currentTimeMillis() - startTime;
@@ -477,9 +486,9 @@ public class MangaBuildService {
             task.setCompletedAt(Instant.now());
             task.setProgress(100);
             task.setMessage(String.format("Build completed: %d images from %d chapters (skipped %d paid) in %dms", 
-                downloadedImages.get(), chapterIndex.get() - skippedChapters.get(), skippedChapters.get(), totalElapsed));
+                downloadedImages.get(), completedChapters.get() - skippedChapters.get(), skippedChapters.get(), totalElapsed));
             taskService.appendLog(task, String.format("🎉 Build completed: %d/%d images downloaded, %d chapters processed, %d skipped, time: %dms", 
-                downloadedImages.get(), totalImages.get(), chapterIndex.get() - skippedChapters.get(), skippedChapters.get(), totalElapsed));
+                downloadedImages.get(), totalImages.get(), completedChapters.get() - skippedChapters.get(), skippedChapters.get(), totalElapsed));
             
         } catch (Exception e) {
             long totalElapsed = System.currentTimeMillis() - startTime;
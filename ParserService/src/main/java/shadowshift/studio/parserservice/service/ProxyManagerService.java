@@ -2,21 +2,34 @@ package shadowshift.studio.parserservice.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
+import shadowshift.studio.parserservice.config.ParserProperties;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Сервис для управления пулом прокси-серверов
- * Реализует ротацию и отслеживание статистики использования
+ * Выбирает прокси по EWMA задержки и успешности (power-of-two-choices), ограничивает число
+ * одновременных запросов на прокси и выводит сбоящие прокси через circuit breaker с полуоткрытыми пробами.
+ * Лимит {@code parser.proxy-max-concurrency} строгий для аренд {@link #acquireProxy()}: когда все прокси
+ * заняты до лимита, аренда ждет освобождения слота не дольше {@code parser.proxy-acquire-timeout-ms}.
  */
 @Service
 public class ProxyManagerService {
@@ -27,22 +40,42 @@ public class ProxyManagerService {
     private static final long SLOW_LATENCY_THRESHOLD_MS = 5_000L;          // >5 секунд на изображение считаем медленным
     private static final long MIN_BYTES_FOR_SPEED_CHECK = 256 * 1024L;     // скорость считаем только для файлов >256KB
     private static final double MIN_SPEED_MB_PER_SEC = 0.5;                // <0.5 MB/s на крупном файле считаем медленным
-    private static final int SLOW_STREAK_LIMIT = 3;                        // 3 медленных ответа подряд → карантин
-    private static final int RECOVERY_STREAK_LIMIT = 2;                    // 2 быстрых ответа подряд → восстановление
-    private static final int FAILURE_STREAK_LIMIT = 2;                     // 2 ошибки подряд → карантин
-    private static final long QUARANTINE_DURATION_MS = 60_000L;            // карантин 60 секунд, затем пробный возврат
+    private static final int SLOW_STREAK_LIMIT = 3;                        // 3 медленных ответа подряд → размыкание
+    private static final int RECOVERY_STREAK_LIMIT = 2;                    // 2 успешные пробы подряд → замыкание
+    private static final int FAILURE_STREAK_LIMIT = 2;                     // 2 ошибки подряд → размыкание
+
+    // ⚙️ Circuit breaker: время размыкания растет экспоненциально с каждым повторным срабатыванием
+    private static final long OPEN_BASE_MS = 15_000L;
+    private static final long OPEN_MAX_MS = 300_000L;
+    private static final long PROBE_TIMEOUT_MS = 30_000L;                  // проба без результата считается потерянной
+
+    // ⚙️ EWMA: вес нового замера и стартовые оценки для прокси без истории
+    private static final double EWMA_ALPHA = 0.2;
+    private static final double INITIAL_LATENCY_MS = 500.0;
+    private static final double MIN_SUCCESS_WEIGHT = 0.05;
     
     private final List<ProxyServer> proxyPool = new ArrayList<>();
-    private final AtomicInteger currentIndex = new AtomicInteger(0);
     private final Map<String, ProxyStats> proxyStats = new ConcurrentHashMap<>();
     private final Map<String, ProxyHealth> proxyHealth = new ConcurrentHashMap<>();
     private boolean enabled = false;
     
-    // ⚡ ОПТИМИЗАЦИЯ: Sticky Proxy Assignment - каждый поток привязан к своему прокси
+    // ⚡ ОПТИМИЗАЦИЯ: Sticky Proxy Assignment - поток держит выбранный прокси, пока тот доступен
     private final ThreadLocal<ProxyServer> threadLocalProxy = new ThreadLocal<>();
+    // Прокси, арендованный текущим потоком через acquireProxy(), имеет приоритет над sticky-привязкой
+    private final ThreadLocal<ProxyServer> leasedProxy = new ThreadLocal<>();
+
+    // Ожидание свободного слота, когда все прокси заняты до лимита (ReentrantLock не закрепляет виртуальные потоки)
+    private final ReentrantLock capacityLock = new ReentrantLock();
+    private final Condition capacityFreed = capacityLock.newCondition();
     
     @Autowired
     private ObjectMapper objectMapper;
+
+    @Autowired
+    private ParserProperties properties;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
     
     @PostConstruct
     public void init() {
@@ -50,26 +83,33 @@ public class ProxyManagerService {
     }
     
     /**
-     * Получает следующий доступный прокси из пула (round-robin)
+     * Выбирает прокси из пула: power-of-two-choices по EWMA задержки и успешности с учетом загрузки
      */
     public ProxyServer getNextProxy() {
-        return findNextProxy(true);
+        ProxyServer proxy = selectProxy(true);
+        recordUsage(proxy);
+        return proxy;
     }
     
     /**
      * ⚡ ОПТИМИЗАЦИЯ: Получает прокси для текущего потока (Sticky Proxy Assignment)
-     * Каждый поток будет всегда использовать один и тот же прокси для максимальной
-     * эффективности Connection Keep-Alive
+     * Поток использует один и тот же прокси для эффективного Connection Keep-Alive,
+     * пока прокси доступен; новый прокси выбирается по задержке и успешности.
      */
     public ProxyServer getProxyForCurrentThread() {
         if (proxyPool.isEmpty()) {
             return null; // Работаем без прокси
         }
+
+        ProxyServer leased = leasedProxy.get();
+        if (leased != null) {
+            return leased;
+        }
         
         ProxyServer proxy = threadLocalProxy.get();
 
         if (proxy == null || !isProxyUsable(proxy)) {
-            proxy = assignProxyToThread();
+            proxy = selectProxy(true);
             if (proxy != null) {
                 threadLocalProxy.set(proxy);
                 logger.debug("Thread {}: Assigned proxy {}:{} (sticky)",
@@ -86,12 +126,60 @@ public class ProxyManagerService {
 
         return proxy;
     }
-    
+
     /**
-     * Назначает прокси потоку при первом запросе
+     * Выбирает прокси на время одного запроса и привязывает его к текущему потоку,
+     * чтобы RestTemplate, созданный внутри, шел через тот же прокси.
+     * Пока аренда не закрыта, запрос занимает слот в лимите одновременных запросов прокси;
+     * если свободных слотов нет ни у одного прокси, метод ждет освобождения.
+     *
+     * @throws TimeoutException если слот не освободился за {@code parser.proxy-acquire-timeout-ms}
      */
-    private ProxyServer assignProxyToThread() {
-        return findNextProxy(true);
+    public ProxyLease acquireProxy() throws InterruptedException, TimeoutException {
+        if (proxyPool.isEmpty()) {
+            return ProxyLease.NONE;
+        }
+        int cap = properties != null ? properties.getProxyMaxConcurrency() : 0;
+        long timeoutMs = properties != null ? properties.getProxyAcquireTimeoutMs() : 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (true) {
+            ProxyServer proxy = selectProxy(false);
+            if (proxy != null && healthOf(proxy).tryReserve(cap)) {
+                return lease(proxy);
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException("All proxies are at the concurrency limit of " + cap);
+            }
+            capacityLock.lock();
+            try {
+                // Короткий предел ожидания страхует от пропущенного сигнала между выбором и засыпанием
+                capacityFreed.awaitNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)));
+            } finally {
+                capacityLock.unlock();
+            }
+        }
+    }
+
+    private ProxyLease lease(ProxyServer proxy) {
+        ProxyHealth health = healthOf(proxy);
+        recordUsage(proxy);
+        ProxyServer previous = leasedProxy.get();
+        leasedProxy.set(proxy);
+        return new ProxyLease(proxy, () -> {
+            health.inFlight.decrementAndGet();
+            capacityLock.lock();
+            try {
+                capacityFreed.signal();
+            } finally {
+                capacityLock.unlock();
+            }
+            if (previous != null) {
+                leasedProxy.set(previous);
+            } else {
+                leasedProxy.remove();
+            }
+        });
     }
     
     /**
@@ -101,7 +189,7 @@ public class ProxyManagerService {
         if (proxy != null) {
             ProxyStats stats = proxyStats.computeIfAbsent(proxy.getId(), k -> new ProxyStats(proxy));
             stats.incrementFailures();
-            ProxyHealth health = proxyHealth.computeIfAbsent(proxy.getId(), k -> new ProxyHealth());
+            ProxyHealth health = healthOf(proxy);
             health.recordFailure(proxy, "исключение при запросе");
             stats.recordMetrics(0L, 0.0, true, health.getState());
             logger.warn("Прокси {}:{} отмечен как проблемный", proxy.getHost(), proxy.getPort());
@@ -141,8 +229,7 @@ public class ProxyManagerService {
                     String password = proxyNode.has("password") ? proxyNode.get("password").asText() : null;
                     
                     ProxyServer proxy = new ProxyServer(host, port, username, password);
-                    proxyPool.add(proxy);
-                    proxyHealth.put(proxy.getId(), new ProxyHealth());
+                    registerProxy(proxy);
                 }
             }
             
@@ -154,6 +241,30 @@ public class ProxyManagerService {
         }
     }
     
+    /**
+     * Добавляет прокси в пул и регистрирует его метрики
+     */
+    void registerProxy(ProxyServer proxy) {
+        proxyPool.add(proxy);
+        ProxyHealth health = healthOf(proxy);
+        if (meterRegistry == null) {
+            return;
+        }
+        Tags tags = Tags.of("proxy", proxy.getId());
+        Gauge.builder("parser.proxy.latency.ewma", health, ProxyHealth::getEwmaLatencyMs)
+            .tags(tags).baseUnit("milliseconds").description("EWMA of proxy request latency")
+            .register(meterRegistry);
+        Gauge.builder("parser.proxy.success.ewma", health, ProxyHealth::getEwmaSuccess)
+            .tags(tags).description("EWMA of proxy success rate (0..1)")
+            .register(meterRegistry);
+        Gauge.builder("parser.proxy.inflight", health.inFlight, AtomicInteger::get)
+            .tags(tags).description("Requests currently leased to the proxy")
+            .register(meterRegistry);
+        Gauge.builder("parser.proxy.state", health, h -> h.getState().ordinal())
+            .tags(tags).description("Circuit state: 0 closed, 1 half-open, 2 open")
+            .register(meterRegistry);
+    }
+
     /**
      * Получает статистику использования прокси
      */
@@ -169,7 +280,7 @@ public class ProxyManagerService {
             return;
         }
 
-        ProxyHealth health = proxyHealth.computeIfAbsent(proxy.getId(), k -> new ProxyHealth());
+        ProxyHealth health = healthOf(proxy);
         double speedMbPerSec = calculateSpeed(latencyMs, bytesDownloaded);
         boolean sizablePayload = bytesDownloaded >= MIN_BYTES_FOR_SPEED_CHECK;
         boolean slow = !success;
@@ -191,39 +302,81 @@ public class ProxyManagerService {
         stats.recordMetrics(latencyMs, speedMbPerSec, slow, health.getState());
     }
 
+    private ProxyHealth healthOf(ProxyServer proxy) {
+        return proxyHealth.computeIfAbsent(proxy.getId(), k -> new ProxyHealth());
+    }
+
+    /**
+     * Sticky-привязка сохраняется только за замкнутым прокси: полуоткрытый получает лишь пробные запросы
+     */
     private boolean isProxyUsable(ProxyServer proxy) {
         ProxyHealth health = proxyHealth.get(proxy.getId());
         if (health == null) {
             return true;
         }
-        return health.isAvailable(proxy);
+        return health.isAvailable(proxy) && health.getState() == ProxyState.ACTIVE;
     }
 
-    private ProxyServer findNextProxy(boolean allowFallback) {
+    /**
+     * Power-of-two-choices: из доступных прокси, не упершихся в лимит одновременных запросов,
+     * берутся два случайных и выбирается тот, у кого ниже ожидаемая стоимость запроса.
+     * Полуоткрытый прокси получает ровно один пробный запрос.
+     *
+     * @param allowSaturated вернуть наименее загруженный прокси, даже если все упираются в лимит;
+     *                       нужно для sticky-привязки, которая не занимает слоты лимита
+     * @return прокси или null, если пул пуст либо (без allowSaturated) все прокси заняты до лимита
+     */
+    private ProxyServer selectProxy(boolean allowSaturated) {
         if (proxyPool.isEmpty()) {
             return null;
         }
 
-        int size = proxyPool.size();
-        for (int i = 0; i < size; i++) {
-            int index = Math.floorMod(currentIndex.getAndIncrement(), size);
-            ProxyServer candidate = proxyPool.get(index);
-            if (isProxyUsable(candidate)) {
-                recordUsage(candidate);
-                return candidate;
+        int cap = properties != null ? properties.getProxyMaxConcurrency() : 0;
+        List<ProxyServer> candidates = new ArrayList<>(proxyPool.size());
+        ProxyServer leastLoaded = null;
+        for (ProxyServer proxy : proxyPool) {
+            ProxyHealth health = healthOf(proxy);
+            if (!health.isAvailable(proxy)) {
+                continue;
+            }
+            if (health.getState() == ProxyState.RECOVERING) {
+                if (health.tryStartProbe()) {
+                    logger.debug("🩺 Пробный запрос через прокси {}:{}", proxy.getHost(), proxy.getPort());
+                    return proxy;
+                }
+                continue;
+            }
+            if (leastLoaded == null || health.inFlight.get() < healthOf(leastLoaded).inFlight.get()) {
+                leastLoaded = proxy;
+            }
+            if (cap <= 0 || health.inFlight.get() < cap) {
+                candidates.add(proxy);
             }
         }
 
-        if (allowFallback) {
-            int index = Math.floorMod(currentIndex.getAndIncrement(), size);
-            ProxyServer fallback = proxyPool.get(index);
-            logger.warn("Все прокси находятся в карантине. Возвращаем {}:{} для пробного использования", 
+        if (candidates.isEmpty()) {
+            if (leastLoaded != null) {
+                // Все доступные прокси загружены до лимита
+                return allowSaturated ? leastLoaded : null;
+            }
+            ProxyServer fallback = proxyPool.get(ThreadLocalRandom.current().nextInt(proxyPool.size()));
+            logger.warn("Все прокси разомкнуты. Возвращаем {}:{} для пробного использования",
                 fallback.getHost(), fallback.getPort());
-            recordUsage(fallback);
             return fallback;
         }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
 
-        return null;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ProxyServer a = candidates.get(first);
+        ProxyServer b = candidates.get(second);
+        return healthOf(a).cost() <= healthOf(b).cost() ? a : b;
     }
 
     private void recordUsage(ProxyServer proxy) {
@@ -279,6 +432,33 @@ public class ProxyManagerService {
             return username != null && !username.isEmpty();
         }
     }
+
+    /**
+     * Аренда прокси на время одного запроса. Закрытие освобождает слот и отвязывает прокси от потока.
+     */
+    public static final class ProxyLease implements AutoCloseable {
+        public static final ProxyLease NONE = new ProxyLease(null, () -> { });
+
+        private final ProxyServer proxy;
+        private final Runnable release;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        ProxyLease(ProxyServer proxy, Runnable release) {
+            this.proxy = proxy;
+            this.release = release;
+        }
+
+        public ProxyServer getProxy() {
+            return proxy;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release.run();
+            }
+        }
+    }
     
     /**
      * Статистика использования прокси
@@ -332,18 +512,27 @@ public class ProxyManagerService {
         public String getId() { return id; }
     }
 
-    private enum ProxyState {
+    /**
+     * Состояние circuit breaker прокси: ACTIVE — замкнут, RECOVERING — полуоткрыт (пробные запросы),
+     * QUARANTINED — разомкнут до истечения таймаута
+     */
+    enum ProxyState {
         ACTIVE,
         RECOVERING,
         QUARANTINED
     }
 
     private class ProxyHealth {
+        private final AtomicInteger inFlight = new AtomicInteger();
         private ProxyState state = ProxyState.ACTIVE;
         private int slowStreak = 0;
         private int fastStreak = 0;
         private int failureStreak = 0;
-        private long lastStateChange = System.currentTimeMillis();
+        private int consecutiveTrips = 0;
+        private long openUntil = 0L;
+        private long probeStartedAt = 0L;
+        private volatile double ewmaLatencyMs = INITIAL_LATENCY_MS;
+        private volatile double ewmaSuccess = 1.0;
 
         synchronized boolean isAvailable(ProxyServer proxy) {
             if (state == ProxyState.ACTIVE || state == ProxyState.RECOVERING) {
@@ -351,20 +540,68 @@ public class ProxyManagerService {
             }
 
             long now = System.currentTimeMillis();
-            if (state == ProxyState.QUARANTINED && now - lastStateChange >= QUARANTINE_DURATION_MS) {
+            if (state == ProxyState.QUARANTINED && now >= openUntil) {
                 state = ProxyState.RECOVERING;
                 slowStreak = 0;
                 fastStreak = 0;
                 failureStreak = 0;
-                lastStateChange = now;
-                logger.info("🩺 Прокси {}:{} возвращается из карантина для пробного использования", proxy.getHost(), proxy.getPort());
+                probeStartedAt = 0L;
+                logger.info("🩺 Прокси {}:{} переведен в полуоткрытое состояние, ждем пробных запросов", proxy.getHost(), proxy.getPort());
                 return true;
             }
 
             return false;
         }
 
+        /**
+         * Атомарно занимает слот одновременного запроса, если прокси не уперся в лимит (0 — без лимита)
+         */
+        boolean tryReserve(int cap) {
+            while (true) {
+                int current = inFlight.get();
+                if (cap > 0 && current >= cap) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Занимает единственный слот пробного запроса полуоткрытого прокси
+         */
+        synchronized boolean tryStartProbe() {
+            long now = System.currentTimeMillis();
+            if (probeStartedAt != 0L && now - probeStartedAt < PROBE_TIMEOUT_MS) {
+                return false;
+            }
+            probeStartedAt = now;
+            return true;
+        }
+
+        /**
+         * Ожидаемая стоимость запроса: задержка, умноженная на очередь, и штраф за неуспешные ответы
+         */
+        double cost() {
+            return ewmaLatencyMs * (inFlight.get() + 1) / Math.max(ewmaSuccess, MIN_SUCCESS_WEIGHT);
+        }
+
+        double getEwmaLatencyMs() {
+            return ewmaLatencyMs;
+        }
+
+        double getEwmaSuccess() {
+            return ewmaSuccess;
+        }
+
         synchronized void recordSample(ProxyServer proxy, long latencyMs, double speedMbPerSec, boolean slow, boolean success, String slowReason) {
+            probeStartedAt = 0L;
+            ewmaSuccess += EWMA_ALPHA * ((success ? 1.0 : 0.0) - ewmaSuccess);
+            if (success) {
+                ewmaLatencyMs += EWMA_ALPHA * (latencyMs - ewmaLatencyMs);
+            }
+
             if (!success) {
                 failureStreak++;
             } else {
@@ -379,30 +616,38 @@ public class ProxyManagerService {
                 slowStreak = 0;
             }
 
+            if (state == ProxyState.RECOVERING && (slow || !success)) {
+                // Проба не удалась — снова размыкаем с увеличенным таймаутом
+                trip(proxy, latencyMs, speedMbPerSec, slowReason != null ? slowReason : "неудачная проба");
+                return;
+            }
+
             if (failureStreak >= FAILURE_STREAK_LIMIT) {
-                quarantine(proxy, latencyMs, speedMbPerSec, slowReason != null ? slowReason : "серия ошибок");
+                trip(proxy, latencyMs, speedMbPerSec, slowReason != null ? slowReason : "серия ошибок");
                 return;
             }
 
             if (slow && slowStreak >= SLOW_STREAK_LIMIT) {
                 String reason = slowReason != null ? slowReason : "длительные ответы";
-                quarantine(proxy, latencyMs, speedMbPerSec, reason);
+                trip(proxy, latencyMs, speedMbPerSec, reason);
                 return;
             }
 
             if (!slow && state == ProxyState.RECOVERING && fastStreak >= RECOVERY_STREAK_LIMIT) {
                 state = ProxyState.ACTIVE;
-                lastStateChange = System.currentTimeMillis();
-                logger.info("✅ Прокси {}:{} возвращён в активный пул после {} успешных ответов", proxy.getHost(), proxy.getPort(), fastStreak);
+                consecutiveTrips = 0;
+                logger.info("✅ Прокси {}:{} возвращён в активный пул после {} успешных проб", proxy.getHost(), proxy.getPort(), fastStreak);
             }
         }
 
         synchronized void recordFailure(ProxyServer proxy, String reason) {
+            probeStartedAt = 0L;
+            ewmaSuccess += EWMA_ALPHA * (0.0 - ewmaSuccess);
             failureStreak++;
             slowStreak++;
             fastStreak = 0;
-            if (failureStreak >= FAILURE_STREAK_LIMIT) {
-                quarantine(proxy, 0L, 0.0, reason + " (" + failureStreak + " подряд)");
+            if (state == ProxyState.RECOVERING || failureStreak >= FAILURE_STREAK_LIMIT) {
+                trip(proxy, 0L, 0.0, reason + " (" + failureStreak + " подряд)");
             }
         }
 
@@ -410,17 +655,20 @@ public class ProxyManagerService {
             return state;
         }
 
-        private void quarantine(ProxyServer proxy, long latencyMs, double speedMbPerSec, String reason) {
+        private void trip(ProxyServer proxy, long latencyMs, double speedMbPerSec, String reason) {
             if (state == ProxyState.QUARANTINED) {
                 return;
             }
+            consecutiveTrips++;
+            long openMs = Math.min(OPEN_MAX_MS, OPEN_BASE_MS << Math.min(consecutiveTrips - 1, 10));
             state = ProxyState.QUARANTINED;
-            lastStateChange = System.currentTimeMillis();
+            openUntil = System.currentTimeMillis() + openMs;
             slowStreak = 0;
             fastStreak = 0;
             failureStreak = 0;
-            logger.warn("⛔ Прокси {}:{} отправлен в карантин: {} (latency={}ms, speed={} MB/s)",
-                proxy.getHost(), proxy.getPort(), reason, latencyMs, Double.isInfinite(speedMbPerSec) ? "inf" : String.format("%.2f", speedMbPerSec));
+            logger.warn("⛔ Прокси {}:{} разомкнут на {}с: {} (latency={}ms, speed={} MB/s)",
+                proxy.getHost(), proxy.getPort(), openMs / 1000, reason, latencyMs,
+                Double.isInfinite(speedMbPerSec) ? "inf" : String.format("%.2f", speedMbPerSec));
 
             ProxyServer threadProxy = threadLocalProxy.get();
             if (threadProxy == proxy) {
@@ -0,0 +1,124 @@
+package shadowshift.studio.parserservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import shadowshift.studio.parserservice.config.ParserProperties;
+import shadowshift.studio.parserservice.domain.task.ParserTask;
+import shadowshift.studio.parserservice.domain.task.TaskLogEntry;
+import shadowshift.studio.parserservice.domain.task.TaskRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Отправляет в MangaService события задач: смену статуса, прогресс, новые строки лога и завершение.
+ * MangaService завершает по ним ожидание задачи вместо опроса {@code /status}. Изменившиеся задачи
+ * уходят одним пакетом раз в {@code parser.task-events-interval-ms}; если MangaService недоступен,
+ * пакет повторяется после паузы, а MangaService продолжает редкий опрос как страховку.
+ */
+@Component
+public class TaskEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskEventPublisher.class);
+
+    static final String EVENTS_PATH = "/api/parser/progress/events";
+    private static final int MAX_LOGS_PER_EVENT = 200;
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(5);
+
+    /**
+     * Событие задачи. logs — строки, появившиеся после предыдущего события.
+     */
+    public record TaskEvent(UUID taskId, String type, String status, int progress, String message, List<String> logs) { }
+
+    private record Published(Instant updatedAt, long logCount) { }
+
+    private final TaskRepository repository;
+    private final ParserProperties properties;
+    private final RestTemplate restTemplate;
+    private final ConcurrentMap<UUID, Published> published = new ConcurrentHashMap<>();
+    private volatile Instant retryAt = Instant.EPOCH;
+    private volatile boolean failing;
+
+    @Autowired
+    public TaskEventPublisher(TaskRepository repository, ParserProperties properties) {
+        this(repository, properties, createRestTemplate());
+    }
+
+    TaskEventPublisher(TaskRepository repository, ParserProperties properties, RestTemplate restTemplate) {
+        this.repository = repository;
+        this.properties = properties;
+        this.restTemplate = restTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${parser.task-events-interval-ms:500}")
+    public void publishChanged() {
+        if (!properties.isTaskEventsEnabled() || Instant.now().isBefore(retryAt)) {
+            return;
+        }
+
+        List<TaskEvent> events = new ArrayList<>();
+        Map<UUID, Published> pending = new HashMap<>();
+        Set<UUID> live = new HashSet<>();
+        for (ParserTask task : repository.findAll()) {
+            live.add(task.getId());
+            Published last = published.get(task.getId());
+            Instant updatedAt = task.getUpdatedAt();
+            if (last != null && last.updatedAt().equals(updatedAt)) {
+                continue;
+            }
+            long logCount = task.getLogCount();
+            // Для уже завершенных задач, впервые увиденных после перезапуска, достаточно итогового статуса
+            long newLogs = last != null ? logCount - last.logCount() : (task.isFinished() ? 0 : logCount);
+            List<String> logs = newLogs > 0
+                    ? task.getRecentLogs((int) Math.min(newLogs, MAX_LOGS_PER_EVENT)).stream()
+                        .map(TaskLogEntry::message)
+                        .toList()
+                    : List.of();
+            events.add(new TaskEvent(task.getId(), task.getType().name(), task.getStatus().name(),
+                    task.getProgress(), task.getMessage(), logs));
+            pending.put(task.getId(), new Published(updatedAt, logCount));
+        }
+        published.keySet().retainAll(live);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            restTemplate.postForEntity(properties.getMangaServiceUrl() + EVENTS_PATH, events, Void.class);
+            published.putAll(pending);
+            if (failing) {
+                failing = false;
+                logger.info("Task events delivery to MangaService restored");
+            }
+        } catch (RestClientException e) {
+            retryAt = Instant.now().plus(RETRY_BACKOFF);
+            if (!failing) {
+                failing = true;
+                logger.warn("Failed to publish {} task events to MangaService, will retry: {}", events.size(), e.getMessage());
+            }
+        }
+    }
+
+    private static RestTemplate createRestTemplate() {
+        // Внутренний вызов: без прокси-пула основного RestTemplate и с короткими таймаутами
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout((int) Duration.ofSeconds(2).toMillis());
+        factory.setReadTimeout((int) Duration.ofSeconds(5).toMillis());
+        return new RestTemplate(factory);
+    }
+}
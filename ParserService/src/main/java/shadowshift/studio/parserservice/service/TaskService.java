@@ -2,10 +2,13 @@ package shadowshift.studio.parserservice.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import shadowshift.studio.parserservice.config.ParserProperties;
 import shadowshift.studio.parserservice.domain.task.ParserTask;
 import shadowshift.studio.parserservice.domain.task.TaskLogEntry;
 import shadowshift.studio.parserservice.domain.task.TaskRepository;
+import shadowshift.studio.parserservice.domain.task.TaskSnapshot;
 import shadowshift.studio.parserservice.domain.task.TaskStatus;
 import shadowshift.studio.parserservice.domain.task.TaskType;
 
@@ -21,28 +24,30 @@ public class TaskService {
     private static final Logger logger = LoggerFactory.getLogger(TaskService.class);
 
     private final TaskRepository repository;
+    private final ParserProperties properties;
     private final AtomicLong logSequence = new AtomicLong();
 
-    public TaskService(TaskRepository repository) {
+    public TaskService(TaskRepository repository, ParserProperties properties) {
         this.repository = repository;
+        this.properties = properties;
     }
 
     public ParserTask createParseTask(String slug) {
-        ParserTask task = new ParserTask(UUID.randomUUID(), TaskType.PARSE, List.of(slug));
+        ParserTask task = newTask(TaskType.PARSE, List.of(slug));
         repository.save(task);
         appendLog(task, "Task created for slug %s".formatted(slug));
         return task;
     }
 
     public ParserTask createBuildTask(String slug) {
-        ParserTask task = new ParserTask(UUID.randomUUID(), TaskType.BUILD, List.of(slug));
+        ParserTask task = newTask(TaskType.BUILD, List.of(slug));
         repository.save(task);
         appendLog(task, "Build task created for slug %s".formatted(slug));
         return task;
     }
 
     public ParserTask createBatchTask(List<String> slugs) {
-        ParserTask task = new ParserTask(UUID.randomUUID(), TaskType.BATCH_PARSE, slugs);
+        ParserTask task = newTask(TaskType.BATCH_PARSE, slugs);
         task.setMessage("Batch task queued (%d slugs)".formatted(slugs.size()));
         repository.save(task);
         appendLog(task, "Batch task created");
@@ -53,6 +58,10 @@ public class TaskService {
         return repository.findAll();
     }
 
+    public List<TaskSnapshot> getTaskSummaries() {
+        return repository.findSummaries();
+    }
+
     public Optional<ParserTask> getTask(UUID id) {
         return repository.findById(id);
     }
@@ -65,6 +74,22 @@ public class TaskService {
         return removed;
     }
 
+    /**
+     * Удаляет завершенные задачи старше parser.task-retention вместе с их журналами.
+     */
+    @Scheduled(fixedDelayString = "${parser.task-cleanup-interval-ms:600000}")
+    public void purgeExpiredTasks() {
+        List<UUID> removed = repository.removeFinishedBefore(Instant.now().minus(properties.getTaskRetention()));
+        if (!removed.isEmpty()) {
+            logger.info("Purged {} expired tasks", removed.size());
+        }
+    }
+
+    private ParserTask newTask(TaskType type, List<String> slugs) {
+        UUID id = UUID.randomUUID();
+        return new ParserTask(id, type, slugs, repository.createLogBuffer(id));
+    }
+
     public TaskLogEntry appendLog(ParserTask task, String message) {
         TaskLogEntry entry = new TaskLogEntry(logSequence.incrementAndGet(), Instant.now(), "INFO", message);
         task.appendLog(entry);
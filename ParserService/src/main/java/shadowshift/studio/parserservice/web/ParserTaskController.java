@@ -17,6 +17,7 @@ import org.springframework.web.server.ResponseStatusException;
 import shadowshift.studio.parserservice.config.ParserProperties;
 import shadowshift.studio.parserservice.domain.task.ParserTask;
 import shadowshift.studio.parserservice.domain.task.TaskLogEntry;
+import shadowshift.studio.parserservice.domain.task.TaskSnapshot;
 import shadowshift.studio.parserservice.domain.task.TaskStatus;
 import shadowshift.studio.parserservice.service.MangaLibParserService;
 import shadowshift.studio.parserservice.service.TaskExecutor;
@@ -159,8 +160,8 @@ public class ParserTaskController {
 
     @GetMapping(path = "/tasks")
     public List<TaskSummaryResponse> listTasks() {
-        return taskService.getTasks().stream()
-                .sorted(Comparator.comparing(ParserTask::getCreatedAt).reversed())
+        return taskService.getTaskSummaries().stream()
+                .sorted(Comparator.comparing(TaskSnapshot::createdAt).reversed())
                 .map(this::mapToSummary)
                 .toList();
     }
@@ -181,10 +182,7 @@ public class ParserTaskController {
     public TaskLogsResponse getLogs(@PathVariable UUID taskId,
                                     @RequestParam(name = "limit", defaultValue = "100") int limit) {
         ParserTask task = getTaskOrNotFound(taskId);
-        List<TaskLogEntry> logs = task.getLogs();
-        List<TaskLogDto> dtoList = logs.stream()
-                .sorted(Comparator.comparingLong(TaskLogEntry::sequence))
-                .skip(Math.max(0, logs.size() - Math.max(1, limit)))
+        List<TaskLogDto> dtoList = task.getRecentLogs(Math.max(1, limit)).stream()
                 .map(this::mapLog)
                 .toList();
         return new TaskLogsResponse(taskId, dtoList);
@@ -274,21 +272,21 @@ public class ParserTaskController {
 
     private record CachedJson(Path path, Instant lastModified) { }
 
-    private TaskSummaryResponse mapToSummary(ParserTask task) {
-        String slug = task.getSlugs().isEmpty() ? null : task.getSlugs().getFirst();
+    private TaskSummaryResponse mapToSummary(TaskSnapshot task) {
+        String slug = task.slugs().isEmpty() ? null : task.slugs().getFirst();
         return new TaskSummaryResponse(
-                task.getId(),
-                task.getType().name(),
-                task.getStatus().name(),
-                task.getProgress(),
-                task.getMessage(),
+                task.id(),
+                task.type().name(),
+                task.status().name(),
+                task.progress(),
+                task.message(),
                 slug,
-                task.getCurrentSlug(),
-                task.getTotalSlugs(),
-                task.getCompletedSlugs(),
-                task.getFailedSlugs(),
-                task.getCreatedAt(),
-                task.getUpdatedAt()
+                task.currentSlug(),
+                task.totalSlugs(),
+                task.completedSlugs(),
+                task.failedSlugs(),
+                task.createdAt(),
+                task.updatedAt()
         );
     }
 
@@ -309,10 +307,7 @@ public class ParserTaskController {
                 })
                 .toList();
 
-    List<TaskLogEntry> logEntries = task.getLogs();
-    List<TaskLogDto> logs = logEntries.stream()
-        .sorted(Comparator.comparingLong(TaskLogEntry::sequence))
-        .skip(Math.max(0, logEntries.size() - 200))
+    List<TaskLogDto> logs = task.getRecentLogs(200).stream()
         .map(this::mapLog)
         .toList();
 
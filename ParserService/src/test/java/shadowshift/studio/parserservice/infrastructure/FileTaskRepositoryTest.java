@@ -0,0 +1,143 @@
+package shadowshift.studio.parserservice.infrastructure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import shadowshift.studio.parserservice.config.ParserProperties;
+import shadowshift.studio.parserservice.domain.task.ParserTask;
+import shadowshift.studio.parserservice.domain.task.TaskLogEntry;
+import shadowshift.studio.parserservice.domain.task.TaskStatus;
+import shadowshift.studio.parserservice.domain.task.TaskType;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FileTaskRepositoryTest {
+
+    @TempDir
+    Path logsDir;
+
+    private ParserProperties properties;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ParserProperties();
+        properties.setLogsPath(logsDir);
+        properties.setTaskLogBufferSize(3);
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+    }
+
+    @Test
+    void ringBufferKeepsOnlyTailButCountsEverything() {
+        FileTaskRepository repository = new FileTaskRepository(properties, objectMapper);
+        ParserTask task = newTask(repository);
+
+        for (int i = 1; i <= 5; i++) {
+            task.appendLog(log(i, "line " + i));
+        }
+
+        assertThat(task.getLogCount()).isEqualTo(5);
+        assertThat(task.getLogs()).extracting(TaskLogEntry::sequence).containsExactly(3L, 4L, 5L);
+        assertThat(task.getRecentLogs(2)).extracting(TaskLogEntry::sequence).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void restoresTasksAndLogTailAfterRestart() {
+        FileTaskRepository repository = new FileTaskRepository(properties, objectMapper);
+        ParserTask running = newTask(repository);
+        running.setStatus(TaskStatus.RUNNING);
+        running.setProgress(40);
+        for (int i = 1; i <= 5; i++) {
+            running.appendLog(log(i, i == 5 ? "multi\tline\nmessage" : "line " + i));
+        }
+        repository.shutdown();
+
+        FileTaskRepository restarted = new FileTaskRepository(properties, objectMapper);
+        restarted.restore();
+
+        ParserTask restored = restarted.findById(running.getId()).orElseThrow();
+        assertThat(restored.getStatus()).isEqualTo(TaskStatus.FAILED);
+        assertThat(restored.getProgress()).isEqualTo(40);
+        assertThat(restored.getLogCount()).isEqualTo(5);
+        assertThat(restored.getLogs()).extracting(TaskLogEntry::message)
+                .containsExactly("line 3", "line 4", "multi\tline\nmessage");
+        assertThat(restarted.findSummaries()).singleElement()
+                .satisfies(summary -> assertThat(summary.logCount()).isEqualTo(5));
+    }
+
+    @Test
+    void removesExpiredFinishedTasksWithTheirFiles() {
+        FileTaskRepository repository = new FileTaskRepository(properties, objectMapper);
+        ParserTask finished = newTask(repository);
+        finished.appendLog(log(1, "done"));
+        finished.setStatus(TaskStatus.COMPLETED);
+        finished.setCompletedAt(Instant.now().minusSeconds(3600));
+        ParserTask active = newTask(repository);
+        active.setStatus(TaskStatus.RUNNING);
+        repository.persistChanged();
+
+        List<UUID> removed = repository.removeFinishedBefore(Instant.now().minusSeconds(60));
+
+        assertThat(removed).containsExactly(finished.getId());
+        assertThat(repository.findById(active.getId())).isPresent();
+        assertThat(logsDir.resolve("tasks").resolve(finished.getId() + ".json")).doesNotExist();
+        assertThat(logsDir.resolve("tasks").resolve(finished.getId() + ".log")).doesNotExist();
+        assertThat(logsDir.resolve("tasks").resolve(active.getId() + ".json")).exists();
+    }
+
+    @Test
+    void closesLogJournalOnceTaskIsFinished() throws Exception {
+        Path descriptors = Path.of("/proc/self/fd");
+        assumeTrue(Files.isDirectory(descriptors), "needs /proc to inspect open files");
+        FileTaskRepository repository = new FileTaskRepository(properties, objectMapper);
+        ParserTask task = newTask(repository);
+        Path journal = logsDir.toRealPath().resolve("tasks").resolve(task.getId() + ".log");
+        task.appendLog(log(1, "working"));
+        assertThat(openFiles(descriptors)).contains(journal);
+
+        task.setStatus(TaskStatus.COMPLETED);
+        repository.persistChanged();
+        assertThat(openFiles(descriptors)).doesNotContain(journal);
+
+        // Поздняя запись открывает журнал снова, следующий сброс опять его закрывает
+        task.appendLog(log(2, "after completion"));
+        repository.persistChanged();
+        assertThat(openFiles(descriptors)).doesNotContain(journal);
+        assertThat(Files.readAllLines(journal)).hasSize(2);
+    }
+
+    private static List<Path> openFiles(Path descriptors) throws IOException {
+        List<Path> open = new ArrayList<>();
+        try (DirectoryStream<Path> fds = Files.newDirectoryStream(descriptors)) {
+            for (Path fd : fds) {
+                try {
+                    open.add(Files.readSymbolicLink(fd));
+                } catch (IOException ignored) {
+                    // Дескриптор закрылся во время обхода
+                }
+            }
+        }
+        return open;
+    }
+
+    private static ParserTask newTask(FileTaskRepository repository) {
+        UUID id = UUID.randomUUID();
+        ParserTask task = new ParserTask(id, TaskType.BUILD, List.of("slug"), repository.createLogBuffer(id));
+        return repository.save(task);
+    }
+
+    private static TaskLogEntry log(long sequence, String message) {
+        return new TaskLogEntry(sequence, Instant.now(), "INFO", message);
+    }
+}
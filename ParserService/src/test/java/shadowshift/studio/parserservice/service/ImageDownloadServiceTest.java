@@ -0,0 +1,270 @@
+package shadowshift.studio.parserservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import shadowshift.studio.parserservice.config.ParserProperties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Прогон загрузчика против локального HTTP-стаба с задержкой и ошибками.
+ */
+class ImageDownloadServiceTest {
+
+    private static final int HOST_LIMIT = 4;
+    private static final long LATENCY_MS = 20;
+    private static final long PROXY_WAIT_MS = 700;
+    private static final String DUPLICATE_BODY = "translator-banner;".repeat(1_000);
+
+    @TempDir
+    Path outputDir;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ImageDownloadService service;
+    private ProxyManagerService proxyManager;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/img/", this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        ParserProperties properties = new ParserProperties();
+        properties.setMaxParallelDownloads(16);
+        properties.setDownloadHostMaxConcurrency(HOST_LIMIT);
+        properties.setDownloadRetryBaseDelayMs(10);
+        service = new ImageDownloadService(properties, new SimpleMeterRegistry());
+
+        ApplicationContext context = mock(ApplicationContext.class);
+        when(context.getBean(RestTemplate.class)).thenAnswer(invocation -> new RestTemplate());
+        ReflectionTestUtils.setField(service, "applicationContext", context);
+        proxyManager = mock(ProxyManagerService.class);
+        when(proxyManager.acquireProxy()).thenReturn(ProxyManagerService.ProxyLease.NONE);
+        ReflectionTestUtils.setField(service, "proxyManager", proxyManager);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        serverExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void downloadsAllImagesWithRetriesWithinHostLimit() throws IOException {
+        List<ImageDownloadService.ImageDownloadTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String name = (i % 5 == 0 ? "flaky-" : "page-") + i;
+            tasks.add(new ImageDownloadService.ImageDownloadTask(url(name), outputDir.resolve(name + ".jpg")));
+        }
+
+        ImageDownloadService.DownloadSummary summary = service.downloadImages(tasks).join();
+
+        assertThat(summary.successCount).isEqualTo(40);
+        assertThat(summary.failedCount).isZero();
+        assertThat(maxActive.get()).isLessThanOrEqualTo(HOST_LIMIT);
+        assertThat(hits.get("/img/flaky-0").get()).isEqualTo(2);
+        assertThat(Files.readString(outputDir.resolve("page-1.jpg"))).isEqualTo(body("/img/page-1"));
+        try (Stream<Path> files = Files.list(outputDir)) {
+            assertThat(files.filter(path -> path.toString().endsWith(".part"))).isEmpty();
+        }
+        assertThat(service.getInFlightCount()).isZero();
+        assertThat(service.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void keepsAtMostWindowPagesInFlight() {
+        List<ImageDownloadService.ImageDownloadTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            tasks.add(new ImageDownloadService.ImageDownloadTask(url("window-" + i), outputDir.resolve("window-" + i + ".jpg")));
+        }
+
+        ImageDownloadService.DownloadSummary summary = service.downloadImages(tasks, () -> 2).join();
+
+        assertThat(summary.successCount).isEqualTo(12);
+        assertThat(maxActive.get()).isLessThanOrEqualTo(2);
+        assertThat(service.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void givesUpAfterMaxAttemptsWithoutLeavingFiles() throws IOException {
+        Path target = outputDir.resolve("broken.jpg");
+
+        ImageDownloadService.DownloadResult result = service.downloadImage(url("broken"), target).join();
+
+        assertThat(result.success).isFalse();
+        assertThat(hits.get("/img/broken").get()).isEqualTo(3);
+        assertThat(target).doesNotExist();
+        try (Stream<Path> files = Files.list(outputDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void existingFileIsServedFromCache() throws IOException {
+        Path target = outputDir.resolve("cached.jpg");
+        Files.writeString(target, "cached");
+
+        ImageDownloadService.DownloadResult result = service.downloadImage(url("cached"), target).join();
+
+        assertThat(result.success).isTrue();
+        assertThat(result.cached).isTrue();
+        assertThat(hits).doesNotContainKey("/img/cached");
+    }
+
+    @Test
+    void identicalImagesShareOneBlobAndKnownUrlsAreRevalidated() throws IOException {
+        ImageBlobStore blobStore = attachBlobStore();
+        Path first = outputDir.resolve("ch1").resolve("credits.jpg");
+        Path second = outputDir.resolve("ch2").resolve("credits.jpg");
+
+        service.downloadImage(url("dup-a"), first).join();
+        ImageDownloadService.DownloadResult duplicate = service.downloadImage(url("dup-b"), second).join();
+
+        assertThat(duplicate.success).isTrue();
+        assertThat(Files.isSameFile(first, second)).isTrue();
+
+        Files.delete(first);
+        ImageDownloadService.DownloadResult revalidated = service.downloadImage(url("dup-a"), first).join();
+
+        assertThat(revalidated.success).isTrue();
+        assertThat(revalidated.cached).isTrue();
+        assertThat(notModified.get()).isEqualTo(1);
+        assertThat(Files.readString(first)).isEqualTo(DUPLICATE_BODY);
+
+        Files.delete(first);
+        Files.delete(second);
+        ImageBlobStore.GcResult gc = blobStore.collectGarbage(Duration.ZERO);
+
+        assertThat(gc.deletedBlobs()).isEqualTo(1);
+        assertThat(blobStore.validatorsFor(url("dup-a"))).isEmpty();
+    }
+
+    @Test
+    void proxyLatencyExcludesWaitingForProxy() throws Exception {
+        ProxyManagerService.ProxyServer proxy = new ProxyManagerService.ProxyServer("127.0.0.1", 3128);
+        Semaphore globalPermits = (Semaphore) ReflectionTestUtils.getField(service, "globalPermits");
+        AtomicInteger permitsDuringLease = new AtomicInteger(-1);
+        when(proxyManager.acquireProxy()).thenAnswer(invocation -> {
+            permitsDuringLease.set(globalPermits.availablePermits());
+            Thread.sleep(PROXY_WAIT_MS);
+            return new ProxyManagerService.ProxyLease(proxy, () -> { });
+        });
+
+        ImageDownloadService.DownloadResult result = service.downloadImage(url("leased"), outputDir.resolve("leased.jpg")).join();
+
+        assertThat(result.success).isTrue();
+        // Слот загрузки уже занят, когда запрашивается прокси
+        assertThat(permitsDuringLease.get()).isEqualTo(15);
+        ArgumentCaptor<Long> latency = ArgumentCaptor.forClass(Long.class);
+        verify(proxyManager).recordProxySample(eq(proxy), latency.capture(), anyLong(), eq(true), eq(false));
+        assertThat(latency.getValue()).isLessThan(PROXY_WAIT_MS);
+    }
+
+    @Test
+    void failedAttemptsRecordOnlyExchangeTime() throws Exception {
+        ReflectionTestUtils.setField(service, "retryBaseDelayMs", PROXY_WAIT_MS);
+        ProxyManagerService.ProxyServer proxy = new ProxyManagerService.ProxyServer("127.0.0.1", 3128);
+        when(proxyManager.acquireProxy()).thenAnswer(invocation -> new ProxyManagerService.ProxyLease(proxy, () -> { }));
+
+        ImageDownloadService.DownloadResult result = service.downloadImage(url("broken"), outputDir.resolve("broken.jpg")).join();
+
+        assertThat(result.success).isFalse();
+        assertThat(result.downloadTime).isGreaterThanOrEqualTo(PROXY_WAIT_MS);
+        // Паузы между повторами не попадают в задержку прокси
+        ArgumentCaptor<Long> latency = ArgumentCaptor.forClass(Long.class);
+        verify(proxyManager, times(3)).recordProxySample(eq(proxy), latency.capture(), eq(0L), eq(false), eq(false));
+        assertThat(latency.getAllValues()).allSatisfy(value -> assertThat(value).isLessThan(PROXY_WAIT_MS));
+    }
+
+    private ImageBlobStore attachBlobStore() {
+        ParserProperties properties = new ParserProperties();
+        properties.setOutputPath(outputDir.resolve("store").toString());
+        ImageBlobStore blobStore = new ImageBlobStore(properties, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "blobStore", blobStore);
+        return blobStore;
+    }
+
+    private String url(String name) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/img/" + name;
+    }
+
+    private static String body(String path) {
+        return ("image:" + path + ";").repeat(2_000);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int current = active.incrementAndGet();
+        maxActive.accumulateAndGet(current, Math::max);
+        try {
+            String path = exchange.getRequestURI().getPath();
+            int hit = hits.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+            Thread.sleep(LATENCY_MS);
+            if (path.contains("broken") || (path.contains("flaky") && hit == 1)) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            if (path.contains("dup-")) {
+                String etag = "\"" + path + "\"";
+                exchange.getResponseHeaders().set("ETag", etag);
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+            }
+            byte[] payload = (path.contains("dup-") ? DUPLICATE_BODY : body(path)).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(payload);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            active.decrementAndGet();
+            exchange.close();
+        }
+    }
+}
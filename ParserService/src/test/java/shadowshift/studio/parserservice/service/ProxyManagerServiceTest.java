@@ -0,0 +1,116 @@
+package shadowshift.studio.parserservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import shadowshift.studio.parserservice.config.ParserProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProxyManagerServiceTest {
+
+    private ProxyManagerService service;
+    private ParserProperties properties;
+    private ProxyManagerService.ProxyServer fast;
+    private ProxyManagerService.ProxyServer slow;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProxyManagerService();
+        properties = new ParserProperties();
+        ReflectionTestUtils.setField(service, "properties", properties);
+        fast = new ProxyManagerService.ProxyServer("10.0.0.1", 8080);
+        slow = new ProxyManagerService.ProxyServer("10.0.0.2", 8080);
+        service.registerProxy(fast);
+        service.registerProxy(slow);
+    }
+
+    @Test
+    void slowProxyGetsLessTraffic() {
+        for (int i = 0; i < 20; i++) {
+            service.recordProxySample(fast, 200, 100_000, true, false);
+            service.recordProxySample(slow, 3_000, 100_000, true, false);
+        }
+
+        int fastPicks = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (service.getNextProxy() == fast) {
+                fastPicks++;
+            }
+        }
+
+        assertThat(fastPicks).isEqualTo(1_000);
+    }
+
+    @Test
+    void failingProxyIsOpenedAndSkipped() {
+        service.recordProxySample(slow, 100, 0, false, false);
+        service.recordProxySample(slow, 100, 0, false, false);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(service.getNextProxy()).isSameAs(fast);
+        }
+        assertThat(service.getProxyStats().get(slow.getId()).getCurrentState())
+            .isEqualTo(ProxyManagerService.ProxyState.QUARANTINED);
+    }
+
+    @Test
+    void leasesRespectPerProxyConcurrencyCap() throws Exception {
+        properties.setProxyMaxConcurrency(1);
+
+        List<ProxyManagerService.ProxyLease> leases = new ArrayList<>();
+        leases.add(service.acquireProxy());
+        leases.add(service.acquireProxy());
+
+        assertThat(leases).extracting(ProxyManagerService.ProxyLease::getProxy).containsExactlyInAnyOrder(fast, slow);
+
+        leases.get(0).close();
+        try (ProxyManagerService.ProxyLease next = service.acquireProxy()) {
+            assertThat(next.getProxy()).isSameAs(leases.get(0).getProxy());
+            assertThat(service.getProxyForCurrentThread()).isSameAs(next.getProxy());
+        }
+        leases.get(1).close();
+    }
+
+    @Test
+    void saturatedPoolTimesOutInsteadOfExceedingCap() throws Exception {
+        properties.setProxyMaxConcurrency(1);
+        properties.setProxyAcquireTimeoutMs(50);
+        ProxyManagerService.ProxyLease first = service.acquireProxy();
+        ProxyManagerService.ProxyLease second = service.acquireProxy();
+
+        assertThatThrownBy(service::acquireProxy).isInstanceOf(TimeoutException.class);
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void waitingLeaseGetsSlotOnRelease() throws Exception {
+        properties.setProxyMaxConcurrency(1);
+        properties.setProxyAcquireTimeoutMs(5_000);
+        ProxyManagerService.ProxyLease first = service.acquireProxy();
+        ProxyManagerService.ProxyLease second = service.acquireProxy();
+
+        CompletableFuture<ProxyManagerService.ProxyServer> waiting = CompletableFuture.supplyAsync(() -> {
+            try (ProxyManagerService.ProxyLease lease = service.acquireProxy()) {
+                return lease.getProxy();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertThat(waiting).isNotDone();
+
+        first.close();
+        assertThat(waiting.get(2, TimeUnit.SECONDS)).isSameAs(first.getProxy());
+        second.close();
+    }
+}
@@ -0,0 +1,116 @@
+package shadowshift.studio.parserservice.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import shadowshift.studio.parserservice.config.ParserProperties;
+import shadowshift.studio.parserservice.domain.task.ParserTask;
+import shadowshift.studio.parserservice.infrastructure.FileTaskRepository;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Доставка событий задач в стаб MangaService.
+ */
+class TaskEventPublisherTest {
+
+    @TempDir
+    Path logsDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<List<Map<String, Object>>> batches = new CopyOnWriteArrayList<>();
+    private volatile int responseStatus = 200;
+    private HttpServer server;
+    private TaskService taskService;
+    private TaskEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(TaskEventPublisher.EVENTS_PATH, this::handle);
+        server.start();
+
+        ParserProperties properties = new ParserProperties();
+        properties.setLogsPath(logsDir);
+        properties.setMangaServiceUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        FileTaskRepository repository = new FileTaskRepository(properties, objectMapper);
+        taskService = new TaskService(repository, properties);
+        publisher = new TaskEventPublisher(repository, properties, new RestTemplate());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void publishesOnlyChangedTasksWithNewLogLines() {
+        ParserTask task = taskService.createParseTask("solo-leveling");
+
+        publisher.publishChanged();
+        publisher.publishChanged();
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).singleElement().satisfies(event -> {
+            assertThat(event.get("taskId")).isEqualTo(task.getId().toString());
+            assertThat(event.get("status")).isEqualTo("PENDING");
+            assertThat(event.get("logs")).isEqualTo(List.of("Task created for slug solo-leveling"));
+        });
+
+        taskService.markRunning(task);
+        taskService.appendLog(task, "Fetching chapters");
+        taskService.markCompleted(task);
+        publisher.publishChanged();
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(1)).singleElement().satisfies(event -> {
+            assertThat(event.get("status")).isEqualTo("COMPLETED");
+            assertThat(event.get("progress")).isEqualTo(100);
+            assertThat(event.get("logs")).isEqualTo(List.of("Fetching chapters"));
+        });
+    }
+
+    @Test
+    void redeliversEventsAfterFailedAttempt() {
+        ParserTask task = taskService.createBuildTask("solo-leveling");
+        responseStatus = 503;
+
+        publisher.publishChanged();
+        publisher.publishChanged();
+
+        assertThat(batches).hasSize(1);
+
+        responseStatus = 200;
+        ReflectionTestUtils.setField(publisher, "retryAt", Instant.EPOCH);
+        publisher.publishChanged();
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(1)).singleElement()
+                .satisfies(event -> assertThat(event.get("taskId")).isEqualTo(task.getId().toString()));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            batches.add(objectMapper.readValue(exchange.getRequestBody(),
+                    new TypeReference<List<Map<String, Object>>>() { }));
+            exchange.sendResponseHeaders(responseStatus, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+-- Migration: stored vote counters on posts (score = up - down, up_votes)
+-- Kept current by PostService.vote with atomic delta updates; this backfills existing posts
+-- Compatible with PostgreSQL
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS score INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS up_votes INTEGER NOT NULL DEFAULT 0;
+
+UPDATE posts p
+SET score = v.score,
+    up_votes = v.up_votes
+FROM (
+    SELECT post_id,
+           SUM(value) AS score,
+           COUNT(*) FILTER (WHERE value = 1) AS up_votes
+    FROM post_votes
+    GROUP BY post_id
+) v
+WHERE p.id = v.post_id;
+
+CREATE INDEX IF NOT EXISTS idx_posts_top ON posts(score DESC, up_votes DESC, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_posts_created_at_score ON posts(created_at DESC, score DESC);
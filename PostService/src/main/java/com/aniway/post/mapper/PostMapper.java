@@ -6,19 +6,14 @@ import com.aniway.post.model.PostAttachment;
 import com.aniway.post.model.PostVote;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class PostMapper {
     public static PostDtos.PostResponse toResponse(Post post, Long currentUserId) {
-        int up = (int) post.getVotes().stream().filter(v -> v.getValue() == 1).count();
-        int down = (int) post.getVotes().stream().filter(v -> v.getValue() == -1).count();
-        Integer userVote = null;
-        if (currentUserId != null) {
-            userVote = post.getVotes().stream()
-                    .filter(v -> v.getUserId().equals(currentUserId))
-                    .map(PostVote::getValue)
-                    .findFirst().orElse(null);
-        }
+        int up = post.getUpVotes();
+        int down = post.getDownVotes();
+        Integer userVote = resolveUserVote(post, currentUserId);
         List<PostDtos.AttachmentDto> attachments = post.getAttachments().stream()
                 .map(a -> new PostDtos.AttachmentDto(a.getId(), a.getFilename(), a.getUrl(), a.getSizeBytes()))
                 .collect(Collectors.toList());
@@ -45,22 +40,24 @@ public class PostMapper {
     }
 
     public static PostDtos.FrontendPost toFrontend(Post post, Long currentUserId, boolean adminOverride) {
-        int up = (int) post.getVotes().stream().filter(v -> v.getValue() == 1).count();
-        int down = (int) post.getVotes().stream().filter(v -> v.getValue() == -1).count();
-        Integer userVote = null;
-        if (currentUserId != null) {
-            userVote = post.getVotes().stream()
-                    .filter(v -> v.getUserId().equals(currentUserId))
-                    .map(PostVote::getValue)
-                    .findFirst().orElse(null);
-        }
+        return toFrontend(post, currentUserId, adminOverride, resolveUserVote(post, currentUserId));
+    }
+
+    // userVotes: votes of currentUserId preloaded by post id, so lists don't load every post's votes
+    public static PostDtos.FrontendPost toFrontend(Post post, Long currentUserId, boolean adminOverride, Map<Long, Integer> userVotes) {
+        return toFrontend(post, currentUserId, adminOverride, currentUserId == null ? null : userVotes.get(post.getId()));
+    }
+
+    private static PostDtos.FrontendPost toFrontend(Post post, Long currentUserId, boolean adminOverride, Integer userVote) {
+        int up = post.getUpVotes();
+        int down = post.getDownVotes();
         List<PostDtos.AttachmentDto> attachments = post.getAttachments().stream()
                 .map(a -> new PostDtos.AttachmentDto(a.getId(), a.getFilename(), a.getUrl(), a.getSizeBytes()))
                 .collect(Collectors.toList());
         List<PostDtos.ReferenceDto> refs = post.getReferences().stream()
                 .map(r -> new PostDtos.ReferenceDto(r.getId(), r.getType(), r.getRefId()))
                 .collect(Collectors.toList());
-        int score = up - down;
+        int score = post.getScore();
         boolean ownsPost = currentUserId != null && post.getAuthorId() != null && post.getAuthorId().equals(currentUserId);
         boolean withinEditWindow = post.getEditedUntil() == null || post.getEditedUntil().isAfter(java.time.Instant.now());
         boolean canEdit = ownsPost && withinEditWindow;
@@ -81,6 +78,14 @@ public class PostMapper {
         );
     }
 
+    private static Integer resolveUserVote(Post post, Long currentUserId) {
+        if (currentUserId == null) return null;
+        return post.getVotes().stream()
+                .filter(v -> v.getUserId().equals(currentUserId))
+                .map(PostVote::getValue)
+                .findFirst().orElse(null);
+    }
+
     public static void applyAttachments(Post post, List<PostDtos.AttachmentRequest> attachmentRequests) {
         post.getAttachments().clear();
         if (attachmentRequests == null) return;
@@ -6,7 +6,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_top", columnList = "score DESC, up_votes DESC, created_at DESC"),
+        @Index(name = "idx_posts_created_at_score", columnList = "created_at DESC, score DESC")
+})
 public class Post extends BaseEntity {
     @Column(nullable = false)
     private Long authorId;
@@ -26,6 +29,13 @@ public class Post extends BaseEntity {
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PostVote> votes = new ArrayList<>();
 
+    // Vote counters are written only by PostRepository.applyVoteDelta (atomic UPDATE), never by entity flushes
+    @Column(nullable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int score;
+
+    @Column(name = "up_votes", nullable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int upVotes;
+
     public Long getAuthorId() { return authorId; }
     public void setAuthorId(Long authorId) { this.authorId = authorId; }
     public String getContent() { return content; }
@@ -35,4 +45,13 @@ public class Post extends BaseEntity {
     public List<PostAttachment> getAttachments() { return attachments; }
     public List<PostReference> getReferences() { return references; }
     public List<PostVote> getVotes() { return votes; }
+    public int getScore() { return score; }
+    public int getUpVotes() { return upVotes; }
+    public int getDownVotes() { return upVotes - score; }
+
+    /** Mirrors a delta already persisted by PostRepository.applyVoteDelta on this instance. */
+    public void applyVoteDelta(int scoreDelta, int upVotesDelta) {
+        this.score += scoreDelta;
+        this.upVotes += upVotesDelta;
+    }
 }
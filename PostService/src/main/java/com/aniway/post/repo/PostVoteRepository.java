@@ -2,11 +2,25 @@ package com.aniway.post.repo;
 
 import com.aniway.post.model.Post;
 import com.aniway.post.model.PostVote;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PostVoteRepository extends JpaRepository<PostVote, Long> {
     Optional<PostVote> findByPostAndUserId(Post post, Long userId);
     long countByPostAndValue(Post post, int value);
+
+    // Row lock so that concurrent votes of the same user produce consistent counter deltas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM PostVote v WHERE v.post = :post AND v.userId = :userId")
+    Optional<PostVote> findForUpdate(@Param("post") Post post, @Param("userId") Long userId);
+
+    @Query("SELECT v FROM PostVote v WHERE v.userId = :userId AND v.post.id IN :postIds")
+    List<PostVote> findByUserIdAndPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
 }
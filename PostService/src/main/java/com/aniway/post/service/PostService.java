@@ -11,7 +11,6 @@ import com.aniway.post.repo.PostVoteRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,6 +21,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,6 +34,7 @@ public class PostService {
     private final PostVoteRepository voteRepository;
     private final PostReferenceRepository referenceRepository;
     private final RabbitTemplate rabbitTemplate;
+    private final TopPostsCache topPostsCache;
 
     @Value("${xp.events.exchange:xp.events.exchange}")
     private String xpExchange;
@@ -42,37 +45,39 @@ public class PostService {
     private static final Pattern MANGA_REF_PATTERN = Pattern.compile("\\[\\[manga:(\\d+)]]");
     private static final int DEFAULT_TOP_LIMIT = 20;
 
-    public PostService(PostRepository postRepository, PostVoteRepository voteRepository, PostReferenceRepository referenceRepository, RabbitTemplate rabbitTemplate) {
+    public PostService(PostRepository postRepository, PostVoteRepository voteRepository, PostReferenceRepository referenceRepository,
+                       RabbitTemplate rabbitTemplate, TopPostsCache topPostsCache) {
         this.postRepository = postRepository;
         this.voteRepository = voteRepository;
         this.referenceRepository = referenceRepository;
         this.rabbitTemplate = rabbitTemplate;
+        this.topPostsCache = topPostsCache;
     }
 
     @Transactional(readOnly = true)
     public List<PostDtos.FrontendPost> getTop(String range, Integer limit, Long currentUserId, boolean isAdmin) {
-        int cappedLimit = (limit == null ? DEFAULT_TOP_LIMIT : Math.min(Math.max(limit, 1), 100));
-        Instant since;
-        if (range == null || range.equalsIgnoreCase("all")) {
-            since = null;
-        } else if (range.equalsIgnoreCase("today")) {
-            since = Instant.now().minus(1, ChronoUnit.DAYS);
-        } else if (range.equals("7") || range.equalsIgnoreCase("7d")) {
-            since = Instant.now().minus(7, ChronoUnit.DAYS);
-        } else if (range.equals("30") || range.equalsIgnoreCase("30d")) {
-            since = Instant.now().minus(30, ChronoUnit.DAYS);
-        } else {
-            throw new IllegalArgumentException("Invalid range parameter");
+        int cappedLimit = (limit == null ? DEFAULT_TOP_LIMIT : Math.min(Math.max(limit, 1), TopPostsCache.MAX_CACHED));
+        List<Long> ids = topPostsCache.topIds(TopPostsCache.TopRange.parse(range));
+        if (ids.size() > cappedLimit) {
+            ids = ids.subList(0, cappedLimit);
+        }
+        if (ids.isEmpty()) {
+            return List.of();
         }
 
-        List<Post> posts;
-        PageRequest pageable = PageRequest.of(0, cappedLimit);
-        if (since == null) {
-            posts = postRepository.findTopAll(pageable);
-        } else {
-            posts = postRepository.findTopSince(since, pageable);
+        // Ranking comes from the cached snapshot; post contents and counters are always read fresh
+        Map<Long, Post> postsById = postRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        Map<Long, Integer> userVotes = new HashMap<>();
+        if (currentUserId != null) {
+            voteRepository.findByUserIdAndPostIds(currentUserId, ids)
+                    .forEach(v -> userVotes.put(v.getPost().getId(), v.getValue()));
         }
-    return posts.stream().map(p -> PostMapper.toFrontend(p, currentUserId, isAdmin)).toList();
+        return ids.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .map(p -> PostMapper.toFrontend(p, currentUserId, isAdmin, userVotes))
+                .toList();
     }
 
     public PostDtos.PostResponse create(Long authorId, PostDtos.CreatePostRequest req) {
@@ -146,7 +151,7 @@ public class PostService {
     public PostDtos.PostResponse vote(Long postId, Long userId, int value) {
         if (value < -1 || value > 1) throw new IllegalArgumentException("Invalid vote value");
         Post post = getPostOrThrow(postId);
-        PostVote vote = voteRepository.findByPostAndUserId(post, userId)
+        PostVote vote = voteRepository.findForUpdate(post, userId)
                 .orElseGet(() -> {
                     PostVote v = new PostVote();
                     v.setPost(post);
@@ -165,6 +170,14 @@ public class PostService {
         }
         voteRepository.save(vote);
 
+        int current = vote.getValue();
+        int scoreDelta = current - previous;
+        int upVotesDelta = (current == 1 ? 1 : 0) - (previous == 1 ? 1 : 0);
+        if (scoreDelta != 0 || upVotesDelta != 0) {
+            postRepository.applyVoteDelta(postId, scoreDelta, upVotesDelta);
+            post.applyVoteDelta(scoreDelta, upVotesDelta);
+        }
+
         // Publish POST_UPVOTED XP event only when transition ends with +1 and was not +1 before
         if (post.getAuthorId() != null && !post.getAuthorId().equals(userId)) {
             if (vote.getValue() == 1 && previous != 1) {
@@ -0,0 +1,105 @@
+package com.aniway.post.service;
+
+import com.aniway.post.repo.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived snapshot of the top post ids per range.
+ * Requests are served from memory; ranges that were requested recently are recomputed in the background,
+ * so the ranking query runs once per refresh interval instead of once per request.
+ */
+@Component
+public class TopPostsCache {
+    private static final Logger log = LoggerFactory.getLogger(TopPostsCache.class);
+
+    static final int MAX_CACHED = 100;
+
+    public enum TopRange {
+        TODAY(Duration.ofDays(1)),
+        WEEK(Duration.ofDays(7)),
+        MONTH(Duration.ofDays(30)),
+        ALL(null);
+
+        private final Duration window;
+
+        TopRange(Duration window) {
+            this.window = window;
+        }
+
+        public static TopRange parse(String range) {
+            if (range == null || range.equalsIgnoreCase("all")) return ALL;
+            if (range.equalsIgnoreCase("today")) return TODAY;
+            if (range.equals("7") || range.equalsIgnoreCase("7d")) return WEEK;
+            if (range.equals("30") || range.equalsIgnoreCase("30d")) return MONTH;
+            throw new IllegalArgumentException("Invalid range parameter");
+        }
+    }
+
+    private record Snapshot(List<Long> ids, Instant loadedAt) {}
+
+    private final PostRepository postRepository;
+    private final Duration ttl;
+    private final Duration idleTimeout;
+    private final Map<TopRange, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<TopRange, Instant> lastRequested = new ConcurrentHashMap<>();
+
+    public TopPostsCache(PostRepository postRepository,
+                         @Value("${posts.top.ttl:PT60S}") Duration ttl,
+                         @Value("${posts.top.idle-timeout:PT10M}") Duration idleTimeout) {
+        this.postRepository = postRepository;
+        this.ttl = ttl;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Ids of up to {@link #MAX_CACHED} top posts for the range, best first.
+     * Loads synchronously only when there is no fresh snapshot (first request or stalled refresh).
+     */
+    public List<Long> topIds(TopRange range) {
+        Instant now = Instant.now();
+        lastRequested.put(range, now);
+        Snapshot snapshot = snapshots.get(range);
+        if (snapshot == null || snapshot.loadedAt().plus(ttl).isBefore(now)) {
+            snapshot = load(range);
+        }
+        return snapshot.ids();
+    }
+
+    @Scheduled(fixedDelayString = "${posts.top.refresh-interval-ms:30000}")
+    public void refresh() {
+        Instant idleBefore = Instant.now().minus(idleTimeout);
+        lastRequested.forEach((range, requestedAt) -> {
+            if (requestedAt.isBefore(idleBefore)) {
+                lastRequested.remove(range, requestedAt);
+                snapshots.remove(range);
+                return;
+            }
+            try {
+                load(range);
+            } catch (Exception ex) {
+                log.warn("Failed to refresh top posts for range {}: {}", range, ex.getMessage());
+            }
+        });
+    }
+
+    private Snapshot load(TopRange range) {
+        PageRequest pageable = PageRequest.of(0, MAX_CACHED);
+        List<Long> ids = range.window == null
+                ? postRepository.findTopIdsAll(pageable)
+                : postRepository.findTopIdsSince(Instant.now().minus(range.window), pageable);
+        Snapshot snapshot = new Snapshot(List.copyOf(ids), Instant.now());
+        snapshots.put(range, snapshot);
+        return snapshot;
+    }
+}
@@ -0,0 +1,129 @@
+package com.aniway.post.service;
+
+import com.aniway.post.dto.PostDtos;
+import com.aniway.post.model.Post;
+import com.aniway.post.model.PostVote;
+import com.aniway.post.repo.PostReferenceRepository;
+import com.aniway.post.repo.PostRepository;
+import com.aniway.post.repo.PostVoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostServiceTest {
+
+    private static final Long POST_ID = 7L;
+    private static final Long AUTHOR_ID = 1L;
+    private static final Long VOTER_ID = 2L;
+
+    private PostRepository postRepository;
+    private PostVoteRepository voteRepository;
+    private TopPostsCache topPostsCache;
+    private PostService postService;
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        voteRepository = mock(PostVoteRepository.class);
+        topPostsCache = mock(TopPostsCache.class);
+        postService = new PostService(postRepository, voteRepository, mock(PostReferenceRepository.class),
+                mock(RabbitTemplate.class), topPostsCache);
+
+        post = post(POST_ID);
+        when(postRepository.findById(POST_ID)).thenReturn(Optional.of(post));
+    }
+
+    @Test
+    void firstUpvoteIncrementsScoreAndUpVotes() {
+        when(voteRepository.findForUpdate(post, VOTER_ID)).thenReturn(Optional.empty());
+
+        PostDtos.PostResponse response = postService.vote(POST_ID, VOTER_ID, 1);
+
+        verify(postRepository).applyVoteDelta(POST_ID, 1, 1);
+        assertThat(response.upVotes()).isEqualTo(1);
+        assertThat(response.downVotes()).isZero();
+    }
+
+    @Test
+    void switchingUpvoteToDownvoteMovesScoreByTwo() {
+        when(voteRepository.findForUpdate(post, VOTER_ID)).thenReturn(Optional.of(existingVote(1)));
+        post.applyVoteDelta(1, 1);
+
+        PostDtos.PostResponse response = postService.vote(POST_ID, VOTER_ID, -1);
+
+        verify(postRepository).applyVoteDelta(POST_ID, -2, -1);
+        assertThat(response.upVotes()).isZero();
+        assertThat(response.downVotes()).isEqualTo(1);
+    }
+
+    @Test
+    void repeatedDownvoteIsToggledOff() {
+        PostVote vote = existingVote(-1);
+        when(voteRepository.findForUpdate(post, VOTER_ID)).thenReturn(Optional.of(vote));
+        post.applyVoteDelta(-1, 0);
+
+        postService.vote(POST_ID, VOTER_ID, -1);
+
+        assertThat(vote.getValue()).isZero();
+        verify(postRepository).applyVoteDelta(POST_ID, 1, 0);
+    }
+
+    @Test
+    void neutralVoteOnNeutralPostLeavesCountersAlone() {
+        when(voteRepository.findForUpdate(post, VOTER_ID)).thenReturn(Optional.empty());
+
+        postService.vote(POST_ID, VOTER_ID, 0);
+
+        verify(postRepository, never()).applyVoteDelta(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void topPostsFollowCachedRankingAndSkipDeletedPosts() {
+        Post first = post(3L);
+        Post second = post(1L);
+        when(topPostsCache.topIds(TopPostsCache.TopRange.ALL)).thenReturn(List.of(3L, 9L, 1L, 4L));
+        when(postRepository.findAllById(List.of(3L, 9L, 1L))).thenReturn(List.of(second, first));
+        PostVote vote = new PostVote();
+        vote.setPost(second);
+        vote.setUserId(VOTER_ID);
+        vote.setValue(-1);
+        when(voteRepository.findByUserIdAndPostIds(eq(VOTER_ID), any())).thenReturn(List.of(vote));
+
+        List<PostDtos.FrontendPost> top = postService.getTop("all", 3, VOTER_ID, false);
+
+        assertThat(top).extracting(PostDtos.FrontendPost::id).containsExactly(3L, 1L);
+        assertThat(top).extracting(p -> p.stats().userVote()).containsExactly(null, -1);
+    }
+
+    private PostVote existingVote(int value) {
+        PostVote vote = new PostVote();
+        ReflectionTestUtils.setField(vote, "id", 100L);
+        vote.setPost(post);
+        vote.setUserId(VOTER_ID);
+        vote.setValue(value);
+        return vote;
+    }
+
+    private static Post post(Long id) {
+        Post post = new Post();
+        ReflectionTestUtils.setField(post, "id", id);
+        post.setAuthorId(AUTHOR_ID);
+        post.setContent("post " + id);
+        return post;
+    }
+}
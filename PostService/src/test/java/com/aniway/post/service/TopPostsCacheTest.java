@@ -0,0 +1,105 @@
+package com.aniway.post.service;
+
+import com.aniway.post.repo.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TopPostsCacheTest {
+
+    private PostRepository postRepository;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        when(postRepository.findTopIdsAll(any(Pageable.class))).thenReturn(List.of(3L, 1L, 2L));
+        when(postRepository.findTopIdsSince(any(Instant.class), any(Pageable.class))).thenReturn(List.of(5L));
+    }
+
+    @Test
+    void freshSnapshotIsServedFromMemory() {
+        TopPostsCache cache = new TopPostsCache(postRepository, Duration.ofMinutes(1), Duration.ofMinutes(10));
+
+        assertThat(cache.topIds(TopPostsCache.TopRange.ALL)).containsExactly(3L, 1L, 2L);
+        assertThat(cache.topIds(TopPostsCache.TopRange.ALL)).containsExactly(3L, 1L, 2L);
+
+        verify(postRepository, times(1)).findTopIdsAll(any(Pageable.class));
+    }
+
+    @Test
+    void staleSnapshotIsReloadedOnRequest() {
+        TopPostsCache cache = new TopPostsCache(postRepository, Duration.ZERO, Duration.ofMinutes(10));
+
+        cache.topIds(TopPostsCache.TopRange.ALL);
+        cache.topIds(TopPostsCache.TopRange.ALL);
+
+        verify(postRepository, times(2)).findTopIdsAll(any(Pageable.class));
+    }
+
+    @Test
+    void rangesUseTheirOwnWindow() {
+        TopPostsCache cache = new TopPostsCache(postRepository, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        Instant before = Instant.now();
+
+        assertThat(cache.topIds(TopPostsCache.TopRange.WEEK)).containsExactly(5L);
+
+        verify(postRepository).findTopIdsSince(
+                argThat(since -> !since.isBefore(before.minus(Duration.ofDays(7)))
+                        && !since.isAfter(Instant.now().minus(Duration.ofDays(7)))),
+                argThat(pageable -> pageable.getPageSize() == TopPostsCache.MAX_CACHED));
+        verify(postRepository, never()).findTopIdsAll(any(Pageable.class));
+    }
+
+    @Test
+    void refreshReloadsRequestedRangesAndDropsIdleOnes() {
+        TopPostsCache cache = new TopPostsCache(postRepository, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        cache.topIds(TopPostsCache.TopRange.ALL);
+        cache.topIds(TopPostsCache.TopRange.TODAY);
+        @SuppressWarnings("unchecked")
+        Map<TopPostsCache.TopRange, Instant> lastRequested =
+                (Map<TopPostsCache.TopRange, Instant>) ReflectionTestUtils.getField(cache, "lastRequested");
+        lastRequested.put(TopPostsCache.TopRange.TODAY, Instant.now().minus(Duration.ofHours(1)));
+
+        cache.refresh();
+
+        verify(postRepository, times(2)).findTopIdsAll(any(Pageable.class));
+        verify(postRepository, times(1)).findTopIdsSince(any(Instant.class), any(Pageable.class));
+        assertThat(lastRequested).containsOnlyKeys(TopPostsCache.TopRange.ALL);
+    }
+
+    @Test
+    void failedRefreshKeepsPreviousSnapshot() {
+        TopPostsCache cache = new TopPostsCache(postRepository, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        cache.topIds(TopPostsCache.TopRange.ALL);
+        when(postRepository.findTopIdsAll(any(Pageable.class))).thenThrow(new IllegalStateException("db down"));
+
+        cache.refresh();
+
+        assertThat(cache.topIds(TopPostsCache.TopRange.ALL)).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void rangeParsingAcceptsKnownAliases() {
+        assertThat(TopPostsCache.TopRange.parse(null)).isEqualTo(TopPostsCache.TopRange.ALL);
+        assertThat(TopPostsCache.TopRange.parse("today")).isEqualTo(TopPostsCache.TopRange.TODAY);
+        assertThat(TopPostsCache.TopRange.parse("7d")).isEqualTo(TopPostsCache.TopRange.WEEK);
+        assertThat(TopPostsCache.TopRange.parse("30")).isEqualTo(TopPostsCache.TopRange.MONTH);
+        assertThatThrownBy(() -> TopPostsCache.TopRange.parse("year")).isInstanceOf(IllegalArgumentException.class);
+    }
+}